@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.examples;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.util.Random;
+
+import org.apache.log4j.BasicConfigurator;
+import org.apache.log4j.Level;
+import org.apache.log4j.Logger;
+import org.orekit.data.DataProvidersManager;
+import org.orekit.errors.OrekitException;
+import org.orekit.propagation.analytical.tle.TLE;
+import org.orekit.time.TimeScalesFactory;
+
+import edu.mit.fss.EnsembleRunner;
+import edu.mit.fss.EnsembleScenario;
+import edu.mit.fss.MergeableStatistics;
+import edu.mit.fss.SimObject;
+import edu.mit.fss.examples.member.SpaceSystem;
+
+/**
+ * The sample ISS ensemble executes a Monte Carlo ensemble of the ISS 
+ * {@link SpaceSystem} within a single process using an 
+ * {@link EnsembleRunner}. Each run perturbs the initial time and maximum 
+ * slant range and records the power stored and umbra fraction.
+ * 
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class ISSEnsemble implements EnsembleScenario {
+	private static Logger logger = Logger.getLogger("edu.mit.fss");
+	
+	/**
+	 * The main method. This configures the Orekit data path, loads the ISS
+	 * two-line elements and executes the ensemble.
+	 *
+	 * @param args the arguments
+	 * @throws URISyntaxException 
+	 * @throws IOException 
+	 * @throws OrekitException 
+	 * @throws InterruptedException 
+	 */
+	public static void main(String[] args) throws URISyntaxException, 
+			IOException, OrekitException, InterruptedException {
+		BasicConfigurator.configure();
+		Logger.getRootLogger().setLevel(Level.INFO);
+		
+		logger.debug("Setting Orekit data path.");
+		System.setProperty(DataProvidersManager.OREKIT_DATA_PATH,
+		        new File(ISSEnsemble.class.getResource(
+		        		"/orekit-data.zip").toURI()).getAbsolutePath());
+
+		logger.debug("Loading TLE data from file.");
+		BufferedReader br = new BufferedReader(new InputStreamReader(
+				ISSEnsemble.class.getClassLoader().getResourceAsStream(
+						"edu/mit/fss/examples/data.tle")));
+		TLE tle = null;
+		while(br.ready() && tle == null) {
+			if(br.readLine().matches(".*ISS.*")) {
+				logger.debug("Found ISS data.");
+				tle = new TLE(br.readLine(), br.readLine());
+			}
+		}
+		br.close();
+		if(tle == null) {
+			logger.fatal("Missing ISS data.");
+			return;
+		}
+		
+		int numberOfRuns = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		EnsembleRunner runner = new EnsembleRunner(new ISSEnsemble(tle), 
+				numberOfRuns, Runtime.getRuntime().availableProcessors());
+		runner.setNumberOfSteps(24*60);
+		runner.setObservationStride(10);
+		runner.run();
+		
+		for(String metric : runner.getMetrics()) {
+			MergeableStatistics runMeans = runner.getRunMeanStatistics(metric);
+			logger.info(metric + ": " + runner.getStatistics(metric));
+			logger.info(metric + " (run means): " + runMeans);
+		}
+		logger.info("Completed " + runner.getCompletedRuns() 
+				+ " runs with " + runner.getFailedRuns() + " failures.");
+	}
+	
+	private final TLE tle;
+	
+	/**
+	 * Instantiates a new ISS ensemble with nominal two-line elements.
+	 *
+	 * @param tle the two-line elements
+	 */
+	public ISSEnsemble(TLE tle) {
+		this.tle = tle;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.EnsembleScenario#configure(edu.mit.fss.EnsembleRunner.Run, java.util.Random)
+	 */
+	@Override
+	public void configure(EnsembleRunner.Run run, Random random) 
+			throws OrekitException {
+		// perturb slant range by up to 10% and start time by up to one day
+		double maxSlantRange = 5123e3*(0.9 + 0.2*random.nextDouble());
+		long startOffset = (long) (random.nextDouble()*24*60*60*1000);
+		
+		SpaceSystem satellite = new SpaceSystem("FSS Supplier " 
+				+ run.getIndex(), tle, maxSlantRange);
+		run.getFederate().addObject(satellite);
+		run.getFederate().setTimeStep(60*1000);
+		run.getFederate().setInitialTime(satellite.getInitialState()
+				.getDate().toDate(TimeScalesFactory.getUTC()).getTime() 
+				+ startOffset);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.EnsembleScenario#observe(edu.mit.fss.EnsembleRunner.Run)
+	 */
+	@Override
+	public void observe(EnsembleRunner.Run run) {
+		for(SimObject object : run.getFederate().getObjects()) {
+			if(object instanceof SpaceSystem) {
+				SpaceSystem satellite = (SpaceSystem) object;
+				run.record("Power Stored (W-hr)", 
+						satellite.getPowerSubsystem().getPowerStored());
+				run.record("Umbra Fraction", satellite.isInUmbra() ? 1 : 0);
+			}
+		}
+	}
+}
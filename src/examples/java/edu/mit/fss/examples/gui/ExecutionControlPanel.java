@@ -32,6 +32,7 @@ import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 
@@ -48,13 +49,14 @@ import edu.mit.fss.hla.FederationConnection;
 /**
  * A graphical user interface component to control a simulation execution
  * with actions to initialize, run, stop, and terminate. Also includes options
- * to modify the simulation time step and associated minimum duration. This 
+ * to modify the simulation time step and associated minimum duration and to
+ * change the time scale (ratio of simulation to wallclock time) live. This 
  * component must be registered with a {@link FederationConnection} as a 
  * {@link ConnectionListener} and with a {@link Federate} as a 
  * {@link ExecutionControlListener}.
  *  
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class ExecutionControlPanel extends JPanel 
@@ -78,6 +80,27 @@ public class ExecutionControlPanel extends JPanel
 			return abbreviation;
 		}
 	}
+	private static enum TimeScale {
+		MINIMUM_STEP_DURATION("Min. Duration", 0),
+		REAL_TIME("1x", 1),
+		TEN("10x", 10),
+		MINUTE_PER_SECOND("60x", 60),
+		TEN_MINUTES_PER_SECOND("600x", 600),
+		HOUR_PER_SECOND("3600x", 3600),
+		MAXIMUM("Max", Double.POSITIVE_INFINITY);
+		
+		public final String label;
+		public final double scale;
+		
+		private TimeScale(String label, double scale) {
+			this.label = label;
+			this.scale = scale;
+		}
+		
+		public String toString() {
+			return label;
+		}
+	}
 	private static Logger logger = Logger.getLogger(ExecutionControlPanel.class);
 	private static final long serialVersionUID = -7014074954503228524L;
 	private static ImageIcon initializeIcon = new ImageIcon(
@@ -98,6 +121,20 @@ public class ExecutionControlPanel extends JPanel
 	private final JComboBox<TimeUnit> 
 			timeStepUnits = new JComboBox<TimeUnit>(TimeUnit.values()),
 			stepDurationUnits = new JComboBox<TimeUnit>(TimeUnit.values());
+	private final JComboBox<TimeScale> timeScales = 
+			new JComboBox<TimeScale>(TimeScale.values());
+	private final JLabel achievedTimeScaleLabel = new JLabel();
+	private final NumberFormat achievedFormat = 
+			NumberFormat.getNumberInstance();
+	private final Timer achievedTimeScaleTimer = new Timer(1000, 
+			new ActionListener() {
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			double achieved = federate.getAchievedTimeScale();
+			achievedTimeScaleLabel.setText(Double.isNaN(achieved) ? "" : 
+				"(" + achievedFormat.format(achieved) + "x)");
+		}
+	});
 	
 	private AtomicBoolean initializing = new AtomicBoolean(false),
 			running = new AtomicBoolean(false),
@@ -327,6 +364,23 @@ public class ExecutionControlPanel extends JPanel
 		});
 		buttonPanel.add(new JButton(setMinStepDurationAction));
 		
+		buttonPanel.add(new JLabel("Time Scale"));
+		timeScales.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				// apply new time scale at the next time step
+				TimeScale timeScale = (TimeScale) timeScales.getSelectedItem();
+				if(federate != null && timeScale.scale 
+						!= federate.getTimeScale()) {
+					logger.info("Setting time scale to " + timeScale + ".");
+					federate.setTimeScale(timeScale.scale);
+				}
+			}
+		});
+		buttonPanel.add(timeScales);
+		achievedFormat.setMaximumFractionDigits(1);
+		buttonPanel.add(achievedTimeScaleLabel);
+		
 		add(buttonPanel, BorderLayout.CENTER);
 	}
 	
@@ -388,6 +442,9 @@ public class ExecutionControlPanel extends JPanel
 				// enable stop/terminate actions
 				stopAction.setEnabled(true);
 				terminateAction.setEnabled(true);
+				
+				// start updating achieved time scale
+				achievedTimeScaleTimer.start();
 			}
 		});
 	}
@@ -407,6 +464,9 @@ public class ExecutionControlPanel extends JPanel
 				// enable stop action and terminate action (if not terminating)
 				stopAction.setEnabled(false);
 				terminateAction.setEnabled(!terminating.get());
+				
+				// stop updating achieved time scale
+				achievedTimeScaleTimer.stop();
 			}
 		});
 	}
@@ -469,5 +529,14 @@ public class ExecutionControlPanel extends JPanel
 		timeStepField.setValue(federate.getTimeStep() / (double) getTimeStepUnits());
 		stepDurationField.setValue(federate.getMinimumStepDuration() 
 				/ (double) getStepDurationUnits());
+		
+		// select the time scale option closest to the federate time scale
+		TimeScale selected = TimeScale.MINIMUM_STEP_DURATION;
+		for(TimeScale timeScale : TimeScale.values()) {
+			if(timeScale.scale <= federate.getTimeScale()) {
+				selected = timeScale;
+			}
+		}
+		timeScales.setSelectedItem(selected);
 	}
 }
@@ -45,17 +45,23 @@ import edu.mit.fss.Element;
 import edu.mit.fss.OrbitalElement;
 import edu.mit.fss.ReferenceFrame;
 import edu.mit.fss.SimObject;
+import edu.mit.fss.SpeculativeObject;
 import edu.mit.fss.SurfaceElement;
 
 /**
  * An implementation of the {@link OrbitalElement} interface using
  * the Orekit library for state propagation and geometric calculations.
+ * <p>
+ * Propagation only depends on this element's own state, so the element is
+ * a {@link SpeculativeObject} whose speculative ticks are never 
+ * invalidated by remote objects or interactions.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
  * @version 0.2.1
  * @since 0.1.0
  */
-public class OrekitOrbitalElement implements OrbitalElement, SimObject {
+public class OrekitOrbitalElement implements OrbitalElement, 
+		SpeculativeObject {
 	private static Logger logger = Logger.getLogger(OrekitOrbitalElement.class);
 	
 	private final String name;
@@ -315,6 +321,15 @@ public class OrekitOrbitalElement implements OrbitalElement, SimObject {
 		tock();
 	}
 	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.SpeculativeObject#isAffectedBy(java.lang.Object)
+	 */
+	@Override
+	public boolean isAffectedBy(Object object) {
+		// propagation only depends on this element's own state
+		return false;
+	}
+	
 	/**
 	 * Checks if this element is in penumbra.
 	 *
@@ -21,6 +21,7 @@ import java.util.HashSet;
 import org.apache.commons.math3.util.FastMath;
 import org.apache.log4j.Logger;
 
+import edu.mit.fss.PeriodicObject;
 import edu.mit.fss.SimObject;
 
 /**
@@ -29,12 +30,16 @@ import edu.mit.fss.SimObject;
  * is used to handle insufficient generation and surplus power is stored up to
  * the storage capacity. This implementation does not handle 
  * insufficient/excess power storage conditions.
+ * <p>
+ * Power state changes slowly relative to orbital motion, so this subsystem 
+ * is only updated once per update period (ten minutes by default) and 
+ * integrates over the full time elapsed since its previous update.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
-public class SpacePowerSubsystem implements SimObject {
+public class SpacePowerSubsystem implements PeriodicObject {
 	private static Logger logger = Logger.getLogger(SpacePowerSubsystem.class);
 	
 	private final SpaceSystem satellite;
@@ -46,6 +51,7 @@ public class SpacePowerSubsystem implements SimObject {
 	private final double storageCapacity = 10; // W-hr
 	private final double storageEfficiency = 1; // --
 	private final double retrievalEfficiency = 1; // --
+	private long updatePeriod = 10*60*1000; // ms
 	
 	private double powerStored; // W-hr
 	private transient double nextPowerStored; // W-hr
@@ -113,6 +119,14 @@ public class SpacePowerSubsystem implements SimObject {
 		return satellite.getPowerConsumption();
 	}
 	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.PeriodicObject#getUpdatePeriod()
+	 */
+	@Override
+	public long getUpdatePeriod() {
+		return updatePeriod;
+	}
+	
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.SimObject#initialize(long)
 	 */
@@ -120,6 +134,19 @@ public class SpacePowerSubsystem implements SimObject {
 	public void initialize(long time) {
 		powerStored = initialStored;
 	}
+	
+	/**
+	 * Sets this subsystem's update period (milliseconds).
+	 *
+	 * @param updatePeriod the update period
+	 */
+	public void setUpdatePeriod(long updatePeriod) {
+		if(updatePeriod < 0) {
+			throw new IllegalArgumentException(
+					"Update period cannot be negative.");
+		}
+		this.updatePeriod = updatePeriod;
+	}
 
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.SimObject#tick(long)
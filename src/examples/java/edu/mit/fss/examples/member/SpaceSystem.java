@@ -26,14 +26,25 @@ import edu.mit.fss.SimObject;
 /**
  * A space system composing a {@link SpacePowerSubsystem} 
  * and {@link SpaceCommSubsystem} subsystem components.
+ * <p>
+ * The subsystem ticks only depend on this system's own state, so like 
+ * other {@link OrekitOrbitalElement} objects it may be ticked 
+ * speculatively with pipelined ticks.
+ * <p>
+ * The power subsystem is a {@link edu.mit.fss.PeriodicObject}, so it is 
+ * only ticked once its update period has elapsed over the full time since 
+ * its previous update.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class SpaceSystem extends OrekitOrbitalElement {
 	private final SpacePowerSubsystem powerSubsystem;
 	private final SpaceCommSubsystem commSubsystem;
+	private long powerElapsed; // ms
+	private transient long nextPowerElapsed; // ms
+	private transient boolean powerDue;
 	
 	/**
 	 * Instantiates a new space system.
@@ -108,6 +119,7 @@ public class SpaceSystem extends OrekitOrbitalElement {
 	@Override
 	public void initialize(long time) {
 		super.initialize(time);
+		powerElapsed = 0;
 		powerSubsystem.initialize(time);
 		commSubsystem.initialize(time);
 	}
@@ -118,7 +130,13 @@ public class SpaceSystem extends OrekitOrbitalElement {
 	@Override
 	public void tick(long duration) {
 		super.tick(duration);
-		powerSubsystem.tick(duration);
+		// only tick power subsystem once its update period has elapsed
+		long elapsed = powerElapsed + duration;
+		powerDue = elapsed >= powerSubsystem.getUpdatePeriod();
+		if(powerDue) {
+			powerSubsystem.tick(elapsed);
+		}
+		nextPowerElapsed = powerDue ? 0 : elapsed;
 		commSubsystem.tick(duration);
 	}
 	
@@ -128,7 +146,10 @@ public class SpaceSystem extends OrekitOrbitalElement {
 	@Override
 	public void tock() {
 		super.tock();
-		powerSubsystem.tock();
+		if(powerDue) {
+			powerSubsystem.tock();
+		}
+		powerElapsed = nextPowerElapsed;
 		commSubsystem.tock();
 	}
 	
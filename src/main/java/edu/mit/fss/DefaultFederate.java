@@ -18,11 +18,20 @@ package edu.mit.fss;
 import hla.rti1516e.exceptions.RTIexception;
 import hla.rti1516e.exceptions.RTIinternalError;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
 import javax.swing.event.EventListenerList;
 
@@ -48,6 +57,55 @@ import edu.mit.fss.hla.FederationConnection;
  * {@link #initialize()}, {@link #run()}, {@link #tickTock()}, 
  * {@link #stop()}, {@link #terminate()}, {@link #disconnect()}, and 
  * {@link #exit()}.
+ * <p>
+ * Local simulation objects are kept in a {@link SimObjectRegistry}: objects
+ * added or removed with {@link #addObject(SimObject)} and 
+ * {@link #removeObject(SimObject)} take effect at the next time step 
+ * boundary without waiting for the current step to complete.
+ * <p>
+ * The tick phase of each time step may optionally be executed in parallel
+ * by assigning a {@link ForkJoinPool} with {@link #setTickPool(ForkJoinPool)}.
+ * Simulation objects are then ticked in work-stealing partitions of at 
+ * most {@link #getParallelTickThreshold()} objects while the tock phase 
+ * and all object updates remain on the simulation thread. This mode 
+ * requires that the {@link SimObject#tick(long)} method of each object 
+ * only reads (and never changes) visible state of other objects.
+ * <p>
+ * For offline analysis, {@link #runBatch(long, long, int)} executes a 
+ * bounded number of time steps as fast as possible without wallclock 
+ * pacing and notifies simulation time listeners at a configurable stride.
+ * <p>
+ * In next-event mode (see {@link #setNextEventAdvance(boolean)}) each time
+ * step advances directly to the earliest next event time reported by 
+ * local {@link DiscreteEventObject} objects (or the regular time step for 
+ * other objects) using {@link FSSambassador#advanceToNextEvent(long)}, 
+ * but no further than a next-event horizon (see 
+ * {@link #setNextEventHorizon(long)}).
+ * <p>
+ * With multi-rate scheduling (see {@link #setMultiRateScheduling(boolean)})
+ * each {@link PeriodicObject} is only ticked, tocked, and updated once its
+ * own update period elapses while all other objects are updated every 
+ * fixed time step.
+ * <p>
+ * The {@link #run()} loop paces time steps on a fixed wallclock timeline 
+ * spaced by the minimum step duration using a {@link StepPacer}, which 
+ * avoids accumulating sleep overshoot and recovers late steps according 
+ * to its catch-up policy. Alternatively, a target ratio of simulation time 
+ * to wallclock time (see {@link #setTimeScale(double)}) paces each time 
+ * step by its simulated duration and the achieved ratio is reported by 
+ * {@link #getAchievedTimeScale()}.
+ * <p>
+ * With pipelined ticks (see {@link #setPipelinedTick(boolean)}) local 
+ * {@link SpeculativeObject} objects are speculatively ticked for the next
+ * time step while waiting for the time advance grant. Speculative ticks 
+ * invalidated by remote changes or interactions are recomputed after the 
+ * grant.
+ * <p>
+ * In event-loop mode (see {@link #runAsync(ScheduledExecutorService)}) 
+ * each time step is composed as a future of the non-blocking
+ * {@link FSSambassador#advanceToAsync(long, java.util.concurrent.Executor)}
+ * advance and the next step is scheduled on an executor rather than 
+ * blocking a thread, so one executor thread may drive several federates.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
  * @version 0.2.1
@@ -57,16 +115,55 @@ public class DefaultFederate implements Federate {
 	private static Logger logger = Logger.getLogger(DefaultFederate.class);
 	private final FSSambassador ambassador;
 	private final EventListenerList listenerList = new EventListenerList();
-	private final Set<SimObject> localObjects = Collections.synchronizedSet(
-			new HashSet<SimObject>());
+	private final SimObjectRegistry localObjects = new SimObjectRegistry();
+	private final SimObjectRegistry.ChangeHandler localObjectHandler = 
+			new SimObjectRegistry.ChangeHandler() {
+		@Override
+		public void objectAdded(SimObject object) {
+			tickPipeline.localObjectAdded(object);
+			if(initialized.get()) {
+				// initialize object at the current time step boundary
+				object.initialize(time);
+				// add object to federation if simulation is initialized
+				ambassador.scheduleObjectCreation(object);
+			}
+		}
+		@Override
+		public void objectRemoved(SimObject object) {
+			tickPipeline.localObjectRemoved(object);
+			if(initialized.get()) {
+				// delete object from federation if simulation is initialized
+				ambassador.scheduleObjectDeletion(object);
+			}
+		}
+	};
 	private long initialTime, finalTime, timeStep;
 	private long minimumStepDuration, lookahead;
 	private long time;
+	private long batchEndTime = Long.MAX_VALUE;
 	private AtomicBoolean initialized = new AtomicBoolean(false);
 	private volatile AtomicBoolean running = new AtomicBoolean(false);
 	private volatile AtomicBoolean stopping = new AtomicBoolean(false);
 	private volatile AtomicBoolean terminating = new AtomicBoolean(false);
+	private final Lock runningLock = new ReentrantLock();
+	private final Condition runningExited = runningLock.newCondition();
+	private volatile long stopTimeout = 0;
+	private volatile boolean nextEventAdvance = false;
+	private volatile long nextEventHorizon = 0;
+	private volatile boolean multiRateScheduling = false;
+	private final MultiRateScheduler multiRateScheduler = 
+			new MultiRateScheduler();
+	private boolean multiRateAnchored = false;
+	private volatile boolean pipelinedTick = false;
+	private final TickPipeline tickPipeline = new TickPipeline();
 	private volatile long nextTimeStep, nextMinimumStepDuration, nextFinalTime;
+	private volatile ForkJoinPool tickPool = null;
+	private volatile int parallelTickThreshold = 4;
+	private final StepPacer stepPacer = new StepPacer();
+	private volatile double timeScale = 0;
+	private volatile double achievedTimeScale = Double.NaN;
+	private long lastReleaseNanos;
+	private double smoothedStepTime, smoothedStepNanos;
 	
 	/**
 	 * Instantiates a new default federate using a {@link DefaultAmbassador} 
@@ -96,6 +193,7 @@ public class DefaultFederate implements Federate {
 		nextTimeStep = timeStep;
 		nextMinimumStepDuration = minimumStepDuration;
 		nextFinalTime = finalTime;
+		ambassador.addObjectChangeListener(tickPipeline);
 	}
 	
 	/* (non-Javadoc)
@@ -110,14 +208,8 @@ public class DefaultFederate implements Federate {
 	 * @see edu.mit.fss.Federate#addObject(edu.mit.fss.SimObject)
 	 */
 	@Override
-	public synchronized void addObject(SimObject object) {
-		if(initialized.get()) {
-			// thread safe initialization as tickTock is synchronized
-			object.initialize(time);
-			// add object to federation if simulation is initialized
-			ambassador.scheduleObjectCreation(object);
-		}
-		// add objec to local simulation objects
+	public void addObject(SimObject object) {
+		// add object to local simulation objects at next step boundary
 		localObjects.add(object);
 	}
 
@@ -137,6 +229,147 @@ public class DefaultFederate implements Federate {
 		listenerList.add(SimulationTimeListener.class, listener);
 	}
 	
+	/**
+	 * Advances the simulation by one time step without notifying any 
+	 * simulation time listeners or waiting for the minimum step duration. 
+	 * Applies any pending changes to time step, minimum step duration, 
+	 * final time, and local objects before ticking and tocking all local 
+	 * objects and advancing the ambassador to the new simulation time.
+	 */
+	private void advanceStep() {
+		SimObject[] objects = beginStep();
+
+		if(nextEventAdvance) {
+			long eventTime = FastMath.min(getNextEventTime(objects), 
+					FastMath.min(finalTime, batchEndTime));
+			logger.trace("Advancing simulation time to next event.");
+			long grantedTime = ambassador.advanceToNextEvent(eventTime);
+			multiRateAnchored = false;
+			tickObjects(objects, objects.length, null, 
+					grantedTime - time, tickPool);
+			tockObjects(objects, objects.length);
+			time = grantedTime;
+		} else {
+			tickTockStep(objects);
+			logger.trace("Advancing simulation time.");
+			ambassador.advanceTo(time);
+		}
+	}
+
+	/**
+	 * Advances the simulation by one time step in event-loop mode. Ticks 
+	 * and tocks all local objects on the calling thread and requests the 
+	 * time advance without blocking. The next step is scheduled on the 
+	 * executor after the grant and the wallclock deadline of this step; 
+	 * the completion future is completed when the running loop exits, or
+	 * completed exceptionally if the step or its continuation fails.
+	 *
+	 * @param executor the executor
+	 * @param completion the completion
+	 * @param deadline the previous step deadline (ns)
+	 */
+	private void advanceStepAsync(final ScheduledExecutorService executor, 
+			final CompletableFuture<Void> completion, final long deadline) {
+		if(time >= getFinalTime() || stopping.get() || terminating.get()) {
+			exitRunningLoop();
+			completion.complete(null);
+			return;
+		}
+		final long startTime = time;
+		CompletableFuture<Long> grant;
+		try {
+			synchronized(this) {
+				tickTockStep(beginStep());
+				logger.trace("Requesting asynchronous time advance.");
+				grant = ambassador.advanceToAsync(time, executor);
+			}
+		} catch(RuntimeException e) {
+			failRunningLoop(completion, e);
+			return;
+		}
+		grant.whenCompleteAsync(new BiConsumer<Long, Throwable>() {
+			@Override
+			public void accept(Long grantedTime, Throwable failure) {
+				if(failure != null) {
+					failRunningLoop(completion, failure);
+					return;
+				}
+				try {
+					fireSimulationTimeAdvancedEvent();
+					// schedule the next step on a fixed wallclock timeline
+					long now = System.nanoTime();
+					final long nextDeadline = FastMath.max(now, 
+							deadline + getStepPeriod(time - startTime));
+					updateAchievedTimeScale(time - startTime);
+					executor.schedule(new Runnable() {
+						@Override
+						public void run() {
+							advanceStepAsync(executor, completion, nextDeadline);
+						}
+					}, nextDeadline - now, TimeUnit.NANOSECONDS);
+				} catch(RuntimeException e) {
+					failRunningLoop(completion, e);
+				}
+			}
+		}, executor);
+	}
+
+	/**
+	 * Begins a time step by applying any pending changes to time step, 
+	 * minimum step duration, final time, and local objects after waiting
+	 * for any speculative ticks. Returns the local objects.
+	 *
+	 * @return the objects
+	 */
+	private SimObject[] beginStep() {
+		timeStep = nextTimeStep;
+		minimumStepDuration = nextMinimumStepDuration;
+		finalTime = nextFinalTime;
+
+		logger.trace("Waiting for speculative ticks.");
+		tickPipeline.await();
+
+		logger.trace("Applying pending object additions and removals.");
+		localObjects.commit(localObjectHandler);
+		return localObjects.getObjects();
+	}
+
+	/**
+	 * Raises a stopping or terminating {@link flag} if a running loop is 
+	 * active and blocks until the running loop exits or the stop timeout 
+	 * elapses.
+	 *
+	 * @param flag the flag
+	 */
+	private void awaitRunningExit(AtomicBoolean flag) {
+		runningLock.lock();
+		try {
+			if(!running.get()) {
+				return;
+			}
+			flag.set(true);
+			long timeout = stopTimeout;
+			long remaining = TimeUnit.MILLISECONDS.toNanos(timeout);
+			// wait until the running loop clears the flag
+			while(flag.get()) {
+				if(timeout <= 0) {
+					runningExited.await();
+				} else if(remaining <= 0) {
+					logger.warn("Running loop did not exit within " 
+							+ timeout + " ms, continuing.");
+					return;
+				} else {
+					remaining = runningExited.awaitNanos(remaining);
+				}
+			}
+		} catch(InterruptedException e) {
+			logger.warn("Interrupted while waiting for the running loop to exit.");
+			Thread.currentThread().interrupt();
+		} finally {
+			runningLock.unlock();
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Federate#connect()
 	 */
@@ -221,6 +454,14 @@ public class DefaultFederate implements Federate {
 		}
 	}
 	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.Federate#getAchievedTimeScale()
+	 */
+	@Override
+	public double getAchievedTimeScale() {
+		return achievedTimeScale;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.gui.Federate#getConnection()
 	 */
@@ -253,6 +494,140 @@ public class DefaultFederate implements Federate {
 		return minimumStepDuration;
 	}
 
+	/**
+	 * Gets the maximum time in milliseconds a next-event advance may jump 
+	 * ahead of the current time.
+	 *
+	 * @return the next-event horizon, or zero to use the time step
+	 */
+	public long getNextEventHorizon() {
+		return nextEventHorizon;
+	}
+
+	/**
+	 * Gets an unmodifiable view of the local simulation objects as of the
+	 * last time step boundary.
+	 *
+	 * @return the objects
+	 */
+	public List<SimObject> getObjects() {
+		return Collections.unmodifiableList(
+				Arrays.asList(localObjects.getObjects()));
+	}
+
+	/**
+	 * Gets the maximum number of simulation objects ticked sequentially 
+	 * within one partition of a parallel tick phase.
+	 *
+	 * @return the parallel tick threshold
+	 */
+	public int getParallelTickThreshold() {
+		return parallelTickThreshold;
+	}
+
+	/**
+	 * Gets the earliest next event time among {@link objects}, no later 
+	 * than the next-event horizon after the current time (which also bounds
+	 * the advance if there are no objects or no pending events). Objects 
+	 * which are not {@link DiscreteEventObject} instances require an event 
+	 * after the current time step. The result is always after the current 
+	 * time.
+	 *
+	 * @param objects the objects
+	 * @return the next event time
+	 */
+	private long getNextEventTime(SimObject[] objects) {
+		long horizon = nextEventHorizon > 0 ? nextEventHorizon : timeStep;
+		long eventTime = horizon > Long.MAX_VALUE - time ? 
+				Long.MAX_VALUE : time + horizon;
+		for(int i = 0; i < objects.length; i++) {
+			if(objects[i] instanceof DiscreteEventObject) {
+				eventTime = FastMath.min(eventTime, 
+						((DiscreteEventObject) objects[i]).getNextEventTime());
+			} else {
+				eventTime = FastMath.min(eventTime, time + timeStep);
+			}
+		}
+		// always advance beyond the current time
+		return FastMath.max(eventTime, time + 1);
+	}
+
+	/**
+	 * Gets the number of speculative ticks used since this federate was 
+	 * instantiated.
+	 *
+	 * @return the speculative tick hit count
+	 */
+	public long getSpeculativeTickHits() {
+		return tickPipeline.getHitCount();
+	}
+
+	/**
+	 * Gets the number of speculative ticks which were invalidated or 
+	 * otherwise recomputed since this federate was instantiated.
+	 *
+	 * @return the speculative tick miss count
+	 */
+	public long getSpeculativeTickMisses() {
+		return tickPipeline.getMissCount();
+	}
+
+	/**
+	 * Gets the pacer which releases time steps at intervals of the minimum 
+	 * step duration, for example to set its catch-up policy or read its 
+	 * lateness and jitter histograms.
+	 *
+	 * @return the step pacer
+	 */
+	public StepPacer getStepPacer() {
+		return stepPacer;
+	}
+
+	/**
+	 * Gets the maximum wallclock time in milliseconds that {@link #stop()} 
+	 * and {@link #terminate()} wait for a running loop to exit. A value of 
+	 * zero waits indefinitely.
+	 *
+	 * @return the stop timeout
+	 */
+	public long getStopTimeout() {
+		return stopTimeout;
+	}
+
+	/**
+	 * Gets the fork-join pool used to execute the tick phase in parallel. 
+	 * Returns null if the tick phase is executed sequentially.
+	 *
+	 * @return the tick pool
+	 */
+	public ForkJoinPool getTickPool() {
+		return tickPool;
+	}
+
+	/**
+	 * Gets the wallclock period in nanoseconds to pace a time step which 
+	 * advanced simulation time by {@link duration} milliseconds.
+	 *
+	 * @param duration the simulated step duration
+	 * @return the step period
+	 */
+	private long getStepPeriod(long duration) {
+		double scale = timeScale;
+		if(scale > 0) {
+			// infinite scale runs as fast as possible
+			return FastMath.round(duration * 1e6 / scale);
+		}
+		return TimeUnit.MILLISECONDS.toNanos(minimumStepDuration);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.Federate#getTimeScale()
+	 */
+	@Override
+	public double getTimeScale() {
+		return timeScale;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.gui.Federate#getTimeStep()
 	 */
@@ -269,11 +644,11 @@ public class DefaultFederate implements Federate {
 		// update initial time -- federation may be in the future
 		time = ambassador.initialize(initialTime, lookahead);
 
-		synchronized(localObjects) {
-			for(SimObject object : localObjects) {
-				object.initialize(time);
-		        ambassador.scheduleObjectCreation(object);
-			}
+		localObjects.commit(localObjectHandler);
+		SimObject[] objects = localObjects.getObjects();
+		for(int i = 0; i < objects.length; i++) {
+			objects[i].initialize(time);
+	        ambassador.scheduleObjectCreation(objects[i]);
 		}
 
 		initialized.set(true);
@@ -281,6 +656,36 @@ public class DefaultFederate implements Federate {
 		fireSimulationTimeAdvancedEvent();
 	}
 	
+	/**
+	 * Checks if this federate schedules {@link PeriodicObject} objects at 
+	 * their own update periods.
+	 *
+	 * @return true, if multi-rate scheduling is enabled
+	 */
+	public boolean isMultiRateScheduling() {
+		return multiRateScheduling;
+	}
+
+	/**
+	 * Checks if this federate advances time to the next event time of its
+	 * local objects rather than by a fixed time step.
+	 *
+	 * @return true, if next-event advance is enabled
+	 */
+	public boolean isNextEventAdvance() {
+		return nextEventAdvance;
+	}
+
+	/**
+	 * Checks if this federate speculatively ticks objects for the next time
+	 * step while waiting for time advance grants.
+	 *
+	 * @return true, if pipelined ticks are enabled
+	 */
+	public boolean isPipelinedTick() {
+		return pipelinedTick;
+	}
+	
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Federate#removeExecutionControlListener(edu.mit.fss.gui.ExecutionControlListener)
 	 */
@@ -293,12 +698,8 @@ public class DefaultFederate implements Federate {
 	 * @see edu.mit.fss.Federate#removeObject(edu.mit.fss.SimObject)
 	 */
 	@Override
-	public synchronized void removeObject(SimObject object) {
-		if(initialized.get()) {
-			// delete object from federation if simulation is initialized
-			ambassador.scheduleObjectDeletion(object);
-		}
-		// remove from local simulation objects
+	public void removeObject(SimObject object) {
+		// remove from local simulation objects at next step boundary
 		localObjects.remove(object);
 	}
 
@@ -318,6 +719,17 @@ public class DefaultFederate implements Federate {
 		listenerList.remove(SimulationTimeListener.class, listener);
 	}
 
+	/**
+	 * Restarts the wallclock timeline used to pace time steps and to 
+	 * measure the achieved time scale.
+	 */
+	private void resetPacing() {
+		stepPacer.reset();
+		lastReleaseNanos = System.nanoTime();
+		smoothedStepTime = 0;
+		smoothedStepNanos = 0;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.gui.Federate#run(long)
 	 */
@@ -329,19 +741,145 @@ public class DefaultFederate implements Federate {
 		logger.trace("Running the federation.");
 		running.set(true);
 		fireExecutionStartedEvent();
-		while(time < getFinalTime() && !stopping.get() && !terminating.get()) {
-			tickTock();
+		resetPacing();
+		try {
+			while(time < getFinalTime() 
+					&& !stopping.get() && !terminating.get()) {
+				tickTock();
+			}
+		} finally {
+			exitRunningLoop();
 		}
-		logger.trace("Exiting the running loop.");
-		if(stopping.get()) {
-			stopping.set(false);
-			logger.trace("Federation has stopped.");
+	}
+
+	/**
+	 * Runs this federate in event-loop mode on an executor until the final 
+	 * time or until stopped or terminated. Each time step ticks and tocks 
+	 * local objects on the executor, requests a non-blocking time advance,
+	 * and schedules the next step once the advance is granted and the step
+	 * deadline (see {@link #setMinimumStepDuration(long)} and 
+	 * {@link #setTimeScale(double)}) has elapsed. Returns a future completed 
+	 * when the running loop exits. Next-event advance is not supported in 
+	 * this mode. The executor thread must not call {@link #stop()} or 
+	 * {@link #terminate()}, which wait for the running loop to exit.
+	 *
+	 * @param executor the executor
+	 * @return the future completion
+	 */
+	public CompletableFuture<Void> runAsync(
+			final ScheduledExecutorService executor) {
+		if(!initialized.get()) {
+			throw new IllegalStateException("Simulation is not initialized.");
+		}
+		if(nextEventAdvance) {
+			throw new IllegalStateException(
+					"Next-event advance is not supported in event-loop mode.");
 		}
-		if(terminating.get()) {
-			terminating.set(false);
-			logger.trace("Federation has terminated.");
+		logger.trace("Running the federation in event-loop mode.");
+		running.set(true);
+		fireExecutionStartedEvent();
+		resetPacing();
+		final CompletableFuture<Void> completion = 
+				new CompletableFuture<Void>();
+		final long deadline = System.nanoTime();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				advanceStepAsync(executor, completion, deadline);
+			}
+		});
+		return completion;
+	}
+
+	/**
+	 * Runs this federate's simulation execution as fast as possible until 
+	 * {@link numberOfSteps} time steps are completed or the simulation time 
+	 * reaches {@link endTime} or {@link #getFinalTime()}, whichever comes 
+	 * first; the last time step is shortened if needed so simulation time 
+	 * does not pass {@link endTime}. Unlike {@link #run()}, time steps are 
+	 * not paced by the minimum step duration and simulation time listeners 
+	 * are only notified after every {@link progressStride} time steps and 
+	 * after the last time step.
+	 * The execution may be stopped using the {@link #stop()} method or 
+	 * terminated using the {@link #terminate()} method.
+	 *
+	 * @param numberOfSteps the maximum number of time steps
+	 * @param endTime the end time
+	 * @param progressStride the number of time steps between notifications
+	 * @return the number of time steps completed
+	 */
+	public long runBatch(long numberOfSteps, long endTime, int progressStride) {
+		if(!initialized.get()) {
+			throw new IllegalStateException("Simulation is not initialized.");
+		}
+		if(progressStride < 1) {
+			throw new IllegalArgumentException(
+					"Progress stride must be positive.");
+		}
+		logger.trace("Running the federation in batch mode.");
+		running.set(true);
+		fireExecutionStartedEvent();
+		long steps = 0;
+		int stepsSinceProgress = 0;
+		// shorten the last time step so it does not pass the end time
+		batchEndTime = endTime;
+		try {
+			while(steps < numberOfSteps && time < endTime 
+					&& time < getFinalTime() 
+					&& !stopping.get() && !terminating.get()) {
+				synchronized(this) {
+					advanceStep();
+				}
+				steps++;
+				if(++stepsSinceProgress == progressStride) {
+					stepsSinceProgress = 0;
+					fireSimulationTimeAdvancedEvent();
+				}
+			}
+			if(stepsSinceProgress > 0) {
+				fireSimulationTimeAdvancedEvent();
+			}
+		} finally {
+			batchEndTime = Long.MAX_VALUE;
+			exitRunningLoop();
+		}
+		return steps;
+	}
+
+	/**
+	 * Exits an event-loop mode running loop after a failure and completes
+	 * its {@link completion} exceptionally.
+	 *
+	 * @param completion the completion
+	 * @param failure the failure
+	 */
+	private void failRunningLoop(CompletableFuture<Void> completion, 
+			Throwable failure) {
+		logger.error(failure);
+		exitRunningLoop();
+		completion.completeExceptionally(failure);
+	}
+
+	/**
+	 * Exits a running loop, clearing any stopping or terminating flags.
+	 */
+	private void exitRunningLoop() {
+		logger.trace("Exiting the running loop.");
+		runningLock.lock();
+		try {
+			if(stopping.get()) {
+				stopping.set(false);
+				logger.trace("Federation has stopped.");
+			}
+			if(terminating.get()) {
+				terminating.set(false);
+				logger.trace("Federation has terminated.");
+			}
+			running.set(false);
+			runningExited.signalAll();
+		} finally {
+			runningLock.unlock();
 		}
-		running.set(false);
 	}
 
 	/* (non-Javadoc)
@@ -353,6 +891,7 @@ public class DefaultFederate implements Federate {
 			throw new IllegalStateException("Simulation is not initialized.");
 		}
 		
+		tickPipeline.localInteractionSent(interaction);
 		ambassador.scheduleInteraction(interaction);
 	}
 
@@ -386,6 +925,130 @@ public class DefaultFederate implements Federate {
 		nextMinimumStepDuration = minimumStepDuration;
 	}
 
+	/**
+	 * Sets whether this federate schedules {@link PeriodicObject} objects 
+	 * at their own update periods for the next time step. Objects which are
+	 * not due skip {@link SimObject#tick(long)}, {@link SimObject#tock()}, 
+	 * and {@link FSSambassador#scheduleObjectUpdate(SimObject)}. Multi-rate
+	 * scheduling applies to fixed time step advances only. When it is 
+	 * re-enabled, each periodic object is next due one update period after
+	 * the current time.
+	 *
+	 * @param multiRateScheduling true to enable multi-rate scheduling
+	 */
+	public void setMultiRateScheduling(boolean multiRateScheduling) {
+		logger.trace("Setting multi-rate scheduling to " 
+				+ multiRateScheduling + ".");
+		this.multiRateScheduling = multiRateScheduling;
+	}
+
+	/**
+	 * Sets whether this federate advances time to the earliest next event 
+	 * time of its local objects (bounded by the next-event horizon and the 
+	 * final time) rather than by a fixed time step for the next time step. 
+	 * Objects which are not {@link DiscreteEventObject} instances are 
+	 * stepped at the regular time step. The granted time may be earlier 
+	 * than the requested event time if the federation delivers a message 
+	 * before it.
+	 *
+	 * @param nextEventAdvance true to enable next-event advance
+	 */
+	public void setNextEventAdvance(boolean nextEventAdvance) {
+		logger.trace("Setting next-event advance to " 
+				+ nextEventAdvance + ".");
+		this.nextEventAdvance = nextEventAdvance;
+	}
+
+	/**
+	 * Sets the maximum time in milliseconds a next-event advance may jump 
+	 * ahead of the current time, which bounds the advance when local 
+	 * objects have no pending events. A value of zero (default) uses the 
+	 * time step.
+	 *
+	 * @param nextEventHorizon the new next-event horizon
+	 */
+	public void setNextEventHorizon(long nextEventHorizon) {
+		if(nextEventHorizon < 0) {
+			throw new IllegalArgumentException(
+					"Next-event horizon cannot be negative.");
+		}
+		logger.trace("Setting next-event horizon to " 
+				+ nextEventHorizon + " ms.");
+		this.nextEventHorizon = nextEventHorizon;
+	}
+
+	/**
+	 * Sets the maximum number of simulation objects ticked sequentially 
+	 * within one partition of a parallel tick phase for the next time step.
+	 * Smaller thresholds improve load balancing at the cost of additional 
+	 * task overhead.
+	 *
+	 * @param parallelTickThreshold the new parallel tick threshold
+	 */
+	public void setParallelTickThreshold(int parallelTickThreshold) {
+		if(parallelTickThreshold < 1) {
+			throw new IllegalArgumentException(
+					"Parallel tick threshold must be positive.");
+		}
+		logger.trace("Setting parallel tick threshold to " 
+				+ parallelTickThreshold + " objects.");
+		this.parallelTickThreshold = parallelTickThreshold;
+	}
+
+	/**
+	 * Sets whether this federate speculatively ticks local 
+	 * {@link SpeculativeObject} objects for the next time step while waiting
+	 * for the time advance grant. Speculative ticks execute in the tick pool
+	 * (or the common fork-join pool if none is assigned) and are recomputed 
+	 * after the grant for objects affected by remote changes or interactions
+	 * in the meantime. Pipelined ticks apply to fixed time step advances 
+	 * without multi-rate scheduling only.
+	 *
+	 * @param pipelinedTick true to enable pipelined ticks
+	 */
+	public void setPipelinedTick(boolean pipelinedTick) {
+		logger.trace("Setting pipelined tick to " + pipelinedTick + ".");
+		this.pipelinedTick = pipelinedTick;
+	}
+
+	/**
+	 * Sets the maximum wallclock time in milliseconds that {@link #stop()} 
+	 * and {@link #terminate()} wait for a running loop to exit. A value of 
+	 * zero (default) waits indefinitely.
+	 *
+	 * @param stopTimeout the new stop timeout
+	 */
+	public void setStopTimeout(long stopTimeout) {
+		logger.trace("Setting stop timeout to " + stopTimeout + " ms.");
+		this.stopTimeout = stopTimeout;
+	}
+
+	/**
+	 * Sets the fork-join pool used to execute the tick phase in parallel 
+	 * for the next time step. A null pool (default) executes the tick phase 
+	 * sequentially on the simulation thread. The pool is not shut down 
+	 * by this federate.
+	 *
+	 * @param tickPool the new tick pool
+	 */
+	public void setTickPool(ForkJoinPool tickPool) {
+		logger.trace("Setting tick pool to " + tickPool + ".");
+		this.tickPool = tickPool;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.Federate#setTimeScale(double)
+	 */
+	@Override
+	public void setTimeScale(double timeScale) {
+		if(Double.isNaN(timeScale) || timeScale < 0) {
+			throw new IllegalArgumentException(
+					"Time scale cannot be negative.");
+		}
+		logger.trace("Setting time scale to " + timeScale + ".");
+		this.timeScale = timeScale;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.gui.Federate#setTimeStep(long)
 	 */
@@ -408,13 +1071,7 @@ public class DefaultFederate implements Federate {
 	@Override
 	public void stop() {
 		logger.trace("Stopping the federation...");
-		if(running.get()) {
-			stopping.set(true);
-			// wait until execution is stopped
-			while(stopping.get()) {
-				Thread.yield();
-			}
-		}
+		awaitRunningExit(stopping);
 		fireExecutionStoppedEvent();
 	}
 
@@ -424,26 +1081,46 @@ public class DefaultFederate implements Federate {
 	@Override
 	public void terminate() {
 		logger.trace("Terminating the federate.");
-		if(running.get()) {
-			terminating.set(true);
-			// wait until execution is terminated
-			while(terminating.get()) {
-				Thread.yield();
-			}
-		}
+		awaitRunningExit(terminating);
 		if(initialized.get()) {
+			// apply pending changes before deleting objects
+			localObjects.commit(localObjectHandler);
 			initialized.set(false);
 			// delete all simulation objects from federation
-			synchronized(localObjects) {
-				for(SimObject object : localObjects) {
-					ambassador.scheduleObjectDeletion(object);
-				}
+			SimObject[] objects = localObjects.getObjects();
+			for(int i = 0; i < objects.length; i++) {
+				ambassador.scheduleObjectDeletion(objects[i]);
 			}
 		}
 		ambassador.terminate();
 		fireExecutionTerminatedEvent();
 	}
 
+	/**
+	 * Ticks the first {@link count} {@link objects}, in parallel if a 
+	 * {@link pool} is provided. Each object is ticked over its own 
+	 * duration in {@link durations} or, if null, over {@link duration}.
+	 *
+	 * @param objects the objects
+	 * @param count the number of objects
+	 * @param durations the per-object durations (may be null)
+	 * @param duration the common duration
+	 * @param pool the tick pool (may be null)
+	 */
+	private void tickObjects(SimObject[] objects, int count, long[] durations, 
+			long duration, ForkJoinPool pool) {
+		if(pool != null && count > parallelTickThreshold) {
+			logger.trace("Ticking federate objects in parallel.");
+			pool.invoke(new TickAction(objects, 0, count, 
+					durations, duration, parallelTickThreshold));
+		} else {
+			logger.trace("Ticking federate objects.");
+			for(int i = 0; i < count; i++) {
+				objects[i].tick(durations == null ? duration : durations[i]);
+			}
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Federate#tickTock()
 	 */
@@ -454,33 +1131,158 @@ public class DefaultFederate implements Federate {
 		}
 		logger.trace("Tick-tocking federation.");
 		
-		// log the wallclock time
-		long systemTime = new Date().getTime();
+		if(!running.get()) {
+			// pace a single step from the current wallclock time
+			resetPacing();
+		}
 		
-		timeStep = nextTimeStep;
-		minimumStepDuration = nextMinimumStepDuration;
-		finalTime = nextFinalTime;
-
-		synchronized(localObjects) {
-			logger.trace("Ticking all federate objects.");
-			for(SimObject object : localObjects) {
-		        object.tick(timeStep);
-			}
-			logger.trace("Tocking all federate objects.");
-			for(SimObject object : localObjects) {
-		        object.tock();
-				ambassador.scheduleObjectUpdate(object);
+		long startTime = time;
+		advanceStep();
+		fireSimulationTimeAdvancedEvent();
+		
+		logger.trace("Waiting for the next step deadline.");
+		stepPacer.await(getStepPeriod(time - startTime));
+		updateAchievedTimeScale(time - startTime);
+	}
+	
+	/**
+	 * Ticks and tocks local objects for one fixed time step, according to 
+	 * the multi-rate or pipelined tick modes, and increments the 
+	 * simulation time without advancing the ambassador. In batch mode the
+	 * time step is shortened so it ends no later than the batch end time.
+	 *
+	 * @param objects the objects
+	 */
+	private void tickTockStep(SimObject[] objects) {
+		ForkJoinPool pool = tickPool;
+		long step = FastMath.min(timeStep, batchEndTime - time);
+		if(multiRateScheduling) {
+			logger.trace("Scheduling due federate objects.");
+			multiRateScheduler.synchronize(objects, time);
+			if(!multiRateAnchored) {
+				// objects were ticked every time step while not scheduled
+				multiRateScheduler.reanchor(time);
+				multiRateAnchored = true;
 			}
+			multiRateScheduler.schedule(time + step);
+			SimObject[] regularObjects = multiRateScheduler.getRegularObjects();
+			SimObject[] dueObjects = multiRateScheduler.getDueObjects();
+			int dueCount = multiRateScheduler.getDueCount();
+			tickObjects(regularObjects, regularObjects.length, 
+					null, step, pool);
+			tickObjects(dueObjects, dueCount, 
+					multiRateScheduler.getDueDurations(), 0, pool);
+			tockObjects(regularObjects, regularObjects.length);
+			tockObjects(dueObjects, dueCount);
+			time += step;
+		} else if(pipelinedTick) {
+			multiRateAnchored = false;
+			tickPipeline.resolve(objects, time, step);
+			tickObjects(tickPipeline.getPendingObjects(), 
+					tickPipeline.getPendingCount(), null, step, pool);
+			tockObjects(objects, objects.length);
+			time += step;
+			// tick the next time step while waiting for the grant
+			tickPipeline.speculate(objects, time, nextTimeStep, 
+					pool == null ? ForkJoinPool.commonPool() : pool);
+		} else {
+			multiRateAnchored = false;
+			tickObjects(objects, objects.length, null, step, pool);
+			tockObjects(objects, objects.length);
+			time += step;
 		}
-		logger.trace("Advancing simulation time.");
-		time += timeStep;
-		ambassador.advanceTo(time);
-		fireSimulationTimeAdvancedEvent();
+	}
+
+	/**
+	 * Tocks the first {@link count} {@link objects} and schedules an 
+	 * update for each object.
+	 *
+	 * @param objects the objects
+	 * @param count the number of objects
+	 */
+	private void tockObjects(SimObject[] objects, int count) {
+		logger.trace("Tocking federate objects.");
+		for(int i = 0; i < count; i++) {
+			objects[i].tock();
+			ambassador.scheduleObjectUpdate(objects[i]);
+		}
+	}
+	
+	/**
+	 * Updates the achieved time scale using exponentially-smoothed 
+	 * simulated and wallclock durations of the last time step, which 
+	 * advanced simulation time by {@link duration} milliseconds.
+	 *
+	 * @param duration the simulated step duration
+	 */
+	private void updateAchievedTimeScale(long duration) {
+		long now = System.nanoTime();
+		long elapsed = now - lastReleaseNanos;
+		lastReleaseNanos = now;
+		if(smoothedStepNanos == 0) {
+			smoothedStepTime = duration;
+			smoothedStepNanos = elapsed;
+		} else {
+			smoothedStepTime += 0.2 * (duration - smoothedStepTime);
+			smoothedStepNanos += 0.2 * (elapsed - smoothedStepNanos);
+		}
+		if(smoothedStepNanos > 0) {
+			achievedTimeScale = smoothedStepTime * 1e6 / smoothedStepNanos;
+		}
+	}
+	
+	/**
+	 * A fork-join action which ticks a range of simulation objects, 
+	 * recursively splitting the range into halves until it contains no 
+	 * more than a threshold number of objects.
+	 */
+	private static final class TickAction extends RecursiveAction {
+		private static final long serialVersionUID = 4518474356312437405L;
 		
-		try {
-			logger.trace("Waiting for minimum step duration.");
-			Thread.sleep(FastMath.max(0, minimumStepDuration 
-					- (new Date().getTime() - systemTime)));
-		} catch (InterruptedException ignored) { }
+		private final SimObject[] objects;
+		private final int from, to, threshold;
+		private final long[] durations;
+		private final long duration;
+		
+		/**
+		 * Instantiates a new tick action for objects with indices 
+		 * {@link from} (inclusive) to {@link to} (exclusive). Each object
+		 * is ticked over its own duration in {@link durations} or, if null, 
+		 * over {@link duration}.
+		 *
+		 * @param objects the objects
+		 * @param from the from index
+		 * @param to the to index
+		 * @param durations the per-object tick durations (may be null)
+		 * @param duration the common tick duration
+		 * @param threshold the sequential threshold
+		 */
+		TickAction(SimObject[] objects, int from, int to, 
+				long[] durations, long duration, int threshold) {
+			this.objects = objects;
+			this.from = from;
+			this.to = to;
+			this.durations = durations;
+			this.duration = duration;
+			this.threshold = threshold;
+		}
+		
+		/* (non-Javadoc)
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			if(to - from <= threshold) {
+				for(int i = from; i < to; i++) {
+					objects[i].tick(durations == null ? duration : durations[i]);
+				}
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new TickAction(objects, from, mid, 
+						durations, duration, threshold),
+						new TickAction(objects, mid, to, 
+								durations, duration, threshold));
+			}
+		}
 	}
 }
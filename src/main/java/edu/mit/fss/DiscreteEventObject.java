@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+/**
+ * A simulation object which changes state only at discrete event times. 
+ * The {@link #getNextEventTime()} method reports the next time at which 
+ * the object requires a {@link #tick(long)} and {@link #tock()} cycle, 
+ * allowing a federate to skip directly to the earliest event among its 
+ * objects rather than advancing by a fixed time step.
+ * 
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public interface DiscreteEventObject extends SimObject {
+	
+	/**
+	 * Gets this object's next event time measured in milliseconds since 
+	 * January 1, 1970 (Unix Epoch). Returns {@link Long#MAX_VALUE} if this 
+	 * object has no scheduled events.
+	 *
+	 * @return the next event time
+	 */
+	public long getNextEventTime();
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.Logger;
+
+import edu.mit.fss.event.SimulationTimeEvent;
+import edu.mit.fss.event.SimulationTimeListener;
+import edu.mit.fss.hla.NullAmbassador;
+
+/**
+ * Executes an ensemble of independent runs of an {@link EnsembleScenario}
+ * within one process. Each run uses its own {@link DefaultFederate} with a
+ * {@link NullAmbassador} and executes in batch mode on a bounded thread 
+ * pool, avoiding the start-up cost of separate processes and sharing any 
+ * static data (e.g. Orekit data) between runs.
+ * <p>
+ * Metrics recorded by each run are summarized in 
+ * {@link MergeableStatistics} without storing full histories. When a run 
+ * completes, its statistics are merged into ensemble-wide statistics of 
+ * all recorded values and into statistics of the per-run means.
+ * <p>
+ * Each run ends once it reaches the number of steps, the end time, or the 
+ * final time of its federate, at least one of which must be bounded.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class EnsembleRunner {
+	private static Logger logger = Logger.getLogger(EnsembleRunner.class);
+	
+	/**
+	 * A single run of an ensemble.
+	 */
+	public static final class Run {
+		private final int index;
+		private final DefaultFederate federate;
+		private final Map<String, MergeableStatistics> statistics = 
+				new HashMap<String, MergeableStatistics>();
+		
+		/**
+		 * Instantiates a new run.
+		 *
+		 * @param index the run index
+		 * @param federate the federate
+		 */
+		Run(int index, DefaultFederate federate) {
+			this.index = index;
+			this.federate = federate;
+		}
+		
+		/**
+		 * Gets this run's federate.
+		 *
+		 * @return the federate
+		 */
+		public DefaultFederate getFederate() {
+			return federate;
+		}
+		
+		/**
+		 * Gets this run's index within the ensemble.
+		 *
+		 * @return the index
+		 */
+		public int getIndex() {
+			return index;
+		}
+		
+		/**
+		 * Records a {@link value} of a {@link metric} for this run.
+		 *
+		 * @param metric the metric
+		 * @param value the value
+		 */
+		public void record(String metric, double value) {
+			MergeableStatistics summary = statistics.get(metric);
+			if(summary == null) {
+				summary = new MergeableStatistics();
+				statistics.put(metric, summary);
+			}
+			summary.addValue(value);
+		}
+	}
+	
+	private final EnsembleScenario scenario;
+	private final int numberOfRuns;
+	private final int parallelism;
+	private long numberOfSteps = Long.MAX_VALUE;
+	private long endTime = Long.MAX_VALUE;
+	private int observationStride = 1;
+	private long seed = 0;
+	
+	private final Map<String, MergeableStatistics> statistics = 
+			new HashMap<String, MergeableStatistics>();
+	private final Map<String, MergeableStatistics> runMeanStatistics = 
+			new HashMap<String, MergeableStatistics>();
+	private int completedRuns, failedRuns;
+	
+	/**
+	 * Instantiates a new ensemble runner which executes 
+	 * {@link numberOfRuns} runs of a {@link scenario} using at most 
+	 * {@link parallelism} concurrent threads.
+	 *
+	 * @param scenario the scenario
+	 * @param numberOfRuns the number of runs
+	 * @param parallelism the maximum number of concurrent runs
+	 */
+	public EnsembleRunner(EnsembleScenario scenario, 
+			int numberOfRuns, int parallelism) {
+		if(numberOfRuns < 0) {
+			throw new IllegalArgumentException(
+					"Number of runs cannot be negative.");
+		}
+		if(parallelism < 1) {
+			throw new IllegalArgumentException(
+					"Parallelism must be positive.");
+		}
+		this.scenario = scenario;
+		this.numberOfRuns = numberOfRuns;
+		this.parallelism = parallelism;
+	}
+	
+	/**
+	 * Executes a single run with index {@link index}. The run's federate 
+	 * is terminated even if the run fails.
+	 *
+	 * @param index the index
+	 * @throws Exception if the run cannot be configured
+	 */
+	private void execute(int index) throws Exception {
+		logger.debug("Starting ensemble run " + index + ".");
+		final Run run = new Run(index, 
+				new DefaultFederate(new NullAmbassador()));
+		try {
+			scenario.configure(run, new Random(seed + index));
+			run.getFederate().addSimulationTimeListener(
+					new SimulationTimeListener() {
+				@Override
+				public void timeAdvanced(SimulationTimeEvent event) {
+					scenario.observe(run);
+				}
+			});
+			run.getFederate().initialize();
+			long steps = run.getFederate().runBatch(
+					numberOfSteps, endTime, observationStride);
+			merge(run);
+			logger.debug("Completed ensemble run " + index 
+					+ " after " + steps + " steps.");
+		} finally {
+			run.getFederate().terminate();
+		}
+	}
+	
+	/**
+	 * Gets the number of completed runs.
+	 *
+	 * @return the completed runs
+	 */
+	public synchronized int getCompletedRuns() {
+		return completedRuns;
+	}
+	
+	/**
+	 * Gets the number of runs which failed with an exception.
+	 *
+	 * @return the failed runs
+	 */
+	public synchronized int getFailedRuns() {
+		return failedRuns;
+	}
+	
+	/**
+	 * Gets the names of all recorded metrics.
+	 *
+	 * @return the metrics
+	 */
+	public synchronized List<String> getMetrics() {
+		List<String> metrics = new ArrayList<String>(statistics.keySet());
+		Collections.sort(metrics);
+		return metrics;
+	}
+	
+	/**
+	 * Gets a copy of the statistics of the per-run means of a 
+	 * {@link metric}, or null if the metric was never recorded.
+	 *
+	 * @param metric the metric
+	 * @return the run mean statistics
+	 */
+	public synchronized MergeableStatistics getRunMeanStatistics(
+			String metric) {
+		MergeableStatistics summary = runMeanStatistics.get(metric);
+		return summary == null ? null : summary.copy();
+	}
+	
+	/**
+	 * Gets a copy of the statistics of all values of a {@link metric} 
+	 * recorded by completed runs, or null if the metric was never recorded.
+	 *
+	 * @param metric the metric
+	 * @return the statistics
+	 */
+	public synchronized MergeableStatistics getStatistics(String metric) {
+		MergeableStatistics summary = statistics.get(metric);
+		return summary == null ? null : summary.copy();
+	}
+	
+	/**
+	 * Merges the statistics of a completed {@link run} into the 
+	 * ensemble statistics.
+	 *
+	 * @param run the run
+	 */
+	private synchronized void merge(Run run) {
+		for(Map.Entry<String, MergeableStatistics> entry 
+				: run.statistics.entrySet()) {
+			MergeableStatistics summary = statistics.get(entry.getKey());
+			MergeableStatistics runMeans = runMeanStatistics.get(entry.getKey());
+			if(summary == null) {
+				summary = new MergeableStatistics();
+				statistics.put(entry.getKey(), summary);
+				runMeans = new MergeableStatistics();
+				runMeanStatistics.put(entry.getKey(), runMeans);
+			}
+			summary.merge(entry.getValue());
+			runMeans.addValue(entry.getValue().getMean());
+		}
+		completedRuns++;
+	}
+	
+	/**
+	 * Executes all runs of this ensemble and blocks until they complete. 
+	 * Runs which fail are logged and counted but do not stop the ensemble.
+	 *
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void run() throws InterruptedException {
+		logger.info("Executing " + numberOfRuns + " ensemble runs on " 
+				+ parallelism + " threads.");
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for(int i = 0; i < numberOfRuns; i++) {
+				final int index = i;
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						execute(index);
+						return null;
+					}
+				}));
+			}
+			for(int i = 0; i < futures.size(); i++) {
+				try {
+					futures.get(i).get();
+				} catch(ExecutionException e) {
+					logger.error("Ensemble run " + i + " failed: " 
+							+ e.getCause());
+					synchronized(this) {
+						failedRuns++;
+					}
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Sets the simulation time at which each run ends.
+	 *
+	 * @param endTime the new end time
+	 */
+	public void setEndTime(long endTime) {
+		this.endTime = endTime;
+	}
+	
+	/**
+	 * Sets the maximum number of time steps of each run.
+	 *
+	 * @param numberOfSteps the new number of steps
+	 */
+	public void setNumberOfSteps(long numberOfSteps) {
+		this.numberOfSteps = numberOfSteps;
+	}
+	
+	/**
+	 * Sets the number of time steps between observations of each run.
+	 *
+	 * @param observationStride the new observation stride
+	 */
+	public void setObservationStride(int observationStride) {
+		if(observationStride < 1) {
+			throw new IllegalArgumentException(
+					"Observation stride must be positive.");
+		}
+		this.observationStride = observationStride;
+	}
+	
+	/**
+	 * Sets the base seed of the random number generators. Run 
+	 * <code>i</code> uses a generator seeded with <code>seed + i</code> 
+	 * so that ensembles are reproducible regardless of scheduling.
+	 *
+	 * @param seed the new seed
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.Random;
+
+/**
+ * A scenario executed repeatedly by an {@link EnsembleRunner}. Each run 
+ * configures its own federate with perturbed initial conditions and 
+ * records summary statistics as it advances.
+ * <p>
+ * Runs execute concurrently, so implementations must not share mutable 
+ * state between runs except through thread-safe structures.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public interface EnsembleScenario {
+	
+	/**
+	 * Configures the federate of a {@link run} before initialization, 
+	 * for example by setting its time step and adding simulation objects 
+	 * with initial conditions perturbed using the run's {@link random}
+	 * number generator.
+	 *
+	 * @param run the run
+	 * @param random the random number generator
+	 * @throws Exception if the run cannot be configured
+	 */
+	public void configure(EnsembleRunner.Run run, Random random) 
+			throws Exception;
+	
+	/**
+	 * Observes the federate of a {@link run} after initialization and 
+	 * after each observation stride, recording any metrics with 
+	 * {@link EnsembleRunner.Run#record(String, double)}.
+	 *
+	 * @param run the run
+	 */
+	public void observe(EnsembleRunner.Run run);
+}
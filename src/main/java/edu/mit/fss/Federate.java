@@ -90,6 +90,14 @@ public interface Federate {
 	 */
 	public void exit();
 	
+	/**
+	 * Gets the ratio of simulation time to wallclock time recently achieved
+	 * by this federate's simulation execution, or NaN if unknown.
+	 *
+	 * @return the achieved time scale
+	 */
+	public double getAchievedTimeScale();
+	
 	/**
 	 * Gets this federate's federation execution connection.
 	 *
@@ -120,6 +128,15 @@ public interface Federate {
 	 */
 	public long getMinimumStepDuration();
 	
+	/**
+	 * Gets this federate's target ratio of simulation time to wallclock 
+	 * time. A value of zero paces time steps by the minimum step duration 
+	 * and an infinite value runs as fast as possible.
+	 *
+	 * @return the time scale
+	 */
+	public double getTimeScale();
+	
 	/**
 	 * Gets this federate's simulation time step measured in milliseconds. 
 	 * The time step is the duration of simulation time advanced for each 
@@ -211,6 +228,17 @@ public interface Federate {
 	 */
 	public void setMinimumStepDuration(long minimumStepDuration);
 	
+	/**
+	 * Sets this federate's target ratio of simulation time to wallclock 
+	 * time for the next time step, for example 1 for real time or 60 for 
+	 * one simulated minute per second. A value of zero (default) paces time
+	 * steps by the minimum step duration and an infinite value runs as 
+	 * fast as possible.
+	 *
+	 * @param timeScale the new time scale
+	 */
+	public void setTimeScale(double timeScale);
+	
 	/**
 	 * Sets this federate's simulation next time step to {@link timeStep} 
 	 * measured in milliseconds. Smaller time steps lessen error 
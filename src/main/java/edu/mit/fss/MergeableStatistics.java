@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Streaming summary statistics (count, mean, variance, minimum, and 
+ * maximum) which are updated one value at a time without storing the 
+ * values and which may be merged with statistics collected elsewhere, 
+ * for example by other runs of an ensemble. Uses Welford's update and the
+ * pairwise combination of Chan et al. for numerical stability.
+ * <p>
+ * Instances are not thread-safe.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class MergeableStatistics {
+	private long n = 0;
+	private double mean = 0;
+	private double m2 = 0;
+	private double min = Double.NaN;
+	private double max = Double.NaN;
+	
+	/**
+	 * Adds a {@link value} to these statistics.
+	 *
+	 * @param value the value
+	 */
+	public void addValue(double value) {
+		n++;
+		double delta = value - mean;
+		mean += delta / n;
+		m2 += delta * (value - mean);
+		min = n == 1 ? value : FastMath.min(min, value);
+		max = n == 1 ? value : FastMath.max(max, value);
+	}
+	
+	/**
+	 * Creates a copy of these statistics.
+	 *
+	 * @return the copy
+	 */
+	public MergeableStatistics copy() {
+		MergeableStatistics copy = new MergeableStatistics();
+		copy.merge(this);
+		return copy;
+	}
+	
+	/**
+	 * Gets the maximum value, or NaN if no values were added.
+	 *
+	 * @return the maximum
+	 */
+	public double getMax() {
+		return max;
+	}
+	
+	/**
+	 * Gets the mean value, or NaN if no values were added.
+	 *
+	 * @return the mean
+	 */
+	public double getMean() {
+		return n == 0 ? Double.NaN : mean;
+	}
+	
+	/**
+	 * Gets the minimum value, or NaN if no values were added.
+	 *
+	 * @return the minimum
+	 */
+	public double getMin() {
+		return min;
+	}
+	
+	/**
+	 * Gets the number of values.
+	 *
+	 * @return the number of values
+	 */
+	public long getN() {
+		return n;
+	}
+	
+	/**
+	 * Gets the sample standard deviation, or NaN if fewer than two values 
+	 * were added.
+	 *
+	 * @return the standard deviation
+	 */
+	public double getStandardDeviation() {
+		return FastMath.sqrt(getVariance());
+	}
+	
+	/**
+	 * Gets the sample variance, or NaN if fewer than two values were added.
+	 *
+	 * @return the variance
+	 */
+	public double getVariance() {
+		return n < 2 ? Double.NaN : m2 / (n - 1);
+	}
+	
+	/**
+	 * Merges {@link other} statistics into these statistics.
+	 *
+	 * @param other the other statistics
+	 */
+	public void merge(MergeableStatistics other) {
+		if(other.n == 0) {
+			return;
+		}
+		if(n == 0) {
+			n = other.n;
+			mean = other.mean;
+			m2 = other.m2;
+			min = other.min;
+			max = other.max;
+			return;
+		}
+		long total = n + other.n;
+		double delta = other.mean - mean;
+		mean += delta * other.n / total;
+		m2 += other.m2 + delta * delta * ((double) n * other.n / total);
+		n = total;
+		min = FastMath.min(min, other.min);
+		max = FastMath.max(max, other.max);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return new StringBuilder().append("MergeableStatistics { n: ")
+				.append(n).append(", mean: ").append(getMean())
+				.append(", standardDeviation: ").append(getStandardDeviation())
+				.append(", min: ").append(min).append(", max: ").append(max)
+				.append("}").toString();
+	}
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * A scheduler which determines the simulation objects due for an update 
+ * in each time step. Regular objects are due every time step while 
+ * {@link PeriodicObject} objects are kept in a calendar of buckets keyed 
+ * by due time so only due objects are visited in each time step.
+ * <p>
+ * This class is not thread-safe and is intended to be used from the 
+ * simulation thread only.
+ * 
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+final class MultiRateScheduler {
+	
+	/**
+	 * A calendar entry for a periodic object.
+	 */
+	private static final class Entry {
+		private final PeriodicObject object;
+		private long lastTime;
+		private boolean removed;
+		
+		/**
+		 * Instantiates a new entry.
+		 *
+		 * @param object the object
+		 * @param lastTime the last update time
+		 */
+		Entry(PeriodicObject object, long lastTime) {
+			this.object = object;
+			this.lastTime = lastTime;
+		}
+	}
+	
+	private static final SimObject[] EMPTY = new SimObject[0];
+	
+	private final TreeMap<Long, List<Entry>> calendar = 
+			new TreeMap<Long, List<Entry>>();
+	private final Map<SimObject, Entry> entries = 
+			new LinkedHashMap<SimObject, Entry>();
+	private SimObject[] snapshot = null;
+	private SimObject[] regularObjects = EMPTY;
+	private SimObject[] dueObjects = new SimObject[16];
+	private long[] dueDurations = new long[16];
+	private int dueCount = 0;
+	
+	/**
+	 * Gets the number of periodic objects due in the current time step.
+	 *
+	 * @return the due count
+	 */
+	int getDueCount() {
+		return dueCount;
+	}
+	
+	/**
+	 * Gets the tick durations of periodic objects due in the current time
+	 * step, valid for indices less than {@link #getDueCount()}.
+	 *
+	 * @return the due durations
+	 */
+	long[] getDueDurations() {
+		return dueDurations;
+	}
+	
+	/**
+	 * Gets the periodic objects due in the current time step, valid for 
+	 * indices less than {@link #getDueCount()}.
+	 *
+	 * @return the due objects
+	 */
+	SimObject[] getDueObjects() {
+		return dueObjects;
+	}
+	
+	/**
+	 * Gets the regular (non-periodic) objects due in every time step.
+	 *
+	 * @return the regular objects
+	 */
+	SimObject[] getRegularObjects() {
+		return regularObjects;
+	}
+	
+	/**
+	 * Re-anchors all periodic objects at {@link time} so each is next due 
+	 * one update period after it. Used when multi-rate scheduling resumes 
+	 * after objects were ticked every time step, which would otherwise 
+	 * tick them again over the time already covered.
+	 *
+	 * @param time the current time
+	 */
+	void reanchor(long time) {
+		calendar.clear();
+		for(Entry entry : entries.values()) {
+			entry.lastTime = time;
+			enqueue(entry, time);
+		}
+	}
+	
+	/**
+	 * Collects all objects due in a time step ending at {@link endTime} 
+	 * and reschedules each due periodic object one update period after 
+	 * the end time.
+	 *
+	 * @param endTime the end time
+	 */
+	void schedule(long endTime) {
+		dueCount = 0;
+		while(!calendar.isEmpty() && calendar.firstKey() <= endTime) {
+			for(Entry entry : calendar.pollFirstEntry().getValue()) {
+				if(entry.removed) {
+					continue;
+				}
+				if(dueCount == dueObjects.length) {
+					SimObject[] objects = new SimObject[2*dueCount];
+					long[] durations = new long[2*dueCount];
+					System.arraycopy(dueObjects, 0, objects, 0, dueCount);
+					System.arraycopy(dueDurations, 0, durations, 0, dueCount);
+					dueObjects = objects;
+					dueDurations = durations;
+				}
+				dueObjects[dueCount] = entry.object;
+				dueDurations[dueCount] = endTime - entry.lastTime;
+				dueCount++;
+				entry.lastTime = endTime;
+				enqueue(entry, endTime);
+			}
+		}
+	}
+	
+	/**
+	 * Synchronizes this scheduler with a snapshot of simulation objects. 
+	 * Newly-added periodic objects are first due one update period after 
+	 * {@link time}. Does nothing if the snapshot is unchanged.
+	 *
+	 * @param objects the objects
+	 * @param time the current time
+	 */
+	void synchronize(SimObject[] objects, long time) {
+		if(objects == snapshot) {
+			return;
+		}
+		snapshot = objects;
+		Map<SimObject, Entry> previous = new HashMap<SimObject, Entry>(entries);
+		List<SimObject> regular = new ArrayList<SimObject>();
+		for(SimObject object : objects) {
+			if(object instanceof PeriodicObject) {
+				if(previous.remove(object) == null) {
+					Entry entry = new Entry((PeriodicObject) object, time);
+					entries.put(object, entry);
+					enqueue(entry, time);
+				}
+			} else {
+				regular.add(object);
+			}
+		}
+		for(Entry entry : previous.values()) {
+			// lazily remove entries from the calendar
+			entry.removed = true;
+			entries.remove(entry.object);
+		}
+		regularObjects = regular.toArray(new SimObject[regular.size()]);
+	}
+	
+	/**
+	 * Adds an entry to the calendar bucket due one update period (of at 
+	 * least one millisecond) after {@link time}.
+	 *
+	 * @param entry the entry
+	 * @param time the time
+	 */
+	private void enqueue(Entry entry, long time) {
+		long dueTime = time + FastMath.max(1, entry.object.getUpdatePeriod());
+		List<Entry> bucket = calendar.get(dueTime);
+		if(bucket == null) {
+			bucket = new ArrayList<Entry>();
+			calendar.put(dueTime, bucket);
+		}
+		bucket.add(entry);
+	}
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+/**
+ * A simulation object which declares its own update period. When a 
+ * federate schedules objects at multiple rates, a periodic object is only
+ * ticked, tocked, and updated once its update period has elapsed, and 
+ * the {@link #tick(long)} duration spans the full time since its 
+ * previous update.
+ * 
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public interface PeriodicObject extends SimObject {
+	
+	/**
+	 * Gets this object's update period in milliseconds. Periods shorter 
+	 * than the federate time step update the object every time step.
+	 *
+	 * @return the update period
+	 */
+	public long getUpdatePeriod();
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A registry of simulation objects backed by an immutable array snapshot.
+ * Objects may be added or removed from any thread without blocking: changes
+ * are queued and only become visible when the owning thread calls
+ * {@link #commit(ChangeHandler)}, typically at a time step boundary.
+ * Readers obtain the current snapshot with {@link #getObjects()} and may
+ * iterate it without locking or allocating an iterator.
+ * <p>
+ * Only one thread may call {@link #commit(ChangeHandler)} at a time.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class SimObjectRegistry {
+
+	/**
+	 * A handler notified of each effective change applied during a commit.
+	 */
+	public static interface ChangeHandler {
+
+		/**
+		 * Object added to the registry.
+		 *
+		 * @param object the object
+		 */
+		public void objectAdded(SimObject object);
+
+		/**
+		 * Object removed from the registry.
+		 *
+		 * @param object the object
+		 */
+		public void objectRemoved(SimObject object);
+	}
+
+	/**
+	 * A scheduled addition or removal of an object.
+	 */
+	private static final class Change {
+		private final boolean addition;
+		private final SimObject object;
+
+		/**
+		 * Instantiates a new change.
+		 *
+		 * @param addition true for an addition, false for a removal
+		 * @param object the object
+		 */
+		Change(boolean addition, SimObject object) {
+			this.addition = addition;
+			this.object = object;
+		}
+	}
+
+	private static final SimObject[] EMPTY = new SimObject[0];
+
+	private final ConcurrentLinkedQueue<Change> pendingChanges =
+			new ConcurrentLinkedQueue<Change>();
+	// membership index, only accessed by the committing thread
+	private final Set<SimObject> members = new HashSet<SimObject>();
+	private volatile SimObject[] objects = EMPTY;
+
+	/**
+	 * Schedules an object to be added to this registry at the next commit.
+	 *
+	 * @param object the object
+	 */
+	public void add(SimObject object) {
+		pendingChanges.add(new Change(true, object));
+	}
+
+	/**
+	 * Applies all pending changes to this registry and publishes a new
+	 * snapshot if any object was added or removed. Adding an existing object
+	 * or removing an unknown object has no effect. The (optional) handler is
+	 * notified of each effective change in the order scheduled.
+	 *
+	 * @param handler the change handler
+	 * @return true, if the snapshot changed
+	 */
+	public boolean commit(ChangeHandler handler) {
+		if(pendingChanges.isEmpty()) {
+			return false;
+		}
+		List<SimObject> next = null;
+		Change change;
+		while((change = pendingChanges.poll()) != null) {
+			SimObject object = change.object;
+			if(change.addition) {
+				if(members.add(object)) {
+					if(next == null) {
+						next = new ArrayList<SimObject>(Arrays.asList(objects));
+					}
+					next.add(object);
+					if(handler != null) {
+						handler.objectAdded(object);
+					}
+				}
+			} else if(members.remove(object)) {
+				if(next == null) {
+					next = new ArrayList<SimObject>(Arrays.asList(objects));
+				}
+				next.remove(object);
+				if(handler != null) {
+					handler.objectRemoved(object);
+				}
+			}
+		}
+		if(next == null) {
+			return false;
+		}
+		objects = next.toArray(new SimObject[next.size()]);
+		return true;
+	}
+
+	/**
+	 * Gets the current snapshot of registered objects. The returned array
+	 * is shared and must not be modified.
+	 *
+	 * @return the objects
+	 */
+	public SimObject[] getObjects() {
+		return objects;
+	}
+
+	/**
+	 * Checks for changes scheduled but not yet committed.
+	 *
+	 * @return true, if there are pending changes
+	 */
+	public boolean hasPendingChanges() {
+		return !pendingChanges.isEmpty();
+	}
+
+	/**
+	 * Schedules an object to be removed from this registry at the next
+	 * commit.
+	 *
+	 * @param object the object
+	 */
+	public void remove(SimObject object) {
+		pendingChanges.add(new Change(false, object));
+	}
+
+	/**
+	 * Gets the number of objects in the current snapshot.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return objects.length;
+	}
+}
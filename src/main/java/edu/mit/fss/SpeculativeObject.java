@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+/**
+ * A simulation object which may be ticked speculatively for the next time
+ * step while its federate waits for a time advance grant. A speculative 
+ * tick is discarded and recomputed if a change to a remote object or a 
+ * received interaction affects this object before the grant completes.
+ * <p>
+ * Like all simulation objects, the {@link #tick(long)} method must only 
+ * compute the next state and never change visible state, which is 
+ * committed by {@link #tock()}.
+ * 
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public interface SpeculativeObject extends SimObject {
+	
+	/**
+	 * Checks if this object's next state depends on a remote {@link object}
+	 * or interaction which was discovered, changed, removed, or received.
+	 *
+	 * @param object the remote object or interaction
+	 * @return true, if this object is affected
+	 */
+	public boolean isAffectedBy(Object object);
+}
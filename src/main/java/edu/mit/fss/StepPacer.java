@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.commons.math3.util.FastMath;
+import org.apache.log4j.Logger;
+
+/**
+ * A pacer which releases time steps on a fixed timeline of wallclock 
+ * deadlines. Deadlines are measured with {@link System#nanoTime()} and 
+ * advance by the step period from the previous deadline (rather than from
+ * the end of the previous step), so waiting overshoot does not accumulate.
+ * Waits use {@link LockSupport#parkNanos(long)} followed by an optional 
+ * short spin for sub-millisecond precision.
+ * <p>
+ * When a step finishes after its deadline, the {@link CatchUpPolicy} 
+ * determines the next deadline. Lateness (release time after deadline) 
+ * and jitter (deviation of the release interval from the period) are 
+ * recorded in {@link TimingHistogram} objects.
+ * <p>
+ * The {@link #reset()} and {@link #await(long)} methods must be called 
+ * from a single thread.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class StepPacer {
+	private static Logger logger = Logger.getLogger(StepPacer.class);
+	
+	/**
+	 * The policy to recover from a step which completes after its deadline.
+	 */
+	public static enum CatchUpPolicy {
+		/**
+		 * Keeps the original timeline and releases late steps immediately
+		 * until the timeline is caught up.
+		 */
+		BURST,
+		
+		/**
+		 * Keeps the phase of the original timeline but skips any missed 
+		 * deadlines, so at most one step is released late.
+		 */
+		SKIP,
+		
+		/**
+		 * Shifts the timeline to start from the late release, so the next 
+		 * step is released one full period later. This is the default 
+		 * policy and matches pacing by the minimum step duration.
+		 */
+		STRETCH
+	}
+	
+	private volatile CatchUpPolicy catchUpPolicy = CatchUpPolicy.STRETCH;
+	private volatile long spinNanos = 0;
+	private final TimingHistogram latenessHistogram = new TimingHistogram();
+	private final TimingHistogram jitterHistogram = new TimingHistogram();
+	private volatile long skippedDeadlines = 0;
+	private long deadline, lastRelease;
+	private boolean anchored = false;
+	
+	/**
+	 * Waits until the deadline one {@link period} (nanoseconds) after the 
+	 * previous deadline and returns the lateness of the release in 
+	 * nanoseconds. If this pacer was reset, the timeline starts at the 
+	 * current time. A non-positive period releases immediately and 
+	 * restarts the timeline at the current time.
+	 *
+	 * @param period the period
+	 * @return the lateness
+	 */
+	public long await(long period) {
+		if(!anchored || period <= 0) {
+			reset();
+			if(period <= 0) {
+				return 0;
+			}
+		}
+		deadline += period;
+		long now = System.nanoTime();
+		// the step is late if it completes after its deadline
+		boolean late = now > deadline;
+		long spin = spinNanos;
+		while(now < deadline - spin && !Thread.currentThread().isInterrupted()) {
+			LockSupport.parkNanos(deadline - spin - now);
+			now = System.nanoTime();
+		}
+		while(now < deadline && !Thread.currentThread().isInterrupted()) {
+			Thread.yield();
+			now = System.nanoTime();
+		}
+		long lateness = now - deadline;
+		if(late) {
+			switch(catchUpPolicy) {
+			case SKIP:
+				long missed = lateness / period;
+				if(missed > 0) {
+					logger.trace("Skipping " + missed + " missed deadlines.");
+					deadline += missed * period;
+					skippedDeadlines += missed;
+				}
+				break;
+			case STRETCH:
+				logger.trace("Stretching timeline by " + lateness + " ns.");
+				deadline = now;
+				break;
+			default:
+				break;
+			}
+		}
+		latenessHistogram.record(lateness);
+		jitterHistogram.record(FastMath.abs(now - lastRelease - period));
+		lastRelease = now;
+		return lateness;
+	}
+	
+	/**
+	 * Gets this pacer's catch-up policy.
+	 *
+	 * @return the catch-up policy
+	 */
+	public CatchUpPolicy getCatchUpPolicy() {
+		return catchUpPolicy;
+	}
+	
+	/**
+	 * Gets the current deadline (nanoseconds as measured by 
+	 * {@link System#nanoTime()}), which the next deadline follows by one 
+	 * period.
+	 *
+	 * @return the deadline
+	 */
+	long getDeadline() {
+		return deadline;
+	}
+	
+	/**
+	 * Gets the histogram of release jitter, the absolute deviation 
+	 * (nanoseconds) of each release interval from the period.
+	 *
+	 * @return the jitter histogram
+	 */
+	public TimingHistogram getJitterHistogram() {
+		return jitterHistogram;
+	}
+	
+	/**
+	 * Gets the histogram of release lateness, the time (nanoseconds) from 
+	 * each deadline to the corresponding release.
+	 *
+	 * @return the lateness histogram
+	 */
+	public TimingHistogram getLatenessHistogram() {
+		return latenessHistogram;
+	}
+	
+	/**
+	 * Gets the number of deadlines skipped by the {@link CatchUpPolicy#SKIP} 
+	 * policy.
+	 *
+	 * @return the skipped deadlines
+	 */
+	public long getSkippedDeadlines() {
+		return skippedDeadlines;
+	}
+	
+	/**
+	 * Gets the duration (nanoseconds) before each deadline which is spent 
+	 * spinning rather than parking.
+	 *
+	 * @return the spin duration
+	 */
+	public long getSpinNanos() {
+		return spinNanos;
+	}
+	
+	/**
+	 * Restarts the timeline of deadlines at the current time.
+	 */
+	public void reset() {
+		deadline = System.nanoTime();
+		lastRelease = deadline;
+		anchored = true;
+	}
+	
+	/**
+	 * Sets this pacer's catch-up policy. The default policy is 
+	 * {@link CatchUpPolicy#STRETCH}.
+	 *
+	 * @param catchUpPolicy the new catch-up policy
+	 */
+	public void setCatchUpPolicy(CatchUpPolicy catchUpPolicy) {
+		if(catchUpPolicy == null) {
+			throw new IllegalArgumentException(
+					"Catch-up policy cannot be null.");
+		}
+		logger.trace("Setting catch-up policy to " + catchUpPolicy + ".");
+		this.catchUpPolicy = catchUpPolicy;
+	}
+	
+	/**
+	 * Sets the duration (nanoseconds) before each deadline which is spent 
+	 * spinning rather than parking. Spinning improves precision for short 
+	 * periods at the cost of processor time. The default is zero.
+	 *
+	 * @param spinNanos the new spin duration
+	 */
+	public void setSpinNanos(long spinNanos) {
+		logger.trace("Setting spin duration to " + spinNanos + " ns.");
+		this.spinNanos = FastMath.max(0, spinNanos);
+	}
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.log4j.Logger;
+
+import edu.mit.fss.event.ObjectChangeEvent;
+import edu.mit.fss.event.ObjectChangeListener;
+
+/**
+ * A pipeline which speculatively ticks {@link SpeculativeObject} objects 
+ * for the next time step while a federate waits for a time advance grant.
+ * Speculation is tracked per object: remote object changes or interactions
+ * received in the meantime only invalidate the objects they affect, which 
+ * are ticked again after the grant while unaffected objects keep their 
+ * precomputed next state.
+ * <p>
+ * The pipeline listens to object change events from the ambassador and 
+ * ignores events for local objects (including their nested objects), 
+ * whose state is final when speculation starts, and for interactions sent
+ * by the local federate.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+final class TickPipeline implements ObjectChangeListener {
+	private static Logger logger = Logger.getLogger(TickPipeline.class);
+	private static final SpeculativeObject[] EMPTY = new SpeculativeObject[0];
+	
+	private final Set<Object> localObjects = Collections.newSetFromMap(
+			new ConcurrentHashMap<Object, Boolean>());
+	// interactions sent locally but not yet delivered by the ambassador
+	private final Set<Object> localInteractions = Collections.newSetFromMap(
+			new ConcurrentHashMap<Object, Boolean>());
+	// valid speculations mapped to their tick durations
+	private final Map<SimObject, Long> speculations = 
+			new ConcurrentHashMap<SimObject, Long>();
+	private volatile SpeculativeObject[] candidates = EMPTY;
+	private long speculationTime = Long.MIN_VALUE;
+	private ForkJoinTask<?> task;
+	private SimObject[] pendingObjects = new SimObject[0];
+	private int pendingCount;
+	private volatile long hitCount, missCount;
+	
+	/**
+	 * Waits for any active speculative ticks to complete. If a speculative 
+	 * tick fails, all speculations are discarded.
+	 */
+	public void await() {
+		if(task != null) {
+			try {
+				task.join();
+			} catch(RuntimeException e) {
+				logger.warn("Discarding failed speculative tick: " + e);
+				speculations.clear();
+			}
+			task = null;
+		}
+	}
+	
+	/**
+	 * Gets the number of speculative ticks which were used.
+	 *
+	 * @return the hit count
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * Gets the number of speculative ticks which were invalidated or 
+	 * did not match the time step.
+	 *
+	 * @return the miss count
+	 */
+	public long getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * Gets the number of pending objects found by the last call to 
+	 * {@link #resolve(SimObject[], long, long)}.
+	 *
+	 * @return the pending count
+	 */
+	public int getPendingCount() {
+		return pendingCount;
+	}
+	
+	/**
+	 * Gets the pending objects found by the last call to 
+	 * {@link #resolve(SimObject[], long, long)}. Only the first 
+	 * {@link #getPendingCount()} elements are valid.
+	 *
+	 * @return the pending objects
+	 */
+	public SimObject[] getPendingObjects() {
+		return pendingObjects;
+	}
+	
+	/**
+	 * Invalidates the speculative ticks of all candidates affected by a 
+	 * remote {@link object}.
+	 *
+	 * @param object the object
+	 */
+	private void invalidate(Object object) {
+		if(object == null || localObjects.contains(object) 
+				|| speculations.isEmpty()) {
+			return;
+		}
+		for(SpeculativeObject candidate : candidates) {
+			if(speculations.containsKey(candidate) 
+					&& candidate.isAffectedBy(object)) {
+				logger.trace("Invalidating speculative tick of " 
+						+ candidate.getName() + ".");
+				speculations.remove(candidate);
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.event.ObjectChangeListener#interactionOccurred(edu.mit.fss.event.ObjectChangeEvent)
+	 */
+	@Override
+	public void interactionOccurred(ObjectChangeEvent event) {
+		if(event.getObject() != null 
+				&& localInteractions.remove(event.getObject())) {
+			// interactions sent by this federate do not invalidate ticks
+			return;
+		}
+		invalidate(event.getObject());
+	}
+	
+	/**
+	 * Notifies this pipeline that a local {@link interaction} was sent. 
+	 * The matching interaction event from the ambassador is ignored.
+	 *
+	 * @param interaction the interaction
+	 */
+	public void localInteractionSent(SimInteraction interaction) {
+		localInteractions.add(interaction);
+	}
+	
+	/**
+	 * Notifies this pipeline that a local {@link object} was added. Its 
+	 * nested objects are also considered local.
+	 *
+	 * @param object the object
+	 */
+	public void localObjectAdded(SimObject object) {
+		localObjects.add(object);
+		for(SimObject nestedObject : object.getNestedObjects()) {
+			localObjectAdded(nestedObject);
+		}
+	}
+	
+	/**
+	 * Notifies this pipeline that a local {@link object} was removed along 
+	 * with its nested objects.
+	 *
+	 * @param object the object
+	 */
+	public void localObjectRemoved(SimObject object) {
+		localObjects.remove(object);
+		speculations.remove(object);
+		for(SimObject nestedObject : object.getNestedObjects()) {
+			localObjectRemoved(nestedObject);
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.event.ObjectChangeListener#objectChanged(edu.mit.fss.event.ObjectChangeEvent)
+	 */
+	@Override
+	public void objectChanged(ObjectChangeEvent event) {
+		invalidate(event.getObject());
+	}
+	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.event.ObjectChangeListener#objectDiscovered(edu.mit.fss.event.ObjectChangeEvent)
+	 */
+	@Override
+	public void objectDiscovered(ObjectChangeEvent event) {
+		invalidate(event.getObject());
+	}
+	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.event.ObjectChangeListener#objectRemoved(edu.mit.fss.event.ObjectChangeEvent)
+	 */
+	@Override
+	public void objectRemoved(ObjectChangeEvent event) {
+		invalidate(event.getObject());
+	}
+	
+	/**
+	 * Resolves which {@link objects} still require a tick over 
+	 * {@link duration} for the time step starting at {@link time}. Objects 
+	 * with a valid speculative tick for the same time and duration are 
+	 * omitted. All speculations are consumed by this method. Results are 
+	 * available from {@link #getPendingObjects()} and 
+	 * {@link #getPendingCount()}.
+	 *
+	 * @param objects the objects
+	 * @param time the time step start time
+	 * @param duration the time step duration
+	 */
+	public void resolve(SimObject[] objects, long time, long duration) {
+		if(pendingObjects.length < objects.length) {
+			pendingObjects = new SimObject[objects.length];
+		}
+		boolean valid = time == speculationTime;
+		pendingCount = 0;
+		for(SimObject object : objects) {
+			Long speculated = valid ? speculations.get(object) : null;
+			if(speculated != null && speculated.longValue() == duration) {
+				hitCount++;
+			} else {
+				if(object instanceof SpeculativeObject) {
+					missCount++;
+				}
+				pendingObjects[pendingCount++] = object;
+			}
+		}
+		Arrays.fill(pendingObjects, pendingCount, 
+				pendingObjects.length, null);
+		// bound interactions never delivered (e.g. failed sends); a later 
+		// delivery can only cause a spurious invalidation
+		localInteractions.clear();
+		speculations.clear();
+		candidates = EMPTY;
+		speculationTime = Long.MIN_VALUE;
+	}
+	
+	/**
+	 * Starts speculative ticks over {@link duration} for all 
+	 * {@link SpeculativeObject} objects in {@link objects} for the time 
+	 * step starting at {@link time}. Ticks execute asynchronously in the 
+	 * {@link pool} until {@link #await()} is called.
+	 *
+	 * @param objects the objects
+	 * @param time the time step start time
+	 * @param duration the time step duration
+	 * @param pool the pool
+	 */
+	public void speculate(SimObject[] objects, long time, 
+			final long duration, ForkJoinPool pool) {
+		int count = 0;
+		for(SimObject object : objects) {
+			if(object instanceof SpeculativeObject) {
+				count++;
+			}
+		}
+		final SpeculativeObject[] nextCandidates = new SpeculativeObject[count];
+		count = 0;
+		for(SimObject object : objects) {
+			if(object instanceof SpeculativeObject) {
+				nextCandidates[count++] = (SpeculativeObject) object;
+				// mark valid before the tick starts so later changes invalidate
+				speculations.put(object, duration);
+			}
+		}
+		candidates = nextCandidates;
+		speculationTime = time;
+		if(nextCandidates.length > 0) {
+			logger.trace("Speculatively ticking " + nextCandidates.length 
+					+ " federate objects.");
+			task = pool.submit(new Runnable() {
+				@Override
+				public void run() {
+					for(SpeculativeObject candidate : nextCandidates) {
+						candidate.tick(duration);
+					}
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * A histogram of non-negative durations in nanoseconds with logarithmic 
+ * (base 2) buckets. Bucket 0 counts zero durations and bucket 
+ * <code>i &gt; 0</code> counts durations from <code>2^(i-1)</code> to 
+ * <code>2^i - 1</code> nanoseconds. Recording is allocation-free and 
+ * may be read concurrently from other threads.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class TimingHistogram {
+	private static final int NUMBER_OF_BUCKETS = 64;
+	
+	private final AtomicLongArray counts = 
+			new AtomicLongArray(NUMBER_OF_BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+	
+	/**
+	 * Gets the number of buckets.
+	 *
+	 * @return the bucket count
+	 */
+	public int getBucketCount() {
+		return NUMBER_OF_BUCKETS;
+	}
+	
+	/**
+	 * Gets the largest duration (nanoseconds) counted by a {@link bucket}.
+	 *
+	 * @param bucket the bucket
+	 * @return the bucket upper bound
+	 */
+	public long getBucketUpperBound(int bucket) {
+		return bucket == NUMBER_OF_BUCKETS - 1 ? 
+				Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+	
+	/**
+	 * Gets the number of recorded durations.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return count.get();
+	}
+	
+	/**
+	 * Gets the number of recorded durations in a {@link bucket}.
+	 *
+	 * @param bucket the bucket
+	 * @return the count
+	 */
+	public long getCount(int bucket) {
+		return counts.get(bucket);
+	}
+	
+	/**
+	 * Gets the largest recorded duration (nanoseconds).
+	 *
+	 * @return the maximum
+	 */
+	public long getMax() {
+		return max.get();
+	}
+	
+	/**
+	 * Gets the mean recorded duration (nanoseconds), or NaN if no 
+	 * durations were recorded.
+	 *
+	 * @return the mean
+	 */
+	public double getMean() {
+		long n = count.get();
+		return n == 0 ? Double.NaN : total.get() / (double) n;
+	}
+	
+	/**
+	 * Gets an upper bound (nanoseconds) of the duration at a 
+	 * {@link percentile} between 0 and 100, resolved to the bucket 
+	 * containing it. Returns 0 if no durations were recorded.
+	 *
+	 * @param percentile the percentile
+	 * @return the percentile upper bound
+	 */
+	public long getPercentile(double percentile) {
+		long n = count.get();
+		long rank = (long) FastMath.ceil(percentile / 100 * n);
+		long cumulative = 0;
+		for(int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			cumulative += counts.get(i);
+			if(cumulative >= rank && cumulative > 0) {
+				return FastMath.min(getBucketUpperBound(i), max.get());
+			}
+		}
+		return 0;
+	}
+	
+	/**
+	 * Records a {@link duration} in nanoseconds. Negative durations are 
+	 * recorded as zero.
+	 *
+	 * @param duration the duration
+	 */
+	public void record(long duration) {
+		long value = FastMath.max(0, duration);
+		counts.incrementAndGet(FastMath.min(NUMBER_OF_BUCKETS - 1, 
+				64 - Long.numberOfLeadingZeros(value)));
+		count.incrementAndGet();
+		total.addAndGet(value);
+		long previous;
+		while(value > (previous = max.get()) 
+				&& !max.compareAndSet(previous, value)) { }
+	}
+	
+	/**
+	 * Clears all recorded durations.
+	 */
+	public void reset() {
+		for(int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.event;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EventObject;
+
+/**
+ * An event object which notifies of a batch of objects discovered during a
+ * simulation, for example when joining a federation execution with many
+ * existing objects.
+ * 
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class BulkDiscoveryEvent extends EventObject {
+	private static final long serialVersionUID = 4406218870312964283L;
+	
+	private final Collection<Object> objects;
+	
+	/**
+	 * Instantiates a new bulk discovery event.
+	 *
+	 * @param source the source
+	 * @param objects the discovered objects
+	 */
+	public BulkDiscoveryEvent(Object source, Collection<Object> objects) {
+		super(source);
+		this.objects = Collections.unmodifiableCollection(objects);
+	}
+	
+	/**
+	 * Gets the discovered objects.
+	 *
+	 * @return the objects
+	 */
+	public Collection<Object> getObjects() {
+		return objects;
+	}
+}
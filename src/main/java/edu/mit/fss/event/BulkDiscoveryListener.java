@@ -0,0 +1,39 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.event;
+
+/**
+ * The listener interface for receiving bulk discovery events. An object
+ * change listener implementing this interface receives objects discovered
+ * within an ambassador's discovery window in one 
+ * {@link #objectsDiscovered(BulkDiscoveryEvent)} call rather than one
+ * {@link #objectDiscovered(ObjectChangeEvent)} call per object.
+ *
+ * @see BulkDiscoveryEvent
+ * 
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public interface BulkDiscoveryListener extends ObjectChangeListener {
+	
+	/**
+	 * Objects discovered.
+	 *
+	 * @param event the event
+	 */
+	public void objectsDiscovered(BulkDiscoveryEvent event);
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.exceptions.CallNotAllowedFromWithinCallback;
+import hla.rti1516e.exceptions.RTIinternalError;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.math3.util.FastMath;
+import org.apache.log4j.Logger;
+
+/**
+ * A driver for evoked RTI callbacks (the HLA_EVOKED callback model). A 
+ * single daemon thread evokes all callbacks for a federate, so callbacks 
+ * are never processed concurrently. Each evocation waits for at most one 
+ * callback and returns as soon as it is delivered.
+ * <p>
+ * While active (for example, while a time advance grant is outstanding) 
+ * the driver evokes callbacks with the minimum wait. Activations are 
+ * counted, so the driver stays active until each {@link #activate()} is 
+ * matched by a {@link #deactivate()}. While idle it backs off adaptively 
+ * using the result of {@code evokeCallback}: the wait returns to the 
+ * minimum while more callbacks are pending and doubles up to the maximum 
+ * wait after each evocation with no callbacks pending.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class CallbackDriver {
+	private static Logger logger = Logger.getLogger(CallbackDriver.class);
+	
+	public static final double DEFAULT_MIN_WAIT = 0.001;
+	public static final double DEFAULT_MAX_WAIT = 0.05;
+
+	private final RTIambassador rtiAmbassador;
+	private final double minWait, maxWait;
+	// number of outstanding activations
+	private final AtomicInteger activations = new AtomicInteger(0);
+	private final AtomicBoolean running = new AtomicBoolean(false);
+	private final AtomicLong evocations = new AtomicLong(0);
+	private final AtomicLong idleEvocations = new AtomicLong(0);
+	private volatile double wait;
+	private Thread thread;
+	
+	/**
+	 * Instantiates a new callback driver with the default minimum and
+	 * maximum waits.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 */
+	public CallbackDriver(RTIambassador rtiAmbassador) {
+		this(rtiAmbassador, DEFAULT_MIN_WAIT, DEFAULT_MAX_WAIT);
+	}
+	
+	/**
+	 * Instantiates a new callback driver with minimum and maximum waits 
+	 * in seconds.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param minWait the minimum wait
+	 * @param maxWait the maximum wait
+	 */
+	public CallbackDriver(RTIambassador rtiAmbassador, 
+			double minWait, double maxWait) {
+		if(minWait <= 0 || maxWait < minWait) {
+			throw new IllegalArgumentException(
+					"Invalid waits: " + minWait + ", " + maxWait + ".");
+		}
+		this.rtiAmbassador = rtiAmbassador;
+		this.minWait = minWait;
+		this.maxWait = maxWait;
+		this.wait = minWait;
+	}
+	
+	/**
+	 * Activates this driver so it evokes callbacks with the minimum wait 
+	 * until a matching call to {@link #deactivate()}.
+	 */
+	public void activate() {
+		wait = minWait;
+		activations.incrementAndGet();
+	}
+
+	/**
+	 * Releases one activation of this driver. The driver backs off again 
+	 * once all activations are released.
+	 */
+	public void deactivate() {
+		if(activations.decrementAndGet() < 0) {
+			activations.incrementAndGet();
+			logger.warn("Callback driver deactivated more than activated.");
+		}
+	}
+
+	/**
+	 * Evokes at most one callback, waiting up to the current wait, and 
+	 * adapts the wait for the next evocation.
+	 */
+	private void evoke() {
+		boolean active = isActive();
+		double evokeWait = active ? minWait : wait;
+		boolean pending = false;
+		try {
+			pending = rtiAmbassador.evokeCallback(evokeWait);
+		} catch (CallNotAllowedFromWithinCallback | RTIinternalError e) {
+			logger.error(e);
+		}
+		evocations.incrementAndGet();
+		if(pending) {
+			wait = minWait;
+		} else {
+			idleEvocations.incrementAndGet();
+			if(!active) {
+				wait = FastMath.min(2*evokeWait, maxWait);
+			}
+		}
+	}
+	
+	/**
+	 * Gets the cumulative number of callback evocations.
+	 *
+	 * @return the evocations
+	 */
+	public long getEvocations() {
+		return evocations.get();
+	}
+	
+	/**
+	 * Gets the cumulative number of callback evocations after which no 
+	 * more callbacks were pending.
+	 *
+	 * @return the idle evocations
+	 */
+	public long getIdleEvocations() {
+		return idleEvocations.get();
+	}
+	
+	/**
+	 * Gets the maximum wait in seconds.
+	 *
+	 * @return the maximum wait
+	 */
+	public double getMaxWait() {
+		return maxWait;
+	}
+	
+	/**
+	 * Gets the minimum wait in seconds.
+	 *
+	 * @return the minimum wait
+	 */
+	public double getMinWait() {
+		return minWait;
+	}
+	
+	/**
+	 * Checks if this driver has any outstanding activations.
+	 *
+	 * @return true, if is active
+	 */
+	public boolean isActive() {
+		return activations.get() > 0;
+	}
+	
+	/**
+	 * Checks if this driver is running.
+	 *
+	 * @return true, if is running
+	 */
+	public boolean isRunning() {
+		return running.get();
+	}
+	
+	/**
+	 * Starts the callback-evoking thread. Does nothing if already running.
+	 */
+	public synchronized void start() {
+		if(!running.compareAndSet(false, true)) {
+			return;
+		}
+		logger.debug("Starting callback driver thread.");
+		wait = minWait;
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while(running.get()) {
+					evoke();
+				}
+			}
+		}, "CallbackDriver");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	
+	/**
+	 * Stops the callback-evoking thread after its current evocation. Waits
+	 * for the thread to finish unless called from a callback.
+	 */
+	public synchronized void stop() {
+		if(!running.compareAndSet(true, false)) {
+			return;
+		}
+		logger.debug("Stopping callback driver thread after " 
+				+ evocations.get() + " evocations (" 
+				+ idleEvocations.get() + " idle).");
+		if(thread != Thread.currentThread()) {
+			try {
+				thread.join(TimeUnit.SECONDS.toMillis(1) 
+						+ (long) (1000*maxWait));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		thread = null;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return new StringBuilder().append("CallbackDriver { activations: ")
+				.append(activations.get()).append(", wait: ").append(wait)
+				.append(", evocations: ").append(evocations.get())
+				.append(", idleEvocations: ").append(idleEvocations.get())
+				.append("}").toString();
+	}
+}
@@ -0,0 +1,394 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.AttributeHandleSet;
+import hla.rti1516e.ObjectInstanceHandle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import edu.mit.fss.SimInteraction;
+import edu.mit.fss.SimObject;
+
+/**
+ * A buffer of typed commands scheduled by an ambassador for the next time
+ * advance. Object commands are coalesced per object so each object is 
+ * created, updated, or deleted at most once per drain regardless of how 
+ * many times it was scheduled, and nested objects are expanded once per 
+ * drain rather than once per call.
+ * <p>
+ * Commands for one object execute in the order deletion, creation, and 
+ * update. Scheduling a deletion cancels any pending creation or update, so
+ * an object removed and added again within one step is deleted and then 
+ * re-created, and updates following a deletion are discarded. A cancelled
+ * creation also cancels the creation of nested objects.
+ * <p>
+ * Commands execute in submission order, except that the coalesced 
+ * commands of an object execute at the position of its first command. 
+ * Nested objects execute directly after their parent, or at their own 
+ * first command if it was scheduled earlier. For example, an interaction 
+ * scheduled after an object creation is sent after the object (and its
+ * nested objects) are created, even if the object is updated again later
+ * in the same step.
+ * <p>
+ * Scheduling methods are thread-safe. Draining swaps between two 
+ * preallocated buffers so scheduling is not blocked while commands 
+ * execute. Only one thread may drain at a time.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+final class CommandBuffer {
+	
+	/**
+	 * A handler which executes drained commands.
+	 */
+	static interface Handler {
+		
+		/**
+		 * Creates an object.
+		 *
+		 * @param object the object
+		 */
+		void createObject(SimObject object);
+		
+		/**
+		 * Deletes an object. A {@link cancelled} deletion follows a 
+		 * creation cancelled within the same drain, so the object may 
+		 * never have been created.
+		 *
+		 * @param object the object
+		 * @param cancelled true if a creation was cancelled
+		 */
+		void deleteObject(SimObject object, boolean cancelled);
+		
+		/**
+		 * Provides attribute values of an object instance.
+		 *
+		 * @param theObject the object instance handle
+		 * @param theAttributes the attributes
+		 */
+		void provideAttributes(ObjectInstanceHandle theObject, 
+				AttributeHandleSet theAttributes);
+		
+		/**
+		 * Sends an interaction.
+		 *
+		 * @param interaction the interaction
+		 */
+		void sendInteraction(SimInteraction interaction);
+		
+		/**
+		 * Updates an object.
+		 *
+		 * @param object the object
+		 */
+		void updateObject(SimObject object);
+	}
+	
+	static final int CREATE = 1, UPDATE = 2, DELETE = 4, CANCELLED = 8;
+	private static final int OBJECT = 0, INTERACTION = 1, PROVIDE = 2;
+	
+	/**
+	 * One side of the double buffer.
+	 */
+	private static final class Buffer {
+		private final Map<SimObject, Integer> indices = 
+				new IdentityHashMap<SimObject, Integer>();
+		private SimObject[] objects = new SimObject[16];
+		private int[] flags = new int[16];
+		// sequence position of the first command of each object (or parent)
+		private int[] anchors = new int[16];
+		private int objectCount;
+		// submitted entries encoded as (index << 2 | kind)
+		private int[] sequence = new int[16];
+		private int sequenceCount;
+		// object indices grouped by anchor and the end of each group
+		private int[] order = new int[16];
+		private int[] groupEnds = new int[16];
+		private final List<SimInteraction> interactions = 
+				new ArrayList<SimInteraction>();
+		private final List<ObjectInstanceHandle> provideObjects = 
+				new ArrayList<ObjectInstanceHandle>();
+		private final List<AttributeHandleSet> provideAttributes = 
+				new ArrayList<AttributeHandleSet>();
+		
+		/**
+		 * Adds a {@link command} for an {@link object}, coalescing it with
+		 * any pending commands for the object. A new object is appended to 
+		 * the submission sequence unless an {@link anchor} position is 
+		 * given (non-negative), which also moves an existing object to an 
+		 * earlier position.
+		 *
+		 * @param object the object
+		 * @param command the command
+		 * @param anchor the anchor position, or -1 to use the sequence
+		 */
+		void add(SimObject object, int command, int anchor) {
+			Integer index = indices.get(object);
+			if(index == null) {
+				if(objectCount == objects.length) {
+					objects = Arrays.copyOf(objects, 2*objectCount);
+					flags = Arrays.copyOf(flags, 2*objectCount);
+					anchors = Arrays.copyOf(anchors, 2*objectCount);
+				}
+				index = objectCount++;
+				indices.put(object, index);
+				objects[index] = object;
+				flags[index] = 0;
+				anchors[index] = anchor < 0 ? append(OBJECT, index) : anchor;
+			} else if(anchor >= 0 && anchor < anchors[index]) {
+				anchors[index] = anchor;
+			}
+			flags[index] = merge(flags[index], command);
+		}
+		
+		/**
+		 * Appends an entry of a {@link kind} with an {@link index} to the 
+		 * submission sequence.
+		 *
+		 * @param kind the kind
+		 * @param index the index
+		 * @return the sequence position
+		 */
+		int append(int kind, int index) {
+			if(sequenceCount == sequence.length) {
+				sequence = Arrays.copyOf(sequence, 2*sequenceCount);
+			}
+			sequence[sequenceCount] = index << 2 | kind;
+			return sequenceCount++;
+		}
+		
+		/**
+		 * Clears this buffer.
+		 */
+		void clear() {
+			for(int i = 0; i < objectCount; i++) {
+				objects[i] = null;
+			}
+			objectCount = 0;
+			sequenceCount = 0;
+			indices.clear();
+			interactions.clear();
+			provideObjects.clear();
+			provideAttributes.clear();
+		}
+		
+		/**
+		 * Checks if this buffer is empty.
+		 *
+		 * @return true, if empty
+		 */
+		boolean isEmpty() {
+			return sequenceCount == 0;
+		}
+		
+		/**
+		 * Groups object indices by anchor position into {@link #order}, 
+		 * keeping index order within each group. Group {@code p} ends at 
+		 * {@code groupEnds[p]} and starts at the end of group {@code p-1}.
+		 */
+		void groupObjects() {
+			if(order.length < objectCount) {
+				order = new int[objectCount];
+			}
+			if(groupEnds.length < sequenceCount) {
+				groupEnds = new int[sequenceCount];
+			}
+			Arrays.fill(groupEnds, 0, sequenceCount, 0);
+			for(int i = 0; i < objectCount; i++) {
+				groupEnds[anchors[i]]++;
+			}
+			// convert counts to start offsets
+			int start = 0;
+			for(int p = 0; p < sequenceCount; p++) {
+				int count = groupEnds[p];
+				groupEnds[p] = start;
+				start += count;
+			}
+			// filling advances each start offset to the end of its group
+			for(int i = 0; i < objectCount; i++) {
+				order[groupEnds[anchors[i]]++] = i;
+			}
+		}
+	}
+	
+	private Buffer pending = new Buffer();
+	private Buffer draining = new Buffer();
+	private volatile long scheduledCommands, executedCommands;
+	
+	/**
+	 * Merges a new {@link command} into existing command {@link flags}.
+	 *
+	 * @param flags the existing flags
+	 * @param command the command
+	 * @return the merged flags
+	 */
+	static int merge(int flags, int command) {
+		if((command & DELETE) != 0) {
+			// deletion cancels pending creation and update
+			return DELETE | ((flags & CREATE) != 0 ? CANCELLED : 0) 
+					| ((flags | command) & CANCELLED);
+		}
+		if(command == UPDATE && (flags & (CREATE | DELETE)) == DELETE) {
+			// update after deletion has no effect
+			return flags;
+		}
+		return flags | command;
+	}
+	
+	/**
+	 * Drains all scheduled commands to a {@link handler} in submission 
+	 * order. Nested objects of each scheduled object receive the same 
+	 * commands, including cancellation.
+	 *
+	 * @param handler the handler
+	 */
+	public void drain(Handler handler) {
+		Buffer buffer;
+		synchronized(this) {
+			if(pending.isEmpty()) {
+				return;
+			}
+			buffer = pending;
+			pending = draining;
+			draining = buffer;
+		}
+		try {
+			// expand nested objects, which are appended to the buffer
+			for(int i = 0; i < buffer.objectCount; i++) {
+				int flags = buffer.flags[i];
+				int anchor = buffer.anchors[i];
+				for(SimObject nestedObject : buffer.objects[i].getNestedObjects()) {
+					if((flags & DELETE) != 0) {
+						buffer.add(nestedObject, 
+								DELETE | (flags & CANCELLED), anchor);
+					}
+					if((flags & CREATE) != 0) {
+						buffer.add(nestedObject, CREATE, anchor);
+					}
+					if((flags & UPDATE) != 0) {
+						buffer.add(nestedObject, UPDATE, anchor);
+					}
+				}
+			}
+			buffer.groupObjects();
+			int groupStart = 0;
+			for(int p = 0; p < buffer.sequenceCount; p++) {
+				int kind = buffer.sequence[p] & 3;
+				int index = buffer.sequence[p] >>> 2;
+				if(kind == OBJECT) {
+					for(int k = groupStart; k < buffer.groupEnds[p]; k++) {
+						execute(buffer.objects[buffer.order[k]], 
+								buffer.flags[buffer.order[k]], handler);
+					}
+				} else if(kind == INTERACTION) {
+					handler.sendInteraction(buffer.interactions.get(index));
+					executedCommands++;
+				} else if(kind == PROVIDE) {
+					handler.provideAttributes(buffer.provideObjects.get(index), 
+							buffer.provideAttributes.get(index));
+					executedCommands++;
+				}
+				groupStart = buffer.groupEnds[p];
+			}
+		} finally {
+			buffer.clear();
+		}
+	}
+	
+	/**
+	 * Executes the coalesced commands {@link flags} of an {@link object}
+	 * in the order deletion, creation, and update.
+	 *
+	 * @param object the object
+	 * @param flags the flags
+	 * @param handler the handler
+	 */
+	private void execute(SimObject object, int flags, Handler handler) {
+		if((flags & DELETE) != 0) {
+			handler.deleteObject(object, (flags & CANCELLED) != 0);
+			executedCommands++;
+		}
+		if((flags & CREATE) != 0) {
+			handler.createObject(object);
+			executedCommands++;
+		}
+		if((flags & UPDATE) != 0) {
+			handler.updateObject(object);
+			executedCommands++;
+		}
+	}
+	
+	/**
+	 * Gets the number of commands executed by all drains.
+	 *
+	 * @return the executed commands
+	 */
+	public long getExecutedCommands() {
+		return executedCommands;
+	}
+	
+	/**
+	 * Gets the number of commands scheduled, excluding nested objects.
+	 *
+	 * @return the scheduled commands
+	 */
+	public long getScheduledCommands() {
+		return scheduledCommands;
+	}
+	
+	/**
+	 * Schedules an interaction.
+	 *
+	 * @param interaction the interaction
+	 */
+	public synchronized void scheduleInteraction(SimInteraction interaction) {
+		scheduledCommands++;
+		pending.append(INTERACTION, pending.interactions.size());
+		pending.interactions.add(interaction);
+	}
+	
+	/**
+	 * Schedules a {@link command} for an {@link object}.
+	 *
+	 * @param object the object
+	 * @param command the command
+	 */
+	public synchronized void scheduleObject(SimObject object, int command) {
+		scheduledCommands++;
+		pending.add(object, command, -1);
+	}
+	
+	/**
+	 * Schedules a request to provide attribute values of an object instance.
+	 *
+	 * @param theObject the object instance handle
+	 * @param theAttributes the attributes
+	 */
+	public synchronized void scheduleProvideAttributes(
+			ObjectInstanceHandle theObject, AttributeHandleSet theAttributes) {
+		scheduledCommands++;
+		pending.append(PROVIDE, pending.provideObjects.size());
+		pending.provideObjects.add(theObject);
+		pending.provideAttributes.add(theAttributes);
+	}
+}
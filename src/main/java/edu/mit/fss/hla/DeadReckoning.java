@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Dead reckoning settings shared by publishers and subscribers of element 
+ * states. A publisher only sends position and velocity updates when the 
+ * state extrapolated by subscribers from the last update drifts beyond a 
+ * position or velocity error threshold; subscribers extrapolate remote 
+ * states between updates with the same model. Elements are extrapolated 
+ * linearly and orbital elements with two-body (Keplerian) motion.
+ * <p>
+ * Positions are in meters, velocities in meters per second, and time 
+ * intervals in seconds.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class DeadReckoning {
+	/** The standard gravitational parameter of the Earth (m^3/s^2). */
+	public static final double EARTH_MU = 3.986004418e14;
+	
+	private static final int MAX_ITERATIONS = 50;
+	private static final double TOLERANCE = 1e-12;
+	
+	private final double positionThreshold;
+	private final double velocityThreshold;
+	private final double mu;
+	
+	/**
+	 * Instantiates a new dead reckoning with position and velocity 
+	 * thresholds for orbits about the Earth.
+	 *
+	 * @param positionThreshold the position threshold (m)
+	 * @param velocityThreshold the velocity threshold (m/s)
+	 */
+	public DeadReckoning(double positionThreshold, double velocityThreshold) {
+		this(positionThreshold, velocityThreshold, EARTH_MU);
+	}
+	
+	/**
+	 * Instantiates a new dead reckoning with position and velocity 
+	 * thresholds and a central body gravitational parameter. Throws an
+	 * {@link IllegalArgumentException} if a threshold is negative or the
+	 * gravitational parameter is not positive.
+	 *
+	 * @param positionThreshold the position threshold (m)
+	 * @param velocityThreshold the velocity threshold (m/s)
+	 * @param mu the gravitational parameter (m^3/s^2)
+	 */
+	public DeadReckoning(double positionThreshold, double velocityThreshold, 
+			double mu) {
+		if(!(positionThreshold >= 0) || !(velocityThreshold >= 0)) {
+			throw new IllegalArgumentException(
+					"Thresholds must be non-negative.");
+		}
+		if(!(mu > 0)) {
+			throw new IllegalArgumentException(
+					"Gravitational parameter must be positive.");
+		}
+		this.positionThreshold = positionThreshold;
+		this.velocityThreshold = velocityThreshold;
+		this.mu = mu;
+	}
+	
+	/**
+	 * Extrapolates a state with two-body motion about the central body. 
+	 * Returns an array with the extrapolated position and velocity. 
+	 * Non-elliptical states are extrapolated linearly.
+	 *
+	 * @param position the position (m)
+	 * @param velocity the velocity (m/s)
+	 * @param interval the time interval (s)
+	 * @return the extrapolated position and velocity
+	 */
+	public Vector3D[] extrapolateKeplerian(Vector3D position, 
+			Vector3D velocity, double interval) {
+		double r0 = position.getNorm();
+		double a = 1/(2/r0 - velocity.getNormSq()/mu);
+		if(interval == 0 || r0 == 0 || !(a > 0) || Double.isInfinite(a)) {
+			return extrapolateLinear(position, velocity, interval);
+		}
+		double sqrtA = FastMath.sqrt(a);
+		double n = FastMath.sqrt(mu/(a*a*a));
+		double sigma = position.dotProduct(velocity)/FastMath.sqrt(mu);
+		double c = 1 - r0/a;
+		double s = sigma/sqrtA;
+		
+		// solve Kepler's equation for the change in eccentric anomaly
+		double m = n*interval;
+		double x = m;
+		for(int i = 0; i < MAX_ITERATIONS; i++) {
+			double f = x - c*FastMath.sin(x) + s*(1 - FastMath.cos(x)) - m;
+			double df = 1 - c*FastMath.cos(x) + s*FastMath.sin(x);
+			double dx = f/df;
+			x -= dx;
+			if(FastMath.abs(dx) < TOLERANCE) {
+				break;
+			}
+		}
+		
+		// apply Lagrange coefficients
+		double sinX = FastMath.sin(x);
+		double cosX = FastMath.cos(x);
+		double f = 1 - a/r0*(1 - cosX);
+		double g = interval - (x - sinX)/n;
+		Vector3D nextPosition = new Vector3D(f, position, g, velocity);
+		double r = nextPosition.getNorm();
+		double df = -FastMath.sqrt(mu*a)/(r*r0)*sinX;
+		double dg = 1 - a/r*(1 - cosX);
+		return new Vector3D[]{nextPosition, 
+				new Vector3D(df, position, dg, velocity)};
+	}
+	
+	/**
+	 * Extrapolates a state with constant velocity. Returns an array with 
+	 * the extrapolated position and velocity.
+	 *
+	 * @param position the position (m)
+	 * @param velocity the velocity (m/s)
+	 * @param interval the time interval (s)
+	 * @return the extrapolated position and velocity
+	 */
+	public Vector3D[] extrapolateLinear(Vector3D position, 
+			Vector3D velocity, double interval) {
+		return new Vector3D[]{position.add(interval, velocity), velocity};
+	}
+	
+	/**
+	 * Gets the gravitational parameter of the central body.
+	 *
+	 * @return the gravitational parameter (m^3/s^2)
+	 */
+	public double getMu() {
+		return mu;
+	}
+	
+	/**
+	 * Gets the position error threshold.
+	 *
+	 * @return the position threshold (m)
+	 */
+	public double getPositionThreshold() {
+		return positionThreshold;
+	}
+	
+	/**
+	 * Gets the velocity error threshold.
+	 *
+	 * @return the velocity threshold (m/s)
+	 */
+	public double getVelocityThreshold() {
+		return velocityThreshold;
+	}
+	
+	/**
+	 * Checks if an extrapolated state is within the error thresholds of an
+	 * actual state.
+	 *
+	 * @param extrapolated the extrapolated position and velocity
+	 * @param position the actual position (m)
+	 * @param velocity the actual velocity (m/s)
+	 * @return true, if within the thresholds
+	 */
+	public boolean isWithinThresholds(Vector3D[] extrapolated, 
+			Vector3D position, Vector3D velocity) {
+		return Vector3D.distance(extrapolated[0], position) <= positionThreshold
+				&& Vector3D.distance(extrapolated[1], velocity) <= velocityThreshold;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return new StringBuilder().append("DeadReckoning { position threshold: ")
+				.append(positionThreshold).append(", velocity threshold: ")
+				.append(velocityThreshold).append(", mu: ").append(mu)
+				.append("}").toString();
+	}
+}
@@ -15,6 +15,7 @@
  */
 package edu.mit.fss.hla;
 
+import hla.rti1516e.AttributeHandle;
 import hla.rti1516e.AttributeHandleSet;
 import hla.rti1516e.AttributeHandleValueMap;
 import hla.rti1516e.CallbackModel;
@@ -28,6 +29,8 @@ import hla.rti1516e.ObjectInstanceHandle;
 import hla.rti1516e.OrderType;
 import hla.rti1516e.ParameterHandleValueMap;
 import hla.rti1516e.RTIambassador;
+import hla.rti1516e.RegionHandle;
+import hla.rti1516e.RegionHandleSet;
 import hla.rti1516e.ResignAction;
 import hla.rti1516e.RtiFactory;
 import hla.rti1516e.RtiFactoryFactory;
@@ -36,7 +39,6 @@ import hla.rti1516e.encoding.DecoderException;
 import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.exceptions.AlreadyConnected;
 import hla.rti1516e.exceptions.AsynchronousDeliveryAlreadyEnabled;
-import hla.rti1516e.exceptions.CallNotAllowedFromWithinCallback;
 import hla.rti1516e.exceptions.FederateAlreadyExecutionMember;
 import hla.rti1516e.exceptions.FederateInternalError;
 import hla.rti1516e.exceptions.FederateNotExecutionMember;
@@ -45,7 +47,6 @@ import hla.rti1516e.exceptions.FederationExecutionAlreadyExists;
 import hla.rti1516e.exceptions.FederationExecutionDoesNotExist;
 import hla.rti1516e.exceptions.NotConnected;
 import hla.rti1516e.exceptions.RTIexception;
-import hla.rti1516e.exceptions.RTIinternalError;
 import hla.rti1516e.exceptions.TimeConstrainedAlreadyEnabled;
 import hla.rti1516e.exceptions.TimeConstrainedIsNotEnabled;
 import hla.rti1516e.exceptions.TimeRegulationAlreadyEnabled;
@@ -57,18 +58,37 @@ import hla.rti1516e.time.HLAfloat64TimeFactory;
 import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 import javax.swing.event.EventListenerList;
 
 import org.apache.log4j.Logger;
 
+import edu.mit.fss.Element;
 import edu.mit.fss.OrbitalElement;
 import edu.mit.fss.Receiver;
 import edu.mit.fss.Signal;
@@ -76,6 +96,8 @@ import edu.mit.fss.SimInteraction;
 import edu.mit.fss.SimObject;
 import edu.mit.fss.SurfaceElement;
 import edu.mit.fss.Transmitter;
+import edu.mit.fss.event.BulkDiscoveryEvent;
+import edu.mit.fss.event.BulkDiscoveryListener;
 import edu.mit.fss.event.ObjectChangeEvent;
 import edu.mit.fss.event.ObjectChangeListener;
 
@@ -94,9 +116,98 @@ import edu.mit.fss.event.ObjectChangeListener;
  * {@link FSSorbtialElement}, {@link FSStransmitter}, and 
  * {@link FSSreceiver} objects and publishes and subscribes 
  * {@link FSSsignal} interactions.
+ * <p>
+ * Waits for RTI callbacks (time constrained, time regulation, and time 
+ * advance grant) block the calling thread on a condition rather than 
+ * spinning, or may be avoided with 
+ * {@link #advanceToAsync(long, Executor)}, whose future is completed 
+ * after the time advance grant. The cumulative time 
+ * spent blocked is reported by 
+ * {@link #getBlockedTime()} and an optional timeout can be set with 
+ * {@link #setTimeout(long)}.
+ * <p>
+ * For RTIs using the evoked callback model (OHLA), all callbacks are 
+ * evoked on one thread by a {@link CallbackDriver}, which pumps callbacks
+ * with minimal wait while any caller awaits a callback or an asynchronous
+ * advance is pending and backs off adaptively when idle.
+ * <p>
+ * Scheduled object creations, updates, and deletions are coalesced per 
+ * object in a {@link CommandBuffer} and executed in one batch before each 
+ * time advance, so repeated updates of an object within a time step are 
+ * sent only once.
+ * <p>
+ * All object class, attribute, interaction class, and parameter handles are 
+ * resolved once by a {@link HandleRegistry} after joining the federation 
+ * execution. Discover, reflect, and receive callbacks dispatch through 
+ * handle-keyed tables to per-class handlers without RTI handle lookups.
+ * <p>
+ * Known objects are kept in an {@link ObjectNameIndex} by name and type. 
+ * Element and transmitter references of remote transmitters, receivers, 
+ * and signals are resolved lazily through the index rather than by 
+ * scanning all known objects. Known objects are held in concurrent maps
+ * and remote objects are indexed by type for 
+ * {@link #getRemoteObjects(Class)} queries, so readers never block RTI 
+ * callbacks.
+ * <p>
+ * Reflected attribute values are decoded on the callback thread into 
+ * immutable staged snapshots and the objects are handed off through a 
+ * lock-free single-producer, single-consumer {@link StagingQueue}. The
+ * callback thread is the only producer. The consumer is the thread that
+ * waited for the time advance grant, or the executor passed to 
+ * {@link #advanceToAsync(long, Executor)}. After each grant it applies
+ * the staged snapshots, indexes the objects, and notifies object change
+ * listeners once per object, so readers see consistent snapshots without
+ * locks. Timestamp-order reflections are only delivered while a time 
+ * advance is pending, so the applied values are complete for the granted 
+ * time; receive-order reflections delivered after a grant are applied 
+ * after the next grant.
+ * <p>
+ * Outgoing signals are sent through pooled {@link FSSsignal} mirrors which
+ * reuse the encoded values of unchanged parameters in the new parameter 
+ * map passed with each send.
+ * Received signals are new mirrors (listeners may keep them) created 
+ * from cached handles without RTI lookups. Like reflected objects, they 
+ * are decoded on the callback thread and staged through a 
+ * {@link StagingQueue}; listeners are notified of them after each time 
+ * advance grant, after the staged objects are applied.
+ * <p>
+ * Discoveries may be batched within a window set with 
+ * {@link #setDiscoveryWindow(long)}, in which case attribute value updates
+ * are requested per object class and listeners are notified with one
+ * {@link BulkDiscoveryEvent} once the window elapses (enforced by a timer
+ * thread started on connecting and stopped on disconnecting) or at the 
+ * next time advance grant. The time to a full federation
+ * picture after joining is measured when reflects are received and is 
+ * reported by {@link #getFederationPictureTime()}.
+ * <p>
+ * Optional {@link DeadReckoning} set with 
+ * {@link #setDeadReckoning(DeadReckoning)} suppresses element state 
+ * updates within error thresholds and extrapolates remote element states 
+ * when staged values are applied after each time advance grant.
+ * <p>
+ * Geographic interest is filtered by the RTI with data distribution 
+ * management regions: element state attributes are only subscribed within
+ * the {@link GeographicRegion} regions of interest set with 
+ * {@link #setInterestRegions(Collection)} and, if enabled with 
+ * {@link #setUpdateRegions(boolean)}, local element updates are sent with
+ * a region around each element's current location.
+ * <p>
+ * An optional {@link InterestProfile} passed to 
+ * {@link #initialize(long, long, InterestProfile)} limits the subscribed
+ * and decoded attributes of each object class. Decoded bytes and decode 
+ * time are reported by {@link #getDecodedBytes()} and 
+ * {@link #getDecodeTime()}; reflected values received but not decoded 
+ * are counted by {@link #getSkippedBytes()} and 
+ * {@link #getSkippedValues()}.
+ * <p>
+ * The send timestamp (logical time plus lookahead) of timestamp-order 
+ * updates and interactions is computed once after each time grant and
+ * shared through a {@link SendTimestamp} rather than queried from the RTI
+ * for each object and interaction. The avoided queries are reported by 
+ * {@link #getSendTimestamp()}.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class DefaultAmbassador extends NullFederateAmbassador implements FSSambassador {
@@ -104,6 +215,12 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	public static final String PORTICO_RTI = "portico";
 	public static final String PITCH_RTI = "pRTI 1516";
 	
+	// types of remote objects indexed for queries
+	private static final Class<?>[] REMOTE_OBJECT_TYPES = new Class<?>[]{
+		OrbitalElement.class, SurfaceElement.class, 
+		Transmitter.class, Receiver.class
+	};
+	
 	protected static Logger logger = Logger.getLogger(DefaultAmbassador.class);
 	private final EventListenerList listenerList = new EventListenerList();
 	protected final FederationConnection connection = new FederationConnection();
@@ -115,20 +232,228 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	private volatile AtomicBoolean timeConstrained = new AtomicBoolean(false);
 	private volatile AtomicBoolean timeRegulating = new AtomicBoolean(false);
 	private volatile AtomicBoolean timeAdvancing =  new AtomicBoolean(false);
-	private final ConcurrentLinkedQueue<Runnable> actionsToProcess =
-			new ConcurrentLinkedQueue<Runnable>();
+	private final Lock stateLock = new ReentrantLock();
+	private final Condition stateChanged = stateLock.newCondition();
+	private final AtomicLong blockedTime = new AtomicLong(0);
+	private volatile long timeout = 0;
+	// future completed by the next time advance grant
+	private final AtomicReference<CompletableFuture<Long>> pendingAdvance = 
+			new AtomicReference<CompletableFuture<Long>>();
+	private volatile DeadReckoning deadReckoning = null;
+	private volatile Collection<GeographicRegion> interestRegions = null;
+	private RegionHandleSet interestRegionHandles = null;
+	private volatile boolean updateRegions = false;
+	private volatile double updateRegionMargin = 1;
+	private volatile InterestProfile interestProfile = null;
+	private final SendTimestamp sendTimestamp = new SendTimestamp();
+	// discoveries batched within the discovery window
+	private volatile long discoveryWindow = 0;
+	private final List<HLAobject> pendingDiscoveries = 
+			new ArrayList<HLAobject>();
+	private long discoveryBatchStart;
+	// flushes batches when the discovery window elapses while connected
+	private volatile ScheduledExecutorService discoveryTimer = null;
+	// discovered objects not yet reflected since joining
+	private final Set<HLAobject> awaitingFirstReflect = 
+			Collections.newSetFromMap(
+					new ConcurrentHashMap<HLAobject, Boolean>());
+	private volatile long joinTime;
+	private volatile long federationPictureTime = -1;
+	// outgoing signals reused for sends
+	private final Queue<FSSsignal> signalPool = 
+			new ConcurrentLinkedQueue<FSSsignal>();
+	// remote objects with reflected values staged for the next grant
+	private final StagingQueue<HLAobject> stagedObjects = 
+			new StagingQueue<HLAobject>();
+	// received interactions staged for the next grant
+	private final StagingQueue<HLAinteraction> stagedInteractions = 
+			new StagingQueue<HLAinteraction>();
+	private final AtomicLong decodedBytes = new AtomicLong(0);
+	private final AtomicLong decodeTime = new AtomicLong(0);
+	private final AtomicLong skippedBytes = new AtomicLong(0);
+	private final AtomicLong skippedValues = new AtomicLong(0);
+	private final CommandBuffer commandBuffer = new CommandBuffer();
+	private final CommandBuffer.Handler commandHandler = 
+			new CommandBuffer.Handler() {
+		@Override
+		public void createObject(SimObject object) {
+			logger.debug("Creating object " + object.getName() + ".");
+			if(!connection.isConnected()) {
+				if(!connection.isOfflineMode()) {
+					logger.warn("Not connected: continuing in offline mode.");
+				}
+				fireObjectDiscoveredEvent(object);
+			} else if(!localObjects.containsKey(object)) {
+				try {
+					logger.trace("Searching for the correct object subclass.");
+					HLAobject hlaObject = null;
+					if(object instanceof OrbitalElement) {
+						logger.debug("Creating an orbital element.");
+						hlaObject = new FSSorbitalElement(
+								rtiAmbassador, encoderFactory, null);
+					} else if(object instanceof SurfaceElement) {
+						logger.debug("Creating a surface element.");
+						hlaObject = new FSSsurfaceElement(
+								rtiAmbassador, encoderFactory, null);
+					} else if(object instanceof Transmitter) {
+						logger.debug("Creating a transmitter.");
+						hlaObject = new FSStransmitter(
+								rtiAmbassador, encoderFactory, null);
+					} else if(object instanceof Receiver) {
+						logger.debug("Creating a receiver.");
+						hlaObject = new FSSreceiver(
+								rtiAmbassador, encoderFactory, null);
+					} else {
+						logger.warn("Unknown HLA object type for class " 
+								+ object.getClass() + ", skipping");
+						return;
+					}
+					logger.trace("Adding " + object.getName() 
+							+ " to known instances.");
+					objectInstanceHandleMap.put(
+							hlaObject.getObjectInstanceHandle(), hlaObject);
+					logger.trace("Adding " + object.getName() 
+							+ " to local objects.");
+					localObjects.put(object, hlaObject);
+					hlaObject.setAttributes(object);
+					hlaObject.setSendTimestamp(sendTimestamp);
+					if(hlaObject instanceof FSSelement) {
+						((FSSelement) hlaObject).setDeadReckoning(deadReckoning);
+					}
+					updateRegion(hlaObject);
+					nameIndex.put(hlaObject);
+					fireObjectDiscoveredEvent(object);
+				} catch (RTIexception e) {
+					logger.error(e);
+				}
+			}
+		}
+		@Override
+		public void deleteObject(SimObject object, boolean cancelled) {
+			logger.debug("Deleting object " + object.getName() + ".");
+			if(!connection.isConnected()) {
+				if(!connection.isOfflineMode()) {
+					logger.warn("Not connected: continuing in offline mode.");
+				}
+				fireObjectRemovedEvent(object);
+			} else if(localObjects.containsKey(object)) {
+				try {
+					localObjects.get(object).delete();
+					if(localObjects.get(object) instanceof FSSelement) {
+						((FSSelement) localObjects.get(object)).deleteRegion();
+					}
+				} catch (RTIexception e) {
+					logger.error(e);
+				}
+				logger.trace("Removing from local objects and known objects.");
+				HLAobject hlaObject = localObjects.remove(object);
+				objectInstanceHandleMap.remove(hlaObject.getObjectInstanceHandle());
+				nameIndex.remove(hlaObject);
+				fireObjectRemovedEvent(object);
+			} else if(cancelled) {
+				logger.trace("Object " + object.getName() 
+						+ " creation was cancelled.");
+			} else {
+				logger.warn("Object " + object.getName() 
+						+ " is not a known object instance.");
+			}
+		}
+		@Override
+		public void provideAttributes(ObjectInstanceHandle theObject, 
+				AttributeHandleSet theAttributes) {
+			if(objectInstanceHandleMap.get(theObject) != null) {
+				try {
+					logger.debug("Providing attributes for known instance " 
+							+ objectInstanceHandleMap.get(theObject));
+					objectInstanceHandleMap.get(theObject)
+					.provideAttributes(theAttributes);
+				} catch (RTIexception e) {
+					logger.error(e);
+				}
+			} else {
+				logger.warn("Object " + theObject + " is not a known instance.");
+			}
+		}
+		@Override
+		public void sendInteraction(SimInteraction interaction) {
+			logger.debug("Sending interaction " + interaction + ".");
+			if(!connection.isConnected()) {
+				if(!connection.isOfflineMode()) {
+					logger.warn("Not connected: continuing in offline mode.");
+				}
+				fireInteractionEvent(interaction);
+			} else {
+				try {
+					logger.trace("Searching for the correct interaction subclass.");
+					if(interaction instanceof Signal) {
+						FSSsignal fssSignal = signalPool.poll();
+						if(fssSignal == null) {
+							logger.debug("Creating a signal interaction.");
+							fssSignal = new FSSsignal(rtiAmbassador, encoderFactory);
+							fssSignal.setSendTimestamp(sendTimestamp);
+						}
+						try {
+							fssSignal.setParameters(interaction);
+							fssSignal.send();
+						} finally {
+							signalPool.offer(fssSignal);
+						}
+					} else {
+						logger.warn("Unknown interaction type for class " 
+								+ interaction.getClass() + ", skipping.");
+						return;
+					}
+					fireInteractionEvent(interaction);
+				} catch(RTIexception e) {
+					logger.error(e);
+				}
+			}
+		}
+		@Override
+		public void updateObject(SimObject object) {
+			logger.trace("Updating object " + object.getName() + ".");
+			if(!connection.isConnected()) {
+				if(!connection.isOfflineMode()) {
+					logger.warn("Not connected: continuing in offline mode.");
+				}
+				fireObjectChangedEvent(object);
+			} else if(localObjects.containsKey(object)) {
+				logger.trace("Updating attributes.");
+				localObjects.get(object).setAttributes(object);
+				nameIndex.put(localObjects.get(object));
+
+				try {
+					updateRegion(localObjects.get(object));
+					localObjects.get(object).updateChangedAttributes();
+					fireObjectChangedEvent(object);
+				} catch (RTIexception e) {
+					logger.error(e);
+				}
+			} else {
+				logger.warn("Object " + object.getName() 
+						+ " is not a known object instance.");
+			}
+		}
+	};
 	// map from HLA instance handles to HLA objects
 	private final Map<ObjectInstanceHandle, HLAobject> objectInstanceHandleMap = 
-			Collections.synchronizedMap(
-					new HashMap<ObjectInstanceHandle, HLAobject>());
+			new ConcurrentHashMap<ObjectInstanceHandle, HLAobject>();
 	// map from simulation objects to HLA objects
 	private final Map<SimObject, HLAobject> localObjects = 
-			Collections.synchronizedMap(
-					new HashMap<SimObject, HLAobject>());
+			new ConcurrentHashMap<SimObject, HLAobject>();
+	// per-type maps from HLA instance handles to remote HLA objects
+	private final Map<Class<?>, Map<ObjectInstanceHandle, HLAobject>> 
+			remoteObjects = new HashMap<Class<?>, 
+			Map<ObjectInstanceHandle, HLAobject>>();
 	// identifies RTI
 	private final String rtiName;
-	// timer for evoked callbacks
-	private Timer timer = null;
+	// resolved handles and per-class callback handlers
+	private final HandleRegistry handleRegistry = new HandleRegistry();
+	// live index of known objects by name and type
+	private final ObjectNameIndex nameIndex = new ObjectNameIndex(
+			Element.class, Transmitter.class, Receiver.class);
+	// driver for evoked callbacks
+	private final CallbackDriver callbackDriver;
 	
 	/**
 	 * Instantiates a new default ambassador using the 
@@ -150,16 +475,46 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	 * @throws RTIexception the RTI exception
 	 */
 	public DefaultAmbassador(String rtiName) throws RTIexception {
+		this(rtiName, RtiFactoryFactory.getRtiFactory(rtiName));
+	}
+	
+	/**
+	 * Instantiates a new default ambassador using an RTI factory to set 
+	 * the RTI ambassador and encoder factory.
+	 *
+	 * @param rtiName the RTI name
+	 * @param rtiFactory the RTI factory
+	 * @throws RTIexception the RTI exception
+	 */
+	private DefaultAmbassador(String rtiName, RtiFactory rtiFactory) 
+			throws RTIexception {
+		this(rtiName, rtiFactory.getRtiAmbassador(), 
+				rtiFactory.getEncoderFactory());
+	}
+	
+	/**
+	 * Instantiates a new default ambassador for an RTI ambassador and 
+	 * encoder factory.
+	 *
+	 * @param rtiName the RTI name
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param encoderFactory the encoder factory
+	 */
+	DefaultAmbassador(String rtiName, RTIambassador rtiAmbassador, 
+			EncoderFactory encoderFactory) {
 		this.rtiName = rtiName;
-
-		logger.trace("Getting the RTI factory.");
-		RtiFactory rtiFactory = RtiFactoryFactory.getRtiFactory(rtiName);
-
-		logger.trace("Getting the RTI ambassador.");
-		rtiAmbassador = rtiFactory.getRtiAmbassador();
-
-		logger.trace("Getting the encoder factory.");
-		encoderFactory = rtiFactory.getEncoderFactory();
+		this.rtiAmbassador = rtiAmbassador;
+		this.encoderFactory = encoderFactory;
+		
+		callbackDriver = new CallbackDriver(rtiAmbassador);
+		
+		logger.trace("Registering object and interaction class handlers.");
+		registerHandlers();
+		
+		for(Class<?> type : REMOTE_OBJECT_TYPES) {
+			remoteObjects.put(type, 
+					new ConcurrentHashMap<ObjectInstanceHandle, HLAobject>());
+		}
 	}
 
 	/* (non-Javadoc)
@@ -176,29 +531,229 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	@Override
 	public void advanceTo(long time) {
 		logger.debug("Advancing logical time to " + time + ".");
+		requestAdvance(time, false);
+	}
 
-		logger.trace("Processing all queued actions.");
-		while(actionsToProcess.peek() != null) {
-			actionsToProcess.poll().run();
-		}
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSambassador#advanceToAsync(long, java.util.concurrent.Executor)
+	 */
+	@Override
+	public CompletableFuture<Long> advanceToAsync(long time, 
+			Executor executor) {
+		logger.debug("Advancing logical time asynchronously to " + time + ".");
+		logger.trace("Processing all scheduled commands.");
+		commandBuffer.drain(commandHandler);
 
 		if(!connection.isConnected()) {
 			if(!connection.isOfflineMode()) {
 				logger.warn("Not connected: continuing in offline mode.");
 			}
-			return;
+			return CompletableFuture.completedFuture(time);
 		}
 
-		logger.debug("Requesting time advance to " + timeFactory.makeTime(time));
+		CompletableFuture<Long> future = new CompletableFuture<Long>();
+		if(timeAdvancing.get() || !pendingAdvance.compareAndSet(null, future)) {
+			future.completeExceptionally(new IllegalStateException(
+					"A time advance is already pending."));
+			return future;
+		}
 		timeAdvancing.set(true);
+		callbackDriver.activate();
 		try {
+			logger.debug("Requesting time advance to " 
+					+ timeFactory.makeTime(time));
 			rtiAmbassador.timeAdvanceRequest(timeFactory.makeTime(time));
 		} catch (RTIexception e) {
 			logger.error(e);
+			if(pendingAdvance.compareAndSet(future, null)) {
+				callbackDriver.deactivate();
+			}
+			timeAdvancing.set(false);
+			future.completeExceptionally(e);
 		}
+		return future.thenApplyAsync(new Function<Long, Long>() {
+			@Override
+			public Long apply(Long grantedTime) {
+				applyStagedObjects();
+				return grantedTime;
+			}
+		}, executor);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSambassador#advanceToNextEvent(long)
+	 */
+	@Override
+	public long advanceToNextEvent(long time) {
+		logger.debug("Advancing logical time to next event before " 
+				+ time + ".");
+		if(requestAdvance(time, true)) {
+			return (long) logicalTime.getValue();
+		}
+		return time;
+	}
+
+	/**
+	 * Blocks until the outstanding time advance is granted. Throws an 
+	 * {@link IllegalStateException} if the grant is not received within 
+	 * the timeout, in which case the advance remains outstanding.
+	 */
+	private void awaitGrant() {
 		logger.trace("Waiting for time advance grant.");
-		while(timeAdvancing.get()) {
-			Thread.yield();
+		if(!awaitState(timeAdvancing, false)) {
+			String message = "Time advance grant not received within " 
+					+ timeout + " ms.";
+			logger.error(message);
+			throw new IllegalStateException(message);
+		}
+	}
+
+	/**
+	 * Processes all queued actions and requests a time advance to 
+	 * {@link time}, either as a time advance request or, for a 
+	 * {@link nextEvent} advance, as a next message request. Blocks until
+	 * the advance is granted. Returns false if not connected.
+	 * <p>
+	 * If a previous advance timed out, first waits for its grant and does
+	 * not request another advance if the granted time reached {@link time}.
+	 * Throws an {@link IllegalStateException} if the advance cannot be 
+	 * requested or is not granted within the timeout.
+	 *
+	 * @param time the time
+	 * @param nextEvent true to request the next message
+	 * @return true, if a time advance was requested
+	 */
+	private boolean requestAdvance(long time, boolean nextEvent) {
+		logger.trace("Processing all scheduled commands.");
+		commandBuffer.drain(commandHandler);
+
+		if(!connection.isConnected()) {
+			if(!connection.isOfflineMode()) {
+				logger.warn("Not connected: continuing in offline mode.");
+			}
+			return false;
+		}
+
+		if(timeAdvancing.get()) {
+			logger.debug("Waiting for the outstanding time advance.");
+			awaitGrant();
+			applyStagedObjects();
+			if(logicalTime.getValue() >= time) {
+				return true;
+			}
+		}
+
+		timeAdvancing.set(true);
+		try {
+			if(nextEvent) {
+				logger.debug("Requesting next message before " 
+						+ timeFactory.makeTime(time));
+				rtiAmbassador.nextMessageRequest(timeFactory.makeTime(time));
+			} else {
+				logger.debug("Requesting time advance to " 
+						+ timeFactory.makeTime(time));
+				rtiAmbassador.timeAdvanceRequest(timeFactory.makeTime(time));
+			}
+		} catch (RTIexception e) {
+			logger.error(e);
+			signalState(timeAdvancing, false);
+			throw new IllegalStateException("Time advance not requested.", e);
+		}
+		awaitGrant();
+		applyStagedObjects();
+		return true;
+	}
+
+	/**
+	 * Limits the attributes decoded for a remote object to those in the 
+	 * interest profile, if any.
+	 *
+	 * @param hlaObject the HLA object
+	 * @throws RTIexception the RTI exception
+	 */
+	private void applyInterestProfile(HLAobject hlaObject) 
+			throws RTIexception {
+		InterestProfile profile = interestProfile;
+		if(profile == null 
+				|| !profile.contains(hlaObject.getObjectClassName())) {
+			return;
+		}
+		AttributeHandleSet reflectedHandles = 
+				rtiAmbassador.getAttributeHandleSetFactory().create();
+		for(String attributeName : profile.getAttributeNames(
+				hlaObject.getObjectClassName(), 
+				hlaObject.getAttributeNames())) {
+			reflectedHandles.add(hlaObject.getAttributeHandle(attributeName));
+		}
+		hlaObject.setReflectedAttributeHandleSet(reflectedHandles);
+	}
+
+	/**
+	 * Applies the reflected values of all staged remote objects, indexes 
+	 * them by name, notifies object change listeners, notifies listeners 
+	 * of staged received interactions, and extrapolates remote element 
+	 * states if dead reckoning is enabled. Called after each time advance 
+	 * grant by the only consumer of the staged objects and interactions:
+	 * the thread waiting for the grant or the executor of an asynchronous
+	 * advance.
+	 */
+	private void applyStagedObjects() {
+		logger.trace("Applying staged remote object values.");
+		HLAobject object;
+		while((object = stagedObjects.poll()) != null) {
+			object.applyStagedValues();
+			if(objectInstanceHandleMap.containsKey(
+					object.getObjectInstanceHandle())) {
+				nameIndex.put(object);
+				fireObjectChangedEvent(object);
+			}
+		}
+		logger.trace("Notifying staged received interactions.");
+		HLAinteraction interaction;
+		while((interaction = stagedInteractions.poll()) != null) {
+			fireInteractionEvent(interaction);
+		}
+		if(deadReckoning != null) {
+			logger.trace("Extrapolating remote element states.");
+			extrapolateRemoteElements(remoteObjects.get(OrbitalElement.class));
+			extrapolateRemoteElements(remoteObjects.get(SurfaceElement.class));
+		}
+	}
+
+	/**
+	 * Blocks the calling thread until {@link state} has the desired 
+	 * {@link value} or the timeout elapses. Time spent blocked is added
+	 * to the cumulative blocked time.
+	 *
+	 * @param state the state
+	 * @param value the desired value
+	 * @return true, if the state has the desired value
+	 */
+	private boolean awaitState(AtomicBoolean state, boolean value) {
+		long start = System.nanoTime();
+		long waitTimeout = timeout;
+		long remaining = TimeUnit.MILLISECONDS.toNanos(waitTimeout);
+		callbackDriver.activate();
+		stateLock.lock();
+		try {
+			while(state.get() != value) {
+				if(waitTimeout <= 0) {
+					stateChanged.await();
+				} else if(remaining <= 0) {
+					return false;
+				} else {
+					remaining = stateChanged.awaitNanos(remaining);
+				}
+			}
+			return true;
+		} catch(InterruptedException e) {
+			logger.warn("Interrupted while waiting for an RTI callback.");
+			Thread.currentThread().interrupt();
+			return state.get() == value;
+		} finally {
+			stateLock.unlock();
+			callbackDriver.deactivate();
+			blockedTime.addAndGet(System.nanoTime() - start);
 		}
 	}
 
@@ -219,23 +774,8 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 				e.printStackTrace();
 				logger.error(e);
 			}
-			logger.debug("Creating and starting callback-evoking timer.");
-			if(timer != null) {
-				timer.cancel();
-			}
-			timer = new Timer();
-			timer.scheduleAtFixedRate(new TimerTask() {
-				@Override
-				public void run() {
-					try {
-						logger.trace("Evoking multiple callbacks.");
-						rtiAmbassador.evokeMultipleCallbacks(0, 1);
-					} catch (CallNotAllowedFromWithinCallback 
-							| RTIinternalError e) {
-						logger.error(e);
-					}
-				}
-			}, 0, 100);
+			logger.debug("Starting callback driver.");
+			callbackDriver.start();
 		} else if(rtiName.equals(PORTICO_RTI) || rtiName.equals(PITCH_RTI)) {
 			try {
 				rtiAmbassador.connect(this, 
@@ -246,6 +786,18 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 				logger.error(e);
 			}
 		}
+		if(discoveryTimer == null) {
+			logger.debug("Starting discovery timer.");
+			discoveryTimer = Executors.newSingleThreadScheduledExecutor(
+					new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "DiscoveryTimer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
 		logger.info("Connected to the RTI.");
 		connection.setConnected(true);
 	}
@@ -259,12 +811,48 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 		connection.setConnected(false);
 	}
 
+	/**
+	 * Adds the bytes of reflected attribute values to the decoded bytes or,
+	 * for values not decoded because of the interest profile, to the 
+	 * skipped bytes and values.
+	 *
+	 * @param object the object
+	 * @param theAttributes the attributes
+	 */
+	private void countReflectedBytes(HLAobject object, 
+			AttributeHandleValueMap theAttributes) {
+		AttributeHandleSet reflectedHandles = 
+				object.getReflectedAttributeHandleSet();
+		long decoded = 0, skipped = 0;
+		int skippedCount = 0;
+		for(Map.Entry<AttributeHandle, byte[]> entry 
+				: theAttributes.entrySet()) {
+			if(reflectedHandles.contains(entry.getKey())) {
+				decoded += entry.getValue().length;
+			} else {
+				skipped += entry.getValue().length;
+				skippedCount++;
+			}
+		}
+		decodedBytes.addAndGet(decoded);
+		if(skippedCount > 0) {
+			skippedBytes.addAndGet(skipped);
+			skippedValues.addAndGet(skippedCount);
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Ambassador#disconnect()
 	 */
 	@Override
 	public void disconnect() {
 		logger.debug("Disconnecting from the RTI.");
+		ScheduledExecutorService timer = discoveryTimer;
+		discoveryTimer = null;
+		if(timer != null) {
+			logger.debug("Stopping discovery timer.");
+			timer.shutdownNow();
+		}
 		try {
 			rtiAmbassador.disconnect();
 			logger.info("Disconnected from the RTI.");
@@ -288,42 +876,41 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 			return;
 		}
 
-		logger.trace("Searching for the correct object subclass.");
-		HLAobject hlaObject = null;
+		logger.trace("Dispatching to the object class handler.");
+		HandleRegistry.ObjectClassHandler handler = 
+				handleRegistry.getObjectClassHandler(theObjectClass);
+		if(handler == null) {
+			logger.warn("Unknown object class " + theObjectClass + ", skipping.");
+			return;
+		}
 		try {
-			if(theObjectClass.equals(rtiAmbassador.getObjectClassHandle(
-					FSSorbitalElement.CLASS_NAME))) {
-				logger.debug("Creating an orbital element.");
-				hlaObject = new FSSorbitalElement(
-						rtiAmbassador, encoderFactory, objectName);
-			} else if(theObjectClass.equals(
-					rtiAmbassador.getObjectClassHandle(
-							FSSsurfaceElement.CLASS_NAME))) {
-				logger.debug("Creating a surface element.");
-				hlaObject = new FSSsurfaceElement(
-						rtiAmbassador, encoderFactory, objectName);
-			} else if(theObjectClass.equals(
-					rtiAmbassador.getObjectClassHandle(
-							FSStransmitter.CLASS_NAME))) {
-				logger.debug("Creating a radio transmitter.");
-				hlaObject = new FSStransmitter(
-						rtiAmbassador, encoderFactory, objectName);
-			} else if(theObjectClass.equals(
-					rtiAmbassador.getObjectClassHandle(
-							FSSreceiver.CLASS_NAME))) {
-				logger.debug("Creating a radio receiver.");
-				hlaObject = new FSSreceiver(
-						rtiAmbassador, encoderFactory, objectName);
-			} else {
-				logger.warn("Unknown object class " + theObjectClass + ", skipping.");
-				return;
-			}
-			logger.trace("Requesting object attribute value update.");
-			hlaObject.requestAttributeValueUpdate();
+			HLAobject hlaObject = handler.discover(objectName);
+			applyInterestProfile(hlaObject);
 			
 			logger.trace("Adding object to known instances.");
 			objectInstanceHandleMap.put(theObject, hlaObject);
-			fireObjectDiscoveredEvent(hlaObject);
+			nameIndex.put(hlaObject);
+			for(Class<?> type : REMOTE_OBJECT_TYPES) {
+				if(type.isInstance(hlaObject)) {
+					remoteObjects.get(type).put(theObject, hlaObject);
+				}
+			}
+			awaitingFirstReflect.add(hlaObject);
+			
+			if(discoveryWindow > 0) {
+				logger.trace("Batching object discovery.");
+				synchronized(pendingDiscoveries) {
+					if(pendingDiscoveries.isEmpty()) {
+						discoveryBatchStart = System.nanoTime();
+						scheduleDiscoveryFlush(discoveryWindow);
+					}
+					pendingDiscoveries.add(hlaObject);
+				}
+			} else {
+				logger.trace("Requesting object attribute value update.");
+				hlaObject.requestAttributeValueUpdate();
+				fireObjectDiscoveredEvent(hlaObject);
+			}
 		} catch (RTIexception e) {
 			logger.error(e);
 		}
@@ -340,6 +927,21 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 		discoverObjectInstance(theObject, theObjectClass, objectName);
 	}
 
+	/**
+	 * Extrapolates the states of remote elements to the current logical 
+	 * time using dead reckoning.
+	 *
+	 * @param objects the remote objects
+	 */
+	private void extrapolateRemoteElements(
+			Map<ObjectInstanceHandle, HLAobject> objects) {
+		for(HLAobject object : objects.values()) {
+			if(object instanceof FSSelement) {
+				((FSSelement) object).extrapolateTo(logicalTime.getValue());
+			}
+		}
+	}
+
 	/**
 	 * Fires an interaction event.
 	 *
@@ -359,49 +961,349 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	 *
 	 * @param object the object
 	 */
-	protected final void fireObjectChangedEvent(Object object) {
-		logger.trace("Firing an object changed event.");
-		ObjectChangeListener[] listeners = listenerList.getListeners(
-				ObjectChangeListener.class);
-		for(int i = 0; i < listeners.length; i++) {
-			listeners[i].objectChanged(new ObjectChangeEvent(this, object));
-		}
+	protected final void fireObjectChangedEvent(Object object) {
+		logger.trace("Firing an object changed event.");
+		ObjectChangeListener[] listeners = listenerList.getListeners(
+				ObjectChangeListener.class);
+		for(int i = 0; i < listeners.length; i++) {
+			listeners[i].objectChanged(new ObjectChangeEvent(this, object));
+		}
+	}
+
+	/**
+	 * Fires an object discovered event.
+	 *
+	 * @param object the object
+	 */
+	protected final void fireObjectDiscoveredEvent(Object object) {
+		logger.trace("Firing an object discovered event.");
+		ObjectChangeListener[] listeners = listenerList.getListeners(
+				ObjectChangeListener.class);
+		for(int i = 0; i < listeners.length; i++) {
+			listeners[i].objectDiscovered(new ObjectChangeEvent(this, object));
+		}
+	}
+
+	/**
+	 * Fires an object removed event.
+	 *
+	 * @param object the object
+	 */
+	protected final void fireObjectRemovedEvent(Object object) {
+		logger.trace("Firing an object removed event.");
+		ObjectChangeListener[] listeners = listenerList.getListeners(
+				ObjectChangeListener.class);
+		for(int i = 0; i < listeners.length; i++) {
+			listeners[i].objectRemoved(new ObjectChangeEvent(this, object));
+		}
+	}
+
+	/**
+	 * Fires object discovered events for a batch of objects. Listeners 
+	 * implementing {@link BulkDiscoveryListener} receive one bulk discovery
+	 * event; other listeners receive one object discovered event per 
+	 * object.
+	 *
+	 * @param objects the objects
+	 */
+	protected final void fireObjectsDiscoveredEvent(
+			Collection<? extends Object> objects) {
+		logger.trace("Firing a bulk discovery event.");
+		ObjectChangeListener[] listeners = listenerList.getListeners(
+				ObjectChangeListener.class);
+		BulkDiscoveryEvent event = null;
+		for(int i = 0; i < listeners.length; i++) {
+			if(listeners[i] instanceof BulkDiscoveryListener) {
+				if(event == null) {
+					event = new BulkDiscoveryEvent(this, 
+							new ArrayList<Object>(objects));
+				}
+				((BulkDiscoveryListener) listeners[i]).objectsDiscovered(event);
+			} else {
+				for(Object object : objects) {
+					listeners[i].objectDiscovered(
+							new ObjectChangeEvent(this, object));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Requests attribute value updates for and notifies listeners of the 
+	 * batched discoveries if the discovery window has elapsed since the 
+	 * first batched discovery or if {@link force} is true. Updates are 
+	 * requested per object class for classes whose batched instances are 
+	 * the majority of known instances (for example, when joining a 
+	 * federation execution) and per instance otherwise.
+	 *
+	 * @param force true to flush regardless of the discovery window
+	 */
+	private void flushDiscoveries(boolean force) {
+		List<HLAobject> batch;
+		synchronized(pendingDiscoveries) {
+			if(pendingDiscoveries.isEmpty() || !force 
+					&& System.nanoTime() - discoveryBatchStart 
+					< TimeUnit.MILLISECONDS.toNanos(discoveryWindow)) {
+				return;
+			}
+			batch = new ArrayList<HLAobject>(pendingDiscoveries);
+			pendingDiscoveries.clear();
+		}
+		for(int i = batch.size() - 1; i >= 0; i--) {
+			if(!objectInstanceHandleMap.containsKey(
+					batch.get(i).getObjectInstanceHandle())) {
+				// removed before the batch was flushed
+				batch.remove(i);
+			}
+		}
+		logger.debug("Flushing " + batch.size() + " batched discoveries.");
+		
+		Map<ObjectClassHandle, Integer> batchCounts = 
+				new HashMap<ObjectClassHandle, Integer>();
+		for(HLAobject object : batch) {
+			Integer count = batchCounts.get(object.getObjectClassHandle());
+			batchCounts.put(object.getObjectClassHandle(), 
+					count == null ? 1 : count + 1);
+		}
+		Map<ObjectClassHandle, Integer> knownCounts = 
+				new HashMap<ObjectClassHandle, Integer>();
+		for(HLAobject object : objectInstanceHandleMap.values()) {
+			if(batchCounts.containsKey(object.getObjectClassHandle())) {
+				Integer count = knownCounts.get(object.getObjectClassHandle());
+				knownCounts.put(object.getObjectClassHandle(), 
+						count == null ? 1 : count + 1);
+			}
+		}
+		Set<ObjectClassHandle> requestedClasses = 
+				new HashSet<ObjectClassHandle>();
+		for(HLAobject object : batch) {
+			ObjectClassHandle classHandle = object.getObjectClassHandle();
+			Integer known = knownCounts.get(classHandle);
+			try {
+				if(known == null || 2*batchCounts.get(classHandle) > known) {
+					if(requestedClasses.add(classHandle)) {
+						logger.trace("Requesting attribute value updates " 
+								+ "for object class " + classHandle + ".");
+						rtiAmbassador.requestAttributeValueUpdate(classHandle, 
+								object.getReflectedAttributeHandleSet(), 
+								new byte[0]);
+					}
+				} else {
+					object.requestAttributeValueUpdate();
+				}
+			} catch (RTIexception e) {
+				logger.error(e);
+			}
+		}
+		fireObjectsDiscoveredEvent(batch);
+	}
+
+	/**
+	 * Gets the cumulative wallclock time in nanoseconds this ambassador
+	 * has spent blocked waiting for RTI callbacks.
+	 *
+	 * @return the blocked time
+	 */
+	public long getBlockedTime() {
+		return blockedTime.get();
+	}
+
+	/**
+	 * Gets this ambassador's driver for evoked callbacks, which is only 
+	 * started for RTIs using the evoked callback model.
+	 *
+	 * @return the callback driver
+	 */
+	public CallbackDriver getCallbackDriver() {
+		return callbackDriver;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.Ambassador#getConnection()
+	 */
+	@Override
+	public FederationConnection getConnection() {
+		return connection;
+	}
+
+	/**
+	 * Gets the dead reckoning applied to orbital and surface elements, or 
+	 * null if dead reckoning is disabled.
+	 *
+	 * @return the dead reckoning
+	 */
+	public DeadReckoning getDeadReckoning() {
+		return deadReckoning;
+	}
+
+	/**
+	 * Gets the window in milliseconds within which discoveries are batched.
+	 *
+	 * @return the discovery window
+	 */
+	public long getDiscoveryWindow() {
+		return discoveryWindow;
+	}
+
+	/**
+	 * Gets the interest profile limiting subscribed attributes, or null if
+	 * all attributes are subscribed.
+	 *
+	 * @return the interest profile
+	 */
+	public InterestProfile getInterestProfile() {
+		return interestProfile;
+	}
+
+	/**
+	 * Gets the geographic regions of interest for element state attributes,
+	 * or null if element state attributes are subscribed everywhere.
+	 *
+	 * @return the interest regions
+	 */
+	public Collection<GeographicRegion> getInterestRegions() {
+		return interestRegions;
+	}
+
+	/**
+	 * Gets the cumulative number of bytes of reflected attribute values 
+	 * decoded since this ambassador was instantiated.
+	 *
+	 * @return the decoded bytes
+	 */
+	public long getDecodedBytes() {
+		return decodedBytes.get();
+	}
+
+	/**
+	 * Gets the cumulative wallclock time in nanoseconds this ambassador 
+	 * has spent decoding reflected attribute values.
+	 *
+	 * @return the decode time
+	 */
+	public long getDecodeTime() {
+		return decodeTime.get();
+	}
+
+	/**
+	 * Gets the number of coalesced commands executed, including commands
+	 * for nested objects, since this ambassador was instantiated.
+	 *
+	 * @return the executed commands
+	 */
+	public long getExecutedCommands() {
+		return commandBuffer.getExecutedCommands();
+	}
+
+	/**
+	 * Gets the wallclock time in nanoseconds from the start of the last 
+	 * initialization until all discovered remote objects were first 
+	 * reflected (the time to a full federation picture), or -1 if not
+	 * (yet) reached.
+	 *
+	 * @return the federation picture time
+	 */
+	public long getFederationPictureTime() {
+		return federationPictureTime;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSambassador#getRemoteObjects(java.lang.Class)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T extends SimObject> Collection<T> getRemoteObjects(Class<T> type) {
+		Map<ObjectInstanceHandle, HLAobject> objects = remoteObjects.get(type);
+		if(objects != null) {
+			return Collections.unmodifiableCollection(
+					(Collection<T>) (Collection<?>) objects.values());
+		}
+		logger.trace("Filtering remote objects of unindexed type " 
+				+ type + ".");
+		List<T> matches = new ArrayList<T>();
+		for(HLAobject object : objectInstanceHandleMap.values()) {
+			if(!object.isLocal() && type.isInstance(object)) {
+				matches.add(type.cast(object));
+			}
+		}
+		return Collections.unmodifiableList(matches);
+	}
+
+	/**
+	 * Gets the number of commands scheduled, excluding nested objects, 
+	 * since this ambassador was instantiated.
+	 *
+	 * @return the scheduled commands
+	 */
+	public long getScheduledCommands() {
+		return commandBuffer.getScheduledCommands();
+	}
+
+	/**
+	 * Gets the cumulative number of bytes of reflected attribute values 
+	 * received but not decoded because of the interest profile.
+	 *
+	 * @return the skipped bytes
+	 */
+	public long getSkippedBytes() {
+		return skippedBytes.get();
+	}
+
+	/**
+	 * Gets the cumulative number of reflected attribute values received 
+	 * but not decoded because of the interest profile.
+	 *
+	 * @return the skipped values
+	 */
+	public long getSkippedValues() {
+		return skippedValues.get();
+	}
+
+	/**
+	 * Gets the shared send timestamp of timestamp-order updates and 
+	 * interactions, which reports the RTI queries avoided.
+	 *
+	 * @return the send timestamp
+	 */
+	public SendTimestamp getSendTimestamp() {
+		return sendTimestamp;
 	}
 
 	/**
-	 * Fires an object discovered event.
+	 * Gets the attributes of an object class to subscribe, limited by the 
+	 * interest profile, if any.
 	 *
-	 * @param object the object
+	 * @param className the object class name
+	 * @param attributeNames all attribute names
+	 * @return the subscribed attribute names
 	 */
-	protected final void fireObjectDiscoveredEvent(Object object) {
-		logger.trace("Firing an object discovered event.");
-		ObjectChangeListener[] listeners = listenerList.getListeners(
-				ObjectChangeListener.class);
-		for(int i = 0; i < listeners.length; i++) {
-			listeners[i].objectDiscovered(new ObjectChangeEvent(this, object));
+	private String[] getSubscribedAttributes(String className, 
+			String[] attributeNames) {
+		InterestProfile profile = interestProfile;
+		if(profile == null) {
+			return attributeNames;
 		}
+		return profile.getAttributeNames(className, attributeNames);
 	}
 
 	/**
-	 * Fires an object removed event.
+	 * Gets the maximum wallclock time in milliseconds to wait for an RTI 
+	 * callback. A value of zero waits indefinitely.
 	 *
-	 * @param object the object
+	 * @return the timeout
 	 */
-	protected final void fireObjectRemovedEvent(Object object) {
-		logger.trace("Firing an object removed event.");
-		ObjectChangeListener[] listeners = listenerList.getListeners(
-				ObjectChangeListener.class);
-		for(int i = 0; i < listeners.length; i++) {
-			listeners[i].objectRemoved(new ObjectChangeEvent(this, object));
-		}
+	public long getTimeout() {
+		return timeout;
 	}
 
-	/* (non-Javadoc)
-	 * @see edu.mit.fss.hla.Ambassador#getConnection()
+	/**
+	 * Gets the angular margin in degrees around each local element's 
+	 * location used for update regions.
+	 *
+	 * @return the update region margin
 	 */
-	@Override
-	public FederationConnection getConnection() {
-		return connection;
+	public double getUpdateRegionMargin() {
+		return updateRegionMargin;
 	}
 
 	/* (non-Javadoc)
@@ -411,6 +1313,8 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	public long initialize(long initialTime, long lookahead) {
 		logger.debug("Initializing to time " + initialTime 
 				+ " with lookahead " + lookahead + ".");
+		joinTime = System.nanoTime();
+		federationPictureTime = -1;
 
 		if(!connection.isConnected()) {
 			if(!connection.isOfflineMode()) {
@@ -481,10 +1385,12 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 			logger.error(e);
 		}
 		logger.trace("Waiting for time constrained callback service.");
-		while(!timeConstrained.get()) {
-			Thread.yield();
+		if(awaitState(timeConstrained, true)) {
+			logger.info("Time constrained behavior enabled.");
+		} else {
+			logger.error("Time constrained behavior not enabled within " 
+					+ timeout + " ms.");
 		}
-		logger.info("Time constrained behavior enabled.");
 
 		logger.debug("Enabling time regulating behavior.");
 		try {
@@ -494,22 +1400,33 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 			logger.error(e);
 		}
 		logger.trace("Waiting for time regulating callback service.");
-		while(!timeRegulating.get()) {
-			Thread.yield();
+		if(awaitState(timeRegulating, true)) {
+			logger.info("Time regulating behavior enabled.");
+		} else {
+			logger.error("Time regulating behavior not enabled within " 
+					+ timeout + " ms.");
+		}
+
+		logger.debug("Resolving object and interaction class handles.");
+		try {
+			handleRegistry.resolve(rtiAmbassador);
+		} catch (RTIexception e) {
+			logger.error(e);
 		}
-		logger.info("Time regulating behavior enabled.");
+		ObjectClassMetadata.clear(rtiAmbassador);
+		InteractionClassMetadata.clear(rtiAmbassador);
+		signalPool.clear();
 
 		logger.debug("Publishing and subscribing all objects and interactions.");
 		try {
 			FSSorbitalElement.publishAll(rtiAmbassador);
 			FSSsurfaceElement.publishAll(rtiAmbassador);
-			FSSorbitalElement.subscribeAll(rtiAmbassador);
-			FSSsurfaceElement.subscribeAll(rtiAmbassador);
+			subscribeElements();
 
 			FSStransmitter.publishAll(rtiAmbassador);
 			FSSreceiver.publishAll(rtiAmbassador);
-			FSStransmitter.subscribeAll(rtiAmbassador);
-			FSSreceiver.subscribeAll(rtiAmbassador);
+			subscribe(FSStransmitter.CLASS_NAME, FSStransmitter.ATTRIBUTES);
+			subscribe(FSSreceiver.CLASS_NAME, FSSreceiver.ATTRIBUTES);
 
 			FSSsignal.publish(rtiAmbassador);
 			FSSsignal.subscribe(rtiAmbassador);
@@ -527,6 +1444,32 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 		return (long) logicalTime.getValue();
 	}
 
+	/**
+	 * Initializes this ambassador's federation execution as in 
+	 * {@link #initialize(long, long)}, subscribing only to the attributes 
+	 * in an interest profile. A null profile subscribes all attributes.
+	 *
+	 * @param initialTime the initial time
+	 * @param lookahead the lookahead
+	 * @param interestProfile the interest profile
+	 * @return the current logical time
+	 */
+	public long initialize(long initialTime, long lookahead, 
+			InterestProfile interestProfile) {
+		logger.debug("Using interest profile " + interestProfile + ".");
+		this.interestProfile = interestProfile;
+		return initialize(initialTime, lookahead);
+	}
+
+	/**
+	 * Checks whether local element updates are sent with regions.
+	 *
+	 * @return true, if updates are sent with regions
+	 */
+	public boolean isUpdateRegions() {
+		return updateRegions;
+	}
+
 	/* (non-Javadoc)
 	 * @see hla.rti1516e.NullFederateAmbassador#provideAttributeValueUpdate(hla.rti1516e.ObjectInstanceHandle, hla.rti1516e.AttributeHandleSet, byte[])
 	 */
@@ -534,22 +1477,7 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	public void provideAttributeValueUpdate(final ObjectInstanceHandle theObject,
 			final AttributeHandleSet theAttributes, byte[] userSuppliedTag) {
 		logger.debug("Provide attribute updates for object " + theObject + ".");
-		actionsToProcess.add(new Runnable() {
-			public void run() {
-				if(objectInstanceHandleMap.get(theObject) != null) {
-					try {
-						logger.debug("Providing attributes for known instance " 
-								+ objectInstanceHandleMap.get(theObject));
-						objectInstanceHandleMap.get(theObject)
-						.provideAttributes(theAttributes);
-					} catch (RTIexception e) {
-						logger.error(e);
-					}
-				} else {
-					logger.warn("Object " + theObject + " is not a known instance.");
-				}
-			}
-		});
+		commandBuffer.scheduleProvideAttributes(theObject, theAttributes);
 	}
 
 	/* (non-Javadoc)
@@ -591,22 +1519,19 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 			SupplementalReceiveInfo receiveInfo)  throws FederateInternalError  {
 		logger.info("Receive interaction " + interactionClass + ".");
 
-		logger.trace("Searching for the correct interaction subclass.");
-		HLAinteraction hlaInteraction = null;
+		logger.trace("Dispatching to the interaction class handler.");
+		HandleRegistry.InteractionClassHandler handler = 
+				handleRegistry.getInteractionClassHandler(interactionClass);
+		if(handler == null) {
+			logger.warn("Unknown interaction class " + interactionClass + ", skipping.");
+			return;
+		}
 		try {
-			if(interactionClass.equals(rtiAmbassador.getInteractionClassHandle(
-					FSSsignal.CLASS_NAME))) {
-				logger.trace("Creating a signal interaction.");
-				FSSsignal fssSignal = new FSSsignal(rtiAmbassador, encoderFactory);
-				fssSignal.setParameters(theParameters);
-				fssSignal.setElement(objectInstanceHandleMap.values());
-				fssSignal.setTransmitter(objectInstanceHandleMap.values());
-				hlaInteraction = fssSignal;
-			} else {
-				logger.warn("Unknown interaction class " + interactionClass + ", skipping.");
-				return;
+			HLAinteraction interaction = handler.receive(theParameters);
+			if(interaction != null) {
+				// notified on the simulation thread after the next grant
+				stagedInteractions.offer(interaction);
 			}
-			fireInteractionEvent(hlaInteraction);
 		} catch (RTIexception | DecoderException e) {
 			logger.error(e);
 		}
@@ -626,9 +1551,7 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 			MessageRetractionHandle retractionHandle,
 			SupplementalReflectInfo reflectInfo) {
 		logger.trace("Redirecting to common callback method.");
-		reflectAttributeValues(theObject, theAttributes, userSuppliedTag, 
-				sentOrdering, theTransport, reflectInfo);
-
+		reflectAttributes(theObject, theAttributes, theTime);
 	}
 
 	/* (non-Javadoc)
@@ -644,8 +1567,7 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 			OrderType receivedOrdering,
 			SupplementalReflectInfo reflectInfo) {
 		logger.trace("Redirecting to common callback method.");
-		reflectAttributeValues(theObject, theAttributes, userSuppliedTag,
-				sentOrdering, theTransport, reflectInfo);
+		reflectAttributes(theObject, theAttributes, theTime);
 	}
 
 	/* (non-Javadoc)
@@ -658,47 +1580,146 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 			OrderType sentOrdering,
 			TransportationTypeHandle theTransport,
 			SupplementalReflectInfo reflectInfo) {
+		logger.trace("Redirecting to common callback method.");
+		reflectAttributes(theObject, theAttributes, logicalTime);
+	}
+
+	/**
+	 * Reflects attribute values of a known remote object valid at a 
+	 * logical time.
+	 *
+	 * @param theObject the object instance handle
+	 * @param theAttributes the attributes
+	 * @param theTime the logical time
+	 */
+	private void reflectAttributes(ObjectInstanceHandle theObject,
+			AttributeHandleValueMap theAttributes, LogicalTime theTime) {
 		logger.debug("Reflect attributes for object " + theObject);
+		HLAobject object = objectInstanceHandleMap.get(theObject);
+		if(object == null) {
+			return;
+		}
+		logger.trace("Reflecting attributes for known object " + object);
+		HandleRegistry.ObjectClassHandler handler = 
+				handleRegistry.getObjectClassHandler(
+						object.getObjectClassHandle());
+		if(handler == null) {
+			logger.warn("Unknown object class " 
+					+ object.getObjectClassHandle() + ", skipping.");
+			return;
+		}
 		try {
-			if(objectInstanceHandleMap.containsKey(theObject)) {
-				logger.trace("Reflecting attributes for known object " 
-						+ objectInstanceHandleMap.get(theObject));
-				HLAobject object = objectInstanceHandleMap.get(theObject);
-				object.setAllAttributes(theAttributes);
-				if(object instanceof FSStransmitter && theAttributes.containsKey(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										FSStransmitter.CLASS_NAME), 
-										FSStransmitter.ELEMENT_ATTRIBUTE))) {
-					logger.trace("Setting the associated element reference.");
-					((FSStransmitter)object).setElement(
-							objectInstanceHandleMap.values());
-				}
-				if(object instanceof FSSreceiver && theAttributes.containsKey(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										FSSreceiver.CLASS_NAME), 
-										FSSreceiver.ELEMENT_ATTRIBUTE))) {
-					logger.trace("Setting the associated element reference.");
-					((FSSreceiver)object).setElement(
-							objectInstanceHandleMap.values());
-				}
-				if(object instanceof FSSreceiver && theAttributes.containsKey(
-						rtiAmbassador.getAttributeHandle(
-								rtiAmbassador.getObjectClassHandle(
-										FSSreceiver.CLASS_NAME), 
-										FSSreceiver.TRANSMITTER_ATTRIBUTE))) {
-					logger.trace("Setting the associated transmitter reference.");
-					((FSSreceiver)object).setTransmitter(
-							objectInstanceHandleMap.values());
-				}
-				fireObjectChangedEvent(objectInstanceHandleMap.get(theObject));
-			} 
-		} catch (RTIexception | DecoderException e) {
+			long start = System.nanoTime();
+			handler.reflect(object, theAttributes);
+			decodeTime.addAndGet(System.nanoTime() - start);
+			countReflectedBytes(object, theAttributes);
+			if(object instanceof FSSelement 
+					&& theTime instanceof HLAfloat64Time) {
+				((FSSelement) object).reflectState(theAttributes, 
+						((HLAfloat64Time) theTime).getValue());
+			}
+			if(object.stageReflectedValues()) {
+				stagedObjects.offer(object);
+			}
+			updateFederationPicture(object);
+		} catch (DecoderException e) {
 			logger.error(e);
 		}
 	}
 
+	/**
+	 * Registers the object and interaction class handlers with the handle
+	 * registry. Handlers only use handles resolved after joining the 
+	 * federation execution.
+	 */
+	private void registerHandlers() {
+		handleRegistry.registerObjectClass(FSSorbitalElement.CLASS_NAME, 
+				FSSorbitalElement.ATTRIBUTES, 
+				new HandleRegistry.ObjectClassHandler() {
+			@Override
+			public HLAobject discover(String instanceName) throws RTIexception {
+				logger.debug("Creating an orbital element.");
+				FSSorbitalElement orbitalElement = new FSSorbitalElement(
+						rtiAmbassador, encoderFactory, instanceName);
+				orbitalElement.setDeadReckoning(deadReckoning);
+				return orbitalElement;
+			}
+			@Override
+			public void reflect(HLAobject object, 
+					AttributeHandleValueMap theAttributes) 
+							throws DecoderException {
+				object.setAllAttributes(theAttributes);
+			}
+		});
+		handleRegistry.registerObjectClass(FSSsurfaceElement.CLASS_NAME, 
+				FSSsurfaceElement.ATTRIBUTES, 
+				new HandleRegistry.ObjectClassHandler() {
+			@Override
+			public HLAobject discover(String instanceName) throws RTIexception {
+				logger.debug("Creating a surface element.");
+				FSSsurfaceElement surfaceElement = new FSSsurfaceElement(
+						rtiAmbassador, encoderFactory, instanceName);
+				surfaceElement.setDeadReckoning(deadReckoning);
+				return surfaceElement;
+			}
+			@Override
+			public void reflect(HLAobject object, 
+					AttributeHandleValueMap theAttributes) 
+							throws DecoderException {
+				object.setAllAttributes(theAttributes);
+			}
+		});
+		handleRegistry.registerObjectClass(FSStransmitter.CLASS_NAME, 
+				FSStransmitter.ATTRIBUTES, 
+				new HandleRegistry.ObjectClassHandler() {
+			@Override
+			public HLAobject discover(String instanceName) throws RTIexception {
+				logger.debug("Creating a radio transmitter.");
+				FSStransmitter transmitter = new FSStransmitter(
+						rtiAmbassador, encoderFactory, instanceName);
+				transmitter.setReferenceIndex(nameIndex);
+				return transmitter;
+			}
+			@Override
+			public void reflect(HLAobject object, 
+					AttributeHandleValueMap theAttributes) 
+							throws DecoderException {
+				object.setAllAttributes(theAttributes);
+			}
+		});
+		handleRegistry.registerObjectClass(FSSreceiver.CLASS_NAME, 
+				FSSreceiver.ATTRIBUTES, 
+				new HandleRegistry.ObjectClassHandler() {
+			@Override
+			public HLAobject discover(String instanceName) throws RTIexception {
+				logger.debug("Creating a radio receiver.");
+				FSSreceiver receiver = new FSSreceiver(
+						rtiAmbassador, encoderFactory, instanceName);
+				receiver.setReferenceIndex(nameIndex);
+				return receiver;
+			}
+			@Override
+			public void reflect(HLAobject object, 
+					AttributeHandleValueMap theAttributes) 
+							throws DecoderException {
+				object.setAllAttributes(theAttributes);
+			}
+		});
+		handleRegistry.registerInteractionClass(FSSsignal.CLASS_NAME, 
+				FSSsignal.PARAMETERS, 
+				new HandleRegistry.InteractionClassHandler() {
+			@Override
+			public HLAinteraction receive(ParameterHandleValueMap theParameters)
+					throws RTIexception, DecoderException {
+				logger.trace("Creating a signal interaction.");
+				FSSsignal fssSignal = new FSSsignal(rtiAmbassador, encoderFactory);
+				fssSignal.setParameters(theParameters);
+				fssSignal.setReferenceIndex(nameIndex);
+				return fssSignal;
+			}
+		});
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Ambassador#removeObjectChangeListener(edu.mit.fss.ObjectChangeListener)
 	 */
@@ -741,7 +1762,13 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 		logger.info("Remove object " + theObject + ".");
 		if(objectInstanceHandleMap.containsKey(theObject)) {
 			HLAobject object = objectInstanceHandleMap.remove(theObject);
+			nameIndex.remove(object);
+			for(Map<ObjectInstanceHandle, HLAobject> objects 
+					: remoteObjects.values()) {
+				objects.remove(theObject);
+			}
 			fireObjectRemovedEvent(object);
+			updateFederationPicture(object);
 			logger.debug("Removed object " + object.getName() + ".");
 		} else {
 			logger.warn("Object " + theObject + " is not a known instance.");
@@ -752,168 +1779,214 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	 * @see edu.mit.fss.Ambassador#scheduleInteraction(edu.mit.fss.SimInteraction)
 	 */
 	@Override
-	public void scheduleInteraction(final SimInteraction interaction) {
+	public void scheduleInteraction(SimInteraction interaction) {
 		logger.debug("Scheduling interaction " + interaction + ".");
-		actionsToProcess.add(new Runnable() {
-			public void run() {
-				logger.debug("Sending interaction " + interaction + ".");
-				if(!connection.isConnected()) {
-					if(!connection.isOfflineMode()) {
-						logger.warn("Not connected: continuing in offline mode.");
-					}
-					fireInteractionEvent(interaction);
-				} else {
-					try {
-						logger.trace("Searching for the correct interaction subclass.");
-						HLAinteraction hlaInteraction = null;
-						if(interaction instanceof Signal) {
-							logger.debug("Creating a signal interaction.");
-							hlaInteraction = new FSSsignal(rtiAmbassador, encoderFactory);
-						} else {
-							logger.warn("Unknown interaction type for class " 
-									+ interaction.getClass() + ", skipping.");
-							return;
-						}
-						hlaInteraction.setParameters(interaction);
-						hlaInteraction.send();
-						fireInteractionEvent(interaction);
-					} catch(RTIexception e) {
-						logger.error(e);
-					}
-				}
-			}
-		});
+		commandBuffer.scheduleInteraction(interaction);
 	}
 
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Ambassador#scheduleObjectCreation(edu.mit.fss.SimObject)
 	 */
 	@Override
-	public void scheduleObjectCreation(final SimObject object) {
+	public void scheduleObjectCreation(SimObject object) {
 		logger.debug("Scheduling object creation for " + object.getName() + ".");
-		actionsToProcess.add(new Runnable() {
-			public void run() {
-				logger.debug("Creating object " + object.getName() + ".");
-				if(!connection.isConnected()) {
-					if(!connection.isOfflineMode()) {
-						logger.warn("Not connected: continuing in offline mode.");
-					}
-					fireObjectDiscoveredEvent(object);
-				} else if(!localObjects.containsKey(object)) {
-					try {
-						logger.trace("Searching for the correct object subclass.");
-						HLAobject hlaObject = null;
-						if(object instanceof OrbitalElement) {
-							logger.debug("Creating an orbital element.");
-							hlaObject = new FSSorbitalElement(
-									rtiAmbassador, encoderFactory, null);
-						} else if(object instanceof SurfaceElement) {
-							logger.debug("Creating a surface element.");
-							hlaObject = new FSSsurfaceElement(
-									rtiAmbassador, encoderFactory, null);
-						} else if(object instanceof Transmitter) {
-							logger.debug("Creating a transmitter.");
-							hlaObject = new FSStransmitter(
-									rtiAmbassador, encoderFactory, null);
-						} else if(object instanceof Receiver) {
-							logger.debug("Creating a receiver.");
-							hlaObject = new FSSreceiver(
-									rtiAmbassador, encoderFactory, null);
-						} else {
-							logger.warn("Unknown HLA object type for class " 
-									+ object.getClass() + ", skipping");
-							return;
-						}
-						logger.trace("Adding " + object.getName() 
-								+ " to known instances.");
-						objectInstanceHandleMap.put(
-								hlaObject.getObjectInstanceHandle(), hlaObject);
-						logger.trace("Adding " + object.getName() 
-								+ " to local objects.");
-						localObjects.put(object, hlaObject);
-						hlaObject.setAttributes(object);
-						fireObjectDiscoveredEvent(object);
-					} catch (RTIexception e) {
-						logger.error(e);
-					}
-				}
-			}
-		});
-		logger.trace("Recursively create all nested objects.");
-		for(SimObject nestedObject : object.getNestedObjects()) {
-			scheduleObjectCreation(nestedObject);
-		}
+		commandBuffer.scheduleObject(object, CommandBuffer.CREATE);
 	}
 
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Ambassador#scheduleObjectDeletion(edu.mit.fss.SimObject)
 	 */
 	@Override
-	public void scheduleObjectDeletion(final SimObject object) {
+	public void scheduleObjectDeletion(SimObject object) {
 		logger.debug("Scheduling object deletion for " + object.getName() + ".");
-		actionsToProcess.add(new Runnable() {
-			public void run() {
-				logger.debug("Deleting object " + object.getName() + ".");
-				if(!connection.isConnected()) {
-					if(!connection.isOfflineMode()) {
-						logger.warn("Not connected: continuing in offline mode.");
-					}
-					fireObjectRemovedEvent(object);
-				} else if(localObjects.containsKey(object)) {
-					try {
-						localObjects.get(object).delete();
-					} catch (RTIexception e) {
-						logger.error(e);
-					}
-					logger.trace("Removing from local objects and known objects.");
-					HLAobject hlaObject = localObjects.remove(object);
-					objectInstanceHandleMap.remove(hlaObject.getObjectInstanceHandle());
-					fireObjectRemovedEvent(object);
-				} else {
-					logger.warn("Object " + object.getName() 
-							+ " is not a known object instance.");
-				}
-			}
-		});
-		logger.trace("Recursively delete all nested objects.");
-		for(SimObject nestedObject : object.getNestedObjects()) {
-			scheduleObjectDeletion(nestedObject);
-		}
+		commandBuffer.scheduleObject(object, CommandBuffer.DELETE);
 	}
 
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Ambassador#scheduleObjectUpdate(edu.mit.fss.SimObject)
 	 */
 	@Override
-	public void scheduleObjectUpdate(final SimObject object) {
+	public void scheduleObjectUpdate(SimObject object) {
 		logger.trace("Scheduling object update for " + object.getName()  + ".");
-		actionsToProcess.add(new Runnable() {
-			public void run() {
-				logger.trace("Updating object " + object.getName() + ".");
-				if(!connection.isConnected()) {
-					if(!connection.isOfflineMode()) {
-						logger.warn("Not connected: continuing in offline mode.");
-					}
-					fireObjectChangedEvent(object);
-				} else if(localObjects.containsKey(object)) {
-					logger.trace("Updating attributes.");
-					localObjects.get(object).setAttributes(object);
+		commandBuffer.scheduleObject(object, CommandBuffer.UPDATE);
+	}
 
-					try {
-						localObjects.get(object).updateChangedAttributes();
-						fireObjectChangedEvent(object);
-					} catch (RTIexception e) {
-						logger.error(e);
-					}
-				} else {
-					logger.warn("Object " + object.getName() 
-							+ " is not a known object instance.");
-				}
+	/**
+	 * Subscribes to the attributes of an object class, limited by the 
+	 * interest profile, if any.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames all attribute names
+	 * @throws RTIexception the RTI exception
+	 */
+	private void subscribe(String className, String[] attributeNames) 
+			throws RTIexception {
+		ObjectClassHandle classHandle = 
+				rtiAmbassador.getObjectClassHandle(className);
+		AttributeHandleSet handles = 
+				rtiAmbassador.getAttributeHandleSetFactory().create();
+		for(String attributeName : getSubscribedAttributes(
+				className, attributeNames)) {
+			handles.add(rtiAmbassador.getAttributeHandle(
+					classHandle, attributeName));
+		}
+		rtiAmbassador.subscribeObjectClassAttributes(classHandle, handles);
+	}
+
+	/**
+	 * Subscribes to orbital and surface element attributes, replacing any
+	 * previous subscription within regions of interest. Element state 
+	 * attributes are subscribed within the current interest regions, if 
+	 * any.
+	 *
+	 * @throws RTIexception the RTI exception
+	 */
+	private synchronized void subscribeElements() throws RTIexception {
+		if(interestRegionHandles != null) {
+			logger.trace("Removing the previous interest regions.");
+			FSSorbitalElement.unsubscribeAll(rtiAmbassador, interestRegionHandles);
+			FSSsurfaceElement.unsubscribeAll(rtiAmbassador, interestRegionHandles);
+			for(RegionHandle region : interestRegionHandles) {
+				rtiAmbassador.deleteRegion(region);
 			}
-		});
-		logger.trace("Recursively update all nested objects.");
-		for(SimObject nestedObject : object.getNestedObjects()) {
-			scheduleObjectUpdate(nestedObject);
+			interestRegionHandles = null;
+		}
+		Collection<GeographicRegion> regions = interestRegions;
+		if(regions == null) {
+			subscribe(FSSorbitalElement.CLASS_NAME, FSSorbitalElement.ATTRIBUTES);
+			subscribe(FSSsurfaceElement.CLASS_NAME, FSSsurfaceElement.ATTRIBUTES);
+		} else {
+			logger.trace("Creating interest regions.");
+			RegionHandleSet handles = 
+					rtiAmbassador.getRegionHandleSetFactory().create();
+			for(GeographicRegion region : regions) {
+				handles.addAll(region.createRegions(rtiAmbassador));
+			}
+			interestRegionHandles = handles;
+			FSSelement.subscribeWithRegions(rtiAmbassador, 
+					FSSorbitalElement.CLASS_NAME, getSubscribedAttributes(
+							FSSorbitalElement.CLASS_NAME, 
+							FSSorbitalElement.ATTRIBUTES), 
+					FSSorbitalElement.REGION_ATTRIBUTES, handles);
+			FSSelement.subscribeWithRegions(rtiAmbassador, 
+					FSSsurfaceElement.CLASS_NAME, getSubscribedAttributes(
+							FSSsurfaceElement.CLASS_NAME, 
+							FSSsurfaceElement.ATTRIBUTES), 
+					FSSsurfaceElement.REGION_ATTRIBUTES, handles);
+		}
+	}
+
+	/**
+	 * Sets the dead reckoning applied to local and remote orbital and 
+	 * surface elements. Local elements then only send position, velocity,
+	 * and (for orbital elements) Keplerian element updates when the state 
+	 * extrapolated by subscribers exceeds an error threshold, and remote 
+	 * elements are extrapolated to each granted time. All federates should
+	 * use the same dead reckoning. A null value (default) disables dead 
+	 * reckoning.
+	 *
+	 * @param deadReckoning the new dead reckoning
+	 */
+	public void setDeadReckoning(DeadReckoning deadReckoning) {
+		logger.debug("Setting dead reckoning to " + deadReckoning + ".");
+		this.deadReckoning = deadReckoning;
+		for(HLAobject object : objectInstanceHandleMap.values()) {
+			if(object instanceof FSSelement) {
+				((FSSelement) object).setDeadReckoning(deadReckoning);
+			}
+		}
+	}
+
+	/**
+	 * Sets the window in milliseconds within which discoveries are batched.
+	 * Batched discoveries request attribute value updates per object class
+	 * where possible and notify listeners with one bulk discovery event 
+	 * when the window elapses (flushed on a daemon timer thread, so 
+	 * without further callbacks) or at the next time advance grant. A 
+	 * value of 0 (default) requests updates and notifies listeners per 
+	 * discovery.
+	 *
+	 * @param discoveryWindow the new discovery window
+	 */
+	public void setDiscoveryWindow(long discoveryWindow) {
+		this.discoveryWindow = discoveryWindow;
+	}
+
+	/**
+	 * Sets the geographic regions of interest for element state attributes
+	 * (position, velocity, and class-specific state). Names and reference 
+	 * frames are always subscribed so all elements are still discovered. 
+	 * A null value (default) subscribes element state attributes 
+	 * everywhere. Takes effect immediately if joined to a federation 
+	 * execution or otherwise at initialization.
+	 *
+	 * @param interestRegions the new interest regions
+	 */
+	public void setInterestRegions(Collection<GeographicRegion> interestRegions) {
+		logger.debug("Setting interest regions to " + interestRegions + ".");
+		this.interestRegions = interestRegions == null ? null 
+				: Collections.unmodifiableList(
+						new ArrayList<GeographicRegion>(interestRegions));
+		if(connection.isConnected() && logicalTime != null) {
+			try {
+				subscribeElements();
+			} catch (FederateNotExecutionMember ignored) {
+				logger.trace("Federate is not an execution member.");
+			} catch (RTIexception e) {
+				logger.error(e);
+			}
+		}
+	}
+
+	/**
+	 * Sets the maximum wallclock time in milliseconds to wait for an RTI 
+	 * callback. A value of zero (default) waits indefinitely. If the 
+	 * timeout elapses while enabling time management, an error is logged
+	 * and execution continues; if it elapses while waiting for a time 
+	 * advance grant, the advance throws an {@link IllegalStateException}
+	 * and remains outstanding until granted.
+	 *
+	 * @param timeout the new timeout
+	 */
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+
+	/**
+	 * Sets the angular margin in degrees of latitude and longitude around 
+	 * each local element's location used for update regions (default 1).
+	 *
+	 * @param updateRegionMargin the new update region margin
+	 */
+	public void setUpdateRegionMargin(double updateRegionMargin) {
+		this.updateRegionMargin = updateRegionMargin;
+	}
+
+	/**
+	 * Sets whether local element updates are sent with a region around each
+	 * element's current location (default false). Should be set before 
+	 * local elements are created.
+	 *
+	 * @param updateRegions true, to send updates with regions
+	 */
+	public void setUpdateRegions(boolean updateRegions) {
+		this.updateRegions = updateRegions;
+	}
+
+	/**
+	 * Sets {@link state} to {@link value} and wakes up any threads blocked
+	 * waiting for a state change.
+	 *
+	 * @param state the state
+	 * @param value the value
+	 */
+	private void signalState(AtomicBoolean state, boolean value) {
+		stateLock.lock();
+		try {
+			state.set(value);
+			stateChanged.signalAll();
+		} finally {
+			stateLock.unlock();
 		}
 	}
 
@@ -924,14 +1997,19 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 	public void terminate() {
 		logger.debug("Terminating federation execution.");
 		
-		if(timer != null) {
-			logger.debug("Cancelling callback-evoking timer.");
-			timer.cancel();
+		if(callbackDriver.isRunning()) {
+			logger.debug("Stopping callback driver.");
+			callbackDriver.stop();
 		}
 		
-		logger.trace("Processing queued actions.");
-		while(actionsToProcess.peek() != null) {
-			actionsToProcess.poll().run();
+		logger.trace("Processing scheduled commands.");
+		commandBuffer.drain(commandHandler);
+
+		CompletableFuture<Long> advance = pendingAdvance.getAndSet(null);
+		if(advance != null) {
+			logger.debug("Cancelling the pending time advance.");
+			callbackDriver.deactivate();
+			advance.cancel(false);
 		}
 
 		if(!connection.isConnected()) {
@@ -993,12 +2071,32 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 			logger.error(e);
 		}
 
+		logger.info("Send timestamp requests avoided " 
+				+ sendTimestamp.getAvoidedQueries() + " RTI queries.");
+		sendTimestamp.invalidate();
+
 		logger.debug("Removing all remaining object instances.");
-		synchronized(objectInstanceHandleMap) {
-			for(HLAobject hlaObject : objectInstanceHandleMap.values()) {
-				fireObjectRemovedEvent(hlaObject);
-			}
-			objectInstanceHandleMap.clear();
+		for(HLAobject hlaObject : objectInstanceHandleMap.values()) {
+			fireObjectRemovedEvent(hlaObject);
+		}
+		objectInstanceHandleMap.clear();
+		signalPool.clear();
+		synchronized(pendingDiscoveries) {
+			pendingDiscoveries.clear();
+		}
+		awaitingFirstReflect.clear();
+		for(Map<ObjectInstanceHandle, HLAobject> objects 
+				: remoteObjects.values()) {
+			objects.clear();
+		}
+		nameIndex.clear();
+		if(interestProfile != null) {
+			logger.info("Interest profile skipped decoding " 
+					+ getSkippedValues() + " values (" 
+					+ getSkippedBytes() + " bytes).");
+		}
+		synchronized(this) {
+			interestRegionHandles = null;
 		}
 	}
 
@@ -1018,7 +2116,15 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 		}
 		logger.info("Time advance granted to logical time " 
 				+ logicalTime.getValue());
-		timeAdvancing.set(false);
+		logger.trace("Flushing batched discoveries.");
+		flushDiscoveries(true);
+		updateSendTimestamp();
+		signalState(timeAdvancing, false);
+		CompletableFuture<Long> advance = pendingAdvance.getAndSet(null);
+		if(advance != null) {
+			callbackDriver.deactivate();
+			advance.complete((long) logicalTime.getValue());
+		}
 	}
 
 	/* (non-Javadoc)
@@ -1037,7 +2143,8 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 		}
 		logger.info("Time constrained enabled with logical time " 
 				+ logicalTime.getValue() + ".");
-		timeConstrained.set(true);
+		updateSendTimestamp();
+		signalState(timeConstrained, true);
 	}
 
 	/* (non-Javadoc)
@@ -1056,6 +2163,94 @@ public class DefaultAmbassador extends NullFederateAmbassador implements FSSamba
 		}
 		logger.info("Time regulation enabled with logical time " 
 				+ logicalTime.getValue() + ".");
-		timeRegulating.set(true);
+		updateSendTimestamp();
+		signalState(timeRegulating, true);
+	}
+
+	/**
+	 * Schedules a flush of the batched discoveries on the discovery timer
+	 * thread after a delay. A flush finding a newer batch whose window has 
+	 * not elapsed leaves it to the flush scheduled for that batch. If not
+	 * connected (no timer), batches are flushed at the next grant.
+	 *
+	 * @param delay the delay in milliseconds
+	 */
+	private void scheduleDiscoveryFlush(long delay) {
+		ScheduledExecutorService timer = discoveryTimer;
+		if(timer == null) {
+			logger.trace("No discovery timer, flushing at the next grant.");
+			return;
+		}
+		try {
+			timer.schedule(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						flushDiscoveries(false);
+					} catch(RuntimeException e) {
+						logger.error(e);
+					}
+				}
+			}, delay, TimeUnit.MILLISECONDS);
+		} catch(RejectedExecutionException e) {
+			logger.trace("Discovery timer stopped, flushing at the next grant.");
+		}
+	}
+
+	/**
+	 * Records the first reflection (or removal) of a discovered remote 
+	 * object and, once all discovered objects are reflected after joining,
+	 * the time to a full federation picture. Called when reflects are 
+	 * received, before staged values are applied.
+	 *
+	 * @param object the object
+	 */
+	private void updateFederationPicture(HLAobject object) {
+		if(awaitingFirstReflect.remove(object) 
+				&& awaitingFirstReflect.isEmpty() 
+				&& federationPictureTime < 0) {
+			federationPictureTime = System.nanoTime() - joinTime;
+			logger.info("Full federation picture after " 
+					+ federationPictureTime/1000000 + " ms.");
+		}
+	}
+
+	/**
+	 * Associates the update region of a local element with its current 
+	 * location, if update regions are enabled. Elements without a known 
+	 * location are updated in the region containing all locations.
+	 *
+	 * @param hlaObject the HLA object
+	 * @throws RTIexception the RTI exception
+	 */
+	private void updateRegion(HLAobject hlaObject) throws RTIexception {
+		if(updateRegions && hlaObject instanceof FSSelement) {
+			FSSelement element = (FSSelement) hlaObject;
+			double[] coordinates = GeographicRegion.getGeographicCoordinates(
+					element, logicalTime.getValue());
+			if(coordinates == null) {
+				element.updateRegion(GeographicRegion.ALL);
+			} else {
+				element.updateRegion(GeographicRegion.around(coordinates[0], 
+						coordinates[1], coordinates[2], updateRegionMargin));
+			}
+		}
+	}
+
+	/**
+	 * Sets the send timestamp to the current logical time plus lookahead 
+	 * without querying the RTI.
+	 */
+	private void updateSendTimestamp() {
+		if(logicalTime == null || lookaheadInterval == null) {
+			sendTimestamp.invalidate();
+			return;
+		}
+		try {
+			sendTimestamp.set(logicalTime.add(lookaheadInterval));
+		} catch (RTIexception e) {
+			logger.error(e);
+			sendTimestamp.invalidate();
+		}
 	}
 }
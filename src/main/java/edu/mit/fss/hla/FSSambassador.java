@@ -16,6 +16,11 @@
 package edu.mit.fss.hla;
 
 import hla.rti1516e.FederateAmbassador;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 import edu.mit.fss.SimInteraction;
 import edu.mit.fss.SimObject;
 import edu.mit.fss.event.ObjectChangeListener;
@@ -27,7 +32,9 @@ import edu.mit.fss.event.ObjectChangeListener;
  * {@link #connect()}, initializing the federation execution with 
  * {@link #initialize(long, long)}, advancing time with {@link #advanceTo()}, 
  * terminating a federation execution with {@link #terminate()}, and finally
- * disconnecting from the RTI with {@link #disconnect()}.
+ * disconnecting from the RTI with {@link #disconnect()}. Time may also be
+ * advanced without blocking with 
+ * {@link #advanceToAsync(long, Executor)}.
  * <p>
  * The ambassador fires object change events when local objects are created, 
  * updated, or deleted (via {@link #scheduleObjectCreation(SimObject)}, 
@@ -44,9 +51,12 @@ import edu.mit.fss.event.ObjectChangeListener;
  * {@link #receiveInteraction(InteractionClassHandle, ParameterHandleValueMap, 
  * byte[], OrderType, TransportationTypeHandle, SupplementalReceiveInfo)}
  * method).
+ * <p>
+ * Known remote objects may be queried by type with 
+ * {@link #getRemoteObjects(Class)}.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public interface FSSambassador extends FederateAmbassador {
@@ -62,9 +72,36 @@ public interface FSSambassador extends FederateAmbassador {
 	 * Advances simulation time to {@link time}.
 	 *
 	 * @param time the time
+	 * @throws IllegalStateException if the advance is not granted
 	 */
 	public void advanceTo(long time);
 	
+	/**
+	 * Requests a time advance to {@link time} without blocking and returns
+	 * a future completed with the granted time after the advance is 
+	 * granted. Remote object values received before the grant are applied
+	 * on {@link executor}, which completes the future, so dependent actions
+	 * run after them. Asynchronous advances of one ambassador must not 
+	 * overlap.
+	 *
+	 * @param time the time
+	 * @param executor the executor
+	 * @return the future granted time
+	 */
+	public CompletableFuture<Long> advanceToAsync(long time, 
+			Executor executor);
+	
+	/**
+	 * Advances simulation time to the earlier of {@link time} or the time 
+	 * of the next message delivered by the federation and returns the
+	 * granted time.
+	 *
+	 * @param time the time
+	 * @return the granted time
+	 * @throws IllegalStateException if the advance is not granted
+	 */
+	public long advanceToNextEvent(long time);
+	
 	/**
 	 * Connects this ambassador to the HLA runtime infrastructure (RTI).
 	 */
@@ -82,6 +119,19 @@ public interface FSSambassador extends FederateAmbassador {
 	 */
 	public FederationConnection getConnection();
 	
+	/**
+	 * Gets a read-only view of the known remote objects of a type, for 
+	 * example {@link edu.mit.fss.OrbitalElement}, 
+	 * {@link edu.mit.fss.SurfaceElement}, {@link edu.mit.fss.Transmitter}, 
+	 * or {@link edu.mit.fss.Receiver}. The view may be iterated from any 
+	 * thread without blocking callbacks.
+	 *
+	 * @param <T> the generic type
+	 * @param type the type
+	 * @return the remote objects
+	 */
+	public <T extends SimObject> Collection<T> getRemoteObjects(Class<T> type);
+	
 	/**
 	 * Initializes this ambassador's federation execution with an initial time 
 	 * and lookahead interval. Initialization shall create and join a federation
@@ -32,7 +32,7 @@ import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
  * {@link HLAfixedArray} array encoding.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public final class FSScartesianVector implements DataElement {
@@ -73,6 +73,22 @@ public final class FSScartesianVector implements DataElement {
 		return new Vector3D(x.getValue(), y.getValue(), z.getValue());
 	}
 	
+	/**
+	 * Checks whether this vector's components have the same bit patterns 
+	 * as a {@link Vector3D} object, without allocating.
+	 *
+	 * @param value the value
+	 * @return true, if this vector has the value
+	 */
+	public boolean hasValue(Vector3D value) {
+		return Double.doubleToLongBits(x.getValue()) 
+				== Double.doubleToLongBits(value.getX())
+				&& Double.doubleToLongBits(y.getValue()) 
+				== Double.doubleToLongBits(value.getY())
+				&& Double.doubleToLongBits(z.getValue()) 
+				== Double.doubleToLongBits(value.getZ());
+	}
+	
 	/**
 	 * Sets this vector from a {@link Vector3D} object.
 	 *
@@ -15,12 +15,25 @@
  */
 package edu.mit.fss.hla;
 
+import hla.rti1516e.AttributeHandle;
 import hla.rti1516e.AttributeHandleSet;
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.AttributeRegionAssociation;
+import hla.rti1516e.AttributeSetRegionSetPairList;
+import hla.rti1516e.LogicalTime;
+import hla.rti1516e.ObjectClassHandle;
 import hla.rti1516e.OrderType;
 import hla.rti1516e.RTIambassador;
+import hla.rti1516e.RegionHandle;
+import hla.rti1516e.RegionHandleSet;
 import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAfloat64BE;
 import hla.rti1516e.encoding.HLAunicodeString;
 import hla.rti1516e.exceptions.RTIexception;
+import hla.rti1516e.time.HLAfloat64Time;
+
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.log4j.Logger;
@@ -32,9 +45,29 @@ import edu.mit.fss.SimObject;
 /**
  * FSSelement is the HLA object class implementing the {@link Element} 
  * interface for communication with the RTI.
+ * <p>
+ * Optionally uses {@link DeadReckoning} to suppress position and velocity
+ * updates of local elements while the state extrapolated by subscribers 
+ * remains within error thresholds, and to extrapolate the state of remote 
+ * elements between updates.
+ * <p>
+ * Supports HLA data distribution management (DDM) with the Latitude, 
+ * Longitude, and Altitude dimensions: local elements may associate a 
+ * {@link GeographicRegion} with updates of their region attributes using
+ * {@link #updateRegion(GeographicRegion)} and subscribers may subscribe 
+ * to region attributes within regions of interest using 
+ * {@link #subscribeAll(RTIambassador, RegionHandleSet)}.
+ * <p>
+ * Reflected frame, position, and velocity values of remote elements, and
+ * the values of subclass attributes (see {@link #getDecodedValues()}), are
+ * copied into one immutable snapshot on the callback thread and applied at
+ * each step boundary, so readers never see values from a partially-decoded
+ * update or from different updates. Remote elements are never read from 
+ * the data elements being decoded: until a first snapshot is applied they
+ * have an empty state with an unknown frame and zero values.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class FSSelement extends HLAobject implements Element {
@@ -52,6 +85,58 @@ public class FSSelement extends HLAobject implements Element {
 		POSITION_ATTRIBUTE,
 		VELOCITY_ATTRIBUTE
 	};
+	
+	public static final String[] REGION_ATTRIBUTES = new String[]{
+		POSITION_ATTRIBUTE,
+		VELOCITY_ATTRIBUTE
+	};
+	
+	public static final String LATITUDE_DIMENSION = "Latitude",
+			LONGITUDE_DIMENSION = "Longitude",
+			ALTITUDE_DIMENSION = "Altitude";
+	
+	public static final String[] DIMENSIONS = new String[]{
+		LATITUDE_DIMENSION,
+		LONGITUDE_DIMENSION,
+		ALTITUDE_DIMENSION
+	};
+	
+	/**
+	 * An immutable snapshot of the reflected values of a remote element 
+	 * with the version and logical time of its last reflected state.
+	 */
+	private static final class Snapshot {
+		private final ReferenceFrame frame;
+		private final Vector3D position, velocity;
+		private final double[] values;
+		private final long stateVersion;
+		private final double stateTime;
+		
+		/**
+		 * Instantiates a new snapshot.
+		 *
+		 * @param frame the frame
+		 * @param position the position
+		 * @param velocity the velocity
+		 * @param values the subclass attribute values
+		 * @param stateVersion the version of the last reflected state
+		 * @param stateTime the logical time of the last reflected state (ms)
+		 */
+		Snapshot(ReferenceFrame frame, Vector3D position, Vector3D velocity,
+				double[] values, long stateVersion, double stateTime) {
+			this.frame = frame;
+			this.position = position;
+			this.velocity = velocity;
+			this.values = values;
+			this.stateVersion = stateVersion;
+			this.stateTime = stateTime;
+		}
+	}
+
+	// state of a remote element before a first snapshot is applied
+	private static final Snapshot EMPTY_SNAPSHOT = new Snapshot(
+			ReferenceFrame.UNKNOWN, Vector3D.ZERO, Vector3D.ZERO, 
+			null, 0, 0);
 
 	/**
 	 * Publishes all of this object class's attributes.
@@ -91,10 +176,135 @@ public class FSSelement extends HLAobject implements Element {
 		rtiAmbassador.subscribeObjectClassAttributes(
 				rtiAmbassador.getObjectClassHandle(CLASS_NAME), handles);
 	}
+	
+	/**
+	 * Subscribes to all of this object class's attributes, subscribing to 
+	 * region attributes only within the regions of interest.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param regions the regions of interest
+	 * @throws RTIexception the RTI exception
+	 */
+	public static void subscribeAll(RTIambassador rtiAmbassador, 
+			RegionHandleSet regions) throws RTIexception {
+		subscribeWithRegions(rtiAmbassador, CLASS_NAME, 
+				ATTRIBUTES, REGION_ATTRIBUTES, regions);
+	}
+	
+	/**
+	 * Subscribes to an element object class's attributes. Region attributes
+	 * are only subscribed within the regions of interest (replacing any 
+	 * subscription without regions) and other attributes are subscribed 
+	 * without regions.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @param regionAttributeNames the region attribute names
+	 * @param regions the regions of interest
+	 * @throws RTIexception the RTI exception
+	 */
+	protected static void subscribeWithRegions(RTIambassador rtiAmbassador, 
+			String className, String[] attributeNames, 
+			String[] regionAttributeNames, RegionHandleSet regions) 
+					throws RTIexception {
+		ObjectClassHandle classHandle = 
+				rtiAmbassador.getObjectClassHandle(className);
+		List<String> regionAttributes = Arrays.asList(regionAttributeNames);
+		AttributeHandleSet handles = 
+				rtiAmbassador.getAttributeHandleSetFactory().create();
+		AttributeHandleSet regionHandles = 
+				rtiAmbassador.getAttributeHandleSetFactory().create();
+		for(String attributeName : attributeNames) {
+			AttributeHandle handle = rtiAmbassador.getAttributeHandle(
+					classHandle, attributeName);
+			if(regionAttributes.contains(attributeName)) {
+				regionHandles.add(handle);
+			} else {
+				handles.add(handle);
+			}
+		}
+		rtiAmbassador.subscribeObjectClassAttributes(classHandle, handles);
+		if(regionHandles.isEmpty()) {
+			return;
+		}
+		rtiAmbassador.unsubscribeObjectClassAttributes(
+				classHandle, regionHandles);
+		if(!regions.isEmpty()) {
+			AttributeSetRegionSetPairList pairs = rtiAmbassador
+					.getAttributeSetRegionSetPairListFactory().create(1);
+			pairs.add(new AttributeRegionAssociation(regionHandles, regions));
+			rtiAmbassador.subscribeObjectClassAttributesWithRegions(
+					classHandle, pairs);
+		}
+	}
+	
+	/**
+	 * Unsubscribes from this object class's region attributes within 
+	 * regions of interest.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param regions the regions of interest
+	 * @throws RTIexception the RTI exception
+	 */
+	public static void unsubscribeAll(RTIambassador rtiAmbassador, 
+			RegionHandleSet regions) throws RTIexception {
+		unsubscribeWithRegions(rtiAmbassador, CLASS_NAME, 
+				REGION_ATTRIBUTES, regions);
+	}
+	
+	/**
+	 * Unsubscribes from an element object class's region attributes within
+	 * regions of interest.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param className the object class name
+	 * @param regionAttributeNames the region attribute names
+	 * @param regions the regions of interest
+	 * @throws RTIexception the RTI exception
+	 */
+	protected static void unsubscribeWithRegions(RTIambassador rtiAmbassador,
+			String className, String[] regionAttributeNames, 
+			RegionHandleSet regions) throws RTIexception {
+		if(regions.isEmpty()) {
+			return;
+		}
+		ObjectClassHandle classHandle = 
+				rtiAmbassador.getObjectClassHandle(className);
+		AttributeHandleSet regionHandles = 
+				rtiAmbassador.getAttributeHandleSetFactory().create();
+		for(String attributeName : regionAttributeNames) {
+			regionHandles.add(rtiAmbassador.getAttributeHandle(
+					classHandle, attributeName));
+		}
+		AttributeSetRegionSetPairList pairs = rtiAmbassador
+				.getAttributeSetRegionSetPairListFactory().create(1);
+		pairs.add(new AttributeRegionAssociation(regionHandles, regions));
+		rtiAmbassador.unsubscribeObjectClassAttributesWithRegions(
+				classHandle, pairs);
+	}
 
 	private final HLAunicodeString name;
 	private final FSSreferenceFrame frame;
 	private final FSScartesianVector position, velocity;
+	private volatile DeadReckoning deadReckoning;
+	// last state sent or reflected, in milliseconds of logical time
+	private Vector3D referencePosition, referenceVelocity;
+	private double referenceTime;
+	// version of the dead reckoning reference of a remote element
+	private long referenceVersion;
+	// last reflected state of a remote element (callback thread only)
+	private long stateVersion;
+	private double stateTime;
+	// snapshots of a remote element staged on the callback thread and 
+	// applied at step boundaries, null if not yet staged or applied
+	private volatile Snapshot stagedSnapshot, appliedSnapshot;
+	// extrapolated state of a remote element, null if not extrapolated
+	private volatile Vector3D[] extrapolatedState;
+	private volatile double extrapolationInterval;
+	// region associated with updates of a local element
+	private RegionHandle updateRegion;
+	private long[] updateRegionBounds;
 	
 	/**
 	 * Instantiates a new FSS element. The object is interpreted as local
@@ -115,35 +325,97 @@ public class FSSelement extends HLAobject implements Element {
 				+ "adding it as an attribute, "
 				+ " and setting the send order.");
 		name = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(NAME_ATTRIBUTE),  name);
-		sendOrderMap.put(getAttributeHandle(NAME_ATTRIBUTE), 
+		putAttributeValue(NAME_ATTRIBUTE, name, 
 				OrderType.RECEIVE);
 
 		logger.trace("Creating the frame data element, " 
 				+ "adding it as an attribute, "
 				+ " and setting the send order.");
 		frame = new FSSreferenceFrame(encoderFactory);
-		attributeValues.put(getAttributeHandle(FRAME_ATTRIBUTE), frame);
-		sendOrderMap.put(getAttributeHandle(FRAME_ATTRIBUTE), 
+		putAttributeValue(FRAME_ATTRIBUTE, frame, 
 				OrderType.RECEIVE);
 
 		logger.trace("Creating the position data element, " 
 				+ "adding it as an attribute, "
 				+ " and setting the send order.");
 		position = new FSScartesianVector(encoderFactory);
-		attributeValues.put(getAttributeHandle(POSITION_ATTRIBUTE), position);
-		sendOrderMap.put(getAttributeHandle(POSITION_ATTRIBUTE), 
+		putAttributeValue(POSITION_ATTRIBUTE, position, 
 				OrderType.TIMESTAMP);
 
 		logger.trace("Creating the velocity data element, " 
 				+ "adding it as an attribute, "
 				+ " and setting the send order.");
 		velocity = new FSScartesianVector(encoderFactory);
-		attributeValues.put(getAttributeHandle(VELOCITY_ATTRIBUTE), velocity);
-		sendOrderMap.put(getAttributeHandle(VELOCITY_ATTRIBUTE), 
+		putAttributeValue(VELOCITY_ATTRIBUTE, velocity, 
 				OrderType.TIMESTAMP);
 	}
 
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.HLAobject#applyReflectedValues()
+	 */
+	@Override
+	protected void applyReflectedValues() {
+		Snapshot snapshot = stagedSnapshot;
+		if(snapshot == null) {
+			return;
+		}
+		appliedSnapshot = snapshot;
+		if(snapshot.stateVersion != referenceVersion) {
+			referencePosition = snapshot.position;
+			referenceVelocity = snapshot.velocity;
+			referenceTime = snapshot.stateTime;
+			referenceVersion = snapshot.stateVersion;
+			extrapolatedState = null;
+		}
+	}
+
+	/**
+	 * Deletes the region associated with updates of this local element, if
+	 * any. Must be called after this object is deleted from the RTI.
+	 *
+	 * @throws RTIexception the RTI exception
+	 */
+	public void deleteRegion() throws RTIexception {
+		if(updateRegion != null) {
+			logger.trace("Deleting the update region for " + getName() + ".");
+			getRTIambassador().deleteRegion(updateRegion);
+			updateRegion = null;
+			updateRegionBounds = null;
+		}
+	}
+	
+	/**
+	 * Extrapolates a state over a time interval with the dead reckoning 
+	 * model of this object class. Elements are extrapolated linearly.
+	 *
+	 * @param deadReckoning the dead reckoning
+	 * @param position the position (m)
+	 * @param velocity the velocity (m/s)
+	 * @param interval the time interval (s)
+	 * @return the extrapolated position and velocity
+	 */
+	protected Vector3D[] extrapolate(DeadReckoning deadReckoning, 
+			Vector3D position, Vector3D velocity, double interval) {
+		return deadReckoning.extrapolateLinear(position, velocity, interval);
+	}
+	
+	/**
+	 * Extrapolates the state of this remote element from the last 
+	 * reflected state to a logical time if dead reckoning is enabled.
+	 *
+	 * @param time the logical time (ms)
+	 */
+	void extrapolateTo(double time) {
+		DeadReckoning deadReckoning = this.deadReckoning;
+		if(deadReckoning == null || referencePosition == null) {
+			return;
+		}
+		double interval = (time - referenceTime)/1000;
+		extrapolatedState = extrapolate(deadReckoning, 
+				referencePosition, referenceVelocity, interval);
+		extrapolationInterval = interval;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.sips.hla.HLAobject#getAttributeNames()
 	 */
@@ -152,12 +424,80 @@ public class FSSelement extends HLAobject implements Element {
 		return ATTRIBUTES;
 	}
 
+	/**
+	 * Gets this element's dead reckoning, or null if disabled.
+	 *
+	 * @return the dead reckoning
+	 */
+	public DeadReckoning getDeadReckoning() {
+		return deadReckoning;
+	}
+	
+	/**
+	 * Gets the names of the attributes sent together with position and 
+	 * velocity which are suppressed by dead reckoning.
+	 *
+	 * @return the dead reckoned attribute names
+	 */
+	protected String[] getDeadReckonedAttributeNames() {
+		return new String[]{POSITION_ATTRIBUTE, VELOCITY_ATTRIBUTE};
+	}
+	
+	/**
+	 * Gets the data element value of a subclass attribute of a local 
+	 * element, or the applied value of a remote element (zero if not yet 
+	 * applied).
+	 *
+	 * @param element the data element
+	 * @param index the index in the values of {@link #getDecodedValues()}
+	 * @return the value
+	 */
+	protected final double getAppliedValue(HLAfloat64BE element, int index) {
+		if(isLocal()) {
+			return element.getValue();
+		}
+		Snapshot snapshot = getAppliedSnapshot();
+		return snapshot.values == null ? 0 : snapshot.values[index];
+	}
+
+	/**
+	 * Gets the last applied snapshot of this remote element, or the empty
+	 * snapshot if none is applied yet.
+	 *
+	 * @return the applied snapshot
+	 */
+	private Snapshot getAppliedSnapshot() {
+		Snapshot snapshot = appliedSnapshot;
+		return snapshot == null ? EMPTY_SNAPSHOT : snapshot;
+	}
+	
+	/**
+	 * Gets the decoded values of subclass attributes to be included in the 
+	 * staged snapshot of this remote element. Called on the callback 
+	 * thread after each reflection. Returns null by default.
+	 *
+	 * @return the decoded values
+	 */
+	protected double[] getDecodedValues() {
+		return null;
+	}
+	
+	/**
+	 * Gets the time interval over which the state of this remote element 
+	 * is extrapolated from the last reflected state.
+	 *
+	 * @return the extrapolation interval (s)
+	 */
+	protected double getExtrapolationInterval() {
+		return extrapolatedState == null ? 0 : extrapolationInterval;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.Element#getFrame()
 	 */
 	@Override
 	public ReferenceFrame getFrame() {
-		return frame.getValue();
+		return isLocal() ? frame.getValue() : getAppliedSnapshot().frame;
 	}
 	
 	/* (non-Javadoc)
@@ -181,7 +521,21 @@ public class FSSelement extends HLAobject implements Element {
 	 */
 	@Override
 	public Vector3D getPosition() {
-		return position.getValue();
+		Vector3D[] state = extrapolatedState;
+		if(state != null) {
+			return state[0];
+		}
+		return isLocal() ? position.getValue() : getAppliedSnapshot().position;
+	}
+
+	/**
+	 * Gets the names of the attributes updated within this element's 
+	 * region.
+	 *
+	 * @return the region attribute names
+	 */
+	protected String[] getRegionAttributeNames() {
+		return REGION_ATTRIBUTES;
 	}
 
 	/* (non-Javadoc)
@@ -189,7 +543,75 @@ public class FSSelement extends HLAobject implements Element {
 	 */
 	@Override
 	public Vector3D getVelocity() {
-		return velocity.getValue();
+		Vector3D[] state = extrapolatedState;
+		if(state != null) {
+			return state[1];
+		}
+		return isLocal() ? velocity.getValue() : getAppliedSnapshot().velocity;
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.HLAobject#prepareTimestampOrderUpdate(hla.rti1516e.AttributeHandleSet, hla.rti1516e.LogicalTime, boolean)
+	 */
+	@Override
+	protected void prepareTimestampOrderUpdate(
+			AttributeHandleSet attributeHandleSet, LogicalTime timestamp,
+			boolean changedOnly) {
+		DeadReckoning deadReckoning = this.deadReckoning;
+		if(deadReckoning == null || !(timestamp instanceof HLAfloat64Time)) {
+			return;
+		}
+		AttributeHandle positionHandle = getAttributeHandle(POSITION_ATTRIBUTE);
+		AttributeHandle velocityHandle = getAttributeHandle(VELOCITY_ATTRIBUTE);
+		double time = ((HLAfloat64Time) timestamp).getValue();
+		if(changedOnly) {
+			if(!attributeHandleSet.contains(positionHandle) 
+					&& !attributeHandleSet.contains(velocityHandle)) {
+				return;
+			}
+			if(referencePosition != null && deadReckoning.isWithinThresholds(
+					extrapolate(deadReckoning, referencePosition, 
+							referenceVelocity, (time - referenceTime)/1000), 
+					position.getValue(), velocity.getValue())) {
+				logger.trace("Suppressing dead reckoned attributes for " 
+						+ getName() + ".");
+				for(String attributeName : getDeadReckonedAttributeNames()) {
+					attributeHandleSet.remove(getAttributeHandle(attributeName));
+				}
+				return;
+			}
+			logger.trace("Sending dead reckoned attributes for " 
+					+ getName() + ".");
+			for(String attributeName : getDeadReckonedAttributeNames()) {
+				attributeHandleSet.add(getAttributeHandle(attributeName));
+			}
+		} else if(!attributeHandleSet.contains(positionHandle) 
+				|| !attributeHandleSet.contains(velocityHandle)) {
+			return;
+		}
+		referencePosition = position.getValue();
+		referenceVelocity = velocity.getValue();
+		referenceTime = time;
+	}
+	
+	/**
+	 * Records the reflected state of this remote element as the reference 
+	 * for dead reckoning if position or velocity was reflected. The 
+	 * reference is staged and applied with the reflected values at the 
+	 * next step boundary.
+	 *
+	 * @param attributeHandleValueMap the reflected attributes
+	 * @param time the logical time of the reflected state (ms)
+	 */
+	void reflectState(AttributeHandleValueMap attributeHandleValueMap, 
+			double time) {
+		if(attributeHandleValueMap.containsKey(
+				getAttributeHandle(POSITION_ATTRIBUTE)) 
+				|| attributeHandleValueMap.containsKey(
+						getAttributeHandle(VELOCITY_ATTRIBUTE))) {
+			stateVersion++;
+			stateTime = time;
+		}
 	}
 
 	/* (non-Javadoc)
@@ -199,10 +621,10 @@ public class FSSelement extends HLAobject implements Element {
 	public void setAttributes(SimObject object) {
 		if(object instanceof Element) {
 			Element element = (Element) object;
-			name.setValue(element.getName());
-			frame.setValue(element.getFrame());
-			position.setValue(element.getPosition());
-			velocity.setValue(element.getVelocity());
+			setAttributeValue(name, element.getName());
+			setAttributeValue(frame, element.getFrame());
+			setAttributeValue(position, element.getPosition());
+			setAttributeValue(velocity, element.getVelocity());
 		} else {
 			logger.warn("Incompatible object passed: expected " 
 					+ Element.class + " but received "
@@ -210,6 +632,30 @@ public class FSSelement extends HLAobject implements Element {
 		}
 	}
 	
+	/**
+	 * Sets this element's dead reckoning. A null value disables dead 
+	 * reckoning so all changed position and velocity values are sent and 
+	 * remote states are not extrapolated.
+	 *
+	 * @param deadReckoning the new dead reckoning
+	 */
+	public void setDeadReckoning(DeadReckoning deadReckoning) {
+		this.deadReckoning = deadReckoning;
+		if(deadReckoning == null) {
+			extrapolatedState = null;
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.HLAobject#stageDecodedValues()
+	 */
+	@Override
+	protected void stageDecodedValues() {
+		stagedSnapshot = new Snapshot(frame.getValue(), position.getValue(), 
+				velocity.getValue(), getDecodedValues(), 
+				stateVersion, stateTime);
+	}
+	
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.hla.HLAobject#toString()
 	 */
@@ -221,4 +667,50 @@ public class FSSelement extends HLAobject implements Element {
 				.append(", velocity: ").append(getVelocity().toString())
 				.append("}").toString();
 	}
+	
+	/**
+	 * Associates a geographic region with updates of this local element's
+	 * region attributes. The region is created and associated on the first
+	 * call and its range bounds are modified (if changed) on later calls. 
+	 * Regions wrapping the antimeridian are not supported for updates.
+	 *
+	 * @param region the region
+	 * @throws RTIexception the RTI exception
+	 */
+	public void updateRegion(GeographicRegion region) throws RTIexception {
+		if(region.isWrapping()) {
+			throw new IllegalArgumentException(
+					"Update region cannot wrap the antimeridian.");
+		}
+		long[] bounds = region.getNormalizedBounds();
+		if(updateRegion != null && Arrays.equals(bounds, updateRegionBounds)) {
+			return;
+		}
+		RTIambassador rtiAmbassador = getRTIambassador();
+		if(updateRegion == null) {
+			logger.trace("Associating update region " + region 
+					+ " with " + getName() + ".");
+			RegionHandleSet regions = region.createRegions(rtiAmbassador);
+			AttributeHandleSet regionHandles = 
+					rtiAmbassador.getAttributeHandleSetFactory().create();
+			for(String attributeName : getRegionAttributeNames()) {
+				regionHandles.add(getAttributeHandle(attributeName));
+			}
+			AttributeSetRegionSetPairList pairs = rtiAmbassador
+					.getAttributeSetRegionSetPairListFactory().create(1);
+			pairs.add(new AttributeRegionAssociation(regionHandles, regions));
+			rtiAmbassador.associateRegionsForUpdates(
+					getObjectInstanceHandle(), pairs);
+			updateRegion = regions.iterator().next();
+		} else {
+			logger.trace("Modifying update region of " + getName() 
+					+ " to " + region + ".");
+			region.setRangeBounds(rtiAmbassador, updateRegion);
+			RegionHandleSet regions = 
+					rtiAmbassador.getRegionHandleSetFactory().create();
+			regions.add(updateRegion);
+			rtiAmbassador.commitRegionModifications(regions);
+		}
+		updateRegionBounds = bounds;
+	}
 }
@@ -18,10 +18,13 @@ package edu.mit.fss.hla;
 import hla.rti1516e.AttributeHandleSet;
 import hla.rti1516e.OrderType;
 import hla.rti1516e.RTIambassador;
+import hla.rti1516e.RegionHandleSet;
 import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.encoding.HLAfloat64BE;
 import hla.rti1516e.exceptions.RTIexception;
 
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
 import org.apache.log4j.Logger;
 
 import edu.mit.fss.OrbitalElement;
@@ -30,9 +33,13 @@ import edu.mit.fss.SimObject;
 /**
  * FSSorbitalElement is the HLA object class implementing the 
  * {@link OrbitalElement} interface for communication with the RTI.
+ * Dead reckoning extrapolates orbital elements with two-body motion and
+ * suppresses the Keplerian elements together with position and velocity.
+ * Reflected Keplerian elements of remote orbital elements are applied 
+ * together with the element state at each step boundary.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class FSSorbitalElement extends FSSelement implements OrbitalElement {
@@ -58,6 +65,17 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 		ARGUMENT_OF_PERIAPSIS_ATTRIBUTE,
 		MEAN_ANOMALY_ATTRIBUTE
 	};
+	
+	public static final String[] REGION_ATTRIBUTES = new String[]{
+		POSITION_ATTRIBUTE,
+		VELOCITY_ATTRIBUTE,
+		ECCENTRICITY_ATTRIBUTE,
+		SEMIMAJOR_AXIS_ATTRIBUTE,
+		INCLINATION_ATTRIBUTE,
+		LONGITUDE_ASCENDING_NODE_ATTRIBUTE,
+		ARGUMENT_OF_PERIAPSIS_ATTRIBUTE,
+		MEAN_ANOMALY_ATTRIBUTE
+	};
 
 	/**
 	 * Publishes all of this object class's attributes.
@@ -98,6 +116,34 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 				rtiAmbassador.getObjectClassHandle(CLASS_NAME), handles);
 	}
 	
+	/**
+	 * Subscribes to all of this object class's attributes, subscribing to 
+	 * region attributes only within the regions of interest.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param regions the regions of interest
+	 * @throws RTIexception the RTI exception
+	 */
+	public static void subscribeAll(RTIambassador rtiAmbassador, 
+			RegionHandleSet regions) throws RTIexception {
+		subscribeWithRegions(rtiAmbassador, CLASS_NAME, 
+				ATTRIBUTES, REGION_ATTRIBUTES, regions);
+	}
+	
+	/**
+	 * Unsubscribes from this object class's region attributes within 
+	 * regions of interest.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param regions the regions of interest
+	 * @throws RTIexception the RTI exception
+	 */
+	public static void unsubscribeAll(RTIambassador rtiAmbassador, 
+			RegionHandleSet regions) throws RTIexception {
+		unsubscribeWithRegions(rtiAmbassador, CLASS_NAME, 
+				REGION_ATTRIBUTES, regions);
+	}
+	
 	private final HLAfloat64BE eccentricity;
 	private final HLAfloat64BE semimajorAxis;
 	private final HLAfloat64BE inclination;
@@ -123,62 +169,70 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 		// create the eccentricity data element, add it as an attribute, 
 		// and set the send order
 		eccentricity = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(getAttributeHandle(ECCENTRICITY_ATTRIBUTE),  
-				eccentricity);
-		sendOrderMap.put(getAttributeHandle(ECCENTRICITY_ATTRIBUTE), 
+		putAttributeValue(ECCENTRICITY_ATTRIBUTE, eccentricity, 
 				OrderType.TIMESTAMP);
 		
 		// create the semimajor axis data element, add it as an attribute, 
 		// and set the send order
 		semimajorAxis = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(getAttributeHandle(SEMIMAJOR_AXIS_ATTRIBUTE), 
-				semimajorAxis);
-		sendOrderMap.put(getAttributeHandle(SEMIMAJOR_AXIS_ATTRIBUTE), 
+		putAttributeValue(SEMIMAJOR_AXIS_ATTRIBUTE, semimajorAxis, 
 				OrderType.TIMESTAMP);
 
 		// create the inclination data element, add it as an attribute, 
 		// and set the send order
 		inclination = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(getAttributeHandle(INCLINATION_ATTRIBUTE), 
-				inclination);
-		sendOrderMap.put(getAttributeHandle(INCLINATION_ATTRIBUTE), 
+		putAttributeValue(INCLINATION_ATTRIBUTE, inclination, 
 				OrderType.TIMESTAMP);
 
 		// create the LAAN data element, add it as an attribute, 
 		// and set the send order
 		longitudeOfAscendingNode = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(
-				getAttributeHandle(LONGITUDE_ASCENDING_NODE_ATTRIBUTE), 
-				longitudeOfAscendingNode);
-		sendOrderMap.put(
-				getAttributeHandle(LONGITUDE_ASCENDING_NODE_ATTRIBUTE), 
-				OrderType.TIMESTAMP);
+		putAttributeValue(LONGITUDE_ASCENDING_NODE_ATTRIBUTE, 
+				longitudeOfAscendingNode, OrderType.TIMESTAMP);
 		
 		// create the argument of periapsis data element, add it as an 
 		// attribute, and set the send order
 		argumentOfPeriapsis = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(
-				getAttributeHandle(ARGUMENT_OF_PERIAPSIS_ATTRIBUTE), 
-				argumentOfPeriapsis);
-		sendOrderMap.put(
-				getAttributeHandle(ARGUMENT_OF_PERIAPSIS_ATTRIBUTE), 
-				OrderType.TIMESTAMP);
+		putAttributeValue(ARGUMENT_OF_PERIAPSIS_ATTRIBUTE, 
+				argumentOfPeriapsis, OrderType.TIMESTAMP);
 
 		// create the mean anomaly data element, add it as an attribute, 
 		// and set the send order
 		meanAnomaly = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(getAttributeHandle(MEAN_ANOMALY_ATTRIBUTE), 
-				meanAnomaly);
-		sendOrderMap.put(getAttributeHandle(MEAN_ANOMALY_ATTRIBUTE), 
+		putAttributeValue(MEAN_ANOMALY_ATTRIBUTE, meanAnomaly, 
 				OrderType.TIMESTAMP);
 	}
 
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSelement#extrapolate(edu.mit.fss.hla.DeadReckoning, org.apache.commons.math3.geometry.euclidean.threed.Vector3D, org.apache.commons.math3.geometry.euclidean.threed.Vector3D, double)
+	 */
+	@Override
+	protected Vector3D[] extrapolate(DeadReckoning deadReckoning, 
+			Vector3D position, Vector3D velocity, double interval) {
+		return deadReckoning.extrapolateKeplerian(position, velocity, interval);
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.OrbitalElement#getArgumentOfPeriapsis()
 	 */
 	@Override
 	public double getArgumentOfPeriapsis() {
-		return argumentOfPeriapsis.getValue();
+		return getAppliedValue(argumentOfPeriapsis, 4);
+	}
+	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSelement#getDecodedValues()
+	 */
+	@Override
+	protected double[] getDecodedValues() {
+		// Keplerian elements in the order of the applied value indices
+		return new double[]{
+				eccentricity.getValue(),
+				semimajorAxis.getValue(),
+				inclination.getValue(),
+				longitudeOfAscendingNode.getValue(),
+				argumentOfPeriapsis.getValue(),
+				meanAnomaly.getValue()};
 	}
 	
 	/* (non-Javadoc)
@@ -189,12 +243,20 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 		return ATTRIBUTES;
 	}
 
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSelement#getDeadReckonedAttributeNames()
+	 */
+	@Override
+	protected String[] getDeadReckonedAttributeNames() {
+		return REGION_ATTRIBUTES;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.OrbitalElement#getEccentricity()
 	 */
 	@Override
 	public double getEccentricity() {
-		return eccentricity.getValue();
+		return getAppliedValue(eccentricity, 0);
 	}
 
 	/* (non-Javadoc)
@@ -202,7 +264,7 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 	 */
 	@Override
 	public double getInclination() {
-		return inclination.getValue();
+		return getAppliedValue(inclination, 2);
 	}
 
 	/* (non-Javadoc)
@@ -210,7 +272,7 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 	 */
 	@Override
 	public double getLongitudeOfAscendingNode() {
-		return longitudeOfAscendingNode.getValue();
+		return getAppliedValue(longitudeOfAscendingNode, 3);
 	}
 
 	/* (non-Javadoc)
@@ -218,7 +280,21 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 	 */
 	@Override
 	public double getMeanAnomaly() {
-		return meanAnomaly.getValue();
+		double interval = getExtrapolationInterval();
+		DeadReckoning deadReckoning = getDeadReckoning();
+		double a = getSemimajorAxis();
+		double m = getAppliedValue(meanAnomaly, 5);
+		if(interval == 0 || deadReckoning == null || !(a > 0)) {
+			return m;
+		}
+		// advance the mean anomaly (degrees) by the mean motion over the 
+		// interval and normalize it to [0, 360)
+		double anomaly = (m + FastMath.toDegrees(FastMath.sqrt(
+				deadReckoning.getMu()/(a*a*a))*interval) % 360) % 360;
+		if(anomaly < 0) {
+			anomaly += 360;
+		}
+		return anomaly < 360 ? anomaly : 0;
 	}
 
 	/* (non-Javadoc)
@@ -229,12 +305,20 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 		return CLASS_NAME;
 	}
 
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSelement#getRegionAttributeNames()
+	 */
+	@Override
+	protected String[] getRegionAttributeNames() {
+		return REGION_ATTRIBUTES;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.OrbitalElement#getSemimajorAxis()
 	 */
 	@Override
 	public double getSemimajorAxis() {
-		return semimajorAxis.getValue();
+		return getAppliedValue(semimajorAxis, 1);
 	}
 
 	/* (non-Javadoc)
@@ -245,14 +329,14 @@ public class FSSorbitalElement extends FSSelement implements OrbitalElement {
 		super.setAttributes(object);
 		if(object instanceof OrbitalElement) {
 			OrbitalElement orbitalElement = (OrbitalElement) object;
-			eccentricity.setValue(orbitalElement.getEccentricity());
-			semimajorAxis.setValue(orbitalElement.getSemimajorAxis());
-			inclination.setValue(orbitalElement.getInclination());
-			longitudeOfAscendingNode.setValue(
+			setAttributeValue(eccentricity, orbitalElement.getEccentricity());
+			setAttributeValue(semimajorAxis, orbitalElement.getSemimajorAxis());
+			setAttributeValue(inclination, orbitalElement.getInclination());
+			setAttributeValue(longitudeOfAscendingNode, 
 					orbitalElement.getLongitudeOfAscendingNode());
-			argumentOfPeriapsis.setValue(
+			setAttributeValue(argumentOfPeriapsis, 
 					orbitalElement.getArgumentOfPeriapsis());
-			meanAnomaly.setValue(orbitalElement.getMeanAnomaly());
+			setAttributeValue(meanAnomaly, orbitalElement.getMeanAnomaly());
 		} else {
 			logger.warn("Incompatible object passed: expected " 
 					+ OrbitalElement.class + " but received "
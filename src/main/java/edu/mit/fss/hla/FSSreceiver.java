@@ -36,7 +36,7 @@ import edu.mit.fss.Transmitter;
  * {@link Receiver} interface for communication with the RTI.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class FSSreceiver extends HLAobject implements Receiver {
@@ -97,10 +97,13 @@ public class FSSreceiver extends HLAobject implements Receiver {
 				attributeHandleSet);
 	}
 
-	private Element element;
+	private final NamedReference<Element> element = 
+			new NamedReference<Element>(Element.class);
 	private final HLAunicodeString name;
 	private final HLAunicodeString elementName;
-	private Transmitter transmitter;
+	private final NamedReference<Transmitter> transmitter = 
+			new NamedReference<Transmitter>(Transmitter.class);
+	private volatile ObjectNameIndex referenceIndex;
 	private final HLAunicodeString type;
 	private final HLAunicodeString state;
 	private final HLAunicodeString transmitterName;
@@ -123,39 +126,32 @@ public class FSSreceiver extends HLAobject implements Receiver {
 		// create the name data element, add it as an attribute, 
 		// and set the send order
 		name = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(NAME_ATTRIBUTE),  name);
-		sendOrderMap.put(getAttributeHandle(NAME_ATTRIBUTE), 
+		putAttributeValue(NAME_ATTRIBUTE, name, 
 				OrderType.RECEIVE);
 
 
 		// create the element name data element, add it as an attribute, 
 		// and set the send order
 		elementName = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(ELEMENT_ATTRIBUTE), 
-				elementName);
-		sendOrderMap.put(getAttributeHandle(ELEMENT_ATTRIBUTE), 
+		putAttributeValue(ELEMENT_ATTRIBUTE, elementName, 
 				OrderType.TIMESTAMP);
 		
 		// create the state data element, add it as an attribute, 
 		// and set the send order
 		state = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(STATE_ATTRIBUTE),  state);
-		sendOrderMap.put(getAttributeHandle(STATE_ATTRIBUTE), 
+		putAttributeValue(STATE_ATTRIBUTE, state, 
 				OrderType.TIMESTAMP);
 
 		// create the type data element, add it as an attribute, 
 		// and set the send order
 		type = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(TYPE_ATTRIBUTE), type);
-		sendOrderMap.put(getAttributeHandle(TYPE_ATTRIBUTE), 
+		putAttributeValue(TYPE_ATTRIBUTE, type, 
 				OrderType.TIMESTAMP);
 
 		// create the transmitter name data element, add it as an attribute, 
 		// and set the send order
 		transmitterName = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(TRANSMITTER_ATTRIBUTE), 
-				transmitterName);
-		sendOrderMap.put(getAttributeHandle(TRANSMITTER_ATTRIBUTE), 
+		putAttributeValue(TRANSMITTER_ATTRIBUTE, transmitterName, 
 				OrderType.TIMESTAMP);
 	}
 
@@ -172,7 +168,7 @@ public class FSSreceiver extends HLAobject implements Receiver {
 	 */
 	@Override
 	public Element getElement() {
-		return element;
+		return element.get(referenceIndex, elementName.getValue());
 	}
 
 	/* (non-Javadoc)
@@ -212,7 +208,7 @@ public class FSSreceiver extends HLAobject implements Receiver {
 	 */
 	@Override
 	public Transmitter getTransmitter() {
-		return transmitter;
+		return transmitter.get(referenceIndex, transmitterName.getValue());
 	}
 	
 	/* (non-Javadoc)
@@ -238,11 +234,11 @@ public class FSSreceiver extends HLAobject implements Receiver {
 	public void setAttributes(SimObject object) {
 		if(object instanceof Receiver) {
 			Receiver receiver = (Receiver)object;
-			name.setValue(receiver.getName());
-			elementName.setValue(receiver.getElementName());
-			state.setValue(receiver.getReceiverState());
-			type.setValue(receiver.getReceiverType());
-			transmitterName.setValue(receiver.getTransmitterName());
+			setAttributeValue(name, receiver.getName());
+			setAttributeValue(elementName, receiver.getElementName());
+			setAttributeValue(state, receiver.getReceiverState());
+			setAttributeValue(type, receiver.getReceiverType());
+			setAttributeValue(transmitterName, receiver.getTransmitterName());
 		} else {
 			logger.warn("Incompatible object passed: expected " 
 					+ Receiver.class + " but received "
@@ -257,8 +253,9 @@ public class FSSreceiver extends HLAobject implements Receiver {
 	 * @param knownElements the collection of known objects
 	 */
 	public void setElement(Collection<? extends HLAobject> knownObjects) {
-		if(element == null 
-				|| !elementName.getValue().equals(element.getName())) {
+		Element current = element.get();
+		if(current == null 
+				|| !elementName.getValue().equals(current.getName())) {
 			logger.trace("Searching for the associated element with name " 
 					+ elementName.getValue() + ".");
 			for(HLAobject object : knownObjects) {
@@ -267,23 +264,36 @@ public class FSSreceiver extends HLAobject implements Receiver {
 								elementName.getValue())) {
 					logger.trace("Found the associated element " 
 								+ object + ".");
-					this.element = (Element) object;
+					element.set((Element) object);
 				}
 			}
-			if(element == null) {
+			if(element.get() == null) {
 				logger.warn("Element with name " + elementName.getValue() 
 						+ " is not a known object instance.");
 			}
 		}
 	}
 
+	/**
+	 * Sets the index used to lazily resolve this receiver's element and 
+	 * transmitter references by name. References are re-resolved after the 
+	 * stored names or the index changes.
+	 *
+	 * @param referenceIndex the reference index
+	 */
+	public void setReferenceIndex(ObjectNameIndex referenceIndex) {
+		this.referenceIndex = referenceIndex;
+	}
+
 	/**
 	 * Sets the element links.
 	 *
 	 * @param elements the new element links
 	 */
 	public void setTransmitter(Collection<? extends HLAobject> knownObjects) {
-		if(transmitter == null || !transmitterName.getValue().equals(transmitter.getName())) {
+		Transmitter current = transmitter.get();
+		if(current == null 
+				|| !transmitterName.getValue().equals(current.getName())) {
 			logger.trace("Searching for the associated transmitter with name " 
 					+ transmitterName.getValue() + ".");
 			for(HLAobject object : knownObjects) {
@@ -291,11 +301,11 @@ public class FSSreceiver extends HLAobject implements Receiver {
 						&& ((Transmitter)object).getName().equals(
 								transmitterName.getValue())) {
 					logger.trace("Found the associated transmitter " + object + ".");
-					this.transmitter = ((Transmitter) object);
+					transmitter.set((Transmitter) object);
 					break;
 				}
 			}
-			if(transmitter == null) {
+			if(transmitter.get() == null) {
 				logger.warn("Transmitter with name " + transmitterName.getValue() 
 						+ " is not a known object instance.");
 			}
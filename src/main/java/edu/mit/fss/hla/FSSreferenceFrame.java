@@ -106,6 +106,17 @@ public class FSSreferenceFrame implements DataElement {
 		return ReferenceFrame.getReferenceFrame(value.getValue());
 	}
 
+	/**
+	 * Checks whether this data element has the value of a 
+	 * {@link ReferenceFrame} object, without a frame lookup.
+	 *
+	 * @param frame the frame
+	 * @return true, if this data element has the value
+	 */
+	public boolean hasValue(ReferenceFrame frame) {
+		return value.getValue() == frame.getId();
+	}
+
 	/**
 	 * Sets this data element from a {@link ReferenceFrame} object.
 	 *
@@ -16,16 +16,12 @@
 package edu.mit.fss.hla;
 
 import hla.rti1516e.OrderType;
-import hla.rti1516e.ParameterHandle;
 import hla.rti1516e.RTIambassador;
-import hla.rti1516e.encoding.DataElement;
 import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.encoding.HLAunicodeString;
 import hla.rti1516e.exceptions.RTIexception;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.apache.log4j.Logger;
 
@@ -36,7 +32,9 @@ import edu.mit.fss.Transmitter;
 
 /**
  * FSSsignal is the HLA interaction class implementing the {@link Signal} 
- * interface for communication with the RTI.
+ * interface for communication with the RTI. Outgoing signals may be 
+ * reused: setting parameters from a local signal only re-encodes the 
+ * parameters which changed since the last send.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
  * @version 0.2.1
@@ -82,11 +80,12 @@ public class FSSsignal extends HLAinteraction implements Signal {
 				rtiAmbassador.getInteractionClassHandle(CLASS_NAME));
 	}
 
-	private Element element;
-	private Transmitter transmitter;
+	private final NamedReference<Element> element = 
+			new NamedReference<Element>(Element.class);
+	private final NamedReference<Transmitter> transmitter = 
+			new NamedReference<Transmitter>(Transmitter.class);
+	private volatile ObjectNameIndex referenceIndex;
 	private final HLAunicodeString transmitterName, elementName, type, content;
-	protected final Map<ParameterHandle,DataElement> parameterValues = 
-			new HashMap<ParameterHandle,DataElement>();
 	
 	/**
 	 * Instantiates a new FSS signal.
@@ -101,23 +100,19 @@ public class FSSsignal extends HLAinteraction implements Signal {
 
 		// create the transmitter name data element and add it as a parameter
 		transmitterName = encoderFactory.createHLAunicodeString();
-		parameterValues.put(
-				getParameterHandle(TRANSMITTER_PARAMETER), transmitterName);
+		putParameterValue(TRANSMITTER_PARAMETER, transmitterName);
 
 		// create the element name data element and add it as a parameter
 		elementName = encoderFactory.createHLAunicodeString();
-		parameterValues.put(
-				getParameterHandle(ELEMENT_PARAMETER), elementName);
+		putParameterValue(ELEMENT_PARAMETER, elementName);
 
 		// create the type data element and add it as a parameter
 		type = encoderFactory.createHLAunicodeString();
-		parameterValues.put(
-				getParameterHandle(TYPE_PARAMETER), type);
+		putParameterValue(TYPE_PARAMETER, type);
 
 		// create the content data element and add it as a parameter
 		content = encoderFactory.createHLAunicodeString();
-		parameterValues.put(
-				getParameterHandle(CONTENT_PARAMETER), content);
+		putParameterValue(CONTENT_PARAMETER, content);
 	}
 
 	/* (non-Javadoc)
@@ -133,7 +128,7 @@ public class FSSsignal extends HLAinteraction implements Signal {
 	 */
 	@Override
 	public Element getElement() {
-		return element;
+		return element.get(referenceIndex, elementName.getValue());
 	}
 
 	/* (non-Javadoc)
@@ -160,14 +155,6 @@ public class FSSsignal extends HLAinteraction implements Signal {
 		return PARAMETERS;
 	}
 
-	/* (non-Javadoc)
-	 * @see edu.mit.fss.hla.HLAinteraction#getParameterValue(hla.rti1516e.ParameterHandle)
-	 */
-	@Override
-	public DataElement getParameterValue(ParameterHandle parameterHandle) {
-		return parameterValues.get(parameterHandle);
-	}
-
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.hla.HLAinteraction#getSendOrder()
 	 */
@@ -181,7 +168,7 @@ public class FSSsignal extends HLAinteraction implements Signal {
 	 */
 	@Override
 	public Transmitter getTransmitter() {
-		return transmitter;
+		return transmitter.get(referenceIndex, transmitterName.getValue());
 	}
 
 	/* (non-Javadoc)
@@ -207,8 +194,9 @@ public class FSSsignal extends HLAinteraction implements Signal {
 	 * @param knownElements the collection of known objects
 	 */
 	public void setElement(Collection<? extends HLAobject> knownObjects) {
-		if(element == null 
-				|| !elementName.getValue().equals(element.getName())) {
+		Element current = element.get();
+		if(current == null 
+				|| !elementName.getValue().equals(current.getName())) {
 			logger.trace("Searching for the associated element with name " 
 					+ elementName.getValue() + ".");
 			for(HLAobject object : knownObjects) {
@@ -217,10 +205,10 @@ public class FSSsignal extends HLAinteraction implements Signal {
 								elementName.getValue())) {
 					logger.trace("Found the associated element " 
 								+ object + ".");
-					this.element = (Element) object;
+					element.set((Element) object);
 				}
 			}
-			if(element == null) {
+			if(element.get() == null) {
 				logger.warn("Element with name " + elementName.getValue() 
 						+ " is not a known object instance.");
 			}
@@ -234,12 +222,12 @@ public class FSSsignal extends HLAinteraction implements Signal {
 	public void setParameters(SimInteraction object) {
 		if(object instanceof Signal) {
 			Signal signal = (Signal) object;
-			transmitterName.setValue(signal.getTransmitterName());
-			elementName.setValue(signal.getElementName());
-			type.setValue(signal.getType());
-			content.setValue(signal.getContent());
-			element = signal.getElement();
-			transmitter = signal.getTransmitter();
+			setParameterValue(transmitterName, signal.getTransmitterName());
+			setParameterValue(elementName, signal.getElementName());
+			setParameterValue(type, signal.getType());
+			setParameterValue(content, signal.getContent());
+			element.set(signal.getElement());
+			transmitter.set(signal.getTransmitter());
 		} else {
 			logger.warn("Incompatible object passed: expected " 
 					+ Signal.class + " but received "
@@ -247,6 +235,17 @@ public class FSSsignal extends HLAinteraction implements Signal {
 		}
 	}
 
+	/**
+	 * Sets the index used to lazily resolve this signal's element and 
+	 * transmitter references by name. References are re-resolved after the 
+	 * stored names or the index changes.
+	 *
+	 * @param referenceIndex the reference index
+	 */
+	public void setReferenceIndex(ObjectNameIndex referenceIndex) {
+		this.referenceIndex = referenceIndex;
+	}
+
 	/**
 	 * Sets this signal's transmitter object reference by comparing
 	 * the stored transmitter name with names of known HLA objects
@@ -255,8 +254,9 @@ public class FSSsignal extends HLAinteraction implements Signal {
 	 * @param knownObjects the collection of known objects
 	 */
 	public void setTransmitter(Collection<? extends HLAobject> knownObjects) {
-		if(transmitter == null 
-				|| !transmitterName.getValue().equals(transmitter.getName())) {
+		Transmitter current = transmitter.get();
+		if(current == null 
+				|| !transmitterName.getValue().equals(current.getName())) {
 			logger.trace("Searching for the associated transmitter with name " 
 					+ transmitterName.getValue() + ".");
 			for(HLAobject object : knownObjects) {
@@ -265,10 +265,10 @@ public class FSSsignal extends HLAinteraction implements Signal {
 								transmitterName.getValue())) {
 					logger.trace("Found the associated transmitter " 
 							+ object + ".");
-					this.transmitter = ((Transmitter) object);
+					transmitter.set((Transmitter) object);
 				}
 			}
-			if(transmitter == null) {
+			if(transmitter.get() == null) {
 				logger.warn("Transmitter with name " + elementName.getValue() 
 						+ " is not a known object instance.");
 			}
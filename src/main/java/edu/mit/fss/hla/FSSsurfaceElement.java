@@ -18,6 +18,7 @@ package edu.mit.fss.hla;
 import hla.rti1516e.AttributeHandleSet;
 import hla.rti1516e.OrderType;
 import hla.rti1516e.RTIambassador;
+import hla.rti1516e.RegionHandleSet;
 import hla.rti1516e.encoding.EncoderFactory;
 import hla.rti1516e.encoding.HLAfloat64BE;
 import hla.rti1516e.exceptions.RTIexception;
@@ -30,9 +31,11 @@ import edu.mit.fss.SurfaceElement;
 /**
  * FSSsurfaceElement is the HLA object class implementing the 
  * {@link SurfaceElement} interface for communication with the RTI.
+ * Updates of position, velocity, and geodetic coordinates may be 
+ * associated with a {@link GeographicRegion}.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
@@ -52,6 +55,14 @@ public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
 		LONGITUDE_ATTRIBUTE,
 		ALTITUDE_ATTRIBUTE
 	};
+	
+	public static final String[] REGION_ATTRIBUTES = new String[]{
+		POSITION_ATTRIBUTE,
+		VELOCITY_ATTRIBUTE,
+		LATITUDE_ATTRIBUTE,
+		LONGITUDE_ATTRIBUTE,
+		ALTITUDE_ATTRIBUTE
+	};
 
 	/**
 	 * Publishes all of this object class's attributes.
@@ -92,6 +103,34 @@ public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
 				rtiAmbassador.getObjectClassHandle(CLASS_NAME), handles);
 	}
 	
+	/**
+	 * Subscribes to all of this object class's attributes, subscribing to 
+	 * region attributes only within the regions of interest.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param regions the regions of interest
+	 * @throws RTIexception the RTI exception
+	 */
+	public static void subscribeAll(RTIambassador rtiAmbassador, 
+			RegionHandleSet regions) throws RTIexception {
+		subscribeWithRegions(rtiAmbassador, CLASS_NAME, 
+				ATTRIBUTES, REGION_ATTRIBUTES, regions);
+	}
+	
+	/**
+	 * Unsubscribes from this object class's region attributes within 
+	 * regions of interest.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param regions the regions of interest
+	 * @throws RTIexception the RTI exception
+	 */
+	public static void unsubscribeAll(RTIambassador rtiAmbassador, 
+			RegionHandleSet regions) throws RTIexception {
+		unsubscribeWithRegions(rtiAmbassador, CLASS_NAME, 
+				REGION_ATTRIBUTES, regions);
+	}
+	
 	private final HLAfloat64BE latitude;
 	private final HLAfloat64BE longitude;
 	private final HLAfloat64BE altitude;
@@ -114,28 +153,34 @@ public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
 		// create the latitude data element, add it as an attribute, 
 		// and set the send order
 		latitude = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(getAttributeHandle(LATITUDE_ATTRIBUTE), 
-				latitude);
-		sendOrderMap.put(getAttributeHandle(LATITUDE_ATTRIBUTE), 
+		putAttributeValue(LATITUDE_ATTRIBUTE, latitude, 
 				OrderType.TIMESTAMP);
 
 		// create the longitude data element, add it as an attribute, 
 		// and set the send order
 		longitude = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(getAttributeHandle(LONGITUDE_ATTRIBUTE), 
-				longitude);
-		sendOrderMap.put(getAttributeHandle(LONGITUDE_ATTRIBUTE), 
+		putAttributeValue(LONGITUDE_ATTRIBUTE, longitude, 
 				OrderType.TIMESTAMP);
 
 		// create the altitude data element, add it as an attribute, 
 		// and set the send order
 		altitude = encoderFactory.createHLAfloat64BE();
-		attributeValues.put(getAttributeHandle(ALTITUDE_ATTRIBUTE), 
-				altitude);
-		sendOrderMap.put(getAttributeHandle(ALTITUDE_ATTRIBUTE), 
+		putAttributeValue(ALTITUDE_ATTRIBUTE, altitude, 
 				OrderType.TIMESTAMP);
 	}
 	
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSelement#getDecodedValues()
+	 */
+	@Override
+	protected double[] getDecodedValues() {
+		// geodetic coordinates in the order of the applied value indices
+		return new double[]{
+				latitude.getValue(),
+				longitude.getValue(),
+				altitude.getValue()};
+	}
+	
 	/* (non-Javadoc)
 	 * @see edu.mit.sips.hla.HLAobject#getAttributeNames()
 	 */
@@ -152,6 +197,14 @@ public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
 		return CLASS_NAME;
 	}
 
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSelement#getRegionAttributeNames()
+	 */
+	@Override
+	protected String[] getRegionAttributeNames() {
+		return REGION_ATTRIBUTES;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.hla.FSSelement#setAttributes(java.lang.Object)
 	 */
@@ -160,9 +213,9 @@ public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
 		super.setAttributes(object);
 		if(object instanceof SurfaceElement) {
 			SurfaceElement surfaceElement = (SurfaceElement) object;
-			latitude.setValue(surfaceElement.getLatitude());
-			longitude.setValue(surfaceElement.getLongitude());
-			altitude.setValue(surfaceElement.getAltitude());
+			setAttributeValue(latitude, surfaceElement.getLatitude());
+			setAttributeValue(longitude, surfaceElement.getLongitude());
+			setAttributeValue(altitude, surfaceElement.getAltitude());
 		} else {
 			logger.warn("Incompatible object passed: expected " 
 					+ SurfaceElement.class + " but received "
@@ -175,7 +228,7 @@ public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
 	 */
 	@Override
 	public double getAltitude() {
-		return altitude.getValue();
+		return getAppliedValue(altitude, 2);
 	}
 
 	/* (non-Javadoc)
@@ -183,7 +236,7 @@ public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
 	 */
 	@Override
 	public double getLatitude() {
-		return latitude.getValue();
+		return getAppliedValue(latitude, 0);
 	}
 
 	/* (non-Javadoc)
@@ -191,7 +244,7 @@ public class FSSsurfaceElement extends FSSelement implements SurfaceElement {
 	 */
 	@Override
 	public double getLongitude() {
-		return longitude.getValue();
+		return getAppliedValue(longitude, 1);
 	}
 	
 	/* (non-Javadoc)
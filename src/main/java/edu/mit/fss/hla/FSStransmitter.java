@@ -35,7 +35,7 @@ import edu.mit.fss.Transmitter;
  * {@link Transmitter} interface for communication with the RTI.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class FSStransmitter extends HLAobject implements Transmitter {
@@ -94,7 +94,9 @@ public class FSStransmitter extends HLAobject implements Transmitter {
 				attributeHandleSet);
 	}
 
-	private Element element;
+	private final NamedReference<Element> element = 
+			new NamedReference<Element>(Element.class);
+	private volatile ObjectNameIndex referenceIndex;
 	private final HLAunicodeString name;
 	private final HLAunicodeString elementName;
 	private final HLAunicodeString type;
@@ -118,31 +120,26 @@ public class FSStransmitter extends HLAobject implements Transmitter {
 		// create the name data element, add it as an attribute, 
 		// and set the send order
 		name = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(NAME_ATTRIBUTE),  name);
-		sendOrderMap.put(getAttributeHandle(NAME_ATTRIBUTE), 
+		putAttributeValue(NAME_ATTRIBUTE, name, 
 				OrderType.RECEIVE);
 
 
 		// create the element name data element, add it as an attribute, 
 		// and set the send order
 		elementName = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(ELEMENT_ATTRIBUTE), 
-				elementName);
-		sendOrderMap.put(getAttributeHandle(ELEMENT_ATTRIBUTE), 
+		putAttributeValue(ELEMENT_ATTRIBUTE, elementName, 
 				OrderType.TIMESTAMP);
 
 		// create the state data element, add it as an attribute, 
 		// and set the send order
 		state = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(STATE_ATTRIBUTE),  state);
-		sendOrderMap.put(getAttributeHandle(STATE_ATTRIBUTE), 
+		putAttributeValue(STATE_ATTRIBUTE, state, 
 				OrderType.TIMESTAMP);
 
 		// create the type data element, add it as an attribute, 
 		// and set the send order
 		type = encoderFactory.createHLAunicodeString();
-		attributeValues.put(getAttributeHandle(TYPE_ATTRIBUTE), type);
-		sendOrderMap.put(getAttributeHandle(TYPE_ATTRIBUTE), 
+		putAttributeValue(TYPE_ATTRIBUTE, type, 
 				OrderType.TIMESTAMP);
 	}
 
@@ -159,7 +156,7 @@ public class FSStransmitter extends HLAobject implements Transmitter {
 	 */
 	@Override
 	public Element getElement() {
-		return element;
+		return element.get(referenceIndex, elementName.getValue());
 	}
 
 	/* (non-Javadoc)
@@ -206,10 +203,10 @@ public class FSStransmitter extends HLAobject implements Transmitter {
 	public void setAttributes(SimObject object) {
 		if(object instanceof Transmitter) {
 			Transmitter transmitter = (Transmitter)object;
-			name.setValue(transmitter.getName());
-			elementName.setValue(transmitter.getElementName());
-			state.setValue(transmitter.getTransmitterState());
-			type.setValue(transmitter.getTransmitterType());
+			setAttributeValue(name, transmitter.getName());
+			setAttributeValue(elementName, transmitter.getElementName());
+			setAttributeValue(state, transmitter.getTransmitterState());
+			setAttributeValue(type, transmitter.getTransmitterType());
 		} else {
 			logger.warn("Incompatible object passed: expected " 
 					+ Transmitter.class + " but received "
@@ -224,8 +221,9 @@ public class FSStransmitter extends HLAobject implements Transmitter {
 	 * @param knownElements the collection of known objects
 	 */
 	public void setElement(Collection<? extends HLAobject> knownObjects) {
-		if(element == null 
-				|| !elementName.getValue().equals(element.getName())) {
+		Element current = element.get();
+		if(current == null 
+				|| !elementName.getValue().equals(current.getName())) {
 			logger.trace("Searching for the associated element with name " 
 					+ elementName.getValue() + ".");
 			for(HLAobject object : knownObjects) {
@@ -234,16 +232,27 @@ public class FSStransmitter extends HLAobject implements Transmitter {
 								elementName.getValue())) {
 					logger.trace("Found the associated element " 
 								+ object + ".");
-					this.element = (Element) object;
+					element.set((Element) object);
 				}
 			}
-			if(element == null) {
+			if(element.get() == null) {
 				logger.warn("Element with name " + elementName.getValue() 
 						+ " is not a known object instance.");
 			}
 		}
 	}
 
+	/**
+	 * Sets the index used to lazily resolve this transmitter's element 
+	 * reference by name. References are re-resolved after the stored 
+	 * element name or the index changes.
+	 *
+	 * @param referenceIndex the reference index
+	 */
+	public void setReferenceIndex(ObjectNameIndex referenceIndex) {
+		this.referenceIndex = referenceIndex;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.hla.HLAobject#toString()
 	 */
@@ -0,0 +1,446 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.DimensionHandle;
+import hla.rti1516e.DimensionHandleSet;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.RangeBounds;
+import hla.rti1516e.RegionHandle;
+import hla.rti1516e.RegionHandleSet;
+import hla.rti1516e.exceptions.RTIexception;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+
+import edu.mit.fss.Element;
+import edu.mit.fss.ReferenceFrame;
+import edu.mit.fss.SurfaceElement;
+
+/**
+ * A geographic region bounded in latitude, longitude, and altitude for 
+ * HLA data distribution management (DDM). Regions map to the Latitude, 
+ * Longitude, and Altitude dimensions of the FSS FOM which are normalized 
+ * to 0.1 degree latitude and longitude bins and 100 km altitude bins up 
+ * to 50,000 km. A region with a minimum longitude greater than its 
+ * maximum longitude wraps across the antimeridian and maps to two RTI 
+ * regions.
+ * <p>
+ * Latitudes and longitudes are geocentric and measured in degrees and 
+ * altitudes are measured in meters above a spherical Earth.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class GeographicRegion {
+	/** The region spanning all latitudes, longitudes, and altitudes. */
+	public static final GeographicRegion ALL = new GeographicRegion(
+			-90, 90, -180, 180, 0, GeographicRegion.MAX_ALTITUDE);
+	
+	/** The maximum altitude (m) of the altitude dimension. */
+	public static final double MAX_ALTITUDE = 50000e3;
+	
+	/** The mean equatorial radius of the Earth (m). */
+	public static final double EARTH_RADIUS = 6378137;
+	
+	// dimension upper bounds, must match the FOM
+	private static final long LATITUDE_BOUND = 1800, 
+			LONGITUDE_BOUND = 3600, ALTITUDE_BOUND = 500;
+	
+	/**
+	 * Gets the geographic coordinates (latitude, longitude, and altitude)
+	 * of an element at a logical time measured in milliseconds since the 
+	 * Unix epoch. Inertial positions are rotated by the Greenwich mean 
+	 * sidereal time, ignoring precession and nutation. Returns null if the 
+	 * element's reference frame is unknown.
+	 *
+	 * @param element the element
+	 * @param time the time (ms)
+	 * @return the geographic coordinates
+	 */
+	public static double[] getGeographicCoordinates(Element element, 
+			double time) {
+		if(element instanceof SurfaceElement) {
+			SurfaceElement surfaceElement = (SurfaceElement) element;
+			return new double[]{surfaceElement.getLatitude(), 
+					surfaceElement.getLongitude(), 
+					surfaceElement.getAltitude()};
+		}
+		ReferenceFrame frame = element.getFrame();
+		Vector3D position = element.getPosition();
+		if(frame == null || frame == ReferenceFrame.UNKNOWN 
+				|| position == null || position.getNorm() == 0) {
+			return null;
+		}
+		double rotation = 0;
+		if(frame == ReferenceFrame.EME2000 || frame == ReferenceFrame.TEME) {
+			// Greenwich mean sidereal time in degrees
+			double days = time/86400000d - 10957.5;
+			rotation = 280.46061837 + 360.98564736629*days;
+		}
+		double r = position.getNorm();
+		return new double[]{
+				FastMath.toDegrees(FastMath.asin(position.getZ()/r)),
+				normalizeLongitude(FastMath.toDegrees(FastMath.atan2(
+						position.getY(), position.getX())) - rotation),
+				r - EARTH_RADIUS};
+	}
+	
+	/**
+	 * Gets a region around a point with an angular margin in latitude and 
+	 * longitude. Longitudes are clamped rather than wrapped at the 
+	 * antimeridian.
+	 *
+	 * @param latitude the latitude (deg)
+	 * @param longitude the longitude (deg)
+	 * @param altitude the altitude (m)
+	 * @param margin the angular margin (deg)
+	 * @return the region
+	 */
+	public static GeographicRegion around(double latitude, double longitude,
+			double altitude, double margin) {
+		return new GeographicRegion(
+				FastMath.max(-90, latitude - margin), 
+				FastMath.min(90, latitude + margin), 
+				FastMath.max(-180, longitude - margin), 
+				FastMath.min(180, longitude + margin), 
+				FastMath.max(0, altitude), FastMath.max(0, altitude));
+	}
+	
+	/**
+	 * Gets the region containing all points within an altitude band which 
+	 * are visible from a ground location above a minimum elevation angle 
+	 * (horizon mask).
+	 *
+	 * @param latitude the ground latitude (deg)
+	 * @param longitude the ground longitude (deg)
+	 * @param minElevation the minimum elevation (deg)
+	 * @param minAltitude the minimum altitude (m)
+	 * @param maxAltitude the maximum altitude (m)
+	 * @return the region
+	 */
+	public static GeographicRegion visibleFrom(double latitude, 
+			double longitude, double minElevation, 
+			double minAltitude, double maxAltitude) {
+		double elevation = FastMath.toRadians(minElevation);
+		// Earth central angle to the horizon mask at the maximum altitude
+		double angle = FastMath.toDegrees(FastMath.acos(EARTH_RADIUS
+				* FastMath.cos(elevation)/(EARTH_RADIUS + maxAltitude)) 
+				- elevation);
+		if(latitude + angle >= 90 || latitude - angle <= -90) {
+			return new GeographicRegion(FastMath.max(-90, latitude - angle), 
+					FastMath.min(90, latitude + angle), -180, 180, 
+					minAltitude, maxAltitude);
+		}
+		double sinWidth = FastMath.sin(FastMath.toRadians(angle))
+				/FastMath.cos(FastMath.toRadians(latitude));
+		if(sinWidth >= 1) {
+			return new GeographicRegion(latitude - angle, latitude + angle, 
+					-180, 180, minAltitude, maxAltitude);
+		}
+		double width = FastMath.toDegrees(FastMath.asin(sinWidth));
+		return new GeographicRegion(latitude - angle, latitude + angle, 
+				normalizeLongitude(longitude - width), 
+				normalizeLongitude(longitude + width), 
+				minAltitude, maxAltitude);
+	}
+	
+	/**
+	 * Normalizes a longitude to the range [-180, 180).
+	 *
+	 * @param longitude the longitude (deg)
+	 * @return the normalized longitude (deg)
+	 */
+	private static double normalizeLongitude(double longitude) {
+		return longitude - 360*FastMath.floor((longitude + 180)/360);
+	}
+	
+	/**
+	 * Normalizes a range of values to dimension bounds.
+	 *
+	 * @param lower the lower value
+	 * @param upper the upper value
+	 * @param min the minimum dimension value
+	 * @param max the maximum dimension value
+	 * @param bound the dimension upper bound
+	 * @return the range bounds
+	 */
+	private static RangeBounds normalize(double lower, double upper, 
+			double min, double max, long bound) {
+		long lowerBin = FastMath.max(0, FastMath.min(bound - 1, 
+				(long) FastMath.floor((lower - min)/(max - min)*bound)));
+		long upperBin = FastMath.max(lowerBin + 1, FastMath.min(bound, 
+				(long) FastMath.ceil((upper - min)/(max - min)*bound)));
+		return new RangeBounds(lowerBin, upperBin);
+	}
+	
+	private final double minLatitude, maxLatitude;
+	private final double minLongitude, maxLongitude;
+	private final double minAltitude, maxAltitude;
+	
+	/**
+	 * Instantiates a new geographic region. Throws an 
+	 * {@link IllegalArgumentException} if a latitude is outside [-90, 90], 
+	 * a longitude is outside [-180, 180], or the minimum latitude or 
+	 * altitude exceeds the maximum.
+	 *
+	 * @param minLatitude the minimum latitude (deg)
+	 * @param maxLatitude the maximum latitude (deg)
+	 * @param minLongitude the minimum longitude (deg)
+	 * @param maxLongitude the maximum longitude (deg)
+	 * @param minAltitude the minimum altitude (m)
+	 * @param maxAltitude the maximum altitude (m)
+	 */
+	public GeographicRegion(double minLatitude, double maxLatitude, 
+			double minLongitude, double maxLongitude, 
+			double minAltitude, double maxAltitude) {
+		if(!(minLatitude >= -90 && maxLatitude <= 90 
+				&& minLatitude <= maxLatitude)) {
+			throw new IllegalArgumentException("Invalid latitude range.");
+		}
+		if(!(minLongitude >= -180 && minLongitude <= 180
+				&& maxLongitude >= -180 && maxLongitude <= 180)) {
+			throw new IllegalArgumentException("Invalid longitude range.");
+		}
+		if(!(minAltitude <= maxAltitude)) {
+			throw new IllegalArgumentException("Invalid altitude range.");
+		}
+		this.minLatitude = minLatitude;
+		this.maxLatitude = maxLatitude;
+		this.minLongitude = minLongitude;
+		this.maxLongitude = maxLongitude;
+		this.minAltitude = minAltitude;
+		this.maxAltitude = maxAltitude;
+	}
+	
+	/**
+	 * Creates and commits the RTI regions for this region: one region, or 
+	 * two regions if this region wraps across the antimeridian.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @return the region handles
+	 * @throws RTIexception the RTI exception
+	 */
+	public RegionHandleSet createRegions(RTIambassador rtiAmbassador) 
+			throws RTIexception {
+		RegionHandleSet regions = 
+				rtiAmbassador.getRegionHandleSetFactory().create();
+		if(isWrapping()) {
+			RegionHandle east = createRegion(rtiAmbassador);
+			setRangeBounds(rtiAmbassador, east, minLongitude, 180);
+			regions.add(east);
+			RegionHandle west = createRegion(rtiAmbassador);
+			setRangeBounds(rtiAmbassador, west, -180, maxLongitude);
+			regions.add(west);
+		} else {
+			RegionHandle region = createRegion(rtiAmbassador);
+			setRangeBounds(rtiAmbassador, region, minLongitude, maxLongitude);
+			regions.add(region);
+		}
+		rtiAmbassador.commitRegionModifications(regions);
+		return regions;
+	}
+	
+	/**
+	 * Creates an RTI region with all geographic dimensions.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @return the region handle
+	 * @throws RTIexception the RTI exception
+	 */
+	private RegionHandle createRegion(RTIambassador rtiAmbassador) 
+			throws RTIexception {
+		DimensionHandleSet dimensions = 
+				rtiAmbassador.getDimensionHandleSetFactory().create();
+		for(String dimensionName : FSSelement.DIMENSIONS) {
+			dimensions.add(rtiAmbassador.getDimensionHandle(dimensionName));
+		}
+		return rtiAmbassador.createRegion(dimensions);
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(Object object) {
+		if(!(object instanceof GeographicRegion)) {
+			return false;
+		}
+		GeographicRegion region = (GeographicRegion) object;
+		return minLatitude == region.minLatitude 
+				&& maxLatitude == region.maxLatitude
+				&& minLongitude == region.minLongitude 
+				&& maxLongitude == region.maxLongitude
+				&& minAltitude == region.minAltitude 
+				&& maxAltitude == region.maxAltitude;
+	}
+	
+	/**
+	 * Gets the maximum altitude.
+	 *
+	 * @return the maximum altitude (m)
+	 */
+	public double getMaxAltitude() {
+		return maxAltitude;
+	}
+	
+	/**
+	 * Gets the maximum latitude.
+	 *
+	 * @return the maximum latitude (deg)
+	 */
+	public double getMaxLatitude() {
+		return maxLatitude;
+	}
+	
+	/**
+	 * Gets the maximum longitude.
+	 *
+	 * @return the maximum longitude (deg)
+	 */
+	public double getMaxLongitude() {
+		return maxLongitude;
+	}
+	
+	/**
+	 * Gets the minimum altitude.
+	 *
+	 * @return the minimum altitude (m)
+	 */
+	public double getMinAltitude() {
+		return minAltitude;
+	}
+	
+	/**
+	 * Gets the minimum latitude.
+	 *
+	 * @return the minimum latitude (deg)
+	 */
+	public double getMinLatitude() {
+		return minLatitude;
+	}
+	
+	/**
+	 * Gets the minimum longitude.
+	 *
+	 * @return the minimum longitude (deg)
+	 */
+	public double getMinLongitude() {
+		return minLongitude;
+	}
+	
+	/**
+	 * Gets the normalized dimension bounds of this region as an array of 
+	 * lower and upper latitude, longitude, and altitude bounds. Regions 
+	 * with equal normalized bounds are indistinguishable to the RTI.
+	 *
+	 * @return the normalized bounds
+	 */
+	public long[] getNormalizedBounds() {
+		RangeBounds latitude = normalize(minLatitude, maxLatitude, 
+				-90, 90, LATITUDE_BOUND);
+		RangeBounds longitude = normalize(minLongitude, 
+				isWrapping() ? 180 : maxLongitude, -180, 180, LONGITUDE_BOUND);
+		RangeBounds altitude = normalize(minAltitude, maxAltitude, 
+				0, MAX_ALTITUDE, ALTITUDE_BOUND);
+		return new long[]{latitude.lower, latitude.upper, 
+				longitude.lower, longitude.upper, 
+				altitude.lower, altitude.upper};
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		long bits = Double.doubleToLongBits(minLatitude);
+		bits = 31*bits + Double.doubleToLongBits(maxLatitude);
+		bits = 31*bits + Double.doubleToLongBits(minLongitude);
+		bits = 31*bits + Double.doubleToLongBits(maxLongitude);
+		bits = 31*bits + Double.doubleToLongBits(minAltitude);
+		bits = 31*bits + Double.doubleToLongBits(maxAltitude);
+		return (int) (bits ^ (bits >>> 32));
+	}
+	
+	/**
+	 * Checks if this region wraps across the antimeridian.
+	 *
+	 * @return true, if wrapping
+	 */
+	public boolean isWrapping() {
+		return minLongitude > maxLongitude;
+	}
+	
+	/**
+	 * Sets the range bounds of an existing RTI region to this region. Does 
+	 * not commit the region modifications. Throws an 
+	 * {@link IllegalStateException} if this region wraps across the 
+	 * antimeridian.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param region the region handle
+	 * @throws RTIexception the RTI exception
+	 */
+	public void setRangeBounds(RTIambassador rtiAmbassador, 
+			RegionHandle region) throws RTIexception {
+		if(isWrapping()) {
+			throw new IllegalStateException(
+					"Wrapping region requires two RTI regions.");
+		}
+		setRangeBounds(rtiAmbassador, region, minLongitude, maxLongitude);
+	}
+	
+	/**
+	 * Sets the range bounds of an RTI region to this region's latitudes 
+	 * and altitudes and a longitude range.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param region the region handle
+	 * @param lowerLongitude the lower longitude (deg)
+	 * @param upperLongitude the upper longitude (deg)
+	 * @throws RTIexception the RTI exception
+	 */
+	private void setRangeBounds(RTIambassador rtiAmbassador, 
+			RegionHandle region, double lowerLongitude, 
+			double upperLongitude) throws RTIexception {
+		DimensionHandle latitude = rtiAmbassador.getDimensionHandle(
+				FSSelement.LATITUDE_DIMENSION);
+		DimensionHandle longitude = rtiAmbassador.getDimensionHandle(
+				FSSelement.LONGITUDE_DIMENSION);
+		DimensionHandle altitude = rtiAmbassador.getDimensionHandle(
+				FSSelement.ALTITUDE_DIMENSION);
+		rtiAmbassador.setRangeBounds(region, latitude, normalize(
+				minLatitude, maxLatitude, -90, 90, LATITUDE_BOUND));
+		rtiAmbassador.setRangeBounds(region, longitude, normalize(
+				lowerLongitude, upperLongitude, -180, 180, LONGITUDE_BOUND));
+		rtiAmbassador.setRangeBounds(region, altitude, normalize(
+				minAltitude, maxAltitude, 0, MAX_ALTITUDE, ALTITUDE_BOUND));
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return new StringBuilder().append("GeographicRegion { latitude: [")
+				.append(minLatitude).append(", ").append(maxLatitude)
+				.append("], longitude: [").append(minLongitude).append(", ")
+				.append(maxLongitude).append("], altitude: [")
+				.append(minAltitude).append(", ").append(maxAltitude)
+				.append("]}").toString();
+	}
+}
@@ -23,10 +23,10 @@ import hla.rti1516e.ParameterHandleValueMap;
 import hla.rti1516e.RTIambassador;
 import hla.rti1516e.encoding.DataElement;
 import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.HLAunicodeString;
 import hla.rti1516e.exceptions.RTIexception;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.BitSet;
 
 import org.apache.log4j.Logger;
 
@@ -36,18 +36,31 @@ import edu.mit.fss.SimInteraction;
  * An HLAinteraction is the base class for communicating transient interaction
  * classes with the HLA RTI. It performs some low-level functions related to 
  * setting parameters for local or remote interactions.
+ * <p>
+ * Interaction class and parameter handles are shared by all instances of 
+ * an interaction class in an {@link InteractionClassMetadata}, so 
+ * interactions are created without RTI handle lookups. Interactions may 
+ * be reused for several sends: each send passes a new parameter handle 
+ * value map (the RTI may retain it) but only parameters changed with the 
+ * {@code setParameterValue} methods since the last send are encoded 
+ * again.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public abstract class HLAinteraction implements SimInteraction {
 	private static Logger logger = Logger.getLogger(HLAinteraction.class);
 	
 	private final RTIambassador rtiAmbassador;
-	private final InteractionClassHandle interactionClassHandle;
-	private final Map<String,ParameterHandle> parameterHandles = 
-			new HashMap<String,ParameterHandle>();
+	// handles shared by all instances of the interaction class
+	private final InteractionClassMetadata metadata;
+	// data elements and last encoded values indexed by parameter ordinal
+	private final DataElement[] parameterValues;
+	private final byte[][] encodedValues;
+	// parameters changed since last sent
+	private final BitSet changedParameters = new BitSet();
+	private volatile SendTimestamp sendTimestamp;
 	
 	/**
 	 * Instantiates a new HLA interaction.
@@ -57,13 +70,12 @@ public abstract class HLAinteraction implements SimInteraction {
 	 */
 	public HLAinteraction(RTIambassador rtiAmbassador) throws RTIexception {
 		this.rtiAmbassador = rtiAmbassador;
-		interactionClassHandle = rtiAmbassador.getInteractionClassHandle(
-				getInteractionClassName());
-		for(String parameterName : getParameterNames()) {
-			parameterHandles.put(parameterName, 
-					rtiAmbassador.getParameterHandle(
-							interactionClassHandle, parameterName));
-		}
+		metadata = InteractionClassMetadata.get(rtiAmbassador, 
+				getInteractionClassName(), getParameterNames());
+		parameterValues = new DataElement[metadata.getParameterCount()];
+		encodedValues = new byte[metadata.getParameterCount()][];
+		// all parameters are initially changed (never encoded)
+		changedParameters.set(0, metadata.getParameterCount());
 	}
 	
 	/**
@@ -81,7 +93,8 @@ public abstract class HLAinteraction implements SimInteraction {
 	 * @return the parameter handle
 	 */
 	public final ParameterHandle getParameterHandle(String parameterName)  {
-		return parameterHandles.get(parameterName);
+		int ordinal = metadata.getOrdinal(parameterName);
+		return ordinal < 0 ? null : metadata.getParameterHandle(ordinal);
 	}
 	
 	/**
@@ -97,7 +110,10 @@ public abstract class HLAinteraction implements SimInteraction {
 	 * @param parameterHandle the parameter handle
 	 * @return the parameter value
 	 */
-	public abstract DataElement getParameterValue(ParameterHandle parameterHandle);
+	public final DataElement getParameterValue(ParameterHandle parameterHandle) {
+		int ordinal = metadata.getOrdinal(parameterHandle);
+		return ordinal < 0 ? null : parameterValues[ordinal];
+	}
 	
 	/**
 	 * Gets this object's FOM send order.
@@ -105,6 +121,23 @@ public abstract class HLAinteraction implements SimInteraction {
 	 * @return the send order
 	 */
 	public abstract OrderType getSendOrder();
+	
+	/**
+	 * Adds a data element as the value of a parameter. Called by subclass 
+	 * constructors for each parameter.
+	 *
+	 * @param parameterName the parameter name
+	 * @param dataElement the data element
+	 */
+	protected final void putParameterValue(String parameterName, 
+			DataElement dataElement) {
+		int ordinal = metadata.getOrdinal(parameterName);
+		if(ordinal < 0) {
+			throw new IllegalArgumentException(
+					"Unknown parameter " + parameterName + ".");
+		}
+		parameterValues[ordinal] = dataElement;
+	}
 
 	/**
 	 * Sends this interaction to the RTI.
@@ -112,29 +145,68 @@ public abstract class HLAinteraction implements SimInteraction {
 	 * @throws RTIexception the RTI exception
 	 */
 	public void send() throws RTIexception {
-		ParameterHandleValueMap values = 
-				rtiAmbassador.getParameterHandleValueMapFactory()
-				.create(getParameterNames().length);
-		
-		for(String name : getParameterNames()) {
-			values.put(parameterHandles.get(name), 
-					getParameterValue(parameterHandles.get(name)).toByteArray());
+		for(int i = changedParameters.nextSetBit(0); i >= 0; 
+				i = changedParameters.nextSetBit(i + 1)) {
+			encodedValues[i] = parameterValues[i].toByteArray();
+		}
+		changedParameters.clear();
+		// unchanged encoded values are never modified, so may be shared
+		ParameterHandleValueMap values = rtiAmbassador
+				.getParameterHandleValueMapFactory()
+				.create(parameterValues.length);
+		for(int i = 0; i < encodedValues.length; i++) {
+			values.put(metadata.getParameterHandle(i), encodedValues[i]);
 		}
 		
 		if(getSendOrder()==OrderType.TIMESTAMP) {
-			LogicalTime timestamp = rtiAmbassador.queryLogicalTime().add(
-					rtiAmbassador.queryLookahead());
+			SendTimestamp sendTimestamp = this.sendTimestamp;
+			LogicalTime timestamp = sendTimestamp == null 
+					? rtiAmbassador.queryLogicalTime().add(
+							rtiAmbassador.queryLookahead()) 
+					: sendTimestamp.get(rtiAmbassador);
 			logger.debug("Sending interaction " + this 
 					+ " with timestamp " + timestamp.toString());
-			rtiAmbassador.sendInteraction(interactionClassHandle, 
+			rtiAmbassador.sendInteraction(
+					metadata.getInteractionClassHandle(), 
 					values, null, timestamp);
 		} else {
 			logger.debug("Sending interaction " + this + ".");
-			rtiAmbassador.sendInteraction(interactionClassHandle, 
+			rtiAmbassador.sendInteraction(
+					metadata.getInteractionClassHandle(), 
 					values, null);
 		}
 	}
 	
+	/**
+	 * Sets a string parameter value, marking the parameter changed if the 
+	 * value differs.
+	 *
+	 * @param dataElement the data element
+	 * @param value the value
+	 */
+	protected final void setParameterValue(HLAunicodeString dataElement, 
+			String value) {
+		if(value == null ? dataElement.getValue() != null 
+				: !value.equals(dataElement.getValue())) {
+			dataElement.setValue(value);
+			for(int i = 0; i < parameterValues.length; i++) {
+				if(parameterValues[i] == dataElement) {
+					changedParameters.set(i);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Sets the shared send timestamp used for timestamp-order sends. If 
+	 * null (default), the RTI is queried for each send.
+	 *
+	 * @param sendTimestamp the new send timestamp
+	 */
+	public final void setSendTimestamp(SendTimestamp sendTimestamp) {
+		this.sendTimestamp = sendTimestamp;
+	}
+	
 	/**
 	 * Sets this object's parameter values from a local interaction object.
 	 *
@@ -152,7 +224,12 @@ public abstract class HLAinteraction implements SimInteraction {
 	public void setParameters(ParameterHandleValueMap parameterValues) 
 			throws DecoderException {
 		for(ParameterHandle handle : parameterValues.keySet()) {
-			getParameterValue(handle).decode(parameterValues.get(handle));
+			int ordinal = metadata.getOrdinal(handle);
+			if(ordinal >= 0) {
+				this.parameterValues[ordinal].decode(
+						parameterValues.get(handle));
+				changedParameters.set(ordinal);
+			}
 		}
 	}
 }
\ No newline at end of file
@@ -26,44 +26,68 @@ import hla.rti1516e.RTIambassador;
 import hla.rti1516e.encoding.ByteWrapper;
 import hla.rti1516e.encoding.DataElement;
 import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.HLAfloat64BE;
+import hla.rti1516e.encoding.HLAunicodeString;
 import hla.rti1516e.exceptions.RTIexception;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
 import org.apache.log4j.Logger;
 
+import edu.mit.fss.ReferenceFrame;
 import edu.mit.fss.SimObject;
 
 /**
  * An HLAobject is the base class for communicating persistent object classes
  * with the HLA RTI. It performs some low-level functions related to updating
  * attributes (for local objects) or reflecting attribute updates (for remote
- * objects).
+ * objects). Subclasses may filter timestamp-order updates of changed 
+ * attributes with {@link #prepareTimestampOrderUpdate(AttributeHandleSet, 
+ * LogicalTime, boolean)}.
+ * <p>
+ * Changed attributes are tracked with a bit set rather than by comparing 
+ * encoded values: subclasses set attribute values with the 
+ * {@code setAttributeValue} methods, which compare the typed values and 
+ * mark an attribute changed only if its value differs. Attributes stay 
+ * changed until sent, so unchanged attributes are neither encoded nor 
+ * allocated.
+ * <p>
+ * Object class handles, attribute handles, and send orders are identical 
+ * for all instances of an object class and are shared in an 
+ * {@link ObjectClassMetadata}. Each instance keeps only its data elements 
+ * and changed attributes, indexed by attribute ordinal.
+ * <p>
+ * Reflected values of remote objects are decoded and copied into an 
+ * immutable staged snapshot on the callback thread (see 
+ * {@link #stageDecodedValues()}) and the latest snapshot is published to
+ * readers at step boundaries on the simulation thread by the owning 
+ * ambassador (see {@link #applyReflectedValues()}), so readers on other 
+ * threads see consistent values rather than a partially-decoded update.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public abstract class HLAobject implements SimObject {
 	private static Logger logger = Logger.getLogger(HLAobject.class);
 	private final boolean local;
 	private final RTIambassador rtiAmbassador;
-	private final ObjectClassHandle objectClassHandle;
-	private final Map<String,AttributeHandle> attributeHandles = 
-			new HashMap<String,AttributeHandle>();
-	private final Map<AttributeHandle,byte[]> previousValueMap = 
-			new HashMap<AttributeHandle,byte[]>();
-	private final AttributeHandleSet attributeHandleSet;
+	// handles and send orders shared by all instances of the object class
+	private final ObjectClassMetadata metadata;
+	// data elements indexed by attribute ordinal
+	private final DataElement[] attributeValues;
+	// attributes changed since last sent
+	private final BitSet changedAttributes = new BitSet();
+	private volatile SendTimestamp sendTimestamp;
+	private volatile AttributeHandleSet reflectedAttributeHandleSet;
+	// true if reflected values are staged but not yet applied
+	private final AtomicBoolean staged = new AtomicBoolean(false);
 	private String instanceName;
 	private ObjectInstanceHandle objectInstanceHandle;
-	protected final Map<AttributeHandle,DataElement> attributeValues = 
-			new HashMap<AttributeHandle,DataElement>();
-	protected final Map<AttributeHandle,OrderType> sendOrderMap = 
-			new HashMap<AttributeHandle,OrderType>();
 	
 	/**
 	 * Instantiates a new HLA object. The object is interpreted as local
@@ -79,19 +103,13 @@ public abstract class HLAobject implements SimObject {
 		this.local = instanceName == null;
 		this.rtiAmbassador = rtiAmbassador;
 		
-		logger.trace("Getting the object class handle from the RTI.");
-		objectClassHandle = rtiAmbassador.getObjectClassHandle(
-				getObjectClassName());
-		
-		logger.trace("Getting the attribute handles from the RTI.");
-		attributeHandleSet = rtiAmbassador.
-				getAttributeHandleSetFactory().create();
-		for(String attributeName : getAttributeNames()) {
-			attributeHandles.put(attributeName, 
-					rtiAmbassador.getAttributeHandle(
-							objectClassHandle, attributeName));
-			attributeHandleSet.add(getAttributeHandle(attributeName));
-		}
+		logger.trace("Getting the shared object class metadata.");
+		metadata = ObjectClassMetadata.get(rtiAmbassador, 
+				getObjectClassName(), getAttributeNames());
+		attributeValues = new DataElement[metadata.getAttributeCount()];
+		reflectedAttributeHandleSet = metadata.getAttributeHandleSet();
+		// all attributes are initially changed (never sent)
+		changedAttributes.set(0, metadata.getAttributeCount());
 		
 		if(local) {
 			logger.trace("Registering the local object with the RTI.");
@@ -108,6 +126,26 @@ public abstract class HLAobject implements SimObject {
 		}
 	}
 	
+	/**
+	 * Applies the latest snapshot staged by {@link #stageDecodedValues()} 
+	 * to readers of this remote object, for example by replacing a 
+	 * volatile reference to it. Called at step boundaries on the 
+	 * simulation thread by the owning ambassador, possibly concurrently 
+	 * with decoding, so must not read the data elements. Does nothing by 
+	 * default, so readers see decoded values directly.
+	 */
+	protected void applyReflectedValues() { }
+	
+	/**
+	 * Applies staged reflected values and clears the staged state. Values 
+	 * staged after the state is cleared are staged again for the next 
+	 * step boundary.
+	 */
+	final void applyStagedValues() {
+		staged.set(false);
+		applyReflectedValues();
+	}
+	
 	/**
 	 * Deletes this object from the federation if this is a local object. This
 	 * method does nothing for remote objects.
@@ -131,16 +169,18 @@ public abstract class HLAobject implements SimObject {
 	 * @return the attribute handle
 	 */
 	public final AttributeHandle getAttributeHandle(String attributeName)  {
-		return attributeHandles.get(attributeName);
+		int ordinal = metadata.getOrdinal(attributeName);
+		return ordinal < 0 ? null : metadata.getAttributeHandle(ordinal);
 	}
 	
 	/**
-	 * Gets this object's set of RTI-assigned attribute handles.
+	 * Gets this object's set of RTI-assigned attribute handles. The set is
+	 * shared by all instances of the object class and must not be modified.
 	 *
 	 * @return the attribute handle set
 	 */
 	public final AttributeHandleSet getAttributeHandleSet() {
-		return attributeHandleSet;
+		return metadata.getAttributeHandleSet();
 	}
 	
 	/**
@@ -151,12 +191,8 @@ public abstract class HLAobject implements SimObject {
 	 * @return the attribute name
 	 */
 	public final String getAttributeName(AttributeHandle attributeHandle) {
-		for(String attributeName : attributeHandles.keySet()) {
-			if(attributeHandles.get(attributeName).equals(attributeHandle)) {
-				return attributeName;
-			}
-		}
-		return null;
+		int ordinal = metadata.getOrdinal(attributeHandle);
+		return ordinal < 0 ? null : metadata.getAttributeName(ordinal);
 	}
 	
 	/**
@@ -173,7 +209,8 @@ public abstract class HLAobject implements SimObject {
 	 * @return the attribute value
 	 */
 	public final DataElement getAttributeValue(AttributeHandle attributeHandle) {
-		return attributeValues.get(attributeHandle);
+		int ordinal = metadata.getOrdinal(attributeHandle);
+		return ordinal < 0 ? null : attributeValues[ordinal];
 	}
 	
 	/**
@@ -198,7 +235,7 @@ public abstract class HLAobject implements SimObject {
 	 * @return the object class handle
 	 */
 	public final ObjectClassHandle getObjectClassHandle() {
-		return objectClassHandle;
+		return metadata.getObjectClassHandle();
 	}
 	
 	/**
@@ -217,6 +254,25 @@ public abstract class HLAobject implements SimObject {
 		return objectInstanceHandle;
 	}
 	
+	/**
+	 * Gets the set of attribute handles decoded when reflecting attribute 
+	 * values. Defaults to all attribute handles.
+	 *
+	 * @return the reflected attribute handle set
+	 */
+	public final AttributeHandleSet getReflectedAttributeHandleSet() {
+		return reflectedAttributeHandleSet;
+	}
+	
+	/**
+	 * Gets the RTI ambassador with which this object communicates.
+	 *
+	 * @return the RTI ambassador
+	 */
+	protected final RTIambassador getRTIambassador() {
+		return rtiAmbassador;
+	}
+	
 	/**
 	 * Gets this object's FOM send order for a given attribute handle.
 	 *
@@ -224,7 +280,8 @@ public abstract class HLAobject implements SimObject {
 	 * @return the send order
 	 */
 	public final OrderType getSendOrder(AttributeHandle attributeHandle) {
-		return sendOrderMap.get(attributeHandle);
+		int ordinal = metadata.getOrdinal(attributeHandle);
+		return ordinal < 0 ? null : metadata.getSendOrder(ordinal);
 	}
 	
 	/* (non-Javadoc)
@@ -256,6 +313,22 @@ public abstract class HLAobject implements SimObject {
 		}
 	}
 	
+	/**
+	 * Marks the attribute with a data element as changed so it is sent
+	 * with the next update of changed attributes.
+	 *
+	 * @param dataElement the data element
+	 */
+	protected final void markChanged(DataElement dataElement) {
+		// linear identity scan: objects have few attributes
+		for(int i = 0; i < attributeValues.length; i++) {
+			if(attributeValues[i] == dataElement) {
+				changedAttributes.set(i);
+				return;
+			}
+		}
+	}
+	
 	/**
 	 * Provides updates for all of object's attribute values.
 	 *
@@ -264,10 +337,25 @@ public abstract class HLAobject implements SimObject {
 	 */
 	public final void provideAttributes(AttributeHandleSet attributeHandleSet) 
 			throws RTIexception {
-		updateTimestampOrderAttributes(attributeHandleSet);
+		updateTimestampOrderAttributes(attributeHandleSet, false);
 		updateReceiveOrderAttributes(attributeHandleSet);
 	}
 	
+	/**
+	 * Prepares an update of timestamp-order attributes with a timestamp.
+	 * When only changed attributes are updated, subclasses may remove 
+	 * attributes which need not be sent (for example, for dead reckoning)
+	 * or add attributes which must be sent together. Does nothing by 
+	 * default.
+	 *
+	 * @param attributeHandleSet the attributes to update
+	 * @param timestamp the timestamp
+	 * @param changedOnly true, if only changed attributes are updated
+	 */
+	protected void prepareTimestampOrderUpdate(
+			AttributeHandleSet attributeHandleSet, LogicalTime timestamp, 
+			boolean changedOnly) { }
+	
 	/**
 	 * Publishes all of this object's attributes.
 	 *
@@ -279,19 +367,39 @@ public abstract class HLAobject implements SimObject {
 	}
 	
 	/**
-	 * Requests updates for all of this object's attribute values.
+	 * Adds a data element as the value of an attribute with a send order.
+	 * Called by subclass constructors for each attribute.
+	 *
+	 * @param attributeName the attribute name
+	 * @param dataElement the data element
+	 * @param sendOrder the send order
+	 */
+	protected final void putAttributeValue(String attributeName, 
+			DataElement dataElement, OrderType sendOrder) {
+		int ordinal = metadata.getOrdinal(attributeName);
+		if(ordinal < 0) {
+			throw new IllegalArgumentException(
+					"Unknown attribute " + attributeName + ".");
+		}
+		attributeValues[ordinal] = dataElement;
+		metadata.setSendOrder(ordinal, sendOrder);
+	}
+	
+	/**
+	 * Requests updates for all of this object's reflected attribute values.
 	 *
 	 * @throws RTIexception the RTI exception
 	 */
 	public final void requestAttributeValueUpdate() throws RTIexception {
 		logger.trace("Requesting attribute value updates for " + this);
-		rtiAmbassador.requestAttributeValueUpdate(
-				getObjectInstanceHandle(), getAttributeHandleSet(), new byte[0]);
+		rtiAmbassador.requestAttributeValueUpdate(getObjectInstanceHandle(), 
+				getReflectedAttributeHandleSet(), new byte[0]);
 	}
 	
 	/**
-	 * Sets all of this object's attribute values from an RTI-provided
-	 * attribute handle value map.
+	 * Sets all of this object's reflected attribute values from an 
+	 * RTI-provided attribute handle value map. Values of other attributes
+	 * are not decoded.
 	 *
 	 * @param attributeHandleValueMap the new all attributes
 	 * @throws DecoderException the decoder exception
@@ -299,7 +407,7 @@ public abstract class HLAobject implements SimObject {
 	public final void setAllAttributes(
 			AttributeHandleValueMap attributeHandleValueMap) 
 					throws DecoderException {
-		for(AttributeHandle attributeHandle : getAttributeHandleSet()) {
+		for(AttributeHandle attributeHandle : reflectedAttributeHandleSet) {
 			ByteWrapper wrapper = attributeHandleValueMap.getValueReference(
 					attributeHandle);
 			if(wrapper != null) {
@@ -318,6 +426,109 @@ public abstract class HLAobject implements SimObject {
 	 */
 	public abstract void setAttributes(SimObject object);
 	
+	/**
+	 * Sets a Cartesian vector attribute value, marking the attribute 
+	 * changed if the value differs.
+	 *
+	 * @param dataElement the data element
+	 * @param value the value
+	 */
+	protected final void setAttributeValue(FSScartesianVector dataElement, 
+			Vector3D value) {
+		if(!dataElement.hasValue(value)) {
+			dataElement.setValue(value);
+			markChanged(dataElement);
+		}
+	}
+	
+	/**
+	 * Sets a reference frame attribute value, marking the attribute 
+	 * changed if the value differs.
+	 *
+	 * @param dataElement the data element
+	 * @param value the value
+	 */
+	protected final void setAttributeValue(FSSreferenceFrame dataElement, 
+			ReferenceFrame value) {
+		if(!dataElement.hasValue(value)) {
+			dataElement.setValue(value);
+			markChanged(dataElement);
+		}
+	}
+	
+	/**
+	 * Sets a floating-point attribute value, marking the attribute changed 
+	 * if the value differs.
+	 *
+	 * @param dataElement the data element
+	 * @param value the value
+	 */
+	protected final void setAttributeValue(HLAfloat64BE dataElement, 
+			double value) {
+		if(Double.doubleToLongBits(dataElement.getValue()) 
+				!= Double.doubleToLongBits(value)) {
+			dataElement.setValue(value);
+			markChanged(dataElement);
+		}
+	}
+	
+	/**
+	 * Sets a string attribute value, marking the attribute changed if the 
+	 * value differs.
+	 *
+	 * @param dataElement the data element
+	 * @param value the value
+	 */
+	protected final void setAttributeValue(HLAunicodeString dataElement, 
+			String value) {
+		if(value == null ? dataElement.getValue() != null 
+				: !value.equals(dataElement.getValue())) {
+			dataElement.setValue(value);
+			markChanged(dataElement);
+		}
+	}
+	
+	/**
+	 * Sets the set of attribute handles decoded when reflecting attribute
+	 * values, for example to skip attributes outside an 
+	 * {@link InterestProfile}.
+	 *
+	 * @param reflectedAttributeHandleSet the new reflected attribute 
+	 * handle set
+	 */
+	public final void setReflectedAttributeHandleSet(
+			AttributeHandleSet reflectedAttributeHandleSet) {
+		this.reflectedAttributeHandleSet = reflectedAttributeHandleSet;
+	}
+	
+	/**
+	 * Sets the shared send timestamp used for timestamp-order updates. If 
+	 * null (default), the RTI is queried for each update.
+	 *
+	 * @param sendTimestamp the new send timestamp
+	 */
+	public final void setSendTimestamp(SendTimestamp sendTimestamp) {
+		this.sendTimestamp = sendTimestamp;
+	}
+	
+	/**
+	 * Copies the values decoded by a reflection into an immutable staged 
+	 * snapshot to be applied by {@link #applyReflectedValues()}. Called on
+	 * the callback thread after each reflection. Does nothing by default.
+	 */
+	protected void stageDecodedValues() { }
+	
+	/**
+	 * Stages this object's decoded values and marks them as staged for the
+	 * next step boundary. 
+	 *
+	 * @return true, if the values were not already staged
+	 */
+	final boolean stageReflectedValues() {
+		stageDecodedValues();
+		return staged.compareAndSet(false, true);
+	}
+	
 	/**
 	 * Subscribes to all of this object's attributes.
 	 *
@@ -363,7 +574,7 @@ public abstract class HLAobject implements SimObject {
 	 */
 	public final void updateAttributes(AttributeHandleSet attributeHandleSet) 
 			throws RTIexception {
-		updateTimestampOrderAttributes(attributeHandleSet);
+		updateTimestampOrderAttributes(attributeHandleSet, false);
 		updateReceiveOrderAttributes(attributeHandleSet);
 	}
 	
@@ -374,18 +585,17 @@ public abstract class HLAobject implements SimObject {
 	 * @throws RTIexception the RTI exception
 	 */
 	public final void updateChangedAttributes() throws RTIexception {
+		if(changedAttributes.isEmpty()) {
+			return;
+		}
 		AttributeHandleSet attributeHandleSet = 
 				rtiAmbassador.getAttributeHandleSetFactory().create();
-		for(AttributeHandle attributeHandle : getAttributeHandleSet()) {
-			byte[] currentValue = getAttributeValue(attributeHandle).toByteArray();
-			byte[] previousValue = previousValueMap.get(attributeHandle);
-			
-			// compare current and previous values byte-by-byte
-			if(!Arrays.equals(currentValue, previousValue)) {
-				attributeHandleSet.add(attributeHandle);
-			}
+		for(int i = changedAttributes.nextSetBit(0); i >= 0; 
+				i = changedAttributes.nextSetBit(i + 1)) {
+			attributeHandleSet.add(metadata.getAttributeHandle(i));
 		}
-		updateAttributes(attributeHandleSet);
+		updateTimestampOrderAttributes(attributeHandleSet, true);
+		updateReceiveOrderAttributes(attributeHandleSet);
 	}
 	
 	/**
@@ -403,8 +613,7 @@ public abstract class HLAobject implements SimObject {
 			if(getSendOrder(attributeHandle) == OrderType.RECEIVE) {
 				byte[] currentValue = getAttributeValue(attributeHandle).toByteArray();
 				receiveOrderedAttributes.put(attributeHandle, currentValue);
-				// update previous value in map
-				previousValueMap.put(attributeHandle, currentValue);
+				changedAttributes.clear(metadata.getOrdinal(attributeHandle));
 			}
 		}
 		if(receiveOrderedAttributes.size() > 0) {
@@ -419,23 +628,31 @@ public abstract class HLAobject implements SimObject {
 	 * require an associated timestamp.
 	 *
 	 * @param attributeHandleSet the attributes
+	 * @param changedOnly true, if only changed attributes are updated
 	 * @throws RTIexception the RTI exception
 	 */
 	private void updateTimestampOrderAttributes(
-			AttributeHandleSet attributeHandleSet) throws RTIexception {
+			AttributeHandleSet attributeHandleSet, boolean changedOnly) 
+					throws RTIexception {
+		if(attributeHandleSet.isEmpty()) {
+			return;
+		}
+		SendTimestamp sendTimestamp = this.sendTimestamp;
+		LogicalTime timestamp = sendTimestamp == null 
+				? rtiAmbassador.queryLogicalTime().add(
+						rtiAmbassador.queryLookahead()) 
+				: sendTimestamp.get(rtiAmbassador);
+		prepareTimestampOrderUpdate(attributeHandleSet, timestamp, changedOnly);
 		AttributeHandleValueMap timestampedAttributes = 
 				rtiAmbassador.getAttributeHandleValueMapFactory().create(0);
 		for(AttributeHandle attributeHandle : attributeHandleSet) {
 			if(getSendOrder(attributeHandle) == OrderType.TIMESTAMP) {
 				byte[] currentValue = getAttributeValue(attributeHandle).toByteArray();
 				timestampedAttributes.put(attributeHandle, currentValue);
-				// update previous value in map
-				previousValueMap.put(attributeHandle, currentValue);
+				changedAttributes.clear(metadata.getOrdinal(attributeHandle));
 			}
 		}
 		if(timestampedAttributes.size() > 0) {
-			LogicalTime timestamp = rtiAmbassador.queryLogicalTime().add(
-					rtiAmbassador.queryLookahead());
 			logger.trace("Updating attributes for object " + this 
 					+ " with timestamp " + timestamp.toString() + ".");
 			rtiAmbassador.updateAttributeValues(getObjectInstanceHandle(), 
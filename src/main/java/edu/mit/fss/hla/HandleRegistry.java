@@ -0,0 +1,252 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ObjectClassHandle;
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.exceptions.RTIexception;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A registry of FOM object classes, attributes, interaction classes, and 
+ * parameters which resolves all RTI handles once after joining a 
+ * federation execution. Callbacks then dispatch through handle-keyed 
+ * tables to per-class handlers without RTI lookups.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+final class HandleRegistry {
+	private static Logger logger = Logger.getLogger(HandleRegistry.class);
+	
+	/**
+	 * A handler for callbacks of one object class.
+	 */
+	static interface ObjectClassHandler {
+		
+		/**
+		 * Creates a remote object for a discovered instance.
+		 *
+		 * @param instanceName the instance name
+		 * @return the object
+		 * @throws RTIexception the RTI exception
+		 */
+		HLAobject discover(String instanceName) throws RTIexception;
+		
+		/**
+		 * Reflects attribute values of a remote object.
+		 *
+		 * @param object the object
+		 * @param theAttributes the attributes
+		 * @throws DecoderException the decoder exception
+		 */
+		void reflect(HLAobject object, AttributeHandleValueMap theAttributes) 
+				throws DecoderException;
+	}
+	
+	/**
+	 * A handler for callbacks of one interaction class.
+	 */
+	static interface InteractionClassHandler {
+		
+		/**
+		 * Creates an interaction from received parameter values.
+		 *
+		 * @param theParameters the parameters
+		 * @return the interaction
+		 * @throws RTIexception the RTI exception
+		 * @throws DecoderException the decoder exception
+		 */
+		HLAinteraction receive(ParameterHandleValueMap theParameters) 
+				throws RTIexception, DecoderException;
+	}
+	
+	private final Map<String, String[]> objectClasses = 
+			new LinkedHashMap<String, String[]>();
+	private final Map<String, ObjectClassHandler> objectClassHandlers = 
+			new HashMap<String, ObjectClassHandler>();
+	private final Map<String, String[]> interactionClasses = 
+			new LinkedHashMap<String, String[]>();
+	private final Map<String, InteractionClassHandler> interactionClassHandlers = 
+			new HashMap<String, InteractionClassHandler>();
+	
+	private volatile Map<ObjectClassHandle, ObjectClassHandler> objectDispatch = 
+			new HashMap<ObjectClassHandle, ObjectClassHandler>();
+	private volatile Map<InteractionClassHandle, InteractionClassHandler> 
+			interactionDispatch = 
+			new HashMap<InteractionClassHandle, InteractionClassHandler>();
+	private final Map<String, ObjectClassHandle> objectClassHandles = 
+			new HashMap<String, ObjectClassHandle>();
+	private final Map<String, AttributeHandle> attributeHandles = 
+			new HashMap<String, AttributeHandle>();
+	private final Map<String, InteractionClassHandle> interactionClassHandles = 
+			new HashMap<String, InteractionClassHandle>();
+	private final Map<String, ParameterHandle> parameterHandles = 
+			new HashMap<String, ParameterHandle>();
+	
+	/**
+	 * Gets the resolved attribute handle for an attribute of an object 
+	 * class, or null if not resolved.
+	 *
+	 * @param className the object class name
+	 * @param attributeName the attribute name
+	 * @return the attribute handle
+	 */
+	public AttributeHandle getAttributeHandle(String className, 
+			String attributeName) {
+		return attributeHandles.get(className + "." + attributeName);
+	}
+	
+	/**
+	 * Gets the resolved interaction class handle for a class name, or null
+	 * if not resolved.
+	 *
+	 * @param className the interaction class name
+	 * @return the interaction class handle
+	 */
+	public InteractionClassHandle getInteractionClassHandle(String className) {
+		return interactionClassHandles.get(className);
+	}
+	
+	/**
+	 * Gets the handler for an interaction class handle, or null if the 
+	 * interaction class is not registered.
+	 *
+	 * @param interactionClass the interaction class handle
+	 * @return the handler
+	 */
+	public InteractionClassHandler getInteractionClassHandler(
+			InteractionClassHandle interactionClass) {
+		return interactionDispatch.get(interactionClass);
+	}
+	
+	/**
+	 * Gets the resolved object class handle for a class name, or null if 
+	 * not resolved.
+	 *
+	 * @param className the object class name
+	 * @return the object class handle
+	 */
+	public ObjectClassHandle getObjectClassHandle(String className) {
+		return objectClassHandles.get(className);
+	}
+	
+	/**
+	 * Gets the handler for an object class handle, or null if the object 
+	 * class is not registered.
+	 *
+	 * @param objectClass the object class handle
+	 * @return the handler
+	 */
+	public ObjectClassHandler getObjectClassHandler(
+			ObjectClassHandle objectClass) {
+		return objectDispatch.get(objectClass);
+	}
+	
+	/**
+	 * Gets the resolved parameter handle for a parameter of an interaction 
+	 * class, or null if not resolved.
+	 *
+	 * @param className the interaction class name
+	 * @param parameterName the parameter name
+	 * @return the parameter handle
+	 */
+	public ParameterHandle getParameterHandle(String className, 
+			String parameterName) {
+		return parameterHandles.get(className + "." + parameterName);
+	}
+	
+	/**
+	 * Registers an interaction class with its parameters and handler.
+	 *
+	 * @param className the interaction class name
+	 * @param parameterNames the parameter names
+	 * @param handler the handler
+	 */
+	public void registerInteractionClass(String className, 
+			String[] parameterNames, InteractionClassHandler handler) {
+		interactionClasses.put(className, parameterNames);
+		interactionClassHandlers.put(className, handler);
+	}
+	
+	/**
+	 * Registers an object class with its attributes and handler.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @param handler the handler
+	 */
+	public void registerObjectClass(String className, 
+			String[] attributeNames, ObjectClassHandler handler) {
+		objectClasses.put(className, attributeNames);
+		objectClassHandlers.put(className, handler);
+	}
+	
+	/**
+	 * Resolves the handles of all registered classes, attributes, and 
+	 * parameters and rebuilds the dispatch tables. Must be called after 
+	 * joining a federation execution and before callbacks are dispatched.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @throws RTIexception the RTI exception
+	 */
+	public void resolve(RTIambassador rtiAmbassador) throws RTIexception {
+		logger.debug("Resolving object and interaction class handles.");
+		Map<ObjectClassHandle, ObjectClassHandler> nextObjectDispatch = 
+				new HashMap<ObjectClassHandle, ObjectClassHandler>();
+		for(Map.Entry<String, String[]> entry : objectClasses.entrySet()) {
+			ObjectClassHandle classHandle = 
+					rtiAmbassador.getObjectClassHandle(entry.getKey());
+			objectClassHandles.put(entry.getKey(), classHandle);
+			for(String attributeName : entry.getValue()) {
+				attributeHandles.put(entry.getKey() + "." + attributeName, 
+						rtiAmbassador.getAttributeHandle(
+								classHandle, attributeName));
+			}
+			nextObjectDispatch.put(classHandle, 
+					objectClassHandlers.get(entry.getKey()));
+		}
+		Map<InteractionClassHandle, InteractionClassHandler> 
+				nextInteractionDispatch = 
+				new HashMap<InteractionClassHandle, InteractionClassHandler>();
+		for(Map.Entry<String, String[]> entry : interactionClasses.entrySet()) {
+			InteractionClassHandle classHandle = 
+					rtiAmbassador.getInteractionClassHandle(entry.getKey());
+			interactionClassHandles.put(entry.getKey(), classHandle);
+			for(String parameterName : entry.getValue()) {
+				parameterHandles.put(entry.getKey() + "." + parameterName, 
+						rtiAmbassador.getParameterHandle(
+								classHandle, parameterName));
+			}
+			nextInteractionDispatch.put(classHandle, 
+					interactionClassHandlers.get(entry.getKey()));
+		}
+		objectDispatch = nextObjectDispatch;
+		interactionDispatch = nextInteractionDispatch;
+	}
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.exceptions.RTIexception;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Metadata shared by all instances of an HLA interaction class 
+ * communicated with one RTI ambassador: the interaction class handle and 
+ * the parameter names and handles indexed by parameter ordinal (the index
+ * of the parameter name in {@link HLAinteraction#getParameterNames()}).
+ * <p>
+ * Metadata is resolved from the RTI once per interaction class and cached
+ * per RTI ambassador, so interactions are created without RTI handle 
+ * lookups. The cache must be cleared with {@link #clear(RTIambassador)} 
+ * after joining a federation execution, whose handles may differ.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+final class InteractionClassMetadata {
+	private static Logger logger = Logger.getLogger(
+			InteractionClassMetadata.class);
+	
+	private static final Map<RTIambassador, 
+			Map<String, InteractionClassMetadata>> cache = new WeakHashMap<
+					RTIambassador, Map<String, InteractionClassMetadata>>();
+	
+	/**
+	 * Clears the cached metadata of an RTI ambassador.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 */
+	static void clear(RTIambassador rtiAmbassador) {
+		synchronized(cache) {
+			cache.remove(rtiAmbassador);
+		}
+	}
+	
+	/**
+	 * Gets the shared metadata for an interaction class, resolving it from
+	 * the RTI if not cached.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param className the interaction class name
+	 * @param parameterNames the parameter names
+	 * @return the metadata
+	 * @throws RTIexception the RTI exception
+	 */
+	static InteractionClassMetadata get(RTIambassador rtiAmbassador, 
+			String className, String[] parameterNames) throws RTIexception {
+		synchronized(cache) {
+			Map<String, InteractionClassMetadata> classes = 
+					cache.get(rtiAmbassador);
+			if(classes == null) {
+				classes = new HashMap<String, InteractionClassMetadata>();
+				cache.put(rtiAmbassador, classes);
+			}
+			InteractionClassMetadata metadata = classes.get(className);
+			if(metadata == null) {
+				logger.trace("Resolving metadata for interaction class " 
+						+ className + ".");
+				metadata = new InteractionClassMetadata(rtiAmbassador, 
+						className, parameterNames);
+				classes.put(className, metadata);
+			}
+			return metadata;
+		}
+	}
+	
+	private final InteractionClassHandle interactionClassHandle;
+	private final ParameterHandle[] parameterHandles;
+	private final Map<String, Integer> ordinalsByName = 
+			new HashMap<String, Integer>();
+	private final Map<ParameterHandle, Integer> ordinalsByHandle = 
+			new HashMap<ParameterHandle, Integer>();
+	
+	/**
+	 * Instantiates new interaction class metadata.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param className the interaction class name
+	 * @param parameterNames the parameter names
+	 * @throws RTIexception the RTI exception
+	 */
+	private InteractionClassMetadata(RTIambassador rtiAmbassador, 
+			String className, String[] parameterNames) throws RTIexception {
+		interactionClassHandle = rtiAmbassador.getInteractionClassHandle(
+				className);
+		parameterHandles = new ParameterHandle[parameterNames.length];
+		for(int i = 0; i < parameterNames.length; i++) {
+			parameterHandles[i] = rtiAmbassador.getParameterHandle(
+					interactionClassHandle, parameterNames[i]);
+			ordinalsByName.put(parameterNames[i], i);
+			ordinalsByHandle.put(parameterHandles[i], i);
+		}
+	}
+	
+	/**
+	 * Gets the interaction class handle.
+	 *
+	 * @return the interaction class handle
+	 */
+	InteractionClassHandle getInteractionClassHandle() {
+		return interactionClassHandle;
+	}
+	
+	/**
+	 * Gets the number of parameters.
+	 *
+	 * @return the parameter count
+	 */
+	int getParameterCount() {
+		return parameterHandles.length;
+	}
+	
+	/**
+	 * Gets the parameter handle of an ordinal.
+	 *
+	 * @param ordinal the ordinal
+	 * @return the parameter handle
+	 */
+	ParameterHandle getParameterHandle(int ordinal) {
+		return parameterHandles[ordinal];
+	}
+	
+	/**
+	 * Gets the ordinal of a parameter handle, or -1 if not a parameter of 
+	 * this interaction class.
+	 *
+	 * @param parameterHandle the parameter handle
+	 * @return the ordinal
+	 */
+	int getOrdinal(ParameterHandle parameterHandle) {
+		Integer ordinal = ordinalsByHandle.get(parameterHandle);
+		return ordinal == null ? -1 : ordinal;
+	}
+	
+	/**
+	 * Gets the ordinal of a parameter name, or -1 if not a parameter of 
+	 * this interaction class.
+	 *
+	 * @param parameterName the parameter name
+	 * @return the ordinal
+	 */
+	int getOrdinal(String parameterName) {
+		Integer ordinal = ordinalsByName.get(parameterName);
+		return ordinal == null ? -1 : ordinal;
+	}
+}
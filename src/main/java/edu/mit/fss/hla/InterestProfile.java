@@ -0,0 +1,112 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A declarative profile of the object class attributes of interest to a
+ * federate. Object classes added to the profile are only subscribed (and
+ * decoded) for the listed attributes; object classes not in the profile
+ * are subscribed for all attributes. The Name attribute is always
+ * included because references between objects are resolved by name.
+ * <p>
+ * For example, a visualization federate interested only in element
+ * positions may use:
+ * <pre>
+ * new InterestProfile().add(FSSorbitalElement.CLASS_NAME,
+ *         FSSelement.FRAME_ATTRIBUTE, FSSelement.POSITION_ATTRIBUTE);
+ * </pre>
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class InterestProfile {
+	public static final String NAME_ATTRIBUTE = "Name";
+
+	private final Map<String, Set<String>> attributeNames =
+			new HashMap<String, Set<String>>();
+
+	/**
+	 * Adds attributes of interest for an object class. May be called more
+	 * than once for the same object class.
+	 *
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @return this profile
+	 */
+	public synchronized InterestProfile add(String className,
+			String... attributeNames) {
+		if(!this.attributeNames.containsKey(className)) {
+			this.attributeNames.put(className, new LinkedHashSet<String>());
+			this.attributeNames.get(className).add(NAME_ATTRIBUTE);
+		}
+		this.attributeNames.get(className).addAll(
+				Arrays.asList(attributeNames));
+		return this;
+	}
+
+	/**
+	 * Checks whether this profile restricts the attributes of an object
+	 * class.
+	 *
+	 * @param className the object class name
+	 * @return true, if the object class is in this profile
+	 */
+	public synchronized boolean contains(String className) {
+		return attributeNames.containsKey(className);
+	}
+
+	/**
+	 * Gets the attributes of interest for an object class from its full
+	 * set of attribute names, preserving their order. Returns all attribute
+	 * names if the object class is not in this profile.
+	 *
+	 * @param className the object class name
+	 * @param allAttributeNames all attribute names of the object class
+	 * @return the attribute names of interest
+	 */
+	public synchronized String[] getAttributeNames(String className,
+			String[] allAttributeNames) {
+		Set<String> names = attributeNames.get(className);
+		if(names == null) {
+			return allAttributeNames;
+		}
+		List<String> filtered = new ArrayList<String>();
+		for(String attributeName : allAttributeNames) {
+			if(names.contains(attributeName)) {
+				filtered.add(attributeName);
+			}
+		}
+		return filtered.toArray(new String[filtered.size()]);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public synchronized String toString() {
+		return new StringBuilder().append("InterestProfile { attributes: ")
+				.append(attributeNames).append("}").toString();
+	}
+}
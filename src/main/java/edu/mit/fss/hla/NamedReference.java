@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A reference to a known object of a type identified by name which is
+ * lazily resolved through an {@link ObjectNameIndex}. A resolved target
+ * is cached with the name and index version used to resolve it and is
+ * re-resolved after either changes. The cache is an immutable snapshot
+ * published through a volatile field, so references may be resolved
+ * from any thread.
+ *
+ * @param <T> the referenced type
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+final class NamedReference<T> {
+	private static Logger logger = Logger.getLogger(NamedReference.class);
+
+	/**
+	 * An immutable resolved target with the name and index version used to
+	 * resolve it. Targets set directly have no name or version.
+	 */
+	private static final class Resolution<T> {
+		private final String name;
+		private final long version;
+		private final T target;
+
+		/**
+		 * Instantiates a new resolution.
+		 *
+		 * @param name the name
+		 * @param version the index version
+		 * @param target the target
+		 */
+		Resolution(String name, long version, T target) {
+			this.name = name;
+			this.version = version;
+			this.target = target;
+		}
+	}
+
+	private final Class<T> type;
+	private volatile Resolution<T> resolution;
+
+	/**
+	 * Instantiates a new unresolved named reference.
+	 *
+	 * @param type the referenced type
+	 */
+	NamedReference(Class<T> type) {
+		this.type = type;
+	}
+
+	/**
+	 * Gets the current target of this reference without resolving it.
+	 *
+	 * @return the target
+	 */
+	T get() {
+		Resolution<T> current = resolution;
+		return current == null ? null : current.target;
+	}
+
+	/**
+	 * Gets the target of this reference, resolving it through an index if
+	 * it is not yet resolved for the name and the index version. Returns
+	 * the current target if the index is null.
+	 *
+	 * @param index the index
+	 * @param name the name
+	 * @return the target
+	 */
+	T get(ObjectNameIndex index, String name) {
+		Resolution<T> current = resolution;
+		if(index != null) {
+			long version = index.getVersion();
+			if(current == null || current.version != version
+					|| current.name == null || !current.name.equals(name)) {
+				logger.trace("Resolving the associated "
+						+ type.getSimpleName() + " with name " + name + ".");
+				current = new Resolution<T>(name, version,
+						index.get(name, type));
+				resolution = current;
+			}
+		}
+		return current == null ? null : current.target;
+	}
+
+	/**
+	 * Sets the target of this reference directly. The target is replaced
+	 * at the next resolution through an index.
+	 *
+	 * @param target the target
+	 */
+	void set(T target) {
+		resolution = new Resolution<T>(null, -1, target);
+	}
+}
@@ -17,7 +17,11 @@ package edu.mit.fss.hla;
 
 import hla.rti1516e.NullFederateAmbassador;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 
 import javax.swing.event.EventListenerList;
 
@@ -32,7 +36,7 @@ import edu.mit.fss.event.ObjectChangeListener;
  * A null (non-HLA) implementation of the {@link FSSambassador} interface.
  * 
  * @author Paul T. Grogan, ptgrogan@mit.edu
- * @version 0.2.0
+ * @version 0.2.1
  * @since 0.1.0
  */
 public class NullAmbassador extends NullFederateAmbassador implements
@@ -64,6 +68,25 @@ public class NullAmbassador extends NullFederateAmbassador implements
 		}
 	}
 
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSambassador#advanceToAsync(long, java.util.concurrent.Executor)
+	 */
+	@Override
+	public CompletableFuture<Long> advanceToAsync(long time, 
+			Executor executor) {
+		advanceTo(time);
+		return CompletableFuture.completedFuture(time);
+	}
+
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSambassador#advanceToNextEvent(long)
+	 */
+	@Override
+	public long advanceToNextEvent(long time) {
+		advanceTo(time);
+		return time;
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.hla.FSSambassador#connect()
 	 */
@@ -140,6 +163,14 @@ public class NullAmbassador extends NullFederateAmbassador implements
 		return federationConnection;
 	}
 
+	/* (non-Javadoc)
+	 * @see edu.mit.fss.hla.FSSambassador#getRemoteObjects(java.lang.Class)
+	 */
+	@Override
+	public <T extends SimObject> Collection<T> getRemoteObjects(Class<T> type) {
+		return Collections.emptyList();
+	}
+
 	/* (non-Javadoc)
 	 * @see edu.mit.fss.hla.FSSambassador#initialize(long, long)
 	 */
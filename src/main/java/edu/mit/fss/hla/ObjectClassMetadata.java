@@ -0,0 +1,223 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleSet;
+import hla.rti1516e.ObjectClassHandle;
+import hla.rti1516e.OrderType;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.exceptions.RTIexception;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Metadata shared by all instances of an HLA object class communicated 
+ * with one RTI ambassador: the object class handle, and the attribute 
+ * names, handles, and send orders indexed by attribute ordinal (the index
+ * of the attribute name in {@link HLAobject#getAttributeNames()}). 
+ * Instances keep their per-instance state in arrays indexed by ordinal.
+ * <p>
+ * Metadata is resolved from the RTI once per object class and cached per
+ * RTI ambassador, so objects are created without RTI handle lookups. The 
+ * cache must be cleared with {@link #clear(RTIambassador)} after joining 
+ * a federation execution, whose handles may differ.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+final class ObjectClassMetadata {
+	private static Logger logger = Logger.getLogger(ObjectClassMetadata.class);
+	
+	private static final Map<RTIambassador, Map<String, ObjectClassMetadata>> 
+			cache = new WeakHashMap<RTIambassador, 
+					Map<String, ObjectClassMetadata>>();
+	
+	/**
+	 * Clears the cached metadata of an RTI ambassador.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 */
+	static void clear(RTIambassador rtiAmbassador) {
+		synchronized(cache) {
+			cache.remove(rtiAmbassador);
+		}
+	}
+	
+	/**
+	 * Gets the shared metadata for an object class, resolving it from the 
+	 * RTI if not cached.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @return the metadata
+	 * @throws RTIexception the RTI exception
+	 */
+	static ObjectClassMetadata get(RTIambassador rtiAmbassador, 
+			String className, String[] attributeNames) throws RTIexception {
+		synchronized(cache) {
+			Map<String, ObjectClassMetadata> classes = 
+					cache.get(rtiAmbassador);
+			if(classes == null) {
+				classes = new HashMap<String, ObjectClassMetadata>();
+				cache.put(rtiAmbassador, classes);
+			}
+			ObjectClassMetadata metadata = classes.get(className);
+			if(metadata == null) {
+				logger.trace("Resolving metadata for object class " 
+						+ className + ".");
+				metadata = new ObjectClassMetadata(rtiAmbassador, 
+						className, attributeNames);
+				classes.put(className, metadata);
+			}
+			return metadata;
+		}
+	}
+	
+	private final ObjectClassHandle objectClassHandle;
+	private final String[] attributeNames;
+	private final AttributeHandle[] attributeHandles;
+	private final AttributeHandleSet attributeHandleSet;
+	private final Map<String, Integer> ordinalsByName = 
+			new HashMap<String, Integer>();
+	private final Map<AttributeHandle, Integer> ordinalsByHandle = 
+			new HashMap<AttributeHandle, Integer>();
+	// written identically by each instance constructor
+	private final OrderType[] sendOrders;
+	
+	/**
+	 * Instantiates new object class metadata.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @param className the object class name
+	 * @param attributeNames the attribute names
+	 * @throws RTIexception the RTI exception
+	 */
+	private ObjectClassMetadata(RTIambassador rtiAmbassador, 
+			String className, String[] attributeNames) throws RTIexception {
+		objectClassHandle = rtiAmbassador.getObjectClassHandle(className);
+		this.attributeNames = attributeNames.clone();
+		attributeHandles = new AttributeHandle[attributeNames.length];
+		attributeHandleSet = rtiAmbassador.
+				getAttributeHandleSetFactory().create();
+		for(int i = 0; i < attributeNames.length; i++) {
+			attributeHandles[i] = rtiAmbassador.getAttributeHandle(
+					objectClassHandle, attributeNames[i]);
+			attributeHandleSet.add(attributeHandles[i]);
+			ordinalsByName.put(attributeNames[i], i);
+			ordinalsByHandle.put(attributeHandles[i], i);
+		}
+		sendOrders = new OrderType[attributeNames.length];
+	}
+	
+	/**
+	 * Gets the number of attributes.
+	 *
+	 * @return the attribute count
+	 */
+	int getAttributeCount() {
+		return attributeHandles.length;
+	}
+	
+	/**
+	 * Gets the attribute handle of an ordinal.
+	 *
+	 * @param ordinal the ordinal
+	 * @return the attribute handle
+	 */
+	AttributeHandle getAttributeHandle(int ordinal) {
+		return attributeHandles[ordinal];
+	}
+	
+	/**
+	 * Gets the set of all attribute handles. The set is shared and must 
+	 * not be modified.
+	 *
+	 * @return the attribute handle set
+	 */
+	AttributeHandleSet getAttributeHandleSet() {
+		return attributeHandleSet;
+	}
+	
+	/**
+	 * Gets the attribute name of an ordinal.
+	 *
+	 * @param ordinal the ordinal
+	 * @return the attribute name
+	 */
+	String getAttributeName(int ordinal) {
+		return attributeNames[ordinal];
+	}
+	
+	/**
+	 * Gets the object class handle.
+	 *
+	 * @return the object class handle
+	 */
+	ObjectClassHandle getObjectClassHandle() {
+		return objectClassHandle;
+	}
+	
+	/**
+	 * Gets the ordinal of an attribute handle, or -1 if not an attribute 
+	 * of this object class.
+	 *
+	 * @param attributeHandle the attribute handle
+	 * @return the ordinal
+	 */
+	int getOrdinal(AttributeHandle attributeHandle) {
+		Integer ordinal = ordinalsByHandle.get(attributeHandle);
+		return ordinal == null ? -1 : ordinal;
+	}
+	
+	/**
+	 * Gets the ordinal of an attribute name, or -1 if not an attribute of 
+	 * this object class.
+	 *
+	 * @param attributeName the attribute name
+	 * @return the ordinal
+	 */
+	int getOrdinal(String attributeName) {
+		Integer ordinal = ordinalsByName.get(attributeName);
+		return ordinal == null ? -1 : ordinal;
+	}
+	
+	/**
+	 * Gets the send order of an ordinal.
+	 *
+	 * @param ordinal the ordinal
+	 * @return the send order
+	 */
+	OrderType getSendOrder(int ordinal) {
+		return sendOrders[ordinal];
+	}
+	
+	/**
+	 * Sets the send order of an ordinal.
+	 *
+	 * @param ordinal the ordinal
+	 * @param sendOrder the send order
+	 */
+	void setSendOrder(int ordinal, OrderType sendOrder) {
+		sendOrders[ordinal] = sendOrder;
+	}
+}
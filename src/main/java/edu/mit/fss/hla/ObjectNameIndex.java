@@ -0,0 +1,206 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A live index of known HLA objects by name and, for a fixed set of 
+ * types, by type and name. Lookups are constant-time and may be called 
+ * from any thread. Changes to the index (additions, removals, and 
+ * renames) increment a version number which object references resolved 
+ * through the index use to detect stale targets.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class ObjectNameIndex {
+	private final ConcurrentMap<String, HLAobject> objectsByName = 
+			new ConcurrentHashMap<String, HLAobject>();
+	// immutable after construction
+	private final Map<Class<?>, ConcurrentMap<String, HLAobject>> typeIndex = 
+			new HashMap<Class<?>, ConcurrentMap<String, HLAobject>>();
+	// name under which each object is indexed, guarded by this
+	private final Map<HLAobject, String> indexedNames = 
+			new IdentityHashMap<HLAobject, String>();
+	private final AtomicLong version = new AtomicLong(0);
+	
+	/**
+	 * Instantiates a new object name index with type indices for the 
+	 * specified types.
+	 *
+	 * @param types the indexed types
+	 */
+	public ObjectNameIndex(Class<?>... types) {
+		for(Class<?> type : types) {
+			typeIndex.put(type, new ConcurrentHashMap<String, HLAobject>());
+		}
+	}
+	
+	/**
+	 * Removes all objects from this index.
+	 */
+	public synchronized void clear() {
+		indexedNames.clear();
+		objectsByName.clear();
+		for(ConcurrentMap<String, HLAobject> objects : typeIndex.values()) {
+			objects.clear();
+		}
+		version.incrementAndGet();
+	}
+	
+	/**
+	 * Gets the object indexed with a name, or null if no such object exists.
+	 *
+	 * @param name the name
+	 * @return the object
+	 */
+	public HLAobject get(String name) {
+		if(name == null) {
+			return null;
+		}
+		return objectsByName.get(name);
+	}
+	
+	/**
+	 * Gets the object of a type indexed with a name, or null if no such 
+	 * object exists.
+	 *
+	 * @param <T> the generic type
+	 * @param name the name
+	 * @param type the type
+	 * @return the object
+	 */
+	public <T> T get(String name, Class<T> type) {
+		if(name == null) {
+			return null;
+		}
+		ConcurrentMap<String, HLAobject> objects = typeIndex.get(type);
+		Object object = objects == null ? 
+				objectsByName.get(name) : objects.get(name);
+		return type.isInstance(object) ? type.cast(object) : null;
+	}
+	
+	/**
+	 * Gets a read-only live view of the indexed objects of a type. Types 
+	 * not indexed by this index are collected by scanning all objects.
+	 *
+	 * @param <T> the generic type
+	 * @param type the type
+	 * @return the objects
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> Collection<T> getObjects(Class<T> type) {
+		ConcurrentMap<String, HLAobject> objects = typeIndex.get(type);
+		if(objects != null) {
+			return Collections.unmodifiableCollection(
+					(Collection<T>) objects.values());
+		}
+		Collection<T> matches = new ArrayList<T>();
+		for(HLAobject object : objectsByName.values()) {
+			if(type.isInstance(object)) {
+				matches.add(type.cast(object));
+			}
+		}
+		return Collections.unmodifiableCollection(matches);
+	}
+	
+	/**
+	 * Gets the version of this index, incremented after each change.
+	 *
+	 * @return the version
+	 */
+	public long getVersion() {
+		return version.get();
+	}
+	
+	/**
+	 * Adds an object to this index under its current name or re-indexes it
+	 * if its name changed since it was last added. Does nothing if the 
+	 * object is already indexed under its current name.
+	 *
+	 * @param object the object
+	 */
+	public synchronized void put(HLAobject object) {
+		String name = object.getName();
+		String previousName = indexedNames.get(object);
+		if(previousName != null && previousName.equals(name)) {
+			return;
+		}
+		if(previousName != null) {
+			unindex(previousName, object);
+		}
+		if(name != null) {
+			indexedNames.put(object, name);
+			objectsByName.put(name, object);
+			for(Map.Entry<Class<?>, ConcurrentMap<String, HLAobject>> entry 
+					: typeIndex.entrySet()) {
+				if(entry.getKey().isInstance(object)) {
+					entry.getValue().put(name, object);
+				}
+			}
+		} else {
+			indexedNames.remove(object);
+		}
+		version.incrementAndGet();
+	}
+	
+	/**
+	 * Removes an object from this index. Does nothing if the object is not 
+	 * indexed.
+	 *
+	 * @param object the object
+	 */
+	public synchronized void remove(HLAobject object) {
+		String previousName = indexedNames.remove(object);
+		if(previousName != null) {
+			unindex(previousName, object);
+			version.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Gets the number of indexed objects.
+	 *
+	 * @return the size
+	 */
+	public int size() {
+		return objectsByName.size();
+	}
+	
+	/**
+	 * Removes the entries for an object indexed under a name, leaving any 
+	 * other object indexed under the same name.
+	 *
+	 * @param name the name
+	 * @param object the object
+	 */
+	private void unindex(String name, HLAobject object) {
+		objectsByName.remove(name, object);
+		for(ConcurrentMap<String, HLAobject> objects : typeIndex.values()) {
+			objects.remove(name, object);
+		}
+	}
+}
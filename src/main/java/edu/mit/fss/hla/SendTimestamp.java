@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.LogicalTime;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.exceptions.RTIexception;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+/**
+ * A per-step send timestamp (logical time plus lookahead) shared by the
+ * timestamp-order updates and interactions of a federate. The owning
+ * ambassador sets the timestamp once after each time grant with
+ * {@link #set(LogicalTime)} so objects and interactions need not query
+ * the RTI for the logical time and lookahead. If no timestamp is set, the
+ * RTI is queried once and the result is cached until the next
+ * {@link #set(LogicalTime)} or {@link #invalidate()}.
+ * <p>
+ * Counts requests and RTI queries to report the queries avoided.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public final class SendTimestamp {
+	private static Logger logger = Logger.getLogger(SendTimestamp.class);
+
+	private volatile LogicalTime timestamp;
+	private final AtomicLong requests = new AtomicLong(0);
+	private final AtomicLong queries = new AtomicLong(0);
+	private final AtomicLong stepRequests = new AtomicLong(0);
+	private final AtomicLong stepQueries = new AtomicLong(0);
+
+	/**
+	 * Gets the send timestamp, querying the logical time and lookahead
+	 * from the RTI only if no timestamp is cached.
+	 *
+	 * @param rtiAmbassador the RTI ambassador
+	 * @return the timestamp
+	 * @throws RTIexception the RTI exception
+	 */
+	public LogicalTime get(RTIambassador rtiAmbassador) throws RTIexception {
+		requests.incrementAndGet();
+		stepRequests.incrementAndGet();
+		LogicalTime current = timestamp;
+		if(current == null) {
+			logger.trace("Querying the logical time and lookahead.");
+			current = rtiAmbassador.queryLogicalTime().add(
+					rtiAmbassador.queryLookahead());
+			queries.addAndGet(2);
+			stepQueries.addAndGet(2);
+			timestamp = current;
+		}
+		return current;
+	}
+
+	/**
+	 * Gets the cumulative number of RTI queries avoided by caching, where
+	 * each uncached request requires two queries (logical time and
+	 * lookahead).
+	 *
+	 * @return the avoided queries
+	 */
+	public long getAvoidedQueries() {
+		return 2*requests.get() - queries.get();
+	}
+
+	/**
+	 * Gets the cumulative number of RTI queries made.
+	 *
+	 * @return the queries
+	 */
+	public long getQueries() {
+		return queries.get();
+	}
+
+	/**
+	 * Gets the cumulative number of timestamp requests.
+	 *
+	 * @return the requests
+	 */
+	public long getRequests() {
+		return requests.get();
+	}
+
+	/**
+	 * Clears the cached timestamp so the next request queries the RTI.
+	 */
+	public void invalidate() {
+		timestamp = null;
+	}
+
+	/**
+	 * Sets the send timestamp for the next step and logs the requests and
+	 * RTI queries of the previous step.
+	 *
+	 * @param timestamp the timestamp
+	 */
+	public void set(LogicalTime timestamp) {
+		long stepRequests = this.stepRequests.getAndSet(0);
+		long stepQueries = this.stepQueries.getAndSet(0);
+		if(stepRequests > 0) {
+			logger.debug("Served " + stepRequests
+					+ " send timestamp requests with " + stepQueries
+					+ " RTI queries (" + (2*stepRequests - stepQueries)
+					+ " avoided) in the previous step.");
+		}
+		this.timestamp = timestamp;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return new StringBuilder().append("SendTimestamp { timestamp: ")
+				.append(timestamp).append(", requests: ")
+				.append(requests.get()).append(", queries: ")
+				.append(queries.get()).append("}").toString();
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * An unbounded lock-free single-producer, single-consumer queue which 
+ * hands off staged objects from the thread decoding RTI callbacks to the 
+ * thread applying them at step boundaries. Only one thread may offer and 
+ * only one thread may poll at a time; offering and polling never block 
+ * each other.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ *
+ * @param <E> the element type
+ */
+final class StagingQueue<E> {
+	
+	/**
+	 * A linked node holding one element.
+	 *
+	 * @param <E> the element type
+	 */
+	private static final class Node<E> {
+		private E value;
+		private final AtomicReference<Node<E>> next = 
+				new AtomicReference<Node<E>>();
+		
+		/**
+		 * Instantiates a new node.
+		 *
+		 * @param value the value
+		 */
+		private Node(E value) {
+			this.value = value;
+		}
+	}
+	
+	// consumer-owned sentinel preceding the first element
+	private Node<E> head = new Node<E>(null);
+	// producer-owned last node
+	private Node<E> tail = head;
+	
+	/**
+	 * Discards all elements. Must only be called by the consumer.
+	 */
+	public void clear() {
+		while(poll() != null) { }
+	}
+	
+	/**
+	 * Checks if this queue is empty. Must only be called by the consumer.
+	 *
+	 * @return true, if is empty
+	 */
+	public boolean isEmpty() {
+		return head.next.get() == null;
+	}
+	
+	/**
+	 * Adds an element to the tail of this queue. Must only be called by 
+	 * the producer.
+	 *
+	 * @param value the value
+	 */
+	public void offer(E value) {
+		if(value == null) {
+			throw new NullPointerException("Value cannot be null.");
+		}
+		Node<E> node = new Node<E>(value);
+		tail.next.lazySet(node);
+		tail = node;
+	}
+	
+	/**
+	 * Removes and returns the element at the head of this queue, or null
+	 * if empty. Must only be called by the consumer.
+	 *
+	 * @return the value
+	 */
+	public E poll() {
+		Node<E> next = head.next.get();
+		if(next == null) {
+			return null;
+		}
+		E value = next.value;
+		next.value = null;
+		head = next;
+		return value;
+	}
+}
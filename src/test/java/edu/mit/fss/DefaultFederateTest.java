@@ -0,0 +1,646 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import edu.mit.fss.event.SimulationTimeEvent;
+import edu.mit.fss.event.SimulationTimeListener;
+import edu.mit.fss.hla.FSSambassador;
+import edu.mit.fss.hla.NullAmbassador;
+
+/**
+ * Tests for the event-loop execution mode, parallel ticks, multi-rate 
+ * scheduling, next-event advance, and time scale pacing of 
+ * {@link DefaultFederate}.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class DefaultFederateTest extends TestCase {
+	private static final int FEDERATES = 3;
+	private static final int STEPS = 20;
+	private static final long TIME_STEP = 60000;
+	private static final long MINIMUM_STEP_DURATION = 10;
+	private static final long SCALED_TIME_STEP = 1200;
+	private static final double TIME_SCALE_TOLERANCE = 0.15;
+	
+	/**
+	 * A simulation object which records the index of its federate and the
+	 * thread of each tick.
+	 */
+	private static class RecordingObject implements SimObject {
+		private final int index;
+		private final List<Integer> sequence;
+		private final List<Thread> threads;
+		private volatile long ticks, tocks;
+		
+		/**
+		 * Instantiates a new recording object.
+		 *
+		 * @param index the federate index
+		 * @param sequence the shared tick sequence
+		 * @param threads the shared tick threads
+		 */
+		RecordingObject(int index, List<Integer> sequence, 
+				List<Thread> threads) {
+			this.index = index;
+			this.sequence = sequence;
+			this.threads = threads;
+		}
+		
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+		
+		@Override
+		public String getName() {
+			return "object" + index;
+		}
+		
+		@Override
+		public void initialize(long time) { }
+		
+		@Override
+		public void tick(long duration) {
+			sequence.add(index);
+			threads.add(Thread.currentThread());
+			ticks++;
+		}
+		
+		@Override
+		public void tock() {
+			tocks++;
+		}
+	}
+	
+	/**
+	 * A simulation object whose tick fails after a number of ticks.
+	 */
+	private static class FailingObject implements SimObject {
+		private final int failingTick;
+		private int ticks;
+		
+		/**
+		 * Instantiates a new failing object.
+		 *
+		 * @param failingTick the number of the failing tick
+		 */
+		FailingObject(int failingTick) {
+			this.failingTick = failingTick;
+		}
+		
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+		
+		@Override
+		public String getName() {
+			return "failing";
+		}
+		
+		@Override
+		public void initialize(long time) { }
+		
+		@Override
+		public void tick(long duration) {
+			if(++ticks == failingTick) {
+				throw new IllegalStateException("Tick failed.");
+			}
+		}
+		
+		@Override
+		public void tock() { }
+	}
+	
+	/**
+	 * A periodic simulation object which records the duration of each tick
+	 * and counts its tocks.
+	 */
+	private static class PeriodicRecordingObject implements PeriodicObject {
+		private final long updatePeriod;
+		private final List<Long> durations = new ArrayList<Long>();
+		private int tocks;
+		
+		/**
+		 * Instantiates a new periodic recording object.
+		 *
+		 * @param updatePeriod the update period
+		 */
+		PeriodicRecordingObject(long updatePeriod) {
+			this.updatePeriod = updatePeriod;
+		}
+		
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+		
+		@Override
+		public String getName() {
+			return "periodic";
+		}
+		
+		@Override
+		public long getUpdatePeriod() {
+			return updatePeriod;
+		}
+		
+		@Override
+		public void initialize(long time) { }
+		
+		@Override
+		public void tick(long duration) {
+			durations.add(duration);
+		}
+		
+		@Override
+		public void tock() {
+			tocks++;
+		}
+	}
+	
+	/**
+	 * A discrete event object with a list of event times, which records the
+	 * duration of each tick.
+	 */
+	private static class ScheduledEventObject implements DiscreteEventObject {
+		private final LinkedList<Long> eventTimes;
+		private final List<Long> durations = new ArrayList<Long>();
+		private long time, nextTime;
+		
+		/**
+		 * Instantiates a new scheduled event object.
+		 *
+		 * @param eventTimes the ascending event times
+		 */
+		ScheduledEventObject(Long... eventTimes) {
+			this.eventTimes = new LinkedList<Long>(Arrays.asList(eventTimes));
+		}
+		
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+		
+		@Override
+		public String getName() {
+			return "scheduled";
+		}
+		
+		@Override
+		public long getNextEventTime() {
+			return eventTimes.isEmpty() ? Long.MAX_VALUE : eventTimes.getFirst();
+		}
+		
+		@Override
+		public void initialize(long time) {
+			this.time = time;
+		}
+		
+		@Override
+		public void tick(long duration) {
+			durations.add(duration);
+			nextTime = time + duration;
+		}
+		
+		@Override
+		public void tock() {
+			time = nextTime;
+			while(!eventTimes.isEmpty() && eventTimes.getFirst() <= time) {
+				eventTimes.removeFirst();
+			}
+		}
+	}
+	
+	/**
+	 * A simulation object which counts its ticks in a shared tick counter 
+	 * and records whether it was ever tocked before all objects ticked.
+	 */
+	private static class BarrierObject implements SimObject {
+		private final int index;
+		private final AtomicInteger tickCounter;
+		private final int objectCount;
+		private final List<Thread> threads;
+		private volatile int ticks, tocks;
+		private volatile boolean earlyTock;
+		
+		/**
+		 * Instantiates a new barrier object.
+		 *
+		 * @param index the index
+		 * @param tickCounter the shared tick counter
+		 * @param objectCount the number of objects sharing the counter
+		 * @param threads the shared tick threads
+		 */
+		BarrierObject(int index, AtomicInteger tickCounter, int objectCount, 
+				List<Thread> threads) {
+			this.index = index;
+			this.tickCounter = tickCounter;
+			this.objectCount = objectCount;
+			this.threads = threads;
+		}
+		
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+		
+		@Override
+		public String getName() {
+			return "barrier" + index;
+		}
+		
+		@Override
+		public void initialize(long time) { }
+		
+		@Override
+		public void tick(long duration) {
+			threads.add(Thread.currentThread());
+			ticks++;
+			tickCounter.incrementAndGet();
+		}
+		
+		@Override
+		public void tock() {
+			tocks++;
+			// every object must have ticked in the current step
+			if(tickCounter.get() != tocks*objectCount) {
+				earlyTock = true;
+			}
+		}
+	}
+	
+	/**
+	 * A null ambassador which records each scheduled object update.
+	 */
+	private static class UpdateRecordingAmbassador extends NullAmbassador {
+		private final List<SimObject> updates = new ArrayList<SimObject>();
+		
+		@Override
+		public void scheduleObjectUpdate(SimObject object) {
+			updates.add(object);
+			super.scheduleObjectUpdate(object);
+		}
+	}
+	
+	/**
+	 * Creates an initialized federate with a null ambassador, an object, 
+	 * and a final time.
+	 *
+	 * @param object the object
+	 * @param finalTime the final time
+	 * @return the federate
+	 */
+	private static DefaultFederate createFederate(SimObject object, 
+			long finalTime) {
+		return createFederate(new NullAmbassador(), object, finalTime);
+	}
+	
+	/**
+	 * Creates an initialized federate with an ambassador, an object, and 
+	 * a final time.
+	 *
+	 * @param ambassador the ambassador
+	 * @param object the object
+	 * @param finalTime the final time
+	 * @return the federate
+	 */
+	private static DefaultFederate createFederate(FSSambassador ambassador, 
+			SimObject object, long finalTime) {
+		DefaultFederate federate = new DefaultFederate(ambassador);
+		federate.setTimeStep(TIME_STEP);
+		federate.setMinimumStepDuration(MINIMUM_STEP_DURATION);
+		federate.setFinalTime(finalTime);
+		federate.addObject(object);
+		federate.initialize();
+		return federate;
+	}
+	
+	/**
+	 * Runs a federate at a {@link timeScale} for a number of scaled time 
+	 * steps, with a minimum step duration which would pace much slower, 
+	 * and returns the wallclock duration in milliseconds.
+	 *
+	 * @param federate the federate
+	 * @param timeScale the time scale
+	 * @return the wallclock duration
+	 */
+	private static long runScaled(DefaultFederate federate, double timeScale) {
+		federate.setTimeStep(SCALED_TIME_STEP);
+		federate.setMinimumStepDuration(1000);
+		federate.setTimeScale(timeScale);
+		long start = System.nanoTime();
+		federate.run();
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+	
+	/**
+	 * Test an infinite time scale runs time steps as fast as possible, 
+	 * ignoring the minimum step duration.
+	 */
+	public void testInfiniteTimeScale() {
+		RecordingObject object = new RecordingObject(0, 
+				new ArrayList<Integer>(), new ArrayList<Thread>());
+		DefaultFederate federate = createFederate(object, 
+				STEPS*SCALED_TIME_STEP);
+		long duration = runScaled(federate, Double.POSITIVE_INFINITY);
+		assertEquals(STEPS, object.ticks);
+		assertTrue(duration < 1000);
+		assertTrue(federate.getAchievedTimeScale() > 100);
+	}
+	
+	/**
+	 * Test multi-rate scheduling ticks, tocks, and updates a periodic object
+	 * only once its update period has elapsed, over the full elapsed time, 
+	 * while regular objects are updated every time step; and that the 
+	 * periodic object is re-anchored when multi-rate scheduling resumes.
+	 */
+	public void testMultiRateScheduling() {
+		UpdateRecordingAmbassador ambassador = new UpdateRecordingAmbassador();
+		PeriodicRecordingObject periodic = 
+				new PeriodicRecordingObject(3*TIME_STEP);
+		RecordingObject regular = new RecordingObject(0, 
+				new ArrayList<Integer>(), new ArrayList<Thread>());
+		DefaultFederate federate = createFederate(
+				ambassador, periodic, Long.MAX_VALUE);
+		federate.addObject(regular);
+		federate.setMultiRateScheduling(true);
+		
+		for(int i = 1; i <= 6; i++) {
+			federate.runBatch(1, Long.MAX_VALUE, 1);
+			// undue steps skip the periodic tick, tock, and update
+			assertEquals(i/3, periodic.durations.size());
+			assertEquals(i/3, periodic.tocks);
+			assertEquals(i/3, Collections.frequency(
+					ambassador.updates, periodic));
+			assertEquals(i, regular.ticks);
+			assertEquals(i, Collections.frequency(
+					ambassador.updates, regular));
+		}
+		assertEquals(Arrays.asList(3*TIME_STEP, 3*TIME_STEP), 
+				periodic.durations);
+		
+		// without multi-rate scheduling all objects update every step
+		federate.setMultiRateScheduling(false);
+		federate.runBatch(2, Long.MAX_VALUE, 1);
+		assertEquals(Arrays.asList(3*TIME_STEP, 3*TIME_STEP, 
+				TIME_STEP, TIME_STEP), periodic.durations);
+		
+		// resumed scheduling does not tick over the time already covered
+		federate.setMultiRateScheduling(true);
+		federate.runBatch(2, Long.MAX_VALUE, 1);
+		assertEquals(4, periodic.durations.size());
+		federate.runBatch(1, Long.MAX_VALUE, 1);
+		assertEquals(Arrays.asList(3*TIME_STEP, 3*TIME_STEP, 
+				TIME_STEP, TIME_STEP, 3*TIME_STEP), periodic.durations);
+		assertEquals(5, Collections.frequency(ambassador.updates, periodic));
+		assertEquals(11, regular.ticks);
+	}
+	
+	/**
+	 * Test next-event advance jumps to each pending event time, but never 
+	 * further than the next-event horizon after the current time, 
+	 * including after the last event.
+	 */
+	public void testNextEventAdvance() {
+		ScheduledEventObject object = 
+				new ScheduledEventObject(5000L, 2*TIME_STEP + 30000);
+		DefaultFederate federate = createFederate(object, Long.MAX_VALUE);
+		federate.setNextEventAdvance(true);
+		
+		assertEquals(5, federate.runBatch(5, Long.MAX_VALUE, 1));
+		assertEquals(Arrays.asList(5000L, TIME_STEP, TIME_STEP, 
+				30000L - 5000L, TIME_STEP), object.durations);
+		
+		federate.setNextEventHorizon(10*TIME_STEP);
+		federate.runBatch(1, Long.MAX_VALUE, 1);
+		assertEquals(10*TIME_STEP, 
+				object.durations.get(object.durations.size() - 1).longValue());
+	}
+	
+	/**
+	 * Test next-event advance without any objects advances by the time 
+	 * step rather than jumping to the end of time.
+	 */
+	public void testNextEventAdvanceWithoutObjects() {
+		DefaultFederate federate = new DefaultFederate(new NullAmbassador());
+		federate.setTimeStep(TIME_STEP);
+		federate.setMinimumStepDuration(MINIMUM_STEP_DURATION);
+		federate.setFinalTime(Long.MAX_VALUE);
+		federate.initialize();
+		federate.setNextEventAdvance(true);
+		final List<Long> times = new ArrayList<Long>();
+		federate.addSimulationTimeListener(new SimulationTimeListener() {
+			@Override
+			public void timeAdvanced(SimulationTimeEvent event) {
+				times.add(event.getTime());
+			}
+		});
+		
+		federate.runBatch(3, Long.MAX_VALUE, 1);
+		assertEquals(Arrays.asList(TIME_STEP, 2*TIME_STEP, 3*TIME_STEP), 
+				times);
+	}
+	
+	/**
+	 * Test a tick phase with more objects than the parallel tick threshold 
+	 * runs in the tick pool, ticks each object exactly once per time step, 
+	 * and completes before any object is tocked.
+	 */
+	public void testParallelTick() {
+		final int objectCount = 25;
+		AtomicInteger tickCounter = new AtomicInteger();
+		List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+		BarrierObject[] objects = new BarrierObject[objectCount];
+		for(int i = 0; i < objectCount; i++) {
+			objects[i] = new BarrierObject(i, tickCounter, 
+					objectCount, threads);
+		}
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			DefaultFederate federate = createFederate(
+					objects[0], Long.MAX_VALUE);
+			for(int i = 1; i < objectCount; i++) {
+				federate.addObject(objects[i]);
+			}
+			federate.setTickPool(pool);
+			federate.setParallelTickThreshold(3);
+			assertEquals(STEPS, federate.runBatch(STEPS, Long.MAX_VALUE, 1));
+		} finally {
+			pool.shutdownNow();
+		}
+		
+		for(BarrierObject object : objects) {
+			assertEquals(STEPS, object.ticks);
+			assertEquals(STEPS, object.tocks);
+			assertFalse(object.earlyTock);
+		}
+		assertEquals(STEPS*objectCount, tickCounter.get());
+		assertEquals(STEPS*objectCount, threads.size());
+		for(Thread thread : threads) {
+			assertTrue(thread instanceof ForkJoinWorkerThread);
+			assertSame(pool, ((ForkJoinWorkerThread) thread).getPool());
+		}
+	}
+	
+	/**
+	 * Test a failing step in event-loop mode completes the future 
+	 * exceptionally and exits the running loop, so stopping the federate 
+	 * returns without a stop timeout.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testRunAsyncFailure() throws Exception {
+		ScheduledExecutorService executor = 
+				Executors.newSingleThreadScheduledExecutor();
+		try {
+			final DefaultFederate federate = createFederate(
+					new FailingObject(3), Long.MAX_VALUE);
+			CompletableFuture<Void> completion = federate.runAsync(executor);
+			try {
+				completion.get(5, TimeUnit.SECONDS);
+				fail("Expected the failed tick to fail the future.");
+			} catch(ExecutionException e) {
+				assertTrue(e.getCause() instanceof IllegalStateException);
+			}
+			Thread stopThread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					federate.stop();
+					federate.terminate();
+				}
+			});
+			stopThread.start();
+			stopThread.join(5000);
+			assertFalse(stopThread.isAlive());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Test one executor thread drives several federates in event-loop mode
+	 * with interleaved steps until each reaches its final time.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testRunAsyncSharedThread() throws Exception {
+		ScheduledExecutorService executor = 
+				Executors.newSingleThreadScheduledExecutor();
+		List<Integer> sequence = new CopyOnWriteArrayList<Integer>();
+		List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+		RecordingObject[] objects = new RecordingObject[FEDERATES];
+		CompletableFuture<?>[] completions = new CompletableFuture<?>[FEDERATES];
+		try {
+			for(int i = 0; i < FEDERATES; i++) {
+				objects[i] = new RecordingObject(i, sequence, threads);
+				completions[i] = createFederate(objects[i], 
+						STEPS*TIME_STEP).runAsync(executor);
+			}
+			CompletableFuture.allOf(completions).get(10, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+		
+		for(RecordingObject object : objects) {
+			assertEquals(STEPS, object.ticks);
+			assertEquals(STEPS, object.tocks);
+		}
+		assertEquals(1, new HashSet<Thread>(threads).size());
+		assertNotSame(Thread.currentThread(), threads.get(0));
+		// steps of the first federate interleave with those of the others
+		assertTrue(sequence.indexOf(FEDERATES - 1) 
+				< sequence.lastIndexOf(0));
+	}
+	
+	/**
+	 * Test stopping a federate in event-loop mode completes its future 
+	 * without affecting another federate on the same executor.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testRunAsyncStop() throws Exception {
+		ScheduledExecutorService executor = 
+				Executors.newSingleThreadScheduledExecutor();
+		List<Integer> sequence = new CopyOnWriteArrayList<Integer>();
+		List<Thread> threads = new CopyOnWriteArrayList<Thread>();
+		RecordingObject stopped = new RecordingObject(0, sequence, threads);
+		RecordingObject finished = new RecordingObject(1, sequence, threads);
+		try {
+			DefaultFederate federate = createFederate(stopped, Long.MAX_VALUE);
+			CompletableFuture<Void> stoppedCompletion = 
+					federate.runAsync(executor);
+			CompletableFuture<Void> finishedCompletion = createFederate(
+					finished, STEPS*TIME_STEP).runAsync(executor);
+			Thread.sleep(5*MINIMUM_STEP_DURATION);
+			federate.stop();
+			stoppedCompletion.get(5, TimeUnit.SECONDS);
+			long ticks = stopped.ticks;
+			assertTrue(ticks > 0);
+			
+			finishedCompletion.get(10, TimeUnit.SECONDS);
+			assertEquals(STEPS, finished.ticks);
+			assertEquals(ticks, stopped.ticks);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+	
+	/**
+	 * Test a finite time scale paces each time step by its simulated 
+	 * duration rather than the minimum step duration, so the achieved time
+	 * scale follows the target time scale.
+	 */
+	public void testTimeScale() {
+		double[] timeScales = new double[]{60, 120};
+		long[] durations = new long[timeScales.length];
+		for(int i = 0; i < timeScales.length; i++) {
+			RecordingObject object = new RecordingObject(0, 
+					new ArrayList<Integer>(), new ArrayList<Thread>());
+			DefaultFederate federate = createFederate(object, 
+					STEPS*SCALED_TIME_STEP);
+			durations[i] = runScaled(federate, timeScales[i]);
+			assertEquals(STEPS, object.ticks);
+			assertEquals(timeScales[i], federate.getAchievedTimeScale(), 
+					TIME_SCALE_TOLERANCE*timeScales[i]);
+			// no faster than the time scale, much faster than the minimum
+			assertTrue(durations[i] >= STEPS*SCALED_TIME_STEP/timeScales[i] - 1);
+			assertTrue(durations[i] < STEPS*1000);
+		}
+		assertTrue(durations[1] < durations[0]);
+	}
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+import edu.mit.fss.event.ExecutionControlEvent;
+import edu.mit.fss.event.ExecutionControlListener;
+
+/**
+ * Tests for {@link EnsembleRunner} reproducibility and clean-up of
+ * failed runs.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class EnsembleRunnerTest extends TestCase {
+	private static final int RUNS = 16;
+	private static final int STEPS = 50;
+	private static final long TIME_STEP = 1000;
+	private static final double TOLERANCE = 1e-12;
+
+	/**
+	 * A simulation object which takes a random step each tick.
+	 */
+	private static class RandomWalk implements SimObject {
+		private final Random random;
+		private double position, nextPosition;
+
+		/**
+		 * Instantiates a new random walk.
+		 *
+		 * @param random the random number generator
+		 * @param position the initial position
+		 */
+		RandomWalk(Random random, double position) {
+			this.random = random;
+			this.position = position;
+		}
+
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public String getName() {
+			return "walk";
+		}
+
+		@Override
+		public void initialize(long time) { }
+
+		@Override
+		public void tick(long duration) {
+			nextPosition = position + random.nextGaussian();
+		}
+
+		@Override
+		public void tock() {
+			position = nextPosition;
+		}
+	}
+
+	/**
+	 * A scenario of a random walk with a perturbed initial position, which
+	 * records the position at each observation and fails the observation
+	 * of one run. Counts the terminated federates.
+	 */
+	private static class WalkScenario implements EnsembleScenario {
+		private final int failingRun;
+		private final AtomicInteger terminated = new AtomicInteger();
+
+		/**
+		 * Instantiates a new walk scenario.
+		 *
+		 * @param failingRun the index of the failing run, or -1
+		 */
+		WalkScenario(int failingRun) {
+			this.failingRun = failingRun;
+		}
+
+		@Override
+		public void configure(EnsembleRunner.Run run, Random random) {
+			run.getFederate().setTimeStep(TIME_STEP);
+			run.getFederate().setFinalTime(Long.MAX_VALUE);
+			run.getFederate().addObject(
+					new RandomWalk(random, random.nextDouble()));
+			run.getFederate().addExecutionControlListener(
+					new ExecutionControlListener() {
+				@Override
+				public void executionInitialized(ExecutionControlEvent event) { }
+
+				@Override
+				public void executionStarted(ExecutionControlEvent event) { }
+
+				@Override
+				public void executionStopped(ExecutionControlEvent event) { }
+
+				@Override
+				public void executionTerminated(ExecutionControlEvent event) {
+					terminated.incrementAndGet();
+				}
+			});
+		}
+
+		@Override
+		public void observe(EnsembleRunner.Run run) {
+			if(run.getIndex() == failingRun) {
+				throw new IllegalStateException("Observation failed.");
+			}
+			for(SimObject object : run.getFederate().getObjects()) {
+				run.record("position", ((RandomWalk) object).position);
+			}
+		}
+	}
+
+	/**
+	 * Runs an ensemble of a walk scenario.
+	 *
+	 * @param scenario the scenario
+	 * @param parallelism the parallelism
+	 * @param seed the seed
+	 * @return the ensemble runner
+	 * @throws InterruptedException the interrupted exception
+	 */
+	private static EnsembleRunner runEnsemble(WalkScenario scenario,
+			int parallelism, long seed) throws InterruptedException {
+		EnsembleRunner runner = new EnsembleRunner(scenario, RUNS, parallelism);
+		runner.setNumberOfSteps(STEPS);
+		runner.setSeed(seed);
+		runner.run();
+		return runner;
+	}
+
+	/**
+	 * Test a run which fails in an observation is counted as failed and 
+	 * its federate is still terminated.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testFailedRunTerminated() throws Exception {
+		WalkScenario scenario = new WalkScenario(3);
+		EnsembleRunner runner = runEnsemble(scenario, 4, 0);
+		assertEquals(1, runner.getFailedRuns());
+		assertEquals(RUNS - 1, runner.getCompletedRuns());
+		assertEquals(RUNS, scenario.terminated.get());
+	}
+
+	/**
+	 * Test an ensemble with a fixed seed reproduces the same statistics
+	 * regardless of parallelism, and a different seed does not.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testReproducible() throws Exception {
+		EnsembleRunner sequential = runEnsemble(new WalkScenario(-1), 1, 42);
+		EnsembleRunner parallel = runEnsemble(new WalkScenario(-1), 4, 42);
+		EnsembleRunner other = runEnsemble(new WalkScenario(-1), 4, 43);
+
+		MergeableStatistics expected = sequential.getStatistics("position");
+		MergeableStatistics actual = parallel.getStatistics("position");
+		// each run is observed after initialization and after each step
+		assertEquals(RUNS*(STEPS + 1), expected.getN());
+		assertEquals(expected.getN(), actual.getN());
+		assertEquals(expected.getMean(), actual.getMean(), TOLERANCE);
+		assertEquals(expected.getVariance(), actual.getVariance(),
+				TOLERANCE*expected.getVariance());
+		assertEquals(expected.getMin(), actual.getMin());
+		assertEquals(expected.getMax(), actual.getMax());
+		assertEquals(sequential.getRunMeanStatistics("position").getMean(),
+				parallel.getRunMeanStatistics("position").getMean(), TOLERANCE);
+
+		assertFalse(expected.getMean()
+				== other.getStatistics("position").getMean());
+	}
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.math3.util.FastMath;
+
+/**
+ * Tests for {@link MergeableStatistics} merges, which must summarize the
+ * same values as adding them one at a time.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class MergeableStatisticsTest extends TestCase {
+	private static final int VALUES = 10000;
+	private static final int[] PARTITIONS = {0, 1, 17, 2500, 2501, 7321, VALUES};
+	private static final double TOLERANCE = 1e-9;
+
+	/**
+	 * Creates values with a large offset relative to their spread, which
+	 * loses precision in naive sum-of-squares variance computations.
+	 *
+	 * @return the values
+	 */
+	private static double[] createValues() {
+		Random random = new Random(42);
+		double[] values = new double[VALUES];
+		for(int i = 0; i < VALUES; i++) {
+			values[i] = 1e6 + random.nextGaussian();
+		}
+		return values;
+	}
+
+	/**
+	 * Asserts the merged statistics equal the sequential statistics.
+	 *
+	 * @param sequential the sequential statistics
+	 * @param merged the merged statistics
+	 */
+	private static void assertStatistics(MergeableStatistics sequential,
+			MergeableStatistics merged) {
+		assertEquals(sequential.getN(), merged.getN());
+		assertEquals(sequential.getMean(), merged.getMean(),
+				TOLERANCE*FastMath.abs(sequential.getMean()));
+		assertEquals(sequential.getVariance(), merged.getVariance(),
+				TOLERANCE*sequential.getVariance());
+		assertEquals(sequential.getMin(), merged.getMin());
+		assertEquals(sequential.getMax(), merged.getMax());
+	}
+
+	/**
+	 * Test merging with empty statistics.
+	 */
+	public void testMergeEmpty() {
+		MergeableStatistics empty = new MergeableStatistics();
+		empty.merge(new MergeableStatistics());
+		assertEquals(0, empty.getN());
+		assertTrue(Double.isNaN(empty.getMean()));
+		assertTrue(Double.isNaN(empty.getVariance()));
+
+		MergeableStatistics sequential = new MergeableStatistics();
+		for(double value : createValues()) {
+			sequential.addValue(value);
+		}
+		MergeableStatistics merged = sequential.copy();
+		merged.merge(new MergeableStatistics());
+		assertStatistics(sequential, merged);
+		empty.merge(sequential);
+		assertStatistics(sequential, empty);
+	}
+
+	/**
+	 * Test statistics of partitions collected and merged in parallel equal
+	 * the statistics of adding all values sequentially.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testParallelMerge() throws Exception {
+		final double[] values = createValues();
+		MergeableStatistics sequential = new MergeableStatistics();
+		for(double value : values) {
+			sequential.addValue(value);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		List<Future<MergeableStatistics>> futures =
+				new ArrayList<Future<MergeableStatistics>>();
+		try {
+			for(int i = 0; i < PARTITIONS.length - 1; i++) {
+				final int from = PARTITIONS[i], to = PARTITIONS[i+1];
+				futures.add(executor.submit(
+						new Callable<MergeableStatistics>() {
+					@Override
+					public MergeableStatistics call() {
+						MergeableStatistics partition =
+								new MergeableStatistics();
+						for(int j = from; j < to; j++) {
+							partition.addValue(values[j]);
+						}
+						return partition;
+					}
+				}));
+			}
+			MergeableStatistics merged = new MergeableStatistics();
+			for(Future<MergeableStatistics> future : futures) {
+				merged.merge(future.get());
+			}
+			assertStatistics(sequential, merged);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Test pairwise merges of partitions in a tree equal the statistics of
+	 * adding all values sequentially.
+	 */
+	public void testTreeMerge() {
+		double[] values = createValues();
+		MergeableStatistics sequential = new MergeableStatistics();
+		for(double value : values) {
+			sequential.addValue(value);
+		}
+
+		List<MergeableStatistics> partitions =
+				new ArrayList<MergeableStatistics>();
+		for(int i = 0; i < PARTITIONS.length - 1; i++) {
+			MergeableStatistics partition = new MergeableStatistics();
+			for(int j = PARTITIONS[i]; j < PARTITIONS[i+1]; j++) {
+				partition.addValue(values[j]);
+			}
+			partitions.add(partition);
+		}
+		while(partitions.size() > 1) {
+			List<MergeableStatistics> merged =
+					new ArrayList<MergeableStatistics>();
+			for(int i = 0; i < partitions.size(); i += 2) {
+				MergeableStatistics pair = partitions.get(i);
+				if(i + 1 < partitions.size()) {
+					pair.merge(partitions.get(i + 1));
+				}
+				merged.add(pair);
+			}
+			partitions = merged;
+		}
+		assertStatistics(sequential, partitions.get(0));
+	}
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link MultiRateScheduler} due-bucket selection, per-object
+ * tick durations, and re-anchoring.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class MultiRateSchedulerTest extends TestCase {
+	private static final long TIME_STEP = 10;
+
+	/**
+	 * A simulation object with a fixed update period.
+	 */
+	private static class Periodic implements PeriodicObject {
+		private final String name;
+		private final long updatePeriod;
+
+		/**
+		 * Instantiates a new periodic object.
+		 *
+		 * @param name the name
+		 * @param updatePeriod the update period
+		 */
+		Periodic(String name, long updatePeriod) {
+			this.name = name;
+			this.updatePeriod = updatePeriod;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public long getUpdatePeriod() {
+			return updatePeriod;
+		}
+
+		@Override
+		public void initialize(long time) { }
+
+		@Override
+		public void tick(long duration) { }
+
+		@Override
+		public void tock() { }
+	}
+
+	private final Periodic everyStep = new Periodic("everyStep", 0);
+	private final Periodic twoSteps = new Periodic("twoSteps", 2*TIME_STEP);
+	private final Periodic threeSteps = new Periodic("threeSteps", 3*TIME_STEP);
+	private final SimObject regular = new SimObject() {
+		@Override
+		public String getName() {
+			return "regular";
+		}
+
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public void initialize(long time) { }
+
+		@Override
+		public void tick(long duration) { }
+
+		@Override
+		public void tock() { }
+	};
+
+	/**
+	 * Asserts the scheduler's due objects and durations.
+	 *
+	 * @param scheduler the scheduler
+	 * @param objects the expected due objects
+	 * @param durations the expected due durations
+	 */
+	private static void assertDue(MultiRateScheduler scheduler,
+			SimObject[] objects, long[] durations) {
+		assertEquals(objects.length, scheduler.getDueCount());
+		for(int i = 0; i < objects.length; i++) {
+			int index = Arrays.asList(scheduler.getDueObjects()).subList(
+					0, scheduler.getDueCount()).indexOf(objects[i]);
+			assertTrue(index >= 0);
+			assertEquals(durations[i], scheduler.getDueDurations()[index]);
+		}
+	}
+
+	/**
+	 * Test re-anchoring schedules each periodic object one update period
+	 * after the re-anchoring time rather than catching up the time passed
+	 * since its last scheduled update.
+	 */
+	public void testReanchor() {
+		MultiRateScheduler scheduler = new MultiRateScheduler();
+		scheduler.synchronize(new SimObject[]{twoSteps}, 0);
+		scheduler.schedule(TIME_STEP);
+		assertDue(scheduler, new SimObject[0], new long[0]);
+
+		// objects were ticked every time step from 10 to 50
+		scheduler.reanchor(5*TIME_STEP);
+		scheduler.schedule(6*TIME_STEP);
+		assertDue(scheduler, new SimObject[0], new long[0]);
+		scheduler.schedule(7*TIME_STEP);
+		assertDue(scheduler, new SimObject[]{twoSteps},
+				new long[]{2*TIME_STEP});
+	}
+
+	/**
+	 * Test each time step selects only the periodic objects whose update
+	 * period has elapsed, each with its own elapsed tick duration, and
+	 * keeps regular objects separate.
+	 */
+	public void testSchedule() {
+		MultiRateScheduler scheduler = new MultiRateScheduler();
+		scheduler.synchronize(new SimObject[]{
+				regular, everyStep, twoSteps, threeSteps}, 0);
+		assertEquals(Arrays.asList(regular),
+				Arrays.asList(scheduler.getRegularObjects()));
+
+		scheduler.schedule(TIME_STEP);
+		assertDue(scheduler, new SimObject[]{everyStep},
+				new long[]{TIME_STEP});
+		scheduler.schedule(2*TIME_STEP);
+		assertDue(scheduler, new SimObject[]{everyStep, twoSteps},
+				new long[]{TIME_STEP, 2*TIME_STEP});
+		scheduler.schedule(3*TIME_STEP);
+		assertDue(scheduler, new SimObject[]{everyStep, threeSteps},
+				new long[]{TIME_STEP, 3*TIME_STEP});
+
+		// a longer time step collects every bucket due before its end
+		scheduler.schedule(7*TIME_STEP);
+		assertDue(scheduler, new SimObject[]{
+				everyStep, twoSteps, threeSteps}, new long[]{
+				4*TIME_STEP, 5*TIME_STEP, 4*TIME_STEP});
+	}
+
+	/**
+	 * Test synchronizing adds new periodic objects one update period after
+	 * the synchronization time and drops removed periodic objects.
+	 */
+	public void testSynchronize() {
+		MultiRateScheduler scheduler = new MultiRateScheduler();
+		scheduler.synchronize(new SimObject[]{twoSteps}, 0);
+		scheduler.schedule(TIME_STEP);
+
+		scheduler.synchronize(new SimObject[]{threeSteps}, TIME_STEP);
+		scheduler.schedule(2*TIME_STEP);
+		assertDue(scheduler, new SimObject[0], new long[0]);
+		scheduler.schedule(4*TIME_STEP);
+		assertDue(scheduler, new SimObject[]{threeSteps},
+				new long[]{3*TIME_STEP});
+	}
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.Logger;
+
+import edu.mit.fss.hla.NullAmbassador;
+
+/**
+ * Tests for {@link SimObjectRegistry}, including a contention benchmark 
+ * which adds and removes objects while a federate ticks 1,000 objects.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class SimObjectRegistryTest extends TestCase {
+	private static Logger logger = Logger.getLogger(SimObjectRegistryTest.class);
+	private static final int TICKING_OBJECTS = 1000;
+	private static final int STEPS = 2000;
+	
+	/**
+	 * A simulation object which counts its ticks and tocks.
+	 */
+	private static class CountingObject implements SimObject {
+		private final String name;
+		private volatile long ticks, tocks;
+		
+		/**
+		 * Instantiates a new counting object.
+		 *
+		 * @param name the name
+		 */
+		CountingObject(String name) {
+			this.name = name;
+		}
+		
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+		
+		@Override
+		public String getName() {
+			return name;
+		}
+		
+		@Override
+		public void initialize(long time) { }
+		
+		@Override
+		public void tick(long duration) {
+			ticks++;
+		}
+		
+		@Override
+		public void tock() {
+			tocks++;
+		}
+	}
+	
+	/**
+	 * A change handler which records the effective changes.
+	 */
+	private static class RecordingHandler 
+			implements SimObjectRegistry.ChangeHandler {
+		private final List<String> changes = new ArrayList<String>();
+		
+		@Override
+		public void objectAdded(SimObject object) {
+			changes.add("+" + object.getName());
+		}
+		
+		@Override
+		public void objectRemoved(SimObject object) {
+			changes.add("-" + object.getName());
+		}
+	}
+	
+	/**
+	 * A contended mutator which repeatedly adds and removes objects and 
+	 * records the latency of each call.
+	 */
+	private static class Mutator extends Thread {
+		private final AtomicBoolean done = new AtomicBoolean(false);
+		private final Federate federate;
+		private final Set<Object> sharedSet;
+		private long operations, totalNanos, maxNanos;
+		
+		/**
+		 * Instantiates a new mutator of a federate or, if the federate is 
+		 * null, of a shared synchronized set.
+		 *
+		 * @param federate the federate
+		 * @param sharedSet the shared set
+		 */
+		Mutator(Federate federate, Set<Object> sharedSet) {
+			this.federate = federate;
+			this.sharedSet = sharedSet;
+		}
+		
+		@Override
+		public void run() {
+			int i = 0;
+			while(!done.get()) {
+				SimObject object = new CountingObject("transient" + (i++ % 16));
+				long start = System.nanoTime();
+				if(federate == null) {
+					sharedSet.add(object);
+				} else {
+					federate.addObject(object);
+				}
+				record(System.nanoTime() - start);
+				start = System.nanoTime();
+				if(federate == null) {
+					sharedSet.remove(object);
+				} else {
+					federate.removeObject(object);
+				}
+				record(System.nanoTime() - start);
+				Thread.yield();
+			}
+		}
+		
+		/**
+		 * Records the latency of one operation.
+		 *
+		 * @param nanos the latency (ns)
+		 */
+		private void record(long nanos) {
+			operations++;
+			totalNanos += nanos;
+			maxNanos = Math.max(maxNanos, nanos);
+		}
+		
+		/**
+		 * Stops this mutator and waits for it to exit.
+		 *
+		 * @throws InterruptedException the interrupted exception
+		 */
+		void finish() throws InterruptedException {
+			done.set(true);
+			join();
+		}
+	}
+	
+	/**
+	 * Logs the results of a contention run.
+	 *
+	 * @param label the label
+	 * @param nanos the elapsed time (ns)
+	 * @param mutator the mutator
+	 */
+	private static void report(String label, long nanos, Mutator mutator) {
+		logger.info(label + ": " + Math.round(STEPS * 1e9 / nanos) 
+				+ " steps/s with " + TICKING_OBJECTS + " objects, " 
+				+ mutator.operations + " mutations, mean mutation latency " 
+				+ (mutator.totalNanos / Math.max(1, mutator.operations)) 
+				+ " ns, max mutation latency " + mutator.maxNanos + " ns.");
+	}
+	
+	public void testChangesHiddenUntilCommit() {
+		SimObjectRegistry registry = new SimObjectRegistry();
+		SimObject a = new CountingObject("a");
+		registry.add(a);
+		assertEquals(0, registry.size());
+		assertTrue(registry.hasPendingChanges());
+		assertTrue(registry.commit(null));
+		assertEquals(1, registry.size());
+		assertSame(a, registry.getObjects()[0]);
+		assertFalse(registry.hasPendingChanges());
+	}
+	
+	public void testCommitAppliesChangesInOrder() {
+		SimObjectRegistry registry = new SimObjectRegistry();
+		SimObject a = new CountingObject("a");
+		SimObject b = new CountingObject("b");
+		registry.add(a);
+		registry.add(b);
+		registry.add(a);
+		registry.remove(a);
+		registry.remove(new CountingObject("c"));
+		registry.add(a);
+		RecordingHandler handler = new RecordingHandler();
+		assertTrue(registry.commit(handler));
+		assertEquals("[+a, +b, -a, +a]", handler.changes.toString());
+		SimObject[] objects = registry.getObjects();
+		assertEquals(2, objects.length);
+		assertSame(b, objects[0]);
+		assertSame(a, objects[1]);
+	}
+	
+	public void testSnapshotIsImmutable() {
+		SimObjectRegistry registry = new SimObjectRegistry();
+		SimObject a = new CountingObject("a");
+		registry.add(a);
+		registry.commit(null);
+		SimObject[] snapshot = registry.getObjects();
+		registry.remove(a);
+		registry.commit(null);
+		assertEquals(1, snapshot.length);
+		assertSame(a, snapshot[0]);
+		assertEquals(0, registry.size());
+		assertFalse(registry.commit(null));
+	}
+	
+	public void testContentionWithTickingObjects() throws Exception {
+		DefaultFederate federate = new DefaultFederate(new NullAmbassador());
+		CountingObject[] objects = new CountingObject[TICKING_OBJECTS];
+		for(int i = 0; i < objects.length; i++) {
+			objects[i] = new CountingObject("object" + i);
+			federate.addObject(objects[i]);
+		}
+		federate.initialize();
+		
+		Mutator mutator = new Mutator(federate, null);
+		mutator.start();
+		long start = System.nanoTime();
+		long steps = federate.runBatch(STEPS, Long.MAX_VALUE, STEPS);
+		long elapsed = System.nanoTime() - start;
+		mutator.finish();
+		report("Snapshot registry", elapsed, mutator);
+		
+		assertEquals(STEPS, steps);
+		for(CountingObject object : objects) {
+			assertEquals(STEPS, object.ticks);
+			assertEquals(STEPS, object.tocks);
+		}
+		assertTrue(mutator.operations > 0);
+		
+		// transient objects are all removed at the next step boundary
+		federate.runBatch(1, Long.MAX_VALUE, 1);
+		assertEquals(TICKING_OBJECTS, federate.getObjects().size());
+	}
+	
+	public void testContentionWithSynchronizedSetBaseline() throws Exception {
+		// the previous design: iteration holds the lock of a shared set
+		Set<Object> objects = Collections.synchronizedSet(new HashSet<Object>());
+		for(int i = 0; i < TICKING_OBJECTS; i++) {
+			objects.add(new CountingObject("object" + i));
+		}
+		Mutator mutator = new Mutator(null, objects);
+		mutator.start();
+		long start = System.nanoTime();
+		for(int step = 0; step < STEPS; step++) {
+			synchronized(objects) {
+				for(Object object : objects) {
+					((SimObject) object).tick(1);
+				}
+				for(Object object : objects) {
+					((SimObject) object).tock();
+				}
+			}
+		}
+		long elapsed = System.nanoTime() - start;
+		mutator.finish();
+		report("Synchronized set baseline", elapsed, mutator);
+		assertTrue(mutator.operations > 0);
+	}
+}
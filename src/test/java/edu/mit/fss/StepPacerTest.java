@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import junit.framework.TestCase;
+
+import edu.mit.fss.StepPacer.CatchUpPolicy;
+
+/**
+ * Tests for the {@link StepPacer} catch-up policies after a step which
+ * completes after its deadline.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class StepPacerTest extends TestCase {
+	private static final long PERIOD = 20000000; // ns
+	private static final long LATE_STEP_DURATION = 75; // ms
+
+	/**
+	 * Creates a pacer with a {@link policy} and starts its timeline.
+	 *
+	 * @param policy the catch-up policy
+	 * @return the pacer
+	 */
+	private static StepPacer createPacer(CatchUpPolicy policy) {
+		StepPacer pacer = new StepPacer();
+		pacer.setCatchUpPolicy(policy);
+		pacer.reset();
+		return pacer;
+	}
+
+	/**
+	 * Test the burst policy keeps the original timeline, so steps after a
+	 * late step are released immediately until the timeline is caught up.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testBurst() throws Exception {
+		StepPacer pacer = createPacer(CatchUpPolicy.BURST);
+		long start = pacer.getDeadline();
+		Thread.sleep(LATE_STEP_DURATION);
+		assertTrue(pacer.await(PERIOD) > 0);
+		assertEquals(start + PERIOD, pacer.getDeadline());
+
+		// the next deadline already passed during the late step
+		assertTrue(pacer.await(PERIOD) > 0);
+		assertEquals(start + 2*PERIOD, pacer.getDeadline());
+		assertEquals(0, pacer.getSkippedDeadlines());
+		assertEquals(2, pacer.getLatenessHistogram().getCount());
+	}
+
+	/**
+	 * Test the skip policy keeps the phase of the original timeline and
+	 * skips the deadlines missed by a late step.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testSkip() throws Exception {
+		StepPacer pacer = createPacer(CatchUpPolicy.SKIP);
+		long start = pacer.getDeadline();
+		Thread.sleep(LATE_STEP_DURATION);
+		long lateness = pacer.await(PERIOD);
+		assertTrue(lateness > 0);
+
+		// the deadline is the last one missed on the original timeline
+		long skipped = lateness / PERIOD;
+		assertTrue(skipped >= LATE_STEP_DURATION*1000000 / PERIOD - 1);
+		assertEquals(skipped, pacer.getSkippedDeadlines());
+		long deadline = pacer.getDeadline();
+		assertEquals(start + (1 + skipped)*PERIOD, deadline);
+
+		// the next step waits for the next deadline of the original phase
+		pacer.await(PERIOD);
+		assertTrue(System.nanoTime() >= deadline + PERIOD);
+		assertEquals(deadline + PERIOD, pacer.getDeadline());
+		assertEquals(skipped, pacer.getSkippedDeadlines());
+	}
+
+	/**
+	 * Test the stretch policy restarts the timeline at the release of a
+	 * late step, so the next step is released one full period later.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testStretch() throws Exception {
+		StepPacer pacer = createPacer(CatchUpPolicy.STRETCH);
+		long start = pacer.getDeadline();
+		Thread.sleep(LATE_STEP_DURATION);
+		long lateness = pacer.await(PERIOD);
+		assertTrue(lateness > 0);
+
+		long deadline = pacer.getDeadline();
+		assertEquals(start + PERIOD + lateness, deadline);
+
+		pacer.await(PERIOD);
+		assertTrue(System.nanoTime() >= deadline + PERIOD);
+		assertEquals(deadline + PERIOD, pacer.getDeadline());
+		assertEquals(0, pacer.getSkippedDeadlines());
+	}
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+
+import edu.mit.fss.event.ObjectChangeEvent;
+
+/**
+ * Tests for {@link TickPipeline} speculation, invalidation by remote 
+ * changes and interactions, and exclusion of local objects and 
+ * interactions.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class TickPipelineTest extends TestCase {
+	private static final long TIME_STEP = 60000;
+
+	/**
+	 * A speculative object affected by a set of remote objects, which 
+	 * counts its ticks.
+	 */
+	private static class Candidate implements SpeculativeObject {
+		private final String name;
+		private final List<Object> dependencies;
+		private final Collection<SimObject> nestedObjects;
+		private volatile int ticks;
+
+		/**
+		 * Instantiates a new candidate.
+		 *
+		 * @param name the name
+		 * @param nestedObjects the nested objects
+		 * @param dependencies the remote objects affecting this candidate
+		 */
+		Candidate(String name, Collection<SimObject> nestedObjects, 
+				Object... dependencies) {
+			this.name = name;
+			this.nestedObjects = nestedObjects;
+			this.dependencies = Arrays.asList(dependencies);
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return nestedObjects;
+		}
+
+		@Override
+		public void initialize(long time) { }
+
+		@Override
+		public boolean isAffectedBy(Object object) {
+			return dependencies.contains(object);
+		}
+
+		@Override
+		public void tick(long duration) {
+			ticks++;
+		}
+
+		@Override
+		public void tock() { }
+	}
+
+	/**
+	 * Speculates a time step for objects, waits for the speculative ticks,
+	 * and returns the pipeline.
+	 *
+	 * @param pipeline the pipeline
+	 * @param objects the objects
+	 * @return the pipeline
+	 */
+	private static TickPipeline speculate(TickPipeline pipeline, 
+			SimObject[] objects) {
+		pipeline.speculate(objects, TIME_STEP, TIME_STEP, 
+				ForkJoinPool.commonPool());
+		pipeline.await();
+		return pipeline;
+	}
+
+	/**
+	 * Gets the pending objects of a pipeline as a list.
+	 *
+	 * @param pipeline the pipeline
+	 * @return the pending objects
+	 */
+	private static List<SimObject> getPending(TickPipeline pipeline) {
+		return Arrays.asList(Arrays.copyOf(pipeline.getPendingObjects(), 
+				pipeline.getPendingCount()));
+	}
+
+	/**
+	 * Test a remote change or interaction invalidates exactly the affected
+	 * candidate while other candidates keep their speculative ticks.
+	 */
+	public void testInvalidation() {
+		Object remote = new Object(), otherRemote = new Object();
+		Candidate affected = new Candidate("affected", 
+				Collections.<SimObject>emptyList(), remote);
+		Candidate unaffected = new Candidate("unaffected", 
+				Collections.<SimObject>emptyList(), otherRemote);
+		Candidate independent = new Candidate("independent", 
+				Collections.<SimObject>emptyList());
+		SimObject[] objects = new SimObject[]{affected, unaffected, independent};
+		TickPipeline pipeline = speculate(new TickPipeline(), objects);
+		assertEquals(1, affected.ticks);
+		assertEquals(1, unaffected.ticks);
+		assertEquals(1, independent.ticks);
+
+		pipeline.objectChanged(new ObjectChangeEvent(this, remote));
+		pipeline.resolve(objects, TIME_STEP, TIME_STEP);
+		assertEquals(Collections.<SimObject>singletonList(affected), 
+				getPending(pipeline));
+		assertEquals(2, pipeline.getHitCount());
+		assertEquals(1, pipeline.getMissCount());
+
+		// interactions invalidate like remote object changes
+		speculate(pipeline, objects);
+		pipeline.interactionOccurred(new ObjectChangeEvent(this, otherRemote));
+		pipeline.resolve(objects, TIME_STEP, TIME_STEP);
+		assertEquals(Collections.<SimObject>singletonList(unaffected), 
+				getPending(pipeline));
+	}
+
+	/**
+	 * Test speculative ticks lapse if the resolved time step differs in 
+	 * duration or start time from the speculated time step.
+	 */
+	public void testLapse() {
+		Candidate candidate = new Candidate("candidate", 
+				Collections.<SimObject>emptyList());
+		SimObject[] objects = new SimObject[]{candidate};
+		TickPipeline pipeline = speculate(new TickPipeline(), objects);
+		pipeline.resolve(objects, TIME_STEP, TIME_STEP/2);
+		assertEquals(Arrays.<SimObject>asList(candidate), getPending(pipeline));
+
+		speculate(pipeline, objects);
+		pipeline.resolve(objects, 2*TIME_STEP, TIME_STEP);
+		assertEquals(Arrays.<SimObject>asList(candidate), getPending(pipeline));
+		assertEquals(0, pipeline.getHitCount());
+		assertEquals(2, pipeline.getMissCount());
+	}
+
+	/**
+	 * Test changes of local objects, including nested objects, and 
+	 * interactions sent locally do not invalidate speculative ticks, 
+	 * while a received interaction equal to none sent locally does.
+	 */
+	public void testLocalExclusions() {
+		Candidate nested = new Candidate("nested", 
+				Collections.<SimObject>emptyList());
+		Candidate local = new Candidate("local", 
+				Collections.<SimObject>singletonList(nested));
+		SimInteraction sent = new SimInteraction() { };
+		SimInteraction received = new SimInteraction() { };
+		// a candidate which would be affected by any of them
+		Candidate candidate = new Candidate("candidate", 
+				Collections.<SimObject>emptyList(), 
+				local, nested, sent, received);
+		SimObject[] objects = new SimObject[]{local, candidate};
+		TickPipeline pipeline = new TickPipeline();
+		pipeline.localObjectAdded(local);
+		pipeline.localObjectAdded(candidate);
+
+		speculate(pipeline, objects);
+		pipeline.localInteractionSent(sent);
+		pipeline.objectChanged(new ObjectChangeEvent(this, local));
+		pipeline.objectChanged(new ObjectChangeEvent(this, nested));
+		pipeline.interactionOccurred(new ObjectChangeEvent(this, sent));
+		pipeline.resolve(objects, TIME_STEP, TIME_STEP);
+		assertEquals(0, pipeline.getPendingCount());
+
+		speculate(pipeline, objects);
+		pipeline.interactionOccurred(new ObjectChangeEvent(this, received));
+		pipeline.resolve(objects, TIME_STEP, TIME_STEP);
+		assertEquals(Collections.<SimObject>singletonList(candidate), 
+				getPending(pipeline));
+	}
+}
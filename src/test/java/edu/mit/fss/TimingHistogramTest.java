@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link TimingHistogram} bucket bounds and percentiles.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class TimingHistogramTest extends TestCase {
+
+	/**
+	 * Test each bucket counts durations from its lower to its upper bound.
+	 */
+	public void testBuckets() {
+		TimingHistogram histogram = new TimingHistogram();
+		assertEquals(0, histogram.getBucketUpperBound(0));
+		assertEquals(1, histogram.getBucketUpperBound(1));
+		assertEquals(3, histogram.getBucketUpperBound(2));
+		assertEquals(1023, histogram.getBucketUpperBound(10));
+		assertEquals(Long.MAX_VALUE, histogram.getBucketUpperBound(
+				histogram.getBucketCount() - 1));
+
+		histogram.record(0);
+		histogram.record(-5);
+		assertEquals(2, histogram.getCount(0));
+		for(int i = 1; i < histogram.getBucketCount(); i++) {
+			long lowerBound = histogram.getBucketUpperBound(i - 1) + 1;
+			histogram.record(lowerBound);
+			histogram.record(histogram.getBucketUpperBound(i));
+			assertEquals(2, histogram.getCount(i));
+		}
+		assertEquals(2*histogram.getBucketCount(), histogram.getCount());
+		assertEquals(Long.MAX_VALUE, histogram.getMax());
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getCount(0));
+		assertEquals(0, histogram.getMax());
+	}
+
+	/**
+	 * Test percentiles of known durations resolve to the upper bound of the
+	 * bucket containing them, limited by the maximum duration.
+	 */
+	public void testPercentile() {
+		TimingHistogram histogram = new TimingHistogram();
+		assertEquals(0, histogram.getPercentile(50));
+		assertTrue(Double.isNaN(histogram.getMean()));
+
+		for(int i = 1; i <= 100; i++) {
+			histogram.record(i);
+		}
+		assertEquals(100, histogram.getCount());
+		assertEquals(100, histogram.getMax());
+		assertEquals(50.5, histogram.getMean(), 1e-12);
+		// buckets of 1, 2-3, 4-7, 8-15, 16-31, 32-63, and 64-100
+		assertEquals(1, histogram.getPercentile(0));
+		assertEquals(1, histogram.getPercentile(1));
+		assertEquals(3, histogram.getPercentile(3));
+		assertEquals(31, histogram.getPercentile(31));
+		assertEquals(63, histogram.getPercentile(32));
+		assertEquals(63, histogram.getPercentile(50));
+		assertEquals(63, histogram.getPercentile(63));
+		assertEquals(100, histogram.getPercentile(64));
+		assertEquals(100, histogram.getPercentile(99));
+		assertEquals(100, histogram.getPercentile(100));
+	}
+}
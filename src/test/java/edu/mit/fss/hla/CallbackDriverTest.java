@@ -0,0 +1,142 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.RTIambassador;
+
+import java.util.Timer;
+import java.util.TimerTask;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Tests for {@link CallbackDriver}, including a benchmark of time steps 
+ * per second with the driver and with the previous fixed-rate 100 ms 
+ * timer evoking multiple callbacks.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class CallbackDriverTest extends TestCase {
+	private static Logger logger = Logger.getLogger(CallbackDriverTest.class);
+	private static final long TIMER_PERIOD = 100;
+	private static final int DRIVER_STEPS = 1000;
+	private static final int TIMER_STEPS = 10;
+	private static final long IDLE_DURATION = 300;
+	
+	/**
+	 * Measures the rate of time steps of an ambassador using the evoked 
+	 * callback model, with callbacks evoked by its callback driver or by a
+	 * fixed-rate timer.
+	 *
+	 * @param useTimer true to evoke callbacks with a timer
+	 * @param steps the number of time steps
+	 * @return the time steps per second
+	 */
+	private static double measureSteps(boolean useTimer, int steps) {
+		FakeRTI rti = new FakeRTI();
+		final RTIambassador rtiAmbassador = rti.getRTIambassador();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.OHLA_RTI);
+		Timer timer = null;
+		if(useTimer) {
+			ambassador.getCallbackDriver().stop();
+			timer = new Timer(true);
+			timer.scheduleAtFixedRate(new TimerTask() {
+				@Override
+				public void run() {
+					try {
+						rtiAmbassador.evokeMultipleCallbacks(0, 1);
+					} catch(Exception e) {
+						logger.error(e);
+					}
+				}
+			}, 0, TIMER_PERIOD);
+		}
+		try {
+			long start = System.nanoTime();
+			for(int i = 1; i <= steps; i++) {
+				ambassador.advanceTo(i);
+			}
+			return steps * 1e9 / (System.nanoTime() - start);
+		} finally {
+			if(timer != null) {
+				timer.cancel();
+			}
+			ambassador.terminate();
+		}
+	}
+	
+	/**
+	 * Test activations are counted so a released activation does not 
+	 * deactivate the driver while another is outstanding.
+	 */
+	public void testActivations() {
+		CallbackDriver driver = new CallbackDriver(
+				new FakeRTI().getRTIambassador());
+		assertFalse(driver.isActive());
+		// a pending asynchronous advance
+		driver.activate();
+		// a blocking wait which returns first
+		driver.activate();
+		driver.deactivate();
+		assertTrue(driver.isActive());
+		driver.deactivate();
+		assertFalse(driver.isActive());
+		driver.deactivate();
+		driver.activate();
+		assertTrue(driver.isActive());
+	}
+	
+	/**
+	 * Test the driver backs off while idle and evokes callbacks with the 
+	 * minimum wait while active.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	public void testBackoff() throws InterruptedException {
+		CallbackDriver driver = new CallbackDriver(
+				new FakeRTI().getRTIambassador());
+		driver.start();
+		Thread.sleep(IDLE_DURATION);
+		long idleEvocations = driver.getEvocations();
+		driver.activate();
+		Thread.sleep(IDLE_DURATION);
+		driver.deactivate();
+		long activeEvocations = driver.getEvocations() - idleEvocations;
+		driver.stop();
+		logger.info("Evocations in " + IDLE_DURATION + " ms: " 
+				+ idleEvocations + " idle, " + activeEvocations + " active.");
+		assertTrue(idleEvocations < IDLE_DURATION/driver.getMinWait()/1000/4);
+		assertTrue(activeEvocations > 2*idleEvocations);
+	}
+	
+	/**
+	 * Test time step rates with the callback driver and with a 100 ms 
+	 * timer.
+	 */
+	public void testBenchmarkSteps() {
+		measureSteps(false, DRIVER_STEPS);
+		double driverRate = measureSteps(false, DRIVER_STEPS);
+		double timerRate = measureSteps(true, TIMER_STEPS);
+		logger.info("Callback driver: " + Math.round(driverRate) 
+				+ " steps/s; " + TIMER_PERIOD + " ms timer: " 
+				+ Math.round(timerRate) + " steps/s.");
+		assertTrue(driverRate > timerRate);
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.AttributeHandleSet;
+import hla.rti1516e.ObjectInstanceHandle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import junit.framework.TestCase;
+import edu.mit.fss.SimInteraction;
+import edu.mit.fss.SimObject;
+
+/**
+ * Tests for {@link CommandBuffer} coalescing and ordering.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class CommandBufferTest extends TestCase {
+	
+	/**
+	 * A named simulation object with nested objects.
+	 */
+	private static class TestObject implements SimObject {
+		private final String name;
+		private final List<SimObject> nestedObjects;
+		
+		/**
+		 * Instantiates a new test object.
+		 *
+		 * @param name the name
+		 * @param nestedObjects the nested objects
+		 */
+		TestObject(String name, SimObject... nestedObjects) {
+			this.name = name;
+			this.nestedObjects = Arrays.asList(nestedObjects);
+		}
+		
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return nestedObjects;
+		}
+		
+		@Override
+		public String getName() {
+			return name;
+		}
+		
+		@Override
+		public void initialize(long time) { }
+		
+		@Override
+		public void tick(long duration) { }
+		
+		@Override
+		public void tock() { }
+	}
+	
+	/**
+	 * A named interaction.
+	 */
+	private static class TestInteraction implements SimInteraction {
+		private final String name;
+		
+		/**
+		 * Instantiates a new test interaction.
+		 *
+		 * @param name the name
+		 */
+		TestInteraction(String name) {
+			this.name = name;
+		}
+		
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+	
+	/**
+	 * A handler which records executed commands.
+	 */
+	private static class RecordingHandler implements CommandBuffer.Handler {
+		private final List<String> commands = new ArrayList<String>();
+		
+		@Override
+		public void createObject(SimObject object) {
+			commands.add("create " + object.getName());
+		}
+		
+		@Override
+		public void deleteObject(SimObject object, boolean cancelled) {
+			commands.add((cancelled ? "cancel " : "delete ") 
+					+ object.getName());
+		}
+		
+		@Override
+		public void provideAttributes(ObjectInstanceHandle theObject,
+				AttributeHandleSet theAttributes) {
+			commands.add("provide");
+		}
+		
+		@Override
+		public void sendInteraction(SimInteraction interaction) {
+			commands.add("send " + interaction);
+		}
+		
+		@Override
+		public void updateObject(SimObject object) {
+			commands.add("update " + object.getName());
+		}
+	}
+	
+	public void testUpdatesCoalesced() {
+		CommandBuffer buffer = new CommandBuffer();
+		SimObject a = new TestObject("a");
+		for(int i = 0; i < 5; i++) {
+			buffer.scheduleObject(a, CommandBuffer.UPDATE);
+		}
+		RecordingHandler handler = new RecordingHandler();
+		buffer.drain(handler);
+		assertEquals("[update a]", handler.commands.toString());
+		assertEquals(5, buffer.getScheduledCommands());
+		assertEquals(1, buffer.getExecutedCommands());
+	}
+	
+	public void testCancelledCreationCancelsNestedObjects() {
+		CommandBuffer buffer = new CommandBuffer();
+		SimObject nested = new TestObject("n");
+		SimObject a = new TestObject("a", nested);
+		buffer.scheduleObject(a, CommandBuffer.CREATE);
+		buffer.scheduleObject(a, CommandBuffer.UPDATE);
+		buffer.scheduleObject(a, CommandBuffer.DELETE);
+		RecordingHandler handler = new RecordingHandler();
+		buffer.drain(handler);
+		assertEquals("[cancel a, cancel n]", handler.commands.toString());
+	}
+	
+	public void testRemovedAndAddedObjectRecreated() {
+		CommandBuffer buffer = new CommandBuffer();
+		SimObject nested = new TestObject("n");
+		SimObject a = new TestObject("a", nested);
+		buffer.scheduleObject(a, CommandBuffer.DELETE);
+		buffer.scheduleObject(a, CommandBuffer.CREATE);
+		RecordingHandler handler = new RecordingHandler();
+		buffer.drain(handler);
+		assertEquals("[delete a, create a, delete n, create n]", 
+				handler.commands.toString());
+	}
+	
+	public void testSubmissionOrderPreserved() {
+		CommandBuffer buffer = new CommandBuffer();
+		SimObject nested = new TestObject("n");
+		SimObject a = new TestObject("a", nested);
+		SimObject b = new TestObject("b");
+		buffer.scheduleInteraction(new TestInteraction("i1"));
+		buffer.scheduleObject(a, CommandBuffer.CREATE);
+		buffer.scheduleInteraction(new TestInteraction("i2"));
+		buffer.scheduleObject(b, CommandBuffer.UPDATE);
+		buffer.scheduleObject(a, CommandBuffer.UPDATE);
+		buffer.scheduleProvideAttributes(null, null);
+		RecordingHandler handler = new RecordingHandler();
+		buffer.drain(handler);
+		assertEquals("[send i1, create a, update a, create n, update n, "
+				+ "send i2, update b, provide]", handler.commands.toString());
+	}
+	
+	public void testNestedObjectMovedToParentPosition() {
+		CommandBuffer buffer = new CommandBuffer();
+		SimObject nested = new TestObject("n");
+		SimObject a = new TestObject("a", nested);
+		buffer.scheduleObject(a, CommandBuffer.CREATE);
+		buffer.scheduleInteraction(new TestInteraction("i1"));
+		buffer.scheduleObject(nested, CommandBuffer.UPDATE);
+		RecordingHandler handler = new RecordingHandler();
+		buffer.drain(handler);
+		assertEquals("[create a, create n, update n, send i1]", 
+				handler.commands.toString());
+	}
+	
+	public void testBuffersReusedAcrossDrains() {
+		CommandBuffer buffer = new CommandBuffer();
+		RecordingHandler handler = new RecordingHandler();
+		for(int step = 0; step < 3; step++) {
+			for(int i = 0; i < 40; i++) {
+				buffer.scheduleObject(new TestObject("o" + i), 
+						CommandBuffer.UPDATE);
+			}
+			buffer.drain(handler);
+		}
+		assertEquals(120, handler.commands.size());
+		assertEquals("update o39", handler.commands.get(119));
+		handler.commands.clear();
+		buffer.drain(handler);
+		assertTrue(handler.commands.isEmpty());
+	}
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleValueMap;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.commons.math3.util.FastMath;
+import org.apache.log4j.Logger;
+
+import edu.mit.fss.OrbitalElement;
+import edu.mit.fss.ReferenceFrame;
+import edu.mit.fss.SimObject;
+
+/**
+ * Tests for {@link DeadReckoning} with {@link FSSorbitalElement}, including
+ * the update suppression ratio of a mostly Keplerian constellation.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class DeadReckoningTest extends TestCase {
+	private static Logger logger = Logger.getLogger(DeadReckoningTest.class);
+	private static final double RADIUS = 6378137;
+	private static final double ALTITUDE = 700e3;
+	private static final int PLANES = 3, SATELLITES_PER_PLANE = 8;
+	private static final long TIME_STEP = 60000;
+	private static final int STEPS = 1440;
+	private static final double POSITION_THRESHOLD = 100;
+	private static final double VELOCITY_THRESHOLD = 0.1;
+	// along-track drag-like perturbation (m/s^2)
+	private static final double PERTURBATION = 1e-6;
+
+	/**
+	 * A circular orbital element propagated with two-body motion and a
+	 * small along-track perturbation by numerical integration.
+	 */
+	private static class Satellite implements OrbitalElement {
+		private static final int SUBSTEPS = 6;
+		private final String name;
+		private final double inclination, ascendingNode, meanAnomaly;
+		private Vector3D position, velocity;
+		private double elapsed;
+
+		/**
+		 * Instantiates a new satellite.
+		 *
+		 * @param name the name
+		 * @param inclination the inclination (deg)
+		 * @param ascendingNode the longitude of ascending node (deg)
+		 * @param meanAnomaly the initial mean anomaly (deg)
+		 */
+		Satellite(String name, double inclination, double ascendingNode,
+				double meanAnomaly) {
+			this.name = name;
+			this.inclination = inclination;
+			this.ascendingNode = ascendingNode;
+			this.meanAnomaly = meanAnomaly;
+			double a = RADIUS + ALTITUDE;
+			double i = FastMath.toRadians(inclination);
+			double o = FastMath.toRadians(ascendingNode);
+			double u = FastMath.toRadians(meanAnomaly);
+			Vector3D p = new Vector3D(FastMath.cos(o), FastMath.sin(o), 0);
+			Vector3D q = new Vector3D(-FastMath.cos(i)*FastMath.sin(o),
+					FastMath.cos(i)*FastMath.cos(o), FastMath.sin(i));
+			position = new Vector3D(a*FastMath.cos(u), p, a*FastMath.sin(u), q);
+			double speed = FastMath.sqrt(DeadReckoning.EARTH_MU/a);
+			velocity = new Vector3D(-speed*FastMath.sin(u), p,
+					speed*FastMath.cos(u), q);
+		}
+
+		/**
+		 * Gets the acceleration at a state.
+		 *
+		 * @param r the position
+		 * @param v the velocity
+		 * @return the acceleration
+		 */
+		private static Vector3D acceleration(Vector3D r, Vector3D v) {
+			double norm = r.getNorm();
+			return new Vector3D(-DeadReckoning.EARTH_MU/(norm*norm*norm), r,
+					-PERTURBATION/v.getNorm(), v);
+		}
+
+		@Override
+		public double getArgumentOfPeriapsis() {
+			return 0;
+		}
+
+		@Override
+		public double getEccentricity() {
+			return 0;
+		}
+
+		@Override
+		public ReferenceFrame getFrame() {
+			return ReferenceFrame.EME2000;
+		}
+
+		@Override
+		public double getInclination() {
+			return inclination;
+		}
+
+		@Override
+		public double getLongitudeOfAscendingNode() {
+			return ascendingNode;
+		}
+
+		@Override
+		public double getMeanAnomaly() {
+			double a = getSemimajorAxis();
+			return (meanAnomaly + FastMath.toDegrees(FastMath.sqrt(
+					DeadReckoning.EARTH_MU/(a*a*a))*elapsed)) % 360;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Vector3D getPosition() {
+			return position;
+		}
+
+		@Override
+		public double getSemimajorAxis() {
+			return RADIUS + ALTITUDE;
+		}
+
+		@Override
+		public Vector3D getVelocity() {
+			return velocity;
+		}
+
+		@Override
+		public void initialize(long time) { }
+
+		@Override
+		public void tick(long duration) {
+			double h = duration/1000d/SUBSTEPS;
+			for(int i = 0; i < SUBSTEPS; i++) {
+				// fourth-order Runge-Kutta integration
+				Vector3D r = position, v = velocity;
+				Vector3D k1r = v, k1v = acceleration(r, v);
+				Vector3D k2r = v.add(h/2, k1v);
+				Vector3D k2v = acceleration(r.add(h/2, k1r), k2r);
+				Vector3D k3r = v.add(h/2, k2v);
+				Vector3D k3v = acceleration(r.add(h/2, k2r), k3r);
+				Vector3D k4r = v.add(h, k3v);
+				Vector3D k4v = acceleration(r.add(h, k3r), k4r);
+				position = r.add(h/6, new Vector3D(1, k1r, 2, k2r)
+						.add(new Vector3D(2, k3r, 1, k4r)));
+				velocity = v.add(h/6, new Vector3D(1, k1v, 2, k2v)
+						.add(new Vector3D(2, k3v, 1, k4v)));
+			}
+			elapsed += duration/1000d;
+		}
+
+		@Override
+		public void tock() { }
+	}
+
+	/**
+	 * Reflects the recorded updates of an RTI to a remote element.
+	 *
+	 * @param rti the RTI
+	 * @param remote the remote element
+	 * @param time the logical time of the updates (ms)
+	 * @return true, if position or velocity was reflected
+	 * @throws Exception the exception
+	 */
+	private static boolean reflectUpdates(FakeRTI rti,
+			FSSorbitalElement remote, double time) throws Exception {
+		boolean reflected = false;
+		AttributeHandleValueMap values;
+		while((values = rti.pollUpdate()) != null) {
+			remote.setAllAttributes(values);
+			remote.reflectState(values, time);
+			reflected = reflected || values.containsKey(
+					remote.getAttributeHandle(FSSelement.POSITION_ATTRIBUTE));
+			remote.stageReflectedValues();
+			remote.applyStagedValues();
+		}
+		return reflected;
+	}
+
+	/**
+	 * Simulates the constellation for one day and gets the number of
+	 * position updates sent, checking the extrapolation error of a remote
+	 * mirror of the first satellite at each step.
+	 *
+	 * @param deadReckoning the dead reckoning, or null to disable it
+	 * @return the number of position updates
+	 * @throws Exception the exception
+	 */
+	private long simulateConstellation(DeadReckoning deadReckoning)
+			throws Exception {
+		FakeRTI rti = new FakeRTI();
+		Satellite[] satellites = new Satellite[PLANES*SATELLITES_PER_PLANE];
+		FSSorbitalElement[] elements =
+				new FSSorbitalElement[satellites.length];
+		for(int i = 0; i < satellites.length; i++) {
+			satellites[i] = new Satellite("Satellite " + i, 55,
+					360d*(i/SATELLITES_PER_PLANE)/PLANES,
+					360d*(i%SATELLITES_PER_PLANE)/SATELLITES_PER_PLANE);
+			elements[i] = new FSSorbitalElement(rti.getRTIambassador(),
+					rti.getEncoderFactory(), null);
+			elements[i].setDeadReckoning(deadReckoning);
+		}
+		FSSorbitalElement remote = new FSSorbitalElement(
+				rti.getRTIambassador(), rti.getEncoderFactory(), "Remote");
+		remote.setDeadReckoning(deadReckoning);
+
+		double maxError = 0;
+		for(int step = 0; step <= STEPS; step++) {
+			double time = step*TIME_STEP;
+			rti.setLogicalTime(time);
+			for(int i = 0; i < satellites.length; i++) {
+				if(step > 0) {
+					satellites[i].tick(TIME_STEP);
+				}
+				elements[i].setAttributes(satellites[i]);
+				rti.setRecordUpdates(i == 0);
+				elements[i].updateChangedAttributes();
+				if(i == 0) {
+					reflectUpdates(rti, remote, time);
+					remote.extrapolateTo(time);
+					maxError = FastMath.max(maxError, Vector3D.distance(
+							remote.getPosition(), satellites[0].getPosition()));
+				}
+			}
+		}
+		if(deadReckoning != null) {
+			assertTrue(maxError <= deadReckoning.getPositionThreshold());
+		} else {
+			assertEquals(0d, maxError);
+		}
+		AttributeHandle positionHandle =
+				elements[0].getAttributeHandle(FSSelement.POSITION_ATTRIBUTE);
+		return rti.getAttributeUpdates(positionHandle);
+	}
+
+	/**
+	 * Test the extrapolated mean anomaly is normalized to [0, 360).
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testMeanAnomalyNormalized() throws Exception {
+		FakeRTI rti = new FakeRTI();
+		Satellite satellite = new Satellite("Satellite", 55, 0, 350);
+		FSSorbitalElement element = new FSSorbitalElement(
+				rti.getRTIambassador(), rti.getEncoderFactory(), null);
+		element.setAttributes(satellite);
+		rti.setRecordUpdates(true);
+		element.updateChangedAttributes();
+
+		DeadReckoning deadReckoning = new DeadReckoning(
+				POSITION_THRESHOLD, VELOCITY_THRESHOLD);
+		FSSorbitalElement remote = new FSSorbitalElement(
+				rti.getRTIambassador(), rti.getEncoderFactory(), "Remote");
+		remote.setDeadReckoning(deadReckoning);
+		assertTrue(reflectUpdates(rti, remote, 0));
+		assertEquals(350d, remote.getMeanAnomaly(), 1e-9);
+
+		double a = satellite.getSemimajorAxis();
+		double motion = FastMath.toDegrees(FastMath.sqrt(
+				DeadReckoning.EARTH_MU/(a*a*a)));
+		for(double interval : new double[]{600, 6000, 60000, 600000}) {
+			remote.extrapolateTo(interval*1000);
+			double anomaly = remote.getMeanAnomaly();
+			assertTrue(anomaly >= 0 && anomaly < 360);
+			assertEquals((350 + motion*interval) % 360, anomaly, 1e-6);
+		}
+	}
+
+	/**
+	 * Test dead reckoning suppresses over 90% of position updates of a
+	 * mostly Keplerian constellation while remote extrapolation remains
+	 * within the position threshold.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testKeplerianSuppression() throws Exception {
+		long sent = simulateConstellation(new DeadReckoning(
+				POSITION_THRESHOLD, VELOCITY_THRESHOLD));
+		long unsuppressed = simulateConstellation(null);
+		assertEquals((STEPS + 1)*PLANES*SATELLITES_PER_PLANE, unsuppressed);
+		double suppression = 1 - (double) sent/unsuppressed;
+		logger.info("Dead reckoning sent " + sent + " of " + unsuppressed
+				+ " position updates (" + Math.round(100*suppression)
+				+ "% suppressed).");
+		assertTrue(suppression > 0.9);
+	}
+}
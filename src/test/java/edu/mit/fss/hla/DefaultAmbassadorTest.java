@@ -0,0 +1,555 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ObjectClassHandle;
+import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.OrderType;
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.encoding.HLAunicodeString;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+
+import edu.mit.fss.ReferenceFrame;
+import edu.mit.fss.SimObject;
+import edu.mit.fss.SurfaceElement;
+import edu.mit.fss.event.BulkDiscoveryEvent;
+import edu.mit.fss.event.BulkDiscoveryListener;
+import edu.mit.fss.event.ObjectChangeEvent;
+import edu.mit.fss.event.ObjectChangeListener;
+
+/**
+ * Tests for {@link DefaultAmbassador} using an in-memory RTI.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class DefaultAmbassadorTest extends TestCase {
+	
+	/**
+	 * A surface element at a settable latitude and longitude whose 
+	 * position components equal its geodetic coordinates.
+	 */
+	private static class Station implements SurfaceElement {
+		private double latitude, longitude;
+
+		@Override
+		public double getAltitude() {
+			return 0;
+		}
+
+		@Override
+		public ReferenceFrame getFrame() {
+			return ReferenceFrame.ITRF2008;
+		}
+
+		@Override
+		public double getLatitude() {
+			return latitude;
+		}
+
+		@Override
+		public double getLongitude() {
+			return longitude;
+		}
+
+		@Override
+		public String getName() {
+			return "Station";
+		}
+
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Vector3D getPosition() {
+			return new Vector3D(latitude, longitude, 0);
+		}
+
+		@Override
+		public Vector3D getVelocity() {
+			return Vector3D.ZERO;
+		}
+
+		@Override
+		public void initialize(long time) { }
+
+		@Override
+		public void tick(long duration) { }
+
+		@Override
+		public void tock() { }
+	}
+
+	/**
+	 * A listener which records the threads notifying object changes and
+	 * interactions.
+	 */
+	private static class ChangeThreadListener 
+			implements ObjectChangeListener {
+		private final List<Thread> threads = 
+				new CopyOnWriteArrayList<Thread>();
+		private final List<Thread> interactionThreads = 
+				new CopyOnWriteArrayList<Thread>();
+
+		@Override
+		public void interactionOccurred(ObjectChangeEvent event) {
+			interactionThreads.add(Thread.currentThread());
+		}
+
+		@Override
+		public void objectChanged(ObjectChangeEvent event) {
+			threads.add(Thread.currentThread());
+		}
+
+		@Override
+		public void objectDiscovered(ObjectChangeEvent event) { }
+
+		@Override
+		public void objectRemoved(ObjectChangeEvent event) { }
+	}
+
+	/**
+	 * A bulk discovery listener which records the sizes and threads of
+	 * bulk discovery events.
+	 */
+	private static class BatchListener implements BulkDiscoveryListener {
+		private final List<Integer> sizes = 
+				new CopyOnWriteArrayList<Integer>();
+		private final List<Thread> threads = 
+				new CopyOnWriteArrayList<Thread>();
+		private final CountDownLatch discovered = new CountDownLatch(1);
+
+		@Override
+		public void interactionOccurred(ObjectChangeEvent event) { }
+
+		@Override
+		public void objectChanged(ObjectChangeEvent event) { }
+
+		@Override
+		public void objectDiscovered(ObjectChangeEvent event) {
+			sizes.add(1);
+			threads.add(Thread.currentThread());
+			discovered.countDown();
+		}
+
+		@Override
+		public void objectRemoved(ObjectChangeEvent event) { }
+
+		@Override
+		public void objectsDiscovered(BulkDiscoveryEvent event) {
+			sizes.add(event.getObjects().size());
+			threads.add(Thread.currentThread());
+			discovered.countDown();
+		}
+	}
+
+	/**
+	 * Grants the next outstanding time advance of an RTI after a delay on
+	 * another thread.
+	 *
+	 * @param rti the RTI
+	 * @param delay the delay (ms)
+	 * @return the thread
+	 */
+	private static Thread grantLater(final FakeRTI rti, final long delay) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Thread.sleep(delay);
+					while(rti.getRequestedTime() == null) {
+						Thread.sleep(1);
+					}
+				} catch(InterruptedException ignored) { }
+				rti.grant();
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Test a next-event advance returns the granted time.
+	 */
+	public void testAdvanceToNextEvent() {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		assertEquals(10, ambassador.advanceToNextEvent(10));
+		assertEquals(1, rti.getCalls("nextMessageRequest"));
+	}
+
+	/**
+	 * Checks asynchronous advances are completed by their grants and not 
+	 * before, and a pending advance fails on termination, with an RTI 
+	 * callback model.
+	 *
+	 * @param rtiName the RTI name, which selects the callback model
+	 * @throws Exception the exception
+	 */
+	private static void checkAdvanceToAsync(String rtiName) throws Exception {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(rtiName);
+		rti.setHoldGrants(true);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CompletableFuture<Long> future = 
+					ambassador.advanceToAsync(10, executor);
+			assertEquals(1, rti.getCalls("timeAdvanceRequest"));
+			Thread.sleep(50);
+			assertFalse(future.isDone());
+
+			rti.grant();
+			assertEquals(10, future.get(5, TimeUnit.SECONDS).longValue());
+
+			future = ambassador.advanceToAsync(20, executor);
+			rti.grant();
+			assertEquals(20, future.get(5, TimeUnit.SECONDS).longValue());
+
+			future = ambassador.advanceToAsync(30, executor);
+			ambassador.terminate();
+			try {
+				future.get(5, TimeUnit.SECONDS);
+				fail("Expected a cancelled time advance.");
+			} catch(ExecutionException expected) { }
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test an asynchronous advance with the immediate callback model.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testAdvanceToAsyncImmediate() throws Exception {
+		checkAdvanceToAsync(DefaultAmbassador.PORTICO_RTI);
+	}
+
+	/**
+	 * Test an asynchronous advance with the evoked callback model, whose
+	 * grant is delivered by the callback driver.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testAdvanceToAsyncEvoked() throws Exception {
+		checkAdvanceToAsync(DefaultAmbassador.OHLA_RTI);
+	}
+
+	/**
+	 * Reflects all attributes of a station to a remote object.
+	 *
+	 * @param ambassador the ambassador
+	 * @param instance the remote object instance handle
+	 * @param local a local surface element used to encode the attributes
+	 * @param station the station
+	 */
+	private static void reflectStation(DefaultAmbassador ambassador, 
+			ObjectInstanceHandle instance, FSSsurfaceElement local, 
+			Station station) {
+		local.setAttributes(station);
+		AttributeHandleValueMap values =
+				FakeRTI.map(AttributeHandleValueMap.class);
+		for(AttributeHandle handle : local.getAttributeHandleSet()) {
+			values.put(handle, local.getAttributeValue(handle).toByteArray());
+		}
+		ambassador.reflectAttributeValues(instance, values, null,
+				OrderType.RECEIVE, null, null);
+	}
+
+	/**
+	 * Test reflected values are applied together after a grant, on the 
+	 * thread waiting for a blocking advance or the executor of an 
+	 * asynchronous advance, and not when reflected. Before the first 
+	 * grant the remote element has an empty state.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testStagedValuesAppliedAfterGrant() throws Exception {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		ChangeThreadListener listener = new ChangeThreadListener();
+		ambassador.addObjectChangeListener(listener);
+		ObjectInstanceHandle instance =
+				rti.handle(ObjectInstanceHandle.class, "Station");
+		ambassador.discoverObjectInstance(instance,
+				rti.handle(ObjectClassHandle.class,
+						FSSsurfaceElement.CLASS_NAME), "Station");
+		SurfaceElement remote = ambassador.getRemoteObjects(
+				SurfaceElement.class).iterator().next();
+		FSSsurfaceElement local = new FSSsurfaceElement(
+				rti.getRTIambassador(), rti.getEncoderFactory(), null);
+		Station station = new Station();
+
+		station.latitude = 10;
+		station.longitude = 20;
+		reflectStation(ambassador, instance, local, station);
+		// empty state rather than the data elements before a first apply
+		assertEquals(ReferenceFrame.UNKNOWN, remote.getFrame());
+		assertEquals(0d, remote.getLatitude());
+		assertEquals(Vector3D.ZERO, remote.getPosition());
+		ambassador.advanceTo(10);
+		assertEquals(ReferenceFrame.ITRF2008, remote.getFrame());
+		assertEquals(10d, remote.getLatitude());
+		assertEquals(20d, remote.getLongitude());
+		assertEquals(new Vector3D(10, 20, 0), remote.getPosition());
+		assertEquals(Collections.singletonList(Thread.currentThread()), 
+				listener.threads);
+
+		station.latitude = 30;
+		station.longitude = 40;
+		reflectStation(ambassador, instance, local, station);
+		assertEquals(10d, remote.getLatitude());
+		assertEquals(20d, remote.getLongitude());
+		assertEquals(new Vector3D(10, 20, 0), remote.getPosition());
+		assertEquals(1, listener.threads.size());
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			assertEquals(20, ambassador.advanceToAsync(20, executor)
+					.get(5, TimeUnit.SECONDS).longValue());
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(30d, remote.getLatitude());
+		assertEquals(40d, remote.getLongitude());
+		assertEquals(new Vector3D(30, 40, 0), remote.getPosition());
+		assertEquals(2, listener.threads.size());
+		assertNotSame(Thread.currentThread(), listener.threads.get(1));
+	}
+
+	/**
+	 * Test batched discoveries are flushed by the timer once the discovery
+	 * window elapses without further callbacks or time advances, and the
+	 * federation picture time is measured when the first reflects are 
+	 * received rather than when they are applied. The timer thread exits 
+	 * when disconnecting.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testDiscoveryWindow() throws Exception {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		ambassador.setDiscoveryWindow(50);
+		BatchListener listener = new BatchListener();
+		ambassador.addObjectChangeListener(listener);
+		ObjectInstanceHandle[] instances = new ObjectInstanceHandle[3];
+		for(int i = 0; i < instances.length; i++) {
+			instances[i] = rti.handle(ObjectInstanceHandle.class, 
+					"Station " + i);
+			ambassador.discoverObjectInstance(instances[i],
+					rti.handle(ObjectClassHandle.class,
+							FSSsurfaceElement.CLASS_NAME), "Station " + i);
+		}
+		assertTrue(listener.sizes.isEmpty());
+		assertEquals(0, rti.getCalls("requestAttributeValueUpdate"));
+
+		assertTrue(listener.discovered.await(5, TimeUnit.SECONDS));
+		assertEquals(Collections.singletonList(instances.length), 
+				listener.sizes);
+		assertNotSame(Thread.currentThread(), listener.threads.get(0));
+		assertEquals(1, rti.getCalls("requestAttributeValueUpdate"));
+		assertNull(rti.getRequestedTime());
+
+		FSSsurfaceElement local = new FSSsurfaceElement(
+				rti.getRTIambassador(), rti.getEncoderFactory(), null);
+		for(int i = 0; i < instances.length; i++) {
+			assertEquals(-1, ambassador.getFederationPictureTime());
+			reflectStation(ambassador, instances[i], local, new Station());
+		}
+		assertTrue(ambassador.getFederationPictureTime() >= 0);
+
+		// the timer thread is stopped when disconnecting
+		Thread timerThread = listener.threads.get(0);
+		ambassador.disconnect();
+		timerThread.join(5000);
+		assertFalse(timerThread.isAlive());
+	}
+
+	/**
+	 * Test received interactions are notified after the next grant on the
+	 * thread waiting for the advance, not on the callback thread.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testReceivedInteractionsNotifiedAfterGrant() 
+			throws Exception {
+		final FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		ChangeThreadListener listener = new ChangeThreadListener();
+		ambassador.addObjectChangeListener(listener);
+		HLAunicodeString content = 
+				rti.getEncoderFactory().createHLAunicodeString("Packet");
+		final ParameterHandleValueMap parameters = 
+				FakeRTI.map(ParameterHandleValueMap.class);
+		parameters.put(rti.handle(ParameterHandle.class, FSSsignal.CLASS_NAME 
+				+ "." + FSSsignal.CONTENT_PARAMETER), content.toByteArray());
+		final DefaultAmbassador receiver = ambassador;
+		ExecutorService callbackThread = Executors.newSingleThreadExecutor();
+		try {
+			callbackThread.submit(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					receiver.receiveInteraction(rti.handle(
+							InteractionClassHandle.class, FSSsignal.CLASS_NAME),
+							parameters, null, OrderType.RECEIVE, null, null);
+					return null;
+				}
+			}).get(5, TimeUnit.SECONDS);
+		} finally {
+			callbackThread.shutdown();
+		}
+		assertTrue(listener.interactionThreads.isEmpty());
+
+		ambassador.advanceTo(10);
+		assertEquals(Collections.singletonList(Thread.currentThread()), 
+				listener.interactionThreads);
+	}
+
+	/**
+	 * Test the skipped bytes and values equal those of the reflected
+	 * attributes excluded by the interest profile.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testSkippedBytes() throws Exception {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI,
+				new InterestProfile().add(FSSorbitalElement.CLASS_NAME,
+						FSSelement.POSITION_ATTRIBUTE));
+		ObjectInstanceHandle instance =
+				rti.handle(ObjectInstanceHandle.class, "remote");
+		ambassador.discoverObjectInstance(instance,
+				rti.handle(ObjectClassHandle.class,
+						FSSorbitalElement.CLASS_NAME), "Remote");
+
+		FSSorbitalElement element = new FSSorbitalElement(
+				rti.getRTIambassador(), rti.getEncoderFactory(), null);
+		AttributeHandleValueMap values =
+				FakeRTI.map(AttributeHandleValueMap.class);
+		long excludedBytes = 0, includedBytes = 0;
+		int excludedValues = 0;
+		for(AttributeHandle handle : element.getAttributeHandleSet()) {
+			byte[] value = element.getAttributeValue(handle).toByteArray();
+			values.put(handle, value);
+			String name = element.getAttributeName(handle);
+			if(name.equals(InterestProfile.NAME_ATTRIBUTE)
+					|| name.equals(FSSelement.POSITION_ATTRIBUTE)) {
+				includedBytes += value.length;
+			} else {
+				excludedBytes += value.length;
+				excludedValues++;
+			}
+		}
+		assertTrue(excludedValues > 0);
+
+		for(int i = 0; i < 3; i++) {
+			ambassador.reflectAttributeValues(instance, values, null,
+					OrderType.RECEIVE, null, null);
+		}
+		assertEquals(3*excludedBytes, ambassador.getSkippedBytes());
+		assertEquals(3*excludedValues, ambassador.getSkippedValues());
+		assertEquals(3*includedBytes, ambassador.getDecodedBytes());
+	}
+
+	/**
+	 * Test a timed-out advance is reported to the caller and remains
+	 * outstanding until granted.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testAdvanceTimeout() throws Exception {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		ambassador.setTimeout(50);
+		rti.setHoldGrants(true);
+		try {
+			ambassador.advanceTo(10);
+			fail("Expected a time advance timeout.");
+		} catch(IllegalStateException expected) { }
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		CompletableFuture<Long> future = 
+				ambassador.advanceToAsync(20, executor);
+		assertTrue(future.isCompletedExceptionally());
+		try {
+			ambassador.advanceToNextEvent(20);
+			fail("Expected a time advance timeout.");
+		} catch(IllegalStateException expected) { }
+		assertEquals(1, rti.getCalls("timeAdvanceRequest"));
+		assertEquals(0, rti.getCalls("nextMessageRequest"));
+
+		rti.grant();
+		rti.setHoldGrants(false);
+		ambassador.advanceTo(20);
+		assertEquals(2, rti.getCalls("timeAdvanceRequest"));
+		assertEquals(20, ambassador.advanceToAsync(20, executor)
+				.get().longValue());
+		executor.shutdown();
+	}
+
+	/**
+	 * Test an advance retried after a timeout waits for the outstanding
+	 * grant rather than returning a stale time.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 * @throws ExecutionException the execution exception
+	 */
+	public void testAdvanceRetry()
+			throws InterruptedException, ExecutionException {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		ambassador.setTimeout(50);
+		rti.setHoldGrants(true);
+		try {
+			ambassador.advanceToNextEvent(30);
+			fail("Expected a time advance timeout.");
+		} catch(IllegalStateException expected) { }
+
+		ambassador.setTimeout(5000);
+		Thread granter = grantLater(rti, 20);
+		assertEquals(30, ambassador.advanceToNextEvent(30));
+		granter.join();
+		assertEquals(1, rti.getCalls("nextMessageRequest"));
+		assertNull(rti.getRequestedTime());
+
+		granter = grantLater(rti, 20);
+		assertEquals(40, ambassador.advanceToNextEvent(40));
+		granter.join();
+		assertEquals(2, rti.getCalls("nextMessageRequest"));
+	}
+}
@@ -0,0 +1,891 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.CallbackModel;
+import hla.rti1516e.FederateAmbassador;
+import hla.rti1516e.LogicalTime;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.encoding.ByteWrapper;
+import hla.rti1516e.encoding.DataElement;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.encoding.EncoderFactory;
+import hla.rti1516e.encoding.HLAfixedArray;
+import hla.rti1516e.encoding.HLAfloat64BE;
+import hla.rti1516e.encoding.HLAinteger32BE;
+import hla.rti1516e.encoding.HLAunicodeString;
+import hla.rti1516e.time.HLAfloat64Interval;
+import hla.rti1516e.time.HLAfloat64Time;
+import hla.rti1516e.time.HLAfloat64TimeFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-memory stand-in for an RTI ambassador and encoder factory used to
+ * test ambassadors and HLA objects without an RTI. RTI services, handles,
+ * handle sets, and value maps are dynamic proxies; data elements are plain
+ * classes (so they do not allocate on reads) which count their encodings.
+ * <p>
+ * Handles are unique per name. Time management services are granted
+ * immediately or, if grants are held, when {@link #grant()} is called.
+ * With the evoked callback model, callbacks are queued and delivered by
+ * {@code evokeCallback} and {@code evokeMultipleCallbacks}.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+final class FakeRTI {
+	private final Map<String, AtomicLong> calls =
+			new ConcurrentHashMap<String, AtomicLong>();
+	private final Map<String, Object> handles =
+			new ConcurrentHashMap<String, Object>();
+	private final Map<Object, AtomicLong> attributeUpdates =
+			new ConcurrentHashMap<Object, AtomicLong>();
+	private final AtomicInteger instanceCount = new AtomicInteger(0);
+	private final AtomicLong encodings = new AtomicLong(0);
+	private final Queue<Runnable> callbacks =
+			new ConcurrentLinkedQueue<Runnable>();
+	private final RTIambassador rtiAmbassador;
+	private final EncoderFactory encoderFactory;
+	private final HLAfloat64TimeFactory timeFactory;
+	private volatile FederateAmbassador federate;
+	private volatile boolean evoked = false;
+	private volatile boolean holdGrants = false;
+	private volatile LogicalTime requestedTime;
+	private volatile double logicalTime = 0, lookahead = 0;
+	private volatile Object lastParameterMap;
+	private volatile Queue<AttributeHandleValueMap> recordedUpdates;
+
+	/**
+	 * Instantiates a new fake RTI.
+	 */
+	FakeRTI() {
+		rtiAmbassador = proxy(RTIambassador.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+					throws Throwable {
+				return invokeService(method, args);
+			}
+		});
+		encoderFactory = proxy(EncoderFactory.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				return createElement(method, args);
+			}
+		});
+		timeFactory = proxy(HLAfloat64TimeFactory.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if(method.getName().equals("makeTime")) {
+					return time(((Number) args[0]).doubleValue());
+				} else if(method.getName().equals("makeInterval")) {
+					return interval(((Number) args[0]).doubleValue());
+				} else if(method.getName().equals("makeInitial")) {
+					return time(0);
+				}
+				return defaultValue(method, proxy, args);
+			}
+		});
+	}
+
+	/**
+	 * Creates a dynamic proxy of an interface.
+	 *
+	 * @param type the interface
+	 * @param handler the invocation handler
+	 * @return the proxy
+	 */
+	static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return type.cast(Proxy.newProxyInstance(FakeRTI.class.getClassLoader(),
+				new Class<?>[]{type}, handler));
+	}
+
+	/**
+	 * Gets the default result of an unsupported method: identity for
+	 * object methods and null, zero, or false otherwise.
+	 *
+	 * @param method the method
+	 * @param proxy the proxy
+	 * @param args the arguments
+	 * @return the result
+	 */
+	private static Object defaultValue(Method method, Object proxy,
+			Object[] args) {
+		if(method.getName().equals("equals") && args != null
+				&& args.length == 1) {
+			return proxy == args[0];
+		} else if(method.getName().equals("hashCode") && args == null) {
+			return System.identityHashCode(proxy);
+		} else if(method.getName().equals("toString") && args == null) {
+			return "proxy@" + Integer.toHexString(
+					System.identityHashCode(proxy));
+		}
+		Class<?> type = method.getReturnType();
+		if(type == boolean.class) {
+			return false;
+		} else if(type == int.class) {
+			return 0;
+		} else if(type == long.class) {
+			return 0L;
+		} else if(type == double.class) {
+			return 0d;
+		}
+		return null;
+	}
+
+	/**
+	 * Invokes a method of a backing collection, or a proxy method declared
+	 * by the collection interface.
+	 *
+	 * @param backing the backing collection
+	 * @param method the method
+	 * @param args the arguments
+	 * @return the result
+	 * @throws Throwable the throwable
+	 */
+	private static Object delegate(Object backing, Method method,
+			Object[] args) throws Throwable {
+		try {
+			return backing.getClass().getMethod(method.getName(),
+					method.getParameterTypes()).invoke(backing, args);
+		} catch(InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Records a callback to the federate ambassador, which is delivered
+	 * immediately or, with the evoked callback model, when evoked.
+	 *
+	 * @param callback the callback
+	 */
+	private void callback(Runnable callback) {
+		if(evoked) {
+			callbacks.add(callback);
+		} else {
+			callback.run();
+		}
+	}
+
+	/**
+	 * Increments the count of a key.
+	 *
+	 * @param counts the counts
+	 * @param key the key
+	 */
+	private static <K> void count(Map<K, AtomicLong> counts, K key) {
+		AtomicLong count = counts.get(key);
+		if(count == null) {
+			((ConcurrentHashMap<K, AtomicLong>) counts).putIfAbsent(
+					key, new AtomicLong(0));
+			count = counts.get(key);
+		}
+		count.incrementAndGet();
+	}
+
+	/**
+	 * Creates a data element for an encoder factory method.
+	 *
+	 * @param method the method
+	 * @param args the arguments
+	 * @return the data element
+	 */
+	private Object createElement(Method method, Object[] args) {
+		String name = method.getName();
+		if(name.equals("createHLAfloat64BE")) {
+			Float64 element = new Float64();
+			if(args != null && args.length == 1) {
+				element.setValue((Double) args[0]);
+			}
+			return element;
+		} else if(name.equals("createHLAunicodeString")) {
+			UnicodeString element = new UnicodeString();
+			if(args != null && args.length == 1) {
+				element.setValue((String) args[0]);
+			}
+			return element;
+		} else if(name.equals("createHLAinteger32BE")) {
+			Integer32 element = new Integer32();
+			if(args != null && args.length == 1) {
+				element.setValue((Integer) args[0]);
+			}
+			return element;
+		} else if(name.equals("createHLAfixedArray")) {
+			return new FixedArray<DataElement>((DataElement[]) args[0]);
+		}
+		throw new IllegalArgumentException(
+				"Unsupported data element factory method " + name + ".");
+	}
+
+	/**
+	 * Delivers all callbacks queued before this call. Callbacks queued
+	 * while delivering are left for the next evocation.
+	 *
+	 * @return the number of callbacks delivered
+	 */
+	int deliverCallbacks() {
+		int count = 0;
+		Runnable callback;
+		for(int queued = callbacks.size(); count < queued 
+				&& (callback = callbacks.poll()) != null; count++) {
+			callback.run();
+		}
+		return count;
+	}
+
+	/**
+	 * Creates a default ambassador for this RTI which is connected and has
+	 * joined a federation execution at time 0 with lookahead 1.
+	 *
+	 * @param rtiName the RTI name, which selects the callback model
+	 * @return the ambassador
+	 */
+	DefaultAmbassador join(String rtiName) {
+		return join(rtiName, null);
+	}
+
+	/**
+	 * Creates a default ambassador for this RTI which is connected and has
+	 * joined a federation execution at time 0 with lookahead 1 using an
+	 * interest profile.
+	 *
+	 * @param rtiName the RTI name, which selects the callback model
+	 * @param interestProfile the interest profile, or null
+	 * @return the ambassador
+	 */
+	DefaultAmbassador join(String rtiName, InterestProfile interestProfile) {
+		DefaultAmbassador ambassador = new DefaultAmbassador(
+				rtiName, rtiAmbassador, encoderFactory);
+		ambassador.getConnection().setFederationName("FSS");
+		ambassador.getConnection().setFederateName("Test");
+		ambassador.getConnection().setFederateType("Test");
+		ambassador.getConnection().setFomPath("fss.xml");
+		ambassador.connect();
+		ambassador.initialize(0, 1, interestProfile);
+		return ambassador;
+	}
+
+	/**
+	 * Gets the number of calls of an RTI service.
+	 *
+	 * @param service the service (method) name
+	 * @return the number of calls
+	 */
+	long getCalls(String service) {
+		AtomicLong count = calls.get(service);
+		return count == null ? 0 : count.get();
+	}
+
+	/**
+	 * Gets the number of values of an attribute sent in attribute updates.
+	 *
+	 * @param attributeHandle the attribute handle
+	 * @return the number of updates
+	 */
+	long getAttributeUpdates(Object attributeHandle) {
+		AtomicLong count = attributeUpdates.get(attributeHandle);
+		return count == null ? 0 : count.get();
+	}
+
+	/**
+	 * Gets the number of data element encodings ({@code toByteArray} or
+	 * {@code encode} calls of top-level elements).
+	 *
+	 * @return the encodings
+	 */
+	long getEncodings() {
+		return encodings.get();
+	}
+
+	/**
+	 * Gets the encoder factory.
+	 *
+	 * @return the encoder factory
+	 */
+	EncoderFactory getEncoderFactory() {
+		return encoderFactory;
+	}
+
+	/**
+	 * Gets the parameter map of the last sent interaction.
+	 *
+	 * @return the parameter map
+	 */
+	Object getLastParameterMap() {
+		return lastParameterMap;
+	}
+
+	/**
+	 * Removes and returns the attribute values of the oldest recorded 
+	 * update, or null if none.
+	 *
+	 * @return the attribute values
+	 */
+	AttributeHandleValueMap pollUpdate() {
+		Queue<AttributeHandleValueMap> updates = recordedUpdates;
+		return updates == null ? null : updates.poll();
+	}
+
+	/**
+	 * Gets the RTI ambassador.
+	 *
+	 * @return the RTI ambassador
+	 */
+	RTIambassador getRTIambassador() {
+		return rtiAmbassador;
+	}
+
+	/**
+	 * Gets the time of the last time advance or next message request, or
+	 * null if no request is outstanding.
+	 *
+	 * @return the requested time
+	 */
+	LogicalTime getRequestedTime() {
+		return requestedTime;
+	}
+
+	/**
+	 * Grants the outstanding time advance request, if any.
+	 */
+	void grant() {
+		final LogicalTime time = requestedTime;
+		if(time != null) {
+			requestedTime = null;
+			logicalTime = ((HLAfloat64Time) time).getValue();
+			callback(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						federate.timeAdvanceGrant(time);
+					} catch(Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Gets a unique handle proxy of a type for a name.
+	 *
+	 * @param type the handle type
+	 * @param name the name
+	 * @return the handle
+	 */
+	<T> T handle(final Class<T> type, final String name) {
+		String key = type.getSimpleName() + ":" + name;
+		Object handle = handles.get(key);
+		if(handle == null) {
+			handle = proxy(type, new InvocationHandler() {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) {
+					if(method.getName().equals("toString") && args == null) {
+						return name;
+					}
+					return defaultValue(method, proxy, args);
+				}
+			});
+			Object existing = ((ConcurrentHashMap<String, Object>) handles)
+					.putIfAbsent(key, handle);
+			if(existing != null) {
+				handle = existing;
+			}
+		}
+		return type.cast(handle);
+	}
+
+	/**
+	 * Gets the name of a handle created by this RTI.
+	 *
+	 * @param handle the handle
+	 * @return the name
+	 */
+	static String nameOf(Object handle) {
+		return handle.toString();
+	}
+
+	/**
+	 * Creates a set proxy of a type backed by a linked hash set.
+	 *
+	 * @param type the set type
+	 * @param elements the initial elements
+	 * @return the set
+	 */
+	static <T> T set(final Class<T> type, Set<Object> elements) {
+		final Set<Object> backing = new LinkedHashSet<Object>(elements);
+		return proxy(type, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+					throws Throwable {
+				if(method.getName().equals("clone") && args == null) {
+					return set(type, backing);
+				}
+				return delegate(backing, method, args);
+			}
+		});
+	}
+
+	/**
+	 * Creates a value map proxy of a type backed by a hash map, which
+	 * provides byte wrappers of values by reference.
+	 *
+	 * @param type the map type
+	 * @return the map
+	 */
+	static <T> T map(Class<T> type) {
+		final Map<Object, byte[]> backing = new HashMap<Object, byte[]>();
+		return proxy(type, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args)
+					throws Throwable {
+				if(method.getName().equals("getValueReference")) {
+					byte[] value = backing.get(args[0]);
+					return value == null ? null : new ByteWrapper(value);
+				}
+				return delegate(backing, method, args);
+			}
+		});
+	}
+
+	/**
+	 * Sets whether the attribute values of updates are recorded for
+	 * {@link #pollUpdate()}.
+	 *
+	 * @param recordUpdates true to record updates
+	 */
+	void setRecordUpdates(boolean recordUpdates) {
+		recordedUpdates = recordUpdates ? 
+				new ConcurrentLinkedQueue<AttributeHandleValueMap>() : null;
+	}
+
+	/**
+	 * Sets whether time advance requests are held until {@link #grant()}
+	 * rather than granted immediately.
+	 *
+	 * @param holdGrants true to hold grants
+	 */
+	void setHoldGrants(boolean holdGrants) {
+		this.holdGrants = holdGrants;
+	}
+
+	/**
+	 * Sets the logical time of this RTI's federate.
+	 *
+	 * @param logicalTime the logical time
+	 */
+	void setLogicalTime(double logicalTime) {
+		this.logicalTime = logicalTime;
+	}
+
+	/**
+	 * Makes a logical time.
+	 *
+	 * @param value the value
+	 * @return the time
+	 */
+	HLAfloat64Time time(final double value) {
+		return proxy(HLAfloat64Time.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				String name = method.getName();
+				if(name.equals("getValue")) {
+					return value;
+				} else if(name.equals("add")) {
+					return time(value + ((HLAfloat64Interval) args[0]).getValue());
+				} else if(name.equals("compareTo")) {
+					return Double.compare(value,
+							((HLAfloat64Time) args[0]).getValue());
+				} else if(name.equals("equals")) {
+					return args[0] instanceof HLAfloat64Time && value
+							== ((HLAfloat64Time) args[0]).getValue();
+				} else if(name.equals("hashCode")) {
+					return Double.valueOf(value).hashCode();
+				} else if(name.equals("toString")) {
+					return String.valueOf(value);
+				}
+				return defaultValue(method, proxy, args);
+			}
+		});
+	}
+
+	/**
+	 * Makes a logical time interval.
+	 *
+	 * @param value the value
+	 * @return the interval
+	 */
+	HLAfloat64Interval interval(final double value) {
+		return proxy(HLAfloat64Interval.class, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if(method.getName().equals("getValue")) {
+					return value;
+				} else if(method.getName().equals("toString")) {
+					return String.valueOf(value);
+				}
+				return defaultValue(method, proxy, args);
+			}
+		});
+	}
+
+	/**
+	 * Invokes an RTI ambassador service.
+	 *
+	 * @param method the method
+	 * @param args the arguments
+	 * @return the result
+	 * @throws Throwable the throwable
+	 */
+	private Object invokeService(Method method, Object[] args)
+			throws Throwable {
+		String name = method.getName();
+		count(calls, name);
+		if(name.equals("connect")) {
+			federate = (FederateAmbassador) args[0];
+			evoked = args[1] == CallbackModel.HLA_EVOKED;
+		} else if(name.equals("getObjectClassHandle")
+				|| name.equals("getInteractionClassHandle")
+				|| name.equals("getDimensionHandle")) {
+			return handle(method.getReturnType(), (String) args[0]);
+		} else if(name.equals("getAttributeHandle")
+				|| name.equals("getParameterHandle")) {
+			return handle(method.getReturnType(),
+					nameOf(args[0]) + "." + args[1]);
+		} else if(name.equals("registerObjectInstance")) {
+			return handle(method.getReturnType(),
+					"object" + instanceCount.incrementAndGet());
+		} else if(name.equals("getObjectInstanceHandle")) {
+			return handle(method.getReturnType(), (String) args[0]);
+		} else if(name.equals("getObjectInstanceName")) {
+			return nameOf(args[0]);
+		} else if(name.endsWith("Factory") && !name.equals("getTimeFactory")) {
+			return factory(method.getReturnType());
+		} else if(name.equals("getTimeFactory")) {
+			return timeFactory;
+		} else if(name.equals("queryLogicalTime")) {
+			return time(logicalTime);
+		} else if(name.equals("queryLookahead")) {
+			return interval(lookahead);
+		} else if(name.equals("enableTimeConstrained")) {
+			callback(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						federate.timeConstrainedEnabled(time(logicalTime));
+					} catch(Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			});
+		} else if(name.equals("enableTimeRegulation")) {
+			lookahead = ((HLAfloat64Interval) args[0]).getValue();
+			callback(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						federate.timeRegulationEnabled(time(logicalTime));
+					} catch(Exception e) {
+						throw new RuntimeException(e);
+					}
+				}
+			});
+		} else if(name.equals("timeAdvanceRequest")
+				|| name.equals("nextMessageRequest")) {
+			requestedTime = (LogicalTime) args[0];
+			if(!holdGrants) {
+				grant();
+			}
+		} else if(name.equals("evokeCallback")) {
+			Runnable callback = callbacks.poll();
+			if(callback == null) {
+				Thread.sleep((long) (1000*(Double) args[0]));
+				callback = callbacks.poll();
+			}
+			if(callback != null) {
+				callback.run();
+			}
+			return !callbacks.isEmpty();
+		} else if(name.equals("evokeMultipleCallbacks")) {
+			if(deliverCallbacks() == 0) {
+				Thread.sleep((long) (1000*(Double) args[0]));
+				deliverCallbacks();
+			}
+			return false;
+		} else if(name.equals("sendInteraction")) {
+			lastParameterMap = args[1];
+		} else if(name.equals("updateAttributeValues")) {
+			for(Object attributeHandle : ((Map<?, ?>) args[1]).keySet()) {
+				count(attributeUpdates, attributeHandle);
+			}
+			Queue<AttributeHandleValueMap> updates = recordedUpdates;
+			if(updates != null) {
+				updates.add((AttributeHandleValueMap) args[1]);
+			}
+		}
+		return defaultValue(method, null, args);
+	}
+
+	/**
+	 * Creates a factory proxy whose {@code create} method returns an empty
+	 * set or map of the factory's product type.
+	 *
+	 * @param factoryType the factory type
+	 * @return the factory
+	 */
+	private Object factory(final Class<?> factoryType) {
+		return proxy(factoryType, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) {
+				if(method.getName().equals("create")) {
+					Class<?> type = method.getReturnType();
+					if(Map.class.isAssignableFrom(type)) {
+						return map(type);
+					} else if(Set.class.isAssignableFrom(type)) {
+						return set(type, new LinkedHashSet<Object>());
+					}
+				}
+				return defaultValue(method, proxy, args);
+			}
+		});
+	}
+
+	/**
+	 * Base class of data elements which counts top-level encodings.
+	 */
+	private abstract class CountingElement implements DataElement {
+
+		/**
+		 * Writes the encoded value to a buffer.
+		 *
+		 * @param buffer the buffer
+		 */
+		abstract void write(ByteBuffer buffer);
+
+		@Override
+		public final void decode(byte[] bytes) throws DecoderException {
+			decode(new ByteWrapper(bytes));
+		}
+
+		@Override
+		public final void encode(ByteWrapper byteWrapper) {
+			encodings.incrementAndGet();
+			byteWrapper.put(toBytes());
+		}
+
+		@Override
+		public int getOctetBoundary() {
+			return 4;
+		}
+
+		@Override
+		public final byte[] toByteArray() {
+			encodings.incrementAndGet();
+			return toBytes();
+		}
+
+		/**
+		 * Encodes this element without counting an encoding.
+		 *
+		 * @return the bytes
+		 */
+		final byte[] toBytes() {
+			ByteBuffer buffer = ByteBuffer.allocate(getEncodedLength());
+			write(buffer);
+			return buffer.array();
+		}
+	}
+
+	/**
+	 * A 64-bit floating point data element.
+	 */
+	private final class Float64 extends CountingElement
+			implements HLAfloat64BE {
+		private double value;
+
+		@Override
+		public void decode(ByteWrapper byteWrapper) {
+			byte[] bytes = new byte[8];
+			byteWrapper.get(bytes);
+			value = ByteBuffer.wrap(bytes).getDouble();
+		}
+
+		@Override
+		public int getEncodedLength() {
+			return 8;
+		}
+
+		@Override
+		public double getValue() {
+			return value;
+		}
+
+		@Override
+		public void setValue(double value) {
+			this.value = value;
+		}
+
+		@Override
+		void write(ByteBuffer buffer) {
+			buffer.putDouble(value);
+		}
+	}
+
+	/**
+	 * A 32-bit integer data element.
+	 */
+	private final class Integer32 extends CountingElement
+			implements HLAinteger32BE {
+		private int value;
+
+		@Override
+		public void decode(ByteWrapper byteWrapper) {
+			value = byteWrapper.getInt();
+		}
+
+		@Override
+		public int getEncodedLength() {
+			return 4;
+		}
+
+		@Override
+		public int getValue() {
+			return value;
+		}
+
+		@Override
+		public void setValue(int value) {
+			this.value = value;
+		}
+
+		@Override
+		void write(ByteBuffer buffer) {
+			buffer.putInt(value);
+		}
+	}
+
+	/**
+	 * A unicode string data element.
+	 */
+	private final class UnicodeString extends CountingElement
+			implements HLAunicodeString {
+		private String value = "";
+
+		@Override
+		public void decode(ByteWrapper byteWrapper) {
+			char[] chars = new char[byteWrapper.getInt()];
+			byte[] bytes = new byte[2*chars.length];
+			byteWrapper.get(bytes);
+			ByteBuffer.wrap(bytes).asCharBuffer().get(chars);
+			value = new String(chars);
+		}
+
+		@Override
+		public int getEncodedLength() {
+			return 4 + 2*value.length();
+		}
+
+		@Override
+		public String getValue() {
+			return value;
+		}
+
+		@Override
+		public void setValue(String value) {
+			this.value = value;
+		}
+
+		@Override
+		void write(ByteBuffer buffer) {
+			buffer.putInt(value.length());
+			for(int i = 0; i < value.length(); i++) {
+				buffer.putChar(value.charAt(i));
+			}
+		}
+	}
+
+	/**
+	 * A fixed array data element of other fake data elements.
+	 */
+	private final class FixedArray<T extends DataElement>
+			extends CountingElement implements HLAfixedArray<T> {
+		private final T[] elements;
+
+		/**
+		 * Instantiates a new fixed array.
+		 *
+		 * @param elements the elements
+		 */
+		FixedArray(T[] elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		public void decode(ByteWrapper byteWrapper) throws DecoderException {
+			for(T element : elements) {
+				element.decode(byteWrapper);
+			}
+		}
+
+		@Override
+		public T get(int index) {
+			return elements[index];
+		}
+
+		@Override
+		public int getEncodedLength() {
+			int length = 0;
+			for(T element : elements) {
+				length += element.getEncodedLength();
+			}
+			return length;
+		}
+
+		@Override
+		public Iterator<T> iterator() {
+			return Arrays.asList(elements).iterator();
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
+
+		@Override
+		void write(ByteBuffer buffer) {
+			for(T element : elements) {
+				buffer.put(((CountingElement) element).toBytes());
+			}
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.ParameterHandle;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.encoding.HLAunicodeString;
+
+import junit.framework.TestCase;
+
+import org.apache.log4j.Logger;
+
+import edu.mit.fss.Element;
+import edu.mit.fss.Signal;
+import edu.mit.fss.Transmitter;
+
+/**
+ * Tests for {@link HLAinteraction} sends with {@link FSSsignal}, including
+ * a benchmark of signals sent per second through the pooled signals of
+ * {@link DefaultAmbassador} and with a new signal (and handle lookups) 
+ * per send as before pooling.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class HLAinteractionTest extends TestCase {
+	private static Logger logger = Logger.getLogger(HLAinteractionTest.class);
+	private static final int SIGNALS = 50000;
+	// target rate of telemetry-heavy scenarios (signals per second)
+	private static final double TARGET_RATE = 10000;
+
+	/**
+	 * A local signal with settable content.
+	 */
+	private static class Telemetry implements Signal {
+		private String content;
+
+		/**
+		 * Instantiates a new telemetry signal.
+		 *
+		 * @param content the content
+		 */
+		Telemetry(String content) {
+			this.content = content;
+		}
+
+		@Override
+		public String getContent() {
+			return content;
+		}
+
+		@Override
+		public Element getElement() {
+			return null;
+		}
+
+		@Override
+		public String getElementName() {
+			return "Satellite";
+		}
+
+		@Override
+		public Transmitter getTransmitter() {
+			return null;
+		}
+
+		@Override
+		public String getTransmitterName() {
+			return "Transmitter";
+		}
+
+		@Override
+		public String getType() {
+			return "Telemetry";
+		}
+	}
+
+	/**
+	 * Measures the rate of signals sent, either scheduled with an ambassador
+	 * which sends them through pooled signals at the next advance or sent 
+	 * through a new signal with uncached handles per send.
+	 *
+	 * @param pooled true to send through the ambassador's pooled signals
+	 * @return the signals per second
+	 * @throws Exception the exception
+	 */
+	private static double measureSignals(boolean pooled) throws Exception {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		Telemetry[] signals = new Telemetry[SIGNALS];
+		for(int i = 0; i < SIGNALS; i++) {
+			signals[i] = new Telemetry("Packet " + i);
+		}
+		long sends = rti.getCalls("sendInteraction");
+		long start = System.nanoTime();
+		if(pooled) {
+			for(Telemetry signal : signals) {
+				ambassador.scheduleInteraction(signal);
+			}
+			ambassador.advanceTo(10);
+		} else {
+			for(Telemetry signal : signals) {
+				InteractionClassMetadata.clear(rti.getRTIambassador());
+				FSSsignal fssSignal = new FSSsignal(
+						rti.getRTIambassador(), rti.getEncoderFactory());
+				fssSignal.setParameters(signal);
+				fssSignal.send();
+			}
+		}
+		double rate = SIGNALS * 1e9 / (System.nanoTime() - start);
+		assertEquals(SIGNALS, rti.getCalls("sendInteraction") - sends);
+		return rate;
+	}
+
+	/**
+	 * Test signal send rates through pooled signals and new signals.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testBenchmarkSignals() throws Exception {
+		measureSignals(false);
+		measureSignals(true);
+		double newRate = measureSignals(false);
+		double pooledRate = measureSignals(true);
+		logger.info("New signal per send: " + Math.round(newRate)
+				+ " signals/s; pooled signals: " + Math.round(pooledRate)
+				+ " signals/s (in-memory RTI).");
+		assertTrue(newRate > 0);
+		assertTrue(pooledRate > TARGET_RATE);
+	}
+
+	/**
+	 * Test each send passes a new parameter map which reuses the encoded
+	 * values of unchanged parameters.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testFreshParameterMaps() throws Exception {
+		FakeRTI rti = new FakeRTI();
+		FSSsignal fssSignal = new FSSsignal(
+				rti.getRTIambassador(), rti.getEncoderFactory());
+		ParameterHandle typeHandle = 
+				fssSignal.getParameterHandle(FSSsignal.TYPE_PARAMETER);
+		ParameterHandle contentHandle = 
+				fssSignal.getParameterHandle(FSSsignal.CONTENT_PARAMETER);
+		
+		fssSignal.setParameters(new Telemetry("Packet 1"));
+		fssSignal.send();
+		ParameterHandleValueMap first = 
+				(ParameterHandleValueMap) rti.getLastParameterMap();
+		assertEquals(FSSsignal.PARAMETERS.length, first.size());
+		byte[] firstType = first.get(typeHandle);
+		byte[] firstContent = first.get(contentHandle);
+
+		long encodings = rti.getEncodings();
+		fssSignal.setParameters(new Telemetry("Packet 2"));
+		fssSignal.send();
+		ParameterHandleValueMap second = 
+				(ParameterHandleValueMap) rti.getLastParameterMap();
+		assertNotSame(first, second);
+		assertEquals(FSSsignal.PARAMETERS.length, second.size());
+		assertEquals(1, rti.getEncodings() - encodings);
+		assertSame(firstType, second.get(typeHandle));
+		assertNotSame(firstContent, second.get(contentHandle));
+		// values of the first send are left unchanged
+		assertSame(firstContent, first.get(contentHandle));
+		HLAunicodeString decoded = 
+				rti.getEncoderFactory().createHLAunicodeString();
+		decoded.decode(second.get(contentHandle));
+		assertEquals("Packet 2", decoded.getValue());
+	}
+}
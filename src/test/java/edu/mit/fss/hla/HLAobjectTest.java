@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Collection;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.apache.commons.math3.geometry.euclidean.threed.Vector3D;
+import org.apache.log4j.Logger;
+
+import edu.mit.fss.OrbitalElement;
+import edu.mit.fss.ReferenceFrame;
+import edu.mit.fss.SimObject;
+
+/**
+ * Tests for change detection in {@link HLAobject#updateChangedAttributes()}
+ * with many local orbital elements, counting encodings, updates, and
+ * allocated bytes of steps with unchanged attributes.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class HLAobjectTest extends TestCase {
+	private static Logger logger = Logger.getLogger(HLAobjectTest.class);
+	private static final int OBJECTS = 10000;
+	private static final int STEPS = 20;
+	private static final int CHANGED_INTERVAL = 10;
+	// tolerance for allocations of the measurement itself (bytes per step)
+	private static final long ALLOCATION_TOLERANCE = 1024;
+
+	/**
+	 * An orbital element with a settable position and otherwise constant 
+	 * values.
+	 */
+	private static class Body implements OrbitalElement {
+		private final String name;
+		private final Vector3D velocity = new Vector3D(0, 7500, 0);
+		private Vector3D position;
+
+		/**
+		 * Instantiates a new body.
+		 *
+		 * @param name the name
+		 * @param position the position
+		 */
+		Body(String name, Vector3D position) {
+			this.name = name;
+			this.position = position;
+		}
+
+		@Override
+		public double getArgumentOfPeriapsis() {
+			return 0;
+		}
+
+		@Override
+		public double getEccentricity() {
+			return 0;
+		}
+
+		@Override
+		public ReferenceFrame getFrame() {
+			return ReferenceFrame.EME2000;
+		}
+
+		@Override
+		public double getInclination() {
+			return 55;
+		}
+
+		@Override
+		public double getLongitudeOfAscendingNode() {
+			return 0;
+		}
+
+		@Override
+		public double getMeanAnomaly() {
+			return 0;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public Collection<? extends SimObject> getNestedObjects() {
+			return Collections.emptyList();
+		}
+
+		@Override
+		public Vector3D getPosition() {
+			return position;
+		}
+
+		@Override
+		public double getSemimajorAxis() {
+			return 7078137;
+		}
+
+		@Override
+		public Vector3D getVelocity() {
+			return velocity;
+		}
+
+		@Override
+		public void initialize(long time) { }
+
+		@Override
+		public void tick(long duration) { }
+
+		@Override
+		public void tock() { }
+	}
+
+	/**
+	 * Sets the attributes of each element from its body and updates its
+	 * changed attributes.
+	 *
+	 * @param bodies the bodies
+	 * @param elements the elements
+	 * @throws Exception the exception
+	 */
+	private static void step(Body[] bodies, FSSorbitalElement[] elements) 
+			throws Exception {
+		for(int i = 0; i < elements.length; i++) {
+			elements[i].setAttributes(bodies[i]);
+			elements[i].updateChangedAttributes();
+		}
+	}
+
+	/**
+	 * Test steps with unchanged attributes neither encode nor send values
+	 * and allocate (almost) nothing, and a step with a subset of changed 
+	 * positions encodes and sends only those positions.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testUnchangedAttributes() throws Exception {
+		FakeRTI rti = new FakeRTI();
+		Body[] bodies = new Body[OBJECTS];
+		FSSorbitalElement[] elements = new FSSorbitalElement[OBJECTS];
+		for(int i = 0; i < OBJECTS; i++) {
+			bodies[i] = new Body("Body " + i, new Vector3D(7078137, 0, i));
+			elements[i] = new FSSorbitalElement(rti.getRTIambassador(),
+					rti.getEncoderFactory(), null);
+		}
+		step(bodies, elements);
+		int attributes = elements[0].getAttributeHandleSet().size();
+		assertEquals((long) OBJECTS*attributes, rti.getEncodings());
+
+		long encodings = rti.getEncodings();
+		long updates = rti.getCalls("updateAttributeValues");
+		for(int i = 0; i < STEPS; i++) {
+			step(bodies, elements);
+		}
+		assertEquals(encodings, rti.getEncodings());
+		assertEquals(updates, rti.getCalls("updateAttributeValues"));
+
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		if(threadBean instanceof com.sun.management.ThreadMXBean
+				&& ((com.sun.management.ThreadMXBean) threadBean)
+				.isThreadAllocatedMemorySupported()) {
+			com.sun.management.ThreadMXBean allocationBean = 
+					(com.sun.management.ThreadMXBean) threadBean;
+			long threadId = Thread.currentThread().getId();
+			long start = allocationBean.getThreadAllocatedBytes(threadId);
+			for(int i = 0; i < STEPS; i++) {
+				step(bodies, elements);
+			}
+			long allocated = allocationBean.getThreadAllocatedBytes(threadId) 
+					- start;
+			logger.info("Allocated " + allocated + " bytes in " + STEPS 
+					+ " unchanged steps of " + OBJECTS + " objects.");
+			assertTrue(allocated <= STEPS*ALLOCATION_TOLERANCE);
+		} else {
+			logger.info("Thread allocation counting not supported, skipping.");
+		}
+
+		for(int i = 0; i < OBJECTS; i += CHANGED_INTERVAL) {
+			bodies[i].position = bodies[i].position.add(new Vector3D(1, 0, 0));
+		}
+		step(bodies, elements);
+		int changed = OBJECTS/CHANGED_INTERVAL;
+		assertEquals(encodings + changed, rti.getEncodings());
+		assertEquals(updates + changed, rti.getCalls("updateAttributeValues"));
+		assertEquals(OBJECTS + changed, rti.getAttributeUpdates(
+				elements[0].getAttributeHandle(FSSelement.POSITION_ATTRIBUTE)));
+		assertEquals(OBJECTS, rti.getAttributeUpdates(
+				elements[0].getAttributeHandle(FSSelement.VELOCITY_ATTRIBUTE)));
+	}
+}
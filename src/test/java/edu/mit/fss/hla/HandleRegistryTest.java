@@ -0,0 +1,262 @@
+/*
+ * Copyright 2015 Paul T. Grogan
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package edu.mit.fss.hla;
+
+import hla.rti1516e.AttributeHandle;
+import hla.rti1516e.AttributeHandleValueMap;
+import hla.rti1516e.InteractionClassHandle;
+import hla.rti1516e.ObjectClassHandle;
+import hla.rti1516e.ObjectInstanceHandle;
+import hla.rti1516e.OrderType;
+import hla.rti1516e.ParameterHandleValueMap;
+import hla.rti1516e.RTIambassador;
+import hla.rti1516e.encoding.DecoderException;
+import hla.rti1516e.exceptions.RTIexception;
+import junit.framework.TestCase;
+
+import org.apache.log4j.Logger;
+
+import edu.mit.fss.OrbitalElement;
+
+/**
+ * Tests for {@link HandleRegistry} and handle-keyed callback dispatch in
+ * {@link DefaultAmbassador}, including a benchmark of reflects per second
+ * with per-reflect handle lookups (as before the registry) and with
+ * registry dispatch.
+ *
+ * @author Paul T. Grogan, ptgrogan@mit.edu
+ * @version 0.2.1
+ * @since 0.2.1
+ */
+public class HandleRegistryTest extends TestCase {
+	private static Logger logger = Logger.getLogger(HandleRegistryTest.class);
+	private static final String[] LOOKUP_SERVICES = new String[]{
+		"getObjectClassHandle", "getAttributeHandle",
+		"getInteractionClassHandle", "getParameterHandle"
+	};
+	private static final int REFLECTS = 50000;
+
+	/**
+	 * An object class handler which counts reflects.
+	 */
+	private static class CountingHandler
+			implements HandleRegistry.ObjectClassHandler {
+		private int reflects;
+
+		@Override
+		public HLAobject discover(String instanceName) {
+			return null;
+		}
+
+		@Override
+		public void reflect(HLAobject object,
+				AttributeHandleValueMap theAttributes) {
+			reflects++;
+		}
+	}
+
+	/**
+	 * Gets the total number of handle lookups made with an RTI.
+	 *
+	 * @param rti the RTI
+	 * @return the number of lookups
+	 */
+	private static long countLookups(FakeRTI rti) {
+		long lookups = 0;
+		for(String service : LOOKUP_SERVICES) {
+			lookups += rti.getCalls(service);
+		}
+		return lookups;
+	}
+
+	/**
+	 * Discovers a remote orbital element and creates a map of its encoded
+	 * attribute values.
+	 *
+	 * @param rti the RTI
+	 * @param ambassador the ambassador
+	 * @param instance the object instance handle
+	 * @return the attribute values
+	 * @throws RTIexception the RTI exception
+	 */
+	private static AttributeHandleValueMap discoverElement(FakeRTI rti,
+			DefaultAmbassador ambassador, ObjectInstanceHandle instance) 
+					throws RTIexception {
+		ambassador.discoverObjectInstance(instance,
+				rti.handle(ObjectClassHandle.class,
+						FSSorbitalElement.CLASS_NAME), "Remote");
+		FSSorbitalElement element = new FSSorbitalElement(
+				rti.getRTIambassador(), rti.getEncoderFactory(), null);
+		AttributeHandleValueMap values =
+				FakeRTI.map(AttributeHandleValueMap.class);
+		for(AttributeHandle handle : element.getAttributeHandleSet()) {
+			values.put(handle, element.getAttributeValue(handle).toByteArray());
+		}
+		return values;
+	}
+
+	/**
+	 * Measures the rate of reflects of an orbital element, optionally
+	 * looking up the element and transmitter attribute handles on each
+	 * reflect as the ambassador did before the handle registry.
+	 *
+	 * @param perReflectLookups true to look up handles on each reflect
+	 * @return the reflects per second
+	 * @throws Exception the exception
+	 */
+	private static double measureReflects(boolean perReflectLookups)
+			throws Exception {
+		FakeRTI rti = new FakeRTI();
+		RTIambassador rtiAmbassador = rti.getRTIambassador();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		ObjectInstanceHandle instance =
+				rti.handle(ObjectInstanceHandle.class, "remote");
+		AttributeHandleValueMap values =
+				discoverElement(rti, ambassador, instance);
+		long start = System.nanoTime();
+		for(int i = 0; i < REFLECTS; i++) {
+			if(perReflectLookups) {
+				values.containsKey(rtiAmbassador.getAttributeHandle(
+						rtiAmbassador.getObjectClassHandle(
+								FSSelement.CLASS_NAME), FSSelement.NAME_ATTRIBUTE));
+				values.containsKey(rtiAmbassador.getAttributeHandle(
+						rtiAmbassador.getObjectClassHandle(
+								FSSelement.CLASS_NAME),
+								FSSelement.POSITION_ATTRIBUTE));
+				values.containsKey(rtiAmbassador.getAttributeHandle(
+						rtiAmbassador.getObjectClassHandle(
+								FSStransmitter.CLASS_NAME),
+								FSStransmitter.NAME_ATTRIBUTE));
+			}
+			ambassador.reflectAttributeValues(instance, values, null,
+					OrderType.RECEIVE, null, null);
+		}
+		return REFLECTS * 1e9 / (System.nanoTime() - start);
+	}
+
+	/**
+	 * Test reflect rates with per-reflect lookups and registry dispatch.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testBenchmarkReflects() throws Exception {
+		measureReflects(true);
+		measureReflects(false);
+		double lookupRate = measureReflects(true);
+		double dispatchRate = measureReflects(false);
+		logger.info("Per-reflect lookups: " + Math.round(lookupRate)
+				+ " reflects/s; registry dispatch: " + Math.round(dispatchRate)
+				+ " reflects/s (in-memory RTI handle lookups; RTI lookups "
+				+ "are typically more expensive).");
+		assertTrue(lookupRate > 0 && dispatchRate > 0);
+	}
+
+	/**
+	 * Test callbacks of a joined ambassador make no handle lookups.
+	 *
+	 * @throws Exception the exception
+	 */
+	public void testCallbacksWithoutLookups() throws Exception {
+		FakeRTI rti = new FakeRTI();
+		DefaultAmbassador ambassador = rti.join(DefaultAmbassador.PORTICO_RTI);
+		ObjectInstanceHandle instance =
+				rti.handle(ObjectInstanceHandle.class, "remote");
+		AttributeHandleValueMap values =
+				discoverElement(rti, ambassador, instance);
+		assertEquals(1, ambassador.getRemoteObjects(
+				OrbitalElement.class).size());
+
+		long lookups = countLookups(rti);
+		for(int i = 0; i < 100; i++) {
+			ambassador.reflectAttributeValues(instance, values, null,
+					OrderType.RECEIVE, null, null);
+		}
+		assertEquals(lookups, countLookups(rti));
+
+		ambassador.discoverObjectInstance(
+				rti.handle(ObjectInstanceHandle.class, "unknown"),
+				rti.handle(ObjectClassHandle.class, "HLAobjectRoot.Unknown"),
+				"Unknown");
+		ambassador.receiveInteraction(
+				rti.handle(InteractionClassHandle.class,
+						"HLAinteractionRoot.Unknown"),
+				FakeRTI.map(ParameterHandleValueMap.class),
+				null, OrderType.RECEIVE, null, null);
+		assertEquals(lookups, countLookups(rti));
+		assertEquals(1, ambassador.getRemoteObjects(
+				OrbitalElement.class).size());
+	}
+
+	/**
+	 * Test handles are resolved once and dispatched by handle.
+	 *
+	 * @throws RTIexception the RTI exception
+	 * @throws DecoderException the decoder exception
+	 */
+	public void testResolve() throws RTIexception, DecoderException {
+		FakeRTI rti = new FakeRTI();
+		HandleRegistry registry = new HandleRegistry();
+		CountingHandler elementHandler = new CountingHandler();
+		registry.registerObjectClass("HLAobjectRoot.Element",
+				new String[]{"Name", "Position"}, elementHandler);
+		registry.registerObjectClass("HLAobjectRoot.Transmitter",
+				new String[]{"Name"}, new CountingHandler());
+		registry.registerInteractionClass("HLAinteractionRoot.Signal",
+				new String[]{"Content"},
+				new HandleRegistry.InteractionClassHandler() {
+			@Override
+			public HLAinteraction receive(
+					ParameterHandleValueMap theParameters) {
+				return null;
+			}
+		});
+
+		ObjectClassHandle elementClass = rti.handle(
+				ObjectClassHandle.class, "HLAobjectRoot.Element");
+		assertNull(registry.getObjectClassHandler(elementClass));
+		assertNull(registry.getObjectClassHandle("HLAobjectRoot.Element"));
+
+		registry.resolve(rti.getRTIambassador());
+		assertEquals(2, rti.getCalls("getObjectClassHandle"));
+		assertEquals(3, rti.getCalls("getAttributeHandle"));
+		assertEquals(1, rti.getCalls("getInteractionClassHandle"));
+		assertEquals(1, rti.getCalls("getParameterHandle"));
+
+		long lookups = countLookups(rti);
+		assertSame(elementClass,
+				registry.getObjectClassHandle("HLAobjectRoot.Element"));
+		assertSame(rti.handle(AttributeHandle.class,
+				"HLAobjectRoot.Element.Position"),
+				registry.getAttributeHandle("HLAobjectRoot.Element", "Position"));
+		assertNotNull(registry.getParameterHandle(
+				"HLAinteractionRoot.Signal", "Content"));
+		assertNull(registry.getAttributeHandle(
+				"HLAobjectRoot.Element", "Unknown"));
+		assertNotNull(registry.getInteractionClassHandler(
+				registry.getInteractionClassHandle("HLAinteractionRoot.Signal")));
+
+		HandleRegistry.ObjectClassHandler handler =
+				registry.getObjectClassHandler(elementClass);
+		assertSame(elementHandler, handler);
+		for(int i = 0; i < 10; i++) {
+			handler.reflect(null, null);
+		}
+		assertEquals(10, elementHandler.reflects);
+		assertNull(registry.getObjectClassHandler(rti.handle(
+				ObjectClassHandle.class, "HLAobjectRoot.Unknown")));
+		assertEquals(lookups, countLookups(rti));
+	}
+}